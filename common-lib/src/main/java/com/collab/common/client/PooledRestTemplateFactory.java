@@ -0,0 +1,61 @@
+package com.collab.common.client;
+
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+
+/**
+ * Pooled RestTemplate Factory
+ * 
+ * Builds the RestTemplate the services use for service-to-service calls.
+ * Connections are pooled and kept alive between calls, and every call is
+ * bounded by connect, pool-wait and response timeouts.
+ * 
+ * @author Arhum Khan
+ * @version 1.0.0
+ */
+public final class PooledRestTemplateFactory {
+
+    private PooledRestTemplateFactory() {
+    }
+
+    /**
+     * Create a RestTemplate backed by a pooled keep-alive HTTP client
+     * 
+     * @param maxConnections Pool size, shared by all routes
+     * @param connectTimeout Bound on connecting and on waiting for a pooled connection
+     * @param readTimeout Bound on waiting for a response
+     * @return The RestTemplate
+     */
+    public static RestTemplate create(int maxConnections, Duration connectTimeout, Duration readTimeout) {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+            .setMaxConnTotal(maxConnections)
+            .setMaxConnPerRoute(maxConnections)
+            .setDefaultConnectionConfig(ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.ofMilliseconds(connectTimeout.toMillis()))
+                .setSocketTimeout(Timeout.ofMilliseconds(readTimeout.toMillis()))
+                .setTimeToLive(TimeValue.ofMinutes(5))
+                .build())
+            .build();
+
+        CloseableHttpClient httpClient = HttpClients.custom()
+            .setConnectionManager(connectionManager)
+            .setDefaultRequestConfig(RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.ofMilliseconds(connectTimeout.toMillis()))
+                .setResponseTimeout(Timeout.ofMilliseconds(readTimeout.toMillis()))
+                .build())
+            .evictIdleConnections(TimeValue.ofSeconds(30))
+            .build();
+
+        return new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
+    }
+}
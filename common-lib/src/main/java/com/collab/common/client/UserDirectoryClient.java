@@ -0,0 +1,171 @@
+package com.collab.common.client;
+
+import com.collab.common.dto.ApiResponse;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * User Directory Client
+ * 
+ * Looks up user profiles directly from user-service rather than hairpinning
+ * through the API gateway. Lookups go through a bounded cache:
+ * - found users are kept for the positive TTL
+ * - ids that user-service rejects (4xx) are kept as misses for the
+ *   (shorter) negative TTL
+ * - concurrent lookups of the same id share a single request
+ * - multi-user lookups fetch all uncached ids with the batch endpoint
+ * Transport failures are not cached, so the next lookup retries.
+ * 
+ * Cache metrics are published as cache.* meters tagged cache=user.directory.
+ * 
+ * Not a component: common-lib is scanned by every service, so each service
+ * that needs the directory declares it as a bean with its own user-service.*
+ * settings (see the services' RestTemplateConfig).
+ * 
+ * @author Arhum Khan
+ * @version 1.0.0
+ */
+@Slf4j
+public class UserDirectoryClient implements MeterBinder {
+
+    /** Matches the limit of user-service's batch endpoint */
+    static final int MAX_BATCH_SIZE = 500;
+
+    private static final ParameterizedTypeReference<ApiResponse<UserSummary>> PROFILE_RESPONSE =
+        new ParameterizedTypeReference<>() {};
+    private static final ParameterizedTypeReference<ApiResponse<List<UserSummary>>> PROFILES_RESPONSE =
+        new ParameterizedTypeReference<>() {};
+
+    private final RestTemplate restTemplate;
+    private final String userServiceUrl;
+    private final LoadingCache<String, Optional<UserSummary>> cache;
+
+    public UserDirectoryClient(
+            RestTemplate restTemplate,
+            String userServiceUrl,
+            long maximumSize,
+            Duration ttl,
+            Duration negativeTtl) {
+        this.restTemplate = restTemplate;
+        this.userServiceUrl = userServiceUrl;
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfter(new Expiry<String, Optional<UserSummary>>() {
+                @Override
+                public long expireAfterCreate(String id, Optional<UserSummary> user, long currentTime) {
+                    return (user.isPresent() ? ttl : negativeTtl).toNanos();
+                }
+
+                @Override
+                public long expireAfterUpdate(String id, Optional<UserSummary> user, long currentTime, long currentDuration) {
+                    return expireAfterCreate(id, user, currentTime);
+                }
+
+                @Override
+                public long expireAfterRead(String id, Optional<UserSummary> user, long currentTime, long currentDuration) {
+                    return currentDuration;
+                }
+            })
+            .recordStats()
+            .build(new CacheLoader<>() {
+                @Override
+                public Optional<UserSummary> load(String userId) {
+                    return fetch(userId);
+                }
+
+                @Override
+                public Map<String, Optional<UserSummary>> loadAll(Set<? extends String> userIds) {
+                    return fetchAll(userIds);
+                }
+            });
+    }
+
+    /**
+     * Find a user's profile by id
+     * 
+     * @param userId The user ID
+     * @return The profile, or empty if the user does not exist or user-service is unavailable
+     */
+    public Optional<UserSummary> findById(String userId) {
+        try {
+            return cache.get(userId);
+        } catch (RuntimeException e) {
+            log.warn("User lookup failed for {}: {}", userId, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Find several users' profiles, fetching every uncached id through the
+     * batch endpoint instead of one request per user
+     * 
+     * @param userIds The user IDs
+     * @return Profiles keyed by user ID; unknown ids are absent, and the map is
+     *         empty if user-service is unavailable
+     */
+    public Map<String, UserSummary> findByIds(Collection<String> userIds) {
+        Map<String, UserSummary> users = new LinkedHashMap<>();
+        try {
+            cache.getAll(userIds).forEach((id, user) -> user.ifPresent(u -> users.put(id, u)));
+        } catch (RuntimeException e) {
+            log.warn("Batch user lookup failed for {} ids: {}", userIds.size(), e.getMessage());
+        }
+        return users;
+    }
+
+    private Map<String, Optional<UserSummary>> fetchAll(Set<? extends String> userIds) {
+        Map<String, Optional<UserSummary>> result = new HashMap<>();
+        List<String> ids = new ArrayList<>(userIds);
+        for (int from = 0; from < ids.size(); from += MAX_BATCH_SIZE) {
+            List<String> chunk = ids.subList(from, Math.min(from + MAX_BATCH_SIZE, ids.size()));
+            ApiResponse<List<UserSummary>> response = restTemplate.exchange(
+                userServiceUrl + "/api/users/profiles:batch", HttpMethod.POST,
+                new HttpEntity<>(Map.of("ids", chunk)), PROFILES_RESPONSE)
+                .getBody();
+            if (response != null && response.getData() != null) {
+                response.getData().forEach(user -> result.put(user.getId(), Optional.of(user)));
+            }
+            // Ids user-service did not return are cached as misses
+            chunk.forEach(id -> result.putIfAbsent(id, Optional.empty()));
+        }
+        return result;
+    }
+
+    private Optional<UserSummary> fetch(String userId) {
+        try {
+            ApiResponse<UserSummary> response = restTemplate.exchange(
+                userServiceUrl + "/api/users/profile/{userId}", HttpMethod.GET, null, PROFILE_RESPONSE, userId)
+                .getBody();
+            return Optional.ofNullable(response).map(ApiResponse::getData);
+        } catch (HttpClientErrorException e) {
+            // 4xx: the id is unknown or malformed, which retrying will not change
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "user.directory");
+    }
+}
@@ -0,0 +1,92 @@
+package com.collab.common.util;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Content Codec
+ * 
+ * Shared compression for large text fields stored in MongoDB. Each stored
+ * record carries the codec that wrote it, so records written before
+ * compression (no codec) or below the size threshold stay plain strings
+ * and new codecs can be added without rewriting old data.
+ * 
+ * The only codec is the JDK's deflate in zlib format, whose checksum catches
+ * corrupt records: prose and markup compress several times over and it needs no
+ * native libraries.
+ * 
+ * @author Arhum Khan
+ * @version 1.0.0
+ */
+public final class ContentCodec {
+
+    public static final String DEFLATE = "DEFLATE";
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private ContentCodec() {
+    }
+
+    /**
+     * Compress text if it is long enough and compression actually saves space
+     * 
+     * @param text Text to store
+     * @param minLength Shortest text, in characters, worth compressing
+     * @return The {@link #DEFLATE} bytes, or null if the text should be stored as is
+     */
+    public static byte[] compress(String text, int minLength) {
+        if (text == null || text.length() < minLength) {
+            return null;
+        }
+        byte[] raw = text.getBytes(StandardCharsets.UTF_8);
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, raw.length / 3));
+            byte[] buffer = new byte[BUFFER_SIZE];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+                if (out.size() >= raw.length) {
+                    return null;
+                }
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Decompress text written by {@link #compress}
+     * 
+     * @param codec Codec tag stored with the bytes
+     * @throws IllegalArgumentException if the codec is unknown or the bytes are corrupt
+     */
+    public static String decompress(String codec, byte[] data) {
+        if (!DEFLATE.equals(codec)) {
+            throw new IllegalArgumentException("Unknown content codec: " + codec);
+        }
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(data.length * 4);
+            byte[] buffer = new byte[BUFFER_SIZE];
+            while (!inflater.finished()) {
+                int length = inflater.inflate(buffer);
+                if (length == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalArgumentException("Truncated " + codec + " content");
+                }
+                out.write(buffer, 0, length);
+            }
+            return out.toString(StandardCharsets.UTF_8);
+        } catch (DataFormatException e) {
+            throw new IllegalArgumentException("Corrupt " + codec + " content", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
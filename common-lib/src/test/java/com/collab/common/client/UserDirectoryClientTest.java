@@ -0,0 +1,131 @@
+package com.collab.common.client;
+
+import com.collab.common.dto.ApiResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserDirectoryClientTest {
+
+    private static final String USER_ID = "507f1f77bcf86cd799439011";
+
+    @Mock
+    private RestTemplate restTemplate;
+
+    private UserDirectoryClient userDirectoryClient;
+
+    @BeforeEach
+    void setUp() {
+        userDirectoryClient = new UserDirectoryClient(restTemplate, "http://user-service",
+            100, Duration.ofMinutes(5), Duration.ofSeconds(30));
+    }
+
+    @Test
+    void findById_CachesFoundUser() {
+        // Arrange
+        UserSummary user = new UserSummary(USER_ID, "owner", "owner@example.com");
+        stubProfile().thenReturn(ResponseEntity.ok(ApiResponse.success(user)));
+
+        // Act
+        userDirectoryClient.findById(USER_ID);
+        Optional<UserSummary> result = userDirectoryClient.findById(USER_ID);
+
+        // Assert
+        assertEquals("owner@example.com", result.orElseThrow().getEmail());
+        verifyProfileCalls(1);
+    }
+
+    @Test
+    void findById_UnknownUser_CachesMiss() {
+        // Arrange
+        stubProfile().thenThrow(HttpClientErrorException.create(HttpStatus.NOT_FOUND, "Not Found", null, null, null));
+
+        // Act
+        userDirectoryClient.findById(USER_ID);
+        Optional<UserSummary> result = userDirectoryClient.findById(USER_ID);
+
+        // Assert
+        assertTrue(result.isEmpty());
+        verifyProfileCalls(1);
+    }
+
+    @Test
+    void findById_TransportFailure_NotCached() {
+        // Arrange
+        stubProfile().thenThrow(new ResourceAccessException("timeout"));
+
+        // Act
+        Optional<UserSummary> first = userDirectoryClient.findById(USER_ID);
+        userDirectoryClient.findById(USER_ID);
+
+        // Assert
+        assertTrue(first.isEmpty());
+        verifyProfileCalls(2);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void findByIds_FetchesOnlyUncachedIdsInOneBatch() {
+        // Arrange
+        String cachedId = "507f1f77bcf86cd799439012";
+        String unknownId = "507f1f77bcf86cd799439013";
+        when(restTemplate.exchange(anyString(), eq(HttpMethod.GET), isNull(),
+                any(ParameterizedTypeReference.class), eq(cachedId)))
+            .thenReturn(ResponseEntity.ok(ApiResponse.success(new UserSummary(cachedId, "cached", "cached@example.com"))));
+        userDirectoryClient.findById(cachedId);
+
+        UserSummary user = new UserSummary(USER_ID, "owner", "owner@example.com");
+        when(restTemplate.exchange(eq("http://user-service/api/users/profiles:batch"), eq(HttpMethod.POST),
+                any(HttpEntity.class), any(ParameterizedTypeReference.class)))
+            .thenReturn(ResponseEntity.ok(ApiResponse.success(List.of(user))));
+
+        // Act
+        Map<String, UserSummary> result = userDirectoryClient.findByIds(List.of(USER_ID, cachedId, unknownId));
+
+        // Assert
+        assertEquals(2, result.size());
+        assertFalse(result.containsKey(unknownId));
+        ArgumentCaptor<HttpEntity<Map<String, List<String>>>> body = ArgumentCaptor.forClass(HttpEntity.class);
+        verify(restTemplate, times(1)).exchange(anyString(), eq(HttpMethod.POST), body.capture(),
+            any(ParameterizedTypeReference.class));
+        assertEquals(Set.of(USER_ID, unknownId), Set.copyOf(body.getValue().getBody().get("ids")));
+        assertTrue(userDirectoryClient.findById(unknownId).isEmpty());
+    }
+
+    @SuppressWarnings("unchecked")
+    private org.mockito.stubbing.OngoingStubbing<ResponseEntity<ApiResponse<UserSummary>>> stubProfile() {
+        return when(restTemplate.exchange(anyString(), eq(HttpMethod.GET), isNull(),
+            any(ParameterizedTypeReference.class), eq(USER_ID)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void verifyProfileCalls(int times) {
+        verify(restTemplate, times(times)).exchange(anyString(), eq(HttpMethod.GET), isNull(),
+            any(ParameterizedTypeReference.class), eq(USER_ID));
+    }
+}
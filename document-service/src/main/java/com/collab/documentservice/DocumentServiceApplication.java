@@ -7,6 +7,7 @@ import io.swagger.v3.oas.annotations.servers.Server;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.data.mongodb.config.EnableMongoAuditing;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Document Service Application
@@ -20,6 +21,7 @@ import org.springframework.data.mongodb.config.EnableMongoAuditing;
  */
 @SpringBootApplication(scanBasePackages = {"com.collab.documentservice", "com.collab.common"})
 @EnableMongoAuditing
+@EnableScheduling
 @OpenAPIDefinition(
     info = @Info(
         title = "Document Editing Service API",
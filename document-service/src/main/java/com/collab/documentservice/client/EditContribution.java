@@ -0,0 +1,7 @@
+package com.collab.documentservice.client;
+
+/**
+ * Live edit counts of one user on one document, as reported to version-service
+ */
+public record EditContribution(String documentId, String userId, int edits, int charsAdded, int charsDeleted) {
+}
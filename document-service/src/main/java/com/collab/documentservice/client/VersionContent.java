@@ -0,0 +1,20 @@
+package com.collab.documentservice.client;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The subset of a version-service version that document-service needs
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class VersionContent {
+
+    private String id;
+    private String documentId;
+    private String content;
+}
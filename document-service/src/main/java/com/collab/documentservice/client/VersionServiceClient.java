@@ -0,0 +1,115 @@
+package com.collab.documentservice.client;
+
+import com.collab.common.dto.ApiResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Version Service Client
+ * 
+ * Creates version snapshots, reads versions, records reverts and reports
+ * live edit counts directly in version-service over the pooled
+ * service-to-service HTTP client.
+ * 
+ * @author Arhum Khan
+ * @version 1.0.0
+ */
+@Component
+@Slf4j
+public class VersionServiceClient {
+
+    private static final ParameterizedTypeReference<ApiResponse<VersionContent>> VERSION_RESPONSE =
+        new ParameterizedTypeReference<>() {};
+
+    private static final String SERVICE_TOKEN_HEADER = "X-Service-Token";
+
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    private final RestTemplate restTemplate;
+    private final String versionServiceUrl;
+    private final String serviceToken;
+
+    public VersionServiceClient(
+            RestTemplate restTemplate,
+            @Value("${version-service.url:http://localhost:8083}") String versionServiceUrl,
+            @Value("${internal.service-token}") String serviceToken) {
+        this.restTemplate = restTemplate;
+        this.versionServiceUrl = versionServiceUrl;
+        this.serviceToken = serviceToken;
+    }
+
+    /**
+     * Create an unpinned version snapshot of a document
+     * 
+     * @param coalesced Whether the snapshot covers edits by several users besides {@code userId}
+     * @throws org.springframework.web.client.RestClientException if version-service rejects
+     *         the snapshot or cannot be reached
+     */
+    public void createSnapshot(String documentId, String content, String userId, String description,
+                               boolean coalesced) {
+        restTemplate.postForEntity(versionServiceUrl + "/api/versions/{documentId}",
+            Map.of("content", content, "userId", userId, "description", description,
+                "pinned", false, "coalesced", coalesced), Void.class, documentId);
+        log.debug("Snapshot created for document: {}", documentId);
+    }
+
+    /**
+     * Fetch a version with its content
+     * 
+     * @return The version, or empty if version-service does not know it
+     */
+    public Optional<VersionContent> getVersion(String versionId) {
+        try {
+            ApiResponse<VersionContent> response = restTemplate.exchange(
+                versionServiceUrl + "/api/versions/version/{versionId}", HttpMethod.GET, null, VERSION_RESPONSE, versionId)
+                .getBody();
+            return Optional.ofNullable(response).map(ApiResponse::getData);
+        } catch (HttpClientErrorException e) {
+            // 4xx: the id is unknown or malformed
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Record that a document was reverted to one of its versions
+     * 
+     * Version-service reads the content itself, so none is sent. Repeating a
+     * call with the same revert key records the revert once.
+     * 
+     * @param revertKey Idempotency key identifying this revert across retries
+     * @throws org.springframework.web.client.RestClientException if version-service rejects
+     *         the revert or cannot be reached
+     */
+    public void recordRevert(String documentId, String versionId, String userId, String revertKey) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(IDEMPOTENCY_KEY_HEADER, revertKey);
+        restTemplate.postForEntity(versionServiceUrl + "/api/versions/{documentId}/revert/{versionId}?userId={userId}",
+            new HttpEntity<>(headers), Void.class, documentId, versionId, userId);
+        log.debug("Revert of document {} to version {} recorded", documentId, versionId);
+    }
+
+    /**
+     * Report live edit counts towards contributions
+     * 
+     * @throws org.springframework.web.client.RestClientException if version-service rejects
+     *         the counts or cannot be reached
+     */
+    public void recordEdits(List<EditContribution> contributions) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(SERVICE_TOKEN_HEADER, serviceToken);
+        restTemplate.postForEntity(versionServiceUrl + "/internal/contributions/edits",
+            new HttpEntity<>(Map.of("contributions", contributions), headers), Void.class);
+        log.debug("Reported {} edit contributions", contributions.size());
+    }
+}
@@ -1,14 +1,21 @@
 package com.collab.documentservice.config;
 
+import com.collab.common.client.PooledRestTemplateFactory;
+import com.collab.common.client.UserDirectoryClient;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.client.RestTemplate;
 
+import java.time.Duration;
+
 /**
  * REST Template Configuration
  * 
  * Configures RestTemplate bean for making HTTP calls to other microservices.
  * Used for inter-service communication (e.g., fetching user details from User Service).
+ * The pooled client and the user directory come from common-lib; this class
+ * applies document-service's http-client.* and user-service.* settings to them.
  * 
  * @author Arhum Khan
  * @version 1.0.0
@@ -19,10 +26,28 @@ public class RestTemplateConfig {
     /**
      * Create RestTemplate bean for HTTP communication
      * 
-     * @return Configured RestTemplate instance
+     * @return RestTemplate backed by a pooled keep-alive HTTP client
+     */
+    @Bean
+    public RestTemplate restTemplate(
+            @Value("${http-client.max-connections:50}") int maxConnections,
+            @Value("${http-client.connect-timeout:500ms}") Duration connectTimeout,
+            @Value("${http-client.read-timeout:2s}") Duration readTimeout) {
+        return PooledRestTemplateFactory.create(maxConnections, connectTimeout, readTimeout);
+    }
+
+    /**
+     * Create the cached user-service directory client
+     * 
+     * @return Client for looking up user profiles
      */
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public UserDirectoryClient userDirectoryClient(
+            RestTemplate restTemplate,
+            @Value("${user-service.url:http://localhost:8081}") String userServiceUrl,
+            @Value("${user-service.cache.maximum-size:10000}") long maximumSize,
+            @Value("${user-service.cache.ttl:5m}") Duration ttl,
+            @Value("${user-service.cache.negative-ttl:30s}") Duration negativeTtl) {
+        return new UserDirectoryClient(restTemplate, userServiceUrl, maximumSize, ttl, negativeTtl);
     }
 }
@@ -1,6 +1,9 @@
 package com.collab.documentservice.config;
 
+import com.collab.documentservice.websocket.DocumentChannelInterceptor;
+import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
@@ -12,21 +15,29 @@ import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerCo
  * Configures WebSocket support for real-time document collaboration.
  * Sets up STOMP messaging protocol with SockJS fallback support.
  * Defines message broker and application destination prefixes.
+ * Inbound frames pass through {@link DocumentChannelInterceptor} for
+ * authentication and document permission checks.
  * 
  * @author Arhum Khan
  * @version 1.0.0
  */
 @Configuration
 @EnableWebSocketMessageBroker
+@RequiredArgsConstructor
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    private final DocumentChannelInterceptor documentChannelInterceptor;
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        // Enable simple message broker for /topic destination
-        config.enableSimpleBroker("/topic");
+        // Enable simple message broker for /topic and per-user /queue destinations
+        config.enableSimpleBroker("/topic", "/queue");
         
         // Set application destination prefix
         config.setApplicationDestinationPrefixes("/app");
+
+        // Per-user destinations resolve against the session principal (email)
+        config.setUserDestinationPrefix("/user");
     }
 
     @Override
@@ -36,4 +47,9 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
                 .setAllowedOriginPatterns("*")  // Allow all origins for development
                 .withSockJS();  // Enable SockJS fallback
     }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.interceptors(documentChannelInterceptor);
+    }
 }
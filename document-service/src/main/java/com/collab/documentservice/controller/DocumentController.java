@@ -81,6 +81,22 @@ public class DocumentController {
         return ResponseEntity.ok(ApiResponse.success("Document updated successfully", document));
     }
 
+    @PostMapping("/{documentId}/revert/{versionId}")
+    @Operation(summary = "Revert document", description = "Restore a version's content, record the revert in the version history and notify collaborators in one call")
+    @ApiResponses(value = {
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Document reverted successfully"),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "Document or version not found"),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "401", description = "Unauthorized")
+    })
+    public ResponseEntity<ApiResponse<DocumentDTO>> revertToVersion(
+            @PathVariable String documentId,
+            @PathVariable String versionId,
+            @Parameter(description = "User ID performing the revert") @RequestParam String userId) {
+        log.info("POST /api/documents/{}/revert/{} - userId: {}", documentId, versionId, userId);
+        DocumentDTO document = documentService.revertToVersion(documentId, versionId, userId);
+        return ResponseEntity.ok(ApiResponse.success("Document reverted successfully", document));
+    }
+
     @PostMapping("/{documentId}/share")
     @Operation(summary = "Share document", description = "Share document with another user")
     @ApiResponses(value = {
@@ -124,6 +140,24 @@ public class DocumentController {
         return ResponseEntity.ok(ApiResponse.success(documents));
     }
 
+    @GetMapping("/summaries")
+    @Operation(
+        summary = "List document summaries",
+        description = "Get one page of the documents a user owns or has access to, newest first, without content. Pass the returned nextCursor to fetch the following page."
+    )
+    @ApiResponses(value = {
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Summaries retrieved successfully"),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Invalid cursor")
+    })
+    public ResponseEntity<ApiResponse<DocumentSummaryPage>> getDocumentSummaries(
+            @Parameter(description = "User ID") @RequestParam String userId,
+            @Parameter(description = "Cursor from the previous page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (max 100)") @RequestParam(defaultValue = "20") int limit) {
+        log.info("GET /api/documents/summaries - userId: {}, limit: {}", userId, limit);
+        DocumentSummaryPage page = documentService.getDocumentSummaries(userId, cursor, limit);
+        return ResponseEntity.ok(ApiResponse.success(page));
+    }
+
     // ============ INVITATION ENDPOINTS ============
 
     @PostMapping("/{documentId}/invite")
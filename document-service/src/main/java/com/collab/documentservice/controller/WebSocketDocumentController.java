@@ -1,14 +1,22 @@
 package com.collab.documentservice.controller;
 
 import com.collab.documentservice.dto.DocumentMessage;
+import com.collab.documentservice.model.DocumentAcl;
+import com.collab.documentservice.service.AutoSnapshotService;
+import com.collab.documentservice.service.DocumentAclCache;
+import com.collab.documentservice.service.LiveContributionTracker;
+import com.collab.documentservice.websocket.StompPrincipal;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
 import org.springframework.messaging.handler.annotation.DestinationVariable;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Controller;
 
+import java.security.Principal;
+
 /**
  * WebSocket Document Controller
  * 
@@ -16,6 +24,10 @@ import org.springframework.stereotype.Controller;
  * Manages user join/leave events, content changes, and presence tracking.
  * Broadcasts updates to all connected clients subscribed to a document.
  * 
+ * Permissions are enforced by the inbound channel interceptor before these
+ * handlers run; the sender's identity and permission are taken from the
+ * authenticated session rather than from the message payload.
+ * 
  * @author Arhum Khan
  * @version 1.0.0
  */
@@ -25,6 +37,9 @@ import org.springframework.stereotype.Controller;
 public class WebSocketDocumentController {
 
     private final SimpMessagingTemplate messagingTemplate;
+    private final DocumentAclCache documentAclCache;
+    private final AutoSnapshotService autoSnapshotService;
+    private final LiveContributionTracker liveContributionTracker;
 
     /**
      * Handle document content changes from clients
@@ -34,8 +49,14 @@ public class WebSocketDocumentController {
     @MessageMapping("/document/{documentId}/edit")
     public void handleDocumentEdit(
             @DestinationVariable String documentId,
-            @Payload DocumentMessage message) {
-        
+            @Payload DocumentMessage message,
+            Principal principal) {
+
+        StompPrincipal user = (StompPrincipal) principal;
+        message.setUserId(user.getUserId().toHexString());
+        message.setUsername(user.getUsername());
+        message.setPermission("edit");
+
         log.info("WebSocket message received - document: {}, type: {}, user: {}", 
             documentId, message.getType(), message.getUserId());
 
@@ -44,6 +65,11 @@ public class WebSocketDocumentController {
         messagingTemplate.convertAndSend(destination, message);
         
         log.debug("Message broadcasted to: {}", destination);
+
+        if ("content-change".equals(message.getType()) && message.getContent() != null) {
+            autoSnapshotService.recordEdit(new ObjectId(documentId), user.getUserId(), message.getContent().length());
+            liveContributionTracker.recordEdit(new ObjectId(documentId), user.getUserId(), message.getContent());
+        }
     }
 
     /**
@@ -54,17 +80,19 @@ public class WebSocketDocumentController {
     @MessageMapping("/document/{documentId}/join")
     public void handleUserJoin(
             @DestinationVariable String documentId,
-            @Payload DocumentMessage message) {
-        
-        String permission = message.getPermission() != null ? message.getPermission() : "edit";
+            Principal principal) {
+
+        StompPrincipal user = (StompPrincipal) principal;
+        DocumentAcl acl = documentAclCache.get(new ObjectId(documentId));
+        String permission = acl != null && acl.canEdit(user.getUserId()) ? "edit" : "view";
         log.info("User joined - document: {}, user: {} ({}), permission: {}", 
-            documentId, message.getUserId(), message.getUsername(), permission);
+            documentId, user.getUserId().toHexString(), user.getUsername(), permission);
 
         String destination = "/topic/document/" + documentId;
         DocumentMessage joinMessage = DocumentMessage.userJoined(
             documentId,
-            message.getUserId(),
-            message.getUsername(),
+            user.getUserId().toHexString(),
+            user.getUsername(),
             permission
         );
         messagingTemplate.convertAndSend(destination, joinMessage);
@@ -78,16 +106,17 @@ public class WebSocketDocumentController {
     @MessageMapping("/document/{documentId}/leave")
     public void handleUserLeave(
             @DestinationVariable String documentId,
-            @Payload DocumentMessage message) {
-        
+            Principal principal) {
+
+        StompPrincipal user = (StompPrincipal) principal;
         log.info("User left - document: {}, user: {} ({})", 
-            documentId, message.getUserId(), message.getUsername());
+            documentId, user.getUserId().toHexString(), user.getUsername());
 
         String destination = "/topic/document/" + documentId;
         DocumentMessage leaveMessage = DocumentMessage.userLeft(
             documentId,
-            message.getUserId(),
-            message.getUsername()
+            user.getUserId().toHexString(),
+            user.getUsername()
         );
         messagingTemplate.convertAndSend(destination, leaveMessage);
     }
@@ -40,6 +40,9 @@ public class DocumentDTO {
     @Schema(description = "Last modified by user ID")
     private String lastModifiedBy;
 
+    @Schema(description = "Number of content changes so far")
+    private long revision;
+
     public static DocumentDTO fromDocument(Document document) {
         List<CollaboratorDTO> collabDTOs = document.getCollaborators().stream()
             .map(c -> new CollaboratorDTO(
@@ -57,7 +60,8 @@ public class DocumentDTO {
             collabDTOs,
             document.getCreatedAt(),
             document.getUpdatedAt(),
-            document.getLastModifiedBy() != null ? document.getLastModifiedBy().toString() : null
+            document.getLastModifiedBy() != null ? document.getLastModifiedBy().toString() : null,
+            document.getRevision()
         );
     }
 
@@ -0,0 +1,37 @@
+package com.collab.documentservice.dto;
+
+import com.collab.documentservice.model.UserDocument;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Lightweight document listing entry (no content)")
+public class DocumentSummaryDTO {
+
+    @Schema(description = "Document ID")
+    private String id;
+
+    @Schema(description = "Document title")
+    private String title;
+
+    @Schema(description = "Requesting user's role on the document", allowableValues = {"owner", "edit", "view"})
+    private String permission;
+
+    @Schema(description = "Last update timestamp")
+    private LocalDateTime updatedAt;
+
+    public static DocumentSummaryDTO fromUserDocument(UserDocument entry) {
+        return new DocumentSummaryDTO(
+            entry.getDocumentId().toString(),
+            entry.getTitle(),
+            entry.getRole(),
+            entry.getUpdatedAt()
+        );
+    }
+}
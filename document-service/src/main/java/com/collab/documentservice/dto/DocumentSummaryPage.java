@@ -0,0 +1,21 @@
+package com.collab.documentservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "One page of document summaries, newest first")
+public class DocumentSummaryPage {
+
+    @Schema(description = "Documents on this page")
+    private List<DocumentSummaryDTO> items;
+
+    @Schema(description = "Opaque cursor for the next page, null when there are no more documents")
+    private String nextCursor;
+}
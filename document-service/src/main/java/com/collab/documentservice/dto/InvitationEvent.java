@@ -0,0 +1,36 @@
+package com.collab.documentservice.dto;
+
+import com.collab.documentservice.model.DocumentInvitation;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * WebSocket message pushed to an invitation recipient's queue
+ * (/user/queue/invitations) whenever one of their invitations changes
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InvitationEvent {
+
+    private String type; // "invitation-received", "invitation-accepted", "invitation-declined", "invitation-cancelled", "invitation-expired"
+    private String invitationId;
+    private String documentId;
+    private String documentTitle;
+    private long pendingCount;
+    private LocalDateTime timestamp;
+
+    public static InvitationEvent of(String type, DocumentInvitation invitation, long pendingCount) {
+        return new InvitationEvent(
+            type,
+            invitation.getId() != null ? invitation.getId().toHexString() : null,
+            invitation.getDocumentId() != null ? invitation.getDocumentId().toHexString() : null,
+            invitation.getDocumentTitle(),
+            pendingCount,
+            LocalDateTime.now()
+        );
+    }
+}
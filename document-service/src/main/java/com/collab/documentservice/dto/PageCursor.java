@@ -0,0 +1,57 @@
+package com.collab.documentservice.dto;
+
+import com.collab.common.exception.BadRequestException;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.bson.types.ObjectId;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Keyset pagination cursor
+ * 
+ * Position of the last item returned on a page, ordered by
+ * (updatedAt desc, _id desc). Serialized as an opaque URL-safe token so
+ * clients never build cursors themselves.
+ * 
+ * @author Arhum Khan
+ * @version 1.0.0
+ */
+@Data
+@AllArgsConstructor
+public class PageCursor {
+
+    private LocalDateTime updatedAt;
+    private ObjectId id;
+
+    public String encode() {
+        String raw = updatedAt + "|" + id.toHexString();
+        return Base64.getUrlEncoder().withoutPadding()
+            .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a cursor token
+     * 
+     * @param token The token from a previous page, may be null or blank
+     * @return The decoded cursor, or null when starting from the first page
+     * @throws BadRequestException if the token is malformed
+     */
+    public static PageCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            return new PageCursor(
+                LocalDateTime.parse(raw.substring(0, separator)),
+                new ObjectId(raw.substring(separator + 1))
+            );
+        } catch (RuntimeException e) {
+            throw new BadRequestException("Invalid page cursor");
+        }
+    }
+}
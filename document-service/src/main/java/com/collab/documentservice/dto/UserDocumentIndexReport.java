@@ -0,0 +1,29 @@
+package com.collab.documentservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Result of verifying or rebuilding the user_documents view
+ * 
+ * @author Arhum Khan
+ * @version 1.0.0
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserDocumentIndexReport {
+
+    private long documentsScanned;
+    private long missingEntries;   // user can access the document but has no entry
+    private long staleEntries;     // entry exists but role, title or updatedAt differ
+    private long extraEntries;     // entry for a user who is no longer a member
+    private long orphanEntries;    // entry for a document that no longer exists
+    private long entriesWritten;   // rebuild only
+    private long entriesRemoved;   // rebuild only
+
+    public boolean isConsistent() {
+        return missingEntries == 0 && staleEntries == 0 && extraEntries == 0 && orphanEntries == 0;
+    }
+}
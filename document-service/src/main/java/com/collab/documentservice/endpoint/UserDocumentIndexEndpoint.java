@@ -0,0 +1,37 @@
+package com.collab.documentservice.endpoint;
+
+import com.collab.documentservice.dto.UserDocumentIndexReport;
+import com.collab.documentservice.service.UserDocumentIndexService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * User Documents Actuator Endpoint
+ * 
+ * Operational tooling for the user_documents materialized view.
+ * GET /actuator/userdocuments verifies the view against the documents
+ * collection; POST /actuator/userdocuments rebuilds it.
+ * 
+ * @author Arhum Khan
+ * @version 1.0.0
+ */
+@Component
+@Endpoint(id = "userdocuments")
+@RequiredArgsConstructor
+public class UserDocumentIndexEndpoint {
+
+    private final UserDocumentIndexService userDocumentIndexService;
+
+    @ReadOperation
+    public UserDocumentIndexReport verify() {
+        return userDocumentIndexService.verify();
+    }
+
+    @WriteOperation
+    public UserDocumentIndexReport rebuild() {
+        return userDocumentIndexService.rebuild();
+    }
+}
@@ -1,5 +1,6 @@
 package com.collab.documentservice.model;
 
+import com.collab.common.util.ContentCodec;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
 import lombok.AllArgsConstructor;
@@ -9,6 +10,7 @@ import org.bson.types.ObjectId;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.annotation.Transient;
 import org.springframework.data.mongodb.core.index.Indexed;
 
 import java.time.LocalDateTime;
@@ -22,6 +24,13 @@ import java.util.List;
  * Stores document content, ownership, and collaborator permissions.
  * Supports role-based access control (owner, edit, view permissions).
  * 
+ * Large content is stored compressed (see DocumentCompressionCallback) and
+ * only decompressed the first time {@link #getContent()} is called, so
+ * loads that never touch the content never pay for it.
+ * 
+ * {@code revision} counts content changes, so a writer can tell whether
+ * the content it changed has been changed again since.
+ * 
  * @author Arhum Khan
  * @version 1.0.0
  */
@@ -37,7 +46,14 @@ public class Document {
 
     private String title;
 
-    private String content;
+    private String content; // null when stored compressed
+
+    private String contentCodec; // codec of compressedContent; null for plain content
+
+    private byte[] compressedContent;
+
+    @Transient
+    private String decodedContent;
 
     @Indexed
     @JsonSerialize(using = ToStringSerializer.class)
@@ -54,6 +70,8 @@ public class Document {
     @JsonSerialize(using = ToStringSerializer.class)
     private ObjectId lastModifiedBy;
 
+    private long revision; // incremented on every content change
+
     public Document(String title, String content, ObjectId ownerId) {
         this.title = title;
         this.content = content != null ? content : "";
@@ -64,10 +82,38 @@ public class Document {
         this.lastModifiedBy = ownerId;
     }
 
+    public String getContent() {
+        if (content != null || compressedContent == null) {
+            return content;
+        }
+        if (decodedContent == null) {
+            decodedContent = ContentCodec.decompress(contentCodec, compressedContent);
+        }
+        return decodedContent;
+    }
+
+    public void setContent(String content) {
+        this.content = content;
+        this.contentCodec = null;
+        this.compressedContent = null;
+        this.decodedContent = null;
+    }
+
+    /**
+     * Store the current content compressed, keeping it readable without decompressing
+     */
+    public void storeCompressed(String codec, byte[] data) {
+        this.decodedContent = getContent();
+        this.content = null;
+        this.contentCodec = codec;
+        this.compressedContent = data;
+    }
+
     @Data
     @NoArgsConstructor
     @AllArgsConstructor
     public static class Collaborator {
+        @Indexed // backs the collaborator branch of findAllAccessibleByUserId
         @JsonSerialize(using = ToStringSerializer.class)
         private ObjectId userId;
         private String email; // Added for invitation system
@@ -0,0 +1,108 @@
+package com.collab.documentservice.model;
+
+import org.bson.types.ObjectId;
+
+/**
+ * Document Access Control List
+ * 
+ * Immutable, compact permission table for one document, built from its
+ * owner and collaborators. Collaborators are stored in an open-addressed
+ * (linear probing) table sized to a power of two at most half full, so a
+ * lookup is a hash, a mask and usually one key comparison with no
+ * allocation or iteration over the collaborators list.
+ * 
+ * @author Arhum Khan
+ * @version 1.0.0
+ */
+public final class DocumentAcl {
+
+    public enum Permission {
+        NONE, VIEW, EDIT, OWNER;
+
+        public boolean canView() {
+            return this != NONE;
+        }
+
+        public boolean canEdit() {
+            return this == EDIT || this == OWNER;
+        }
+    }
+
+    private final ObjectId ownerId;
+    private final ObjectId[] keys;
+    private final Permission[] permissions;
+    private final int mask;
+
+    private DocumentAcl(ObjectId ownerId, int collaboratorCount) {
+        int capacity = Integer.highestOneBit(Math.max(2, collaboratorCount * 2 - 1)) << 1;
+        this.ownerId = ownerId;
+        this.keys = new ObjectId[capacity];
+        this.permissions = new Permission[capacity];
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Build the ACL for a document. Only ownerId and collaborators are read,
+     * so a projected document is sufficient.
+     */
+    public static DocumentAcl of(Document document) {
+        DocumentAcl acl = new DocumentAcl(document.getOwnerId(), document.getCollaborators().size());
+        for (Document.Collaborator collaborator : document.getCollaborators()) {
+            if (collaborator.getUserId() != null) {
+                acl.put(collaborator.getUserId(), "edit".equals(collaborator.getPermission())
+                    ? Permission.EDIT : Permission.VIEW);
+            }
+        }
+        return acl;
+    }
+
+    public ObjectId getOwnerId() {
+        return ownerId;
+    }
+
+    /**
+     * Resolve a user's permission on the document
+     */
+    public Permission permissionOf(ObjectId userId) {
+        if (userId == null) {
+            return Permission.NONE;
+        }
+        if (userId.equals(ownerId)) {
+            return Permission.OWNER;
+        }
+        for (int i = indexFor(userId); ; i = (i + 1) & mask) {
+            ObjectId key = keys[i];
+            if (key == null) {
+                return Permission.NONE;
+            }
+            if (key.equals(userId)) {
+                return permissions[i];
+            }
+        }
+    }
+
+    public boolean canView(ObjectId userId) {
+        return permissionOf(userId).canView();
+    }
+
+    public boolean canEdit(ObjectId userId) {
+        return permissionOf(userId).canEdit();
+    }
+
+    private void put(ObjectId userId, Permission permission) {
+        int i = indexFor(userId);
+        while (keys[i] != null && !keys[i].equals(userId)) {
+            i = (i + 1) & mask;
+        }
+        // First entry wins, matching the anyMatch semantics of the collaborators list
+        if (keys[i] == null) {
+            keys[i] = userId;
+            permissions[i] = permission;
+        }
+    }
+
+    private int indexFor(ObjectId userId) {
+        int h = userId.hashCode();
+        return (h ^ (h >>> 16)) & mask;
+    }
+}
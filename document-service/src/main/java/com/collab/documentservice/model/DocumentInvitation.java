@@ -7,6 +7,8 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.bson.types.ObjectId;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
@@ -18,6 +20,11 @@ import java.time.LocalDateTime;
  * Supports handshake approval workflow where invited users
  * must accept or decline before gaining access.
  * 
+ * Pending-invitation lists and counts for a recipient are served by the
+ * (invitedUser.email, status) index. The (status, expiresAt) and
+ * (status, respondedAt) indexes serve the background expiry sweep and the
+ * retention purge of resolved invitations.
+ * 
  * @author Arhum Khan
  * @version 1.0.0
  */
@@ -25,6 +32,11 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "document_invitations")
+@CompoundIndexes({
+    @CompoundIndex(name = "invited_email_status_idx", def = "{'invitedUser.email': 1, 'status': 1}"),
+    @CompoundIndex(name = "status_expires_idx", def = "{'status': 1, 'expiresAt': 1}"),
+    @CompoundIndex(name = "status_responded_idx", def = "{'status': 1, 'respondedAt': 1}")
+})
 public class DocumentInvitation {
 
     @Id
@@ -0,0 +1,32 @@
+package com.collab.documentservice.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Invitation Counter Entity
+ * 
+ * Number of pending invitations addressed to an email, keyed by that email
+ * so the notification badge is a single _id point read. Adjusted on every
+ * PENDING transition by an atomic pipeline update that sets it to
+ * {@code $max(0, $add(pending, delta))}, so a decrement never takes it below
+ * zero; seeded from an indexed count the first time an email is seen and
+ * reconciled with it periodically.
+ * 
+ * @author Arhum Khan
+ * @version 1.0.0
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "invitation_counters")
+public class InvitationCounter {
+
+    @Id
+    private String email;
+
+    private long pending;
+}
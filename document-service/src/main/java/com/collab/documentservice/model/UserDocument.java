@@ -0,0 +1,68 @@
+package com.collab.documentservice.model;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.bson.types.ObjectId;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * User Document Entity
+ * 
+ * Materialized per-user view of the documents a user can access.
+ * One entry per (user, document) pair, denormalizing the title and
+ * last update time so the dashboard is a single index range scan on
+ * userId instead of an $or across owner and collaborator fields.
+ * 
+ * Maintained by {@link com.collab.documentservice.service.UserDocumentIndexService};
+ * the documents collection remains the source of truth.
+ * 
+ * @author Arhum Khan
+ * @version 1.0.0
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "user_documents")
+@CompoundIndexes({
+    @CompoundIndex(name = "user_document_idx", def = "{'userId': 1, 'documentId': 1}", unique = true),
+    @CompoundIndex(name = "user_updated_idx", def = "{'userId': 1, 'updatedAt': -1, 'documentId': -1}")
+})
+public class UserDocument {
+
+    @Id
+    @JsonSerialize(using = ToStringSerializer.class)
+    private ObjectId id;
+
+    @JsonSerialize(using = ToStringSerializer.class)
+    private ObjectId userId;
+
+    @Indexed
+    @JsonSerialize(using = ToStringSerializer.class)
+    private ObjectId documentId;
+
+    private String role; // "owner", "edit" or "view"
+
+    private String title;
+
+    private LocalDateTime updatedAt;
+
+    private LocalDateTime syncedAt; // last time this entry was written, used by rebuild to drop stale rows
+
+    public UserDocument(ObjectId userId, ObjectId documentId, String role, String title, LocalDateTime updatedAt) {
+        this.userId = userId;
+        this.documentId = documentId;
+        this.role = role;
+        this.title = title;
+        this.updatedAt = updatedAt;
+        this.syncedAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,41 @@
+package com.collab.documentservice.repository;
+
+import com.collab.common.util.ContentCodec;
+import com.collab.documentservice.model.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.mapping.event.BeforeConvertCallback;
+import org.springframework.stereotype.Component;
+
+/**
+ * Document Compression Callback
+ * 
+ * Compresses a document's content just before it is written, when the
+ * content is at least {@code document.storage.compression.min-length}
+ * characters and compression saves space. Content that was loaded
+ * compressed and not changed is written back as the same bytes, without
+ * being decompressed or recompressed.
+ * 
+ * @author Arhum Khan
+ * @version 1.0.0
+ */
+@Component
+public class DocumentCompressionCallback implements BeforeConvertCallback<Document> {
+
+    private final int minLength;
+
+    public DocumentCompressionCallback(@Value("${document.storage.compression.min-length:1024}") int minLength) {
+        this.minLength = minLength;
+    }
+
+    @Override
+    public Document onBeforeConvert(Document document, String collection) {
+        if (document.getCompressedContent() != null) {
+            return document;
+        }
+        byte[] compressed = ContentCodec.compress(document.getContent(), minLength);
+        if (compressed != null) {
+            document.storeCompressed(ContentCodec.DEFLATE, compressed);
+        }
+        return document;
+    }
+}
@@ -3,9 +3,13 @@ package com.collab.documentservice.repository;
 import com.collab.documentservice.model.DocumentInvitation;
 import org.bson.types.ObjectId;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.Update;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -36,6 +40,21 @@ public interface DocumentInvitationRepository extends MongoRepository<DocumentIn
     @Query("{'documentId': ?0, 'invitedUser.email': ?1, 'status': 'PENDING'}")
     Optional<DocumentInvitation> findPendingInvitation(ObjectId documentId, String email);
 
+    /**
+     * Find pending invitations addressed to an email, without the recipient or response fields
+     */
+    @Query(
+        value = "{'invitedUser.email': ?0, 'status': 'PENDING'}",
+        fields = "{'documentId': 1, 'documentTitle': 1, 'invitedBy': 1, 'permission': 1, 'status': 1, 'message': 1, 'invitedAt': 1, 'expiresAt': 1}"
+    )
+    List<DocumentInvitation> findPendingByInvitedEmail(String email);
+
+    /**
+     * Count pending invitations addressed to an email (covered by invited_email_status_idx)
+     */
+    @Query(value = "{'invitedUser.email': ?0, 'status': 'PENDING'}", count = true)
+    long countPendingByInvitedEmail(String email);
+
     /**
      * Find all invitations for a document
      */
@@ -46,4 +65,52 @@ public interface DocumentInvitationRepository extends MongoRepository<DocumentIn
      */
     @Query(value = "{'invitedUser.userId': ?0, 'status': 'PENDING'}", count = true)
     long countPendingInvitationsByUserId(String userId);
+
+    /**
+     * Find pending invitations whose expiry has passed, oldest first (served by status_expires_idx)
+     */
+    @Query(
+        value = "{'status': 'PENDING', 'expiresAt': {'$lt': ?0}}",
+        fields = "{'documentId': 1, 'documentTitle': 1, 'invitedUser.email': 1, 'expiresAt': 1}",
+        sort = "{'expiresAt': 1}"
+    )
+    List<DocumentInvitation> findOverdue(LocalDateTime now, Pageable pageable);
+
+    /**
+     * Resolve one invitation, only if it is still pending
+     * 
+     * @return 1 if this call moved the invitation out of PENDING, 0 if it was already resolved
+     */
+    @Query("{'_id': ?0, 'status': 'PENDING'}")
+    @Update("{'$set': {'status': ?1, 'respondedAt': ?2}}")
+    long resolvePending(ObjectId id, String status, LocalDateTime respondedAt);
+
+    /**
+     * Mark the given invitations EXPIRED in one updateMany, skipping any resolved in the meantime
+     * 
+     * @return Number of invitations actually expired
+     */
+    @Query("{'_id': {'$in': ?0}, 'status': 'PENDING'}")
+    @Update("{'$set': {'status': 'EXPIRED', 'respondedAt': ?1}}")
+    long expirePending(Collection<ObjectId> ids, LocalDateTime respondedAt);
+
+    /**
+     * Find which of the given invitations a sweep expired, by the respondedAt it wrote, returning ids only
+     */
+    @Query(value = "{'_id': {'$in': ?0}, 'status': 'EXPIRED', 'respondedAt': ?1}", fields = "{'_id': 1}")
+    List<DocumentInvitation> findExpiredAt(Collection<ObjectId> ids, LocalDateTime respondedAt);
+
+    /**
+     * Find resolved invitations older than the cutoff, returning ids only (served by status_responded_idx)
+     */
+    @Query(
+        value = "{'status': {'$in': ?0}, '$or': [{'respondedAt': {'$lt': ?1}}, {'respondedAt': null, 'invitedAt': {'$lt': ?1}}]}",
+        fields = "{'_id': 1}"
+    )
+    List<DocumentInvitation> findResolvedBefore(Collection<String> statuses, LocalDateTime cutoff, Pageable pageable);
+
+    /**
+     * Delete invitations by id in one deleteMany
+     */
+    long deleteByIdIn(Collection<ObjectId> ids);
 }
@@ -6,10 +6,13 @@ import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface DocumentRepository extends MongoRepository<Document, ObjectId> {
+public interface DocumentRepository extends MongoRepository<Document, ObjectId>, DocumentRepositoryCustom {
     
     List<Document> findByOwnerId(ObjectId ownerId);
     
@@ -18,4 +21,13 @@ public interface DocumentRepository extends MongoRepository<Document, ObjectId>
     
     @Query("{'$or': [{'ownerId': ?0}, {'collaborators.userId': ?0}]}")
     List<Document> findAllAccessibleByUserId(ObjectId userId);
+
+    @Query(value = "{'_id': ?0}", fields = "{'ownerId': 1, 'collaborators.userId': 1, 'collaborators.permission': 1}")
+    Optional<Document> findAclById(ObjectId id);
+
+    @Query(value = "{'_id': {'$in': ?0}}", fields = "{'_id': 1}")
+    List<Document> findIdsByIdIn(Collection<ObjectId> ids);
+
+    @Query(value = "{}", fields = "{'content': 0, 'compressedContent': 0}")
+    Stream<Document> streamAllWithoutContent();
 }
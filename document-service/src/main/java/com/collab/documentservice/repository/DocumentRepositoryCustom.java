@@ -0,0 +1,23 @@
+package com.collab.documentservice.repository;
+
+import com.collab.documentservice.model.Document;
+
+import java.util.Optional;
+
+/**
+ * Conditional writes for documents
+ * 
+ * @author Arhum Khan
+ * @version 1.0.0
+ */
+public interface DocumentRepositoryCustom {
+
+    /**
+     * Replace a document only if its stored revision is still the one it was read at
+     * 
+     * @param document The document to store, with its new revision set
+     * @param expectedRevision The revision the document was read at
+     * @return The stored document, or empty if the document changed or was deleted since
+     */
+    Optional<Document> replaceIfRevision(Document document, long expectedRevision);
+}
@@ -0,0 +1,34 @@
+package com.collab.documentservice.repository;
+
+import com.collab.documentservice.model.Document;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.Optional;
+
+/**
+ * Implementation of {@link DocumentRepositoryCustom}
+ * 
+ * The replace is a single findAndReplace matched on _id and revision, so a
+ * writer that lost a race with another content change stores nothing. Like
+ * save, it runs the before-convert callbacks, so content is still
+ * compressed and updatedAt still audited.
+ * 
+ * @author Arhum Khan
+ * @version 1.0.0
+ */
+@RequiredArgsConstructor
+public class DocumentRepositoryImpl implements DocumentRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public Optional<Document> replaceIfRevision(Document document, long expectedRevision) {
+        Query query = new Query(Criteria.where("_id").is(document.getId()).and("revision").is(expectedRevision));
+        return Optional.ofNullable(mongoTemplate.findAndReplace(query, document,
+            FindAndReplaceOptions.options().returnNew()));
+    }
+}
@@ -0,0 +1,44 @@
+package com.collab.documentservice.repository;
+
+import com.collab.documentservice.model.InvitationCounter;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.Update;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repository for per-recipient pending invitation counters
+ * 
+ * @author Arhum Khan
+ * @version 1.0.0
+ */
+@Repository
+public interface InvitationCounterRepository extends MongoRepository<InvitationCounter, String> {
+
+    /**
+     * Atomically add a (possibly negative) delta to a counter, clamping at zero
+     * 
+     * @return Number of counters matched (0 if the counter does not exist yet)
+     */
+    @Query("{'_id': ?0}")
+    @Update(pipeline = "{'$set': {'pending': {'$max': [0, {'$add': ['$pending', ?1]}]}}}")
+    long addPending(String email, long delta);
+
+    /**
+     * Set a counter, only if it still holds the expected value
+     * 
+     * @return Number of counters updated (0 if the counter changed since it was read)
+     */
+    @Query("{'_id': ?0, 'pending': ?1}")
+    @Update("{'$set': {'pending': ?2}}")
+    long setPendingIf(String email, long expected, long pending);
+
+    /**
+     * Page of counters after an email, in email order
+     */
+    @Query(value = "{'_id': {'$gt': ?0}}", sort = "{'_id': 1}")
+    List<InvitationCounter> findAfter(String email, Pageable pageable);
+}
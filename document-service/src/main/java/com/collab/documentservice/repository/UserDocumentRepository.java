@@ -0,0 +1,67 @@
+package com.collab.documentservice.repository;
+
+import com.collab.documentservice.model.UserDocument;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.Update;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository for the materialized per-user document view
+ * 
+ * @author Arhum Khan
+ * @version 1.0.0
+ */
+@Repository
+public interface UserDocumentRepository extends MongoRepository<UserDocument, ObjectId>, UserDocumentRepositoryCustom {
+
+    /**
+     * First page of a user's documents (sort and limit come from the pageable)
+     */
+    @Query("{'userId': ?0}")
+    List<UserDocument> findLatestPage(ObjectId userId, Pageable pageable);
+
+    /**
+     * Page of a user's documents strictly after the (updatedAt, documentId) cursor
+     */
+    @Query("{'userId': ?0, 'updatedAt': {'$lte': ?1}, '$or': [{'updatedAt': {'$lt': ?1}}, {'documentId': {'$lt': ?2}}]}")
+    List<UserDocument> findPageAfter(ObjectId userId, LocalDateTime updatedAt, ObjectId documentId, Pageable pageable);
+
+    /**
+     * Find all entries for a document
+     */
+    List<UserDocument> findByDocumentId(ObjectId documentId);
+
+    /**
+     * Find all entries for a batch of documents
+     */
+    List<UserDocument> findByDocumentIdIn(Collection<ObjectId> documentIds);
+
+    /**
+     * Propagate title and last update time to every user that can see the document
+     */
+    @Query("{'documentId': ?0}")
+    @Update("{'$set': {'title': ?1, 'updatedAt': ?2, 'syncedAt': ?3}}")
+    long updateTitleAndUpdatedAt(ObjectId documentId, String title, LocalDateTime updatedAt, LocalDateTime syncedAt);
+
+    /**
+     * Remove every entry for a deleted document
+     */
+    long deleteByDocumentId(ObjectId documentId);
+
+    /**
+     * Remove every entry for the given documents (used after a rebuild for documents deleted meanwhile)
+     */
+    long deleteByDocumentIdIn(Collection<ObjectId> documentIds);
+
+    /**
+     * Remove entries not refreshed since the given time (used after a rebuild)
+     */
+    long deleteBySyncedAtBefore(LocalDateTime cutoff);
+}
@@ -0,0 +1,24 @@
+package com.collab.documentservice.repository;
+
+import com.collab.documentservice.model.UserDocument;
+
+import java.util.Collection;
+
+/**
+ * Upsert operations for the materialized per-user document view
+ * 
+ * @author Arhum Khan
+ * @version 1.0.0
+ */
+public interface UserDocumentRepositoryCustom {
+
+    /**
+     * Insert or replace the entry for the entry's (userId, documentId) pair
+     */
+    void upsert(UserDocument entry);
+
+    /**
+     * Upsert many entries in one unordered bulk write
+     */
+    void upsertAll(Collection<UserDocument> entries);
+}
@@ -0,0 +1,56 @@
+package com.collab.documentservice.repository;
+
+import com.collab.documentservice.model.UserDocument;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.Collection;
+
+/**
+ * Implementation of {@link UserDocumentRepositoryCustom}
+ * 
+ * Upserts are keyed on the unique (userId, documentId) index so replaying
+ * the same change, or racing a rebuild, converges on one entry.
+ * 
+ * @author Arhum Khan
+ * @version 1.0.0
+ */
+@RequiredArgsConstructor
+public class UserDocumentRepositoryImpl implements UserDocumentRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public void upsert(UserDocument entry) {
+        mongoTemplate.upsert(keyOf(entry), changesOf(entry), UserDocument.class);
+    }
+
+    @Override
+    public void upsertAll(Collection<UserDocument> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, UserDocument.class);
+        for (UserDocument entry : entries) {
+            bulk.upsert(keyOf(entry), changesOf(entry));
+        }
+        bulk.execute();
+    }
+
+    private Query keyOf(UserDocument entry) {
+        return new Query(Criteria.where("userId").is(entry.getUserId())
+            .and("documentId").is(entry.getDocumentId()));
+    }
+
+    private Update changesOf(UserDocument entry) {
+        return new Update()
+            .set("role", entry.getRole())
+            .set("title", entry.getTitle())
+            .set("updatedAt", entry.getUpdatedAt())
+            .set("syncedAt", entry.getSyncedAt());
+    }
+}
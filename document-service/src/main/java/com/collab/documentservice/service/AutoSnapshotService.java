@@ -0,0 +1,293 @@
+package com.collab.documentservice.service;
+
+import com.collab.documentservice.client.VersionServiceClient;
+import com.collab.documentservice.model.Document;
+import com.collab.documentservice.repository.DocumentRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Auto Snapshot Service
+ * 
+ * Creates version snapshots from edit activity instead of waiting for users
+ * to press "Create version". Edits seen by document-service (WebSocket
+ * content changes and REST saves) mark a document dirty; a periodic tick
+ * snapshots each dirty document once any of these holds:
+ * - the edit volume since the last snapshot reaches {@code edit-volume} characters
+ * - no edit has arrived for {@code idle}
+ * - the oldest unsnapshotted edit is {@code max-interval} old
+ * 
+ * Edits are coalesced per document, so a document has at most one snapshot
+ * in flight and one pending. At most {@code max-concurrent} snapshots run
+ * at once; documents that do not get a slot stay dirty for the next tick.
+ * A snapshot stores the document's saved content, and version-service
+ * ignores snapshots identical to the current head. A snapshot is created in
+ * the name of the last editor; when several users edited since the last
+ * snapshot it is sent as coalesced, and version-service credits its changes
+ * to no one in blame and contributions rather than all to that editor.
+ * 
+ * On shutdown no new ticks start; the service waits for in-flight
+ * snapshots, snapshots every document that is still dirty regardless of
+ * thresholds, and waits for those, all within {@code shutdown-timeout}.
+ * Edits still unsnapshotted when the timeout expires are logged and lost.
+ * 
+ * @author Arhum Khan
+ * @version 1.0.0
+ */
+@Service
+@Slf4j
+public class AutoSnapshotService {
+
+    static final String SNAPSHOT_DESCRIPTION = "Auto-saved";
+
+    private final DocumentRepository documentRepository;
+    private final VersionServiceClient versionServiceClient;
+    private final boolean enabled;
+    private final long editVolume;
+    private final Duration idle;
+    private final Duration maxInterval;
+    private final Duration shutdownTimeout;
+    private final int maxConcurrent;
+    private final Semaphore slots;
+    private final ExecutorService executor;
+    private final Map<ObjectId, Activity> activity = new ConcurrentHashMap<>();
+    private volatile boolean closing;
+
+    public AutoSnapshotService(
+            DocumentRepository documentRepository,
+            VersionServiceClient versionServiceClient,
+            @Value("${document.auto-snapshot.enabled:true}") boolean enabled,
+            @Value("${document.auto-snapshot.edit-volume:2000}") long editVolume,
+            @Value("${document.auto-snapshot.idle:30s}") Duration idle,
+            @Value("${document.auto-snapshot.max-interval:10m}") Duration maxInterval,
+            @Value("${document.auto-snapshot.max-concurrent:4}") int maxConcurrent,
+            @Value("${document.auto-snapshot.shutdown-timeout:10s}") Duration shutdownTimeout) {
+        this.documentRepository = documentRepository;
+        this.versionServiceClient = versionServiceClient;
+        this.enabled = enabled;
+        this.editVolume = editVolume;
+        this.idle = idle;
+        this.maxInterval = maxInterval;
+        this.shutdownTimeout = shutdownTimeout;
+        this.maxConcurrent = maxConcurrent;
+        this.slots = new Semaphore(maxConcurrent);
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(maxConcurrent, runnable -> {
+            Thread thread = new Thread(runnable, "auto-snapshot-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Record an edit to a document
+     * 
+     * @param contentLength Length of the document's content after the edit;
+     *                      the change in length counts towards the edit volume
+     */
+    public void recordEdit(ObjectId documentId, ObjectId userId, int contentLength) {
+        if (!enabled) {
+            return;
+        }
+        Instant now = Instant.now();
+        // Edited inside compute so the tick cannot forget the document between lookup and edit
+        activity.compute(documentId, (id, state) -> {
+            Activity current = state != null ? state : new Activity();
+            current.edited(userId, contentLength, now);
+            return current;
+        });
+    }
+
+    /**
+     * Start snapshots for every document that is due, as far as free slots allow
+     * 
+     * @return Number of snapshots started
+     */
+    @Scheduled(fixedDelayString = "${document.auto-snapshot.tick:PT5S}")
+    public int snapshotDue() {
+        if (closing) {
+            return 0;
+        }
+        Instant now = Instant.now();
+        int started = 0;
+        for (Map.Entry<ObjectId, Activity> entry : activity.entrySet()) {
+            Activity state = activity.computeIfPresent(entry.getKey(),
+                (id, current) -> current.isForgettable(now, maxInterval) ? null : current);
+            if (state == null) {
+                continue;
+            }
+            if (!state.isDue(now, editVolume, idle, maxInterval)) {
+                continue;
+            }
+            if (!slots.tryAcquire()) {
+                break;
+            }
+            Optional<Pending> pending = state.begin();
+            if (pending.isEmpty()) {
+                slots.release();
+                continue;
+            }
+            started++;
+            executor.execute(() -> snapshot(entry.getKey(), state, pending.get()));
+        }
+        return started;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        closing = true;
+        long deadline = System.nanoTime() + shutdownTimeout.toNanos();
+        int flushed = 0;
+        int abandoned = 0;
+        try {
+            // Taking every slot waits out the snapshots already in flight
+            if (slots.tryAcquire(maxConcurrent, remaining(deadline), TimeUnit.NANOSECONDS)) {
+                slots.release(maxConcurrent);
+            }
+            for (Map.Entry<ObjectId, Activity> entry : activity.entrySet()) {
+                Activity state = entry.getValue();
+                Optional<Pending> pending = state.begin();
+                if (pending.isEmpty()) {
+                    continue;
+                }
+                if (!slots.tryAcquire(remaining(deadline), TimeUnit.NANOSECONDS)) {
+                    state.finish(pending.get(), false, Instant.now());
+                    abandoned++;
+                    continue;
+                }
+                flushed++;
+                executor.execute(() -> snapshot(entry.getKey(), state, pending.get()));
+            }
+            executor.shutdown();
+            if (!executor.awaitTermination(remaining(deadline), TimeUnit.NANOSECONDS)) {
+                executor.shutdownNow();
+                log.warn("Auto-snapshots still running after {}, abandoning them", shutdownTimeout);
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        if (flushed > 0 || abandoned > 0) {
+            log.info("Flushed {} auto-snapshots on shutdown, {} dirty documents not snapshotted", flushed, abandoned);
+        }
+    }
+
+    private static long remaining(long deadline) {
+        return Math.max(0, deadline - System.nanoTime());
+    }
+
+    private void snapshot(ObjectId documentId, Activity state, Pending pending) {
+        boolean succeeded = false;
+        try {
+            Optional<Document> document = documentRepository.findById(documentId);
+            if (document.isPresent()) {
+                String content = document.get().getContent();
+                versionServiceClient.createSnapshot(documentId.toHexString(), content != null ? content : "",
+                    pending.userId().toHexString(), SNAPSHOT_DESCRIPTION, pending.coalesced());
+                log.debug("Auto-snapshot of document {} ({} chars edited)", documentId, pending.volume());
+            }
+            succeeded = true;
+        } catch (RuntimeException e) {
+            log.warn("Auto-snapshot of document {} failed, retrying on a later tick: {}", documentId, e.getMessage());
+        } finally {
+            state.finish(pending, succeeded, Instant.now());
+            slots.release();
+        }
+    }
+
+    /**
+     * Edits of one document since its last snapshot
+     */
+    private static final class Activity {
+
+        private ObjectId lastUserId;
+        private final Set<ObjectId> editors = new HashSet<>();
+        private int lastLength = -1;
+        private long volume;
+        private Instant firstEditAt;
+        private Instant lastEditAt;
+        private Instant lastSnapshotAt;
+        private boolean inFlight;
+
+        synchronized void edited(ObjectId userId, int contentLength, Instant now) {
+            lastUserId = userId;
+            editors.add(userId);
+            volume += lastLength < 0 ? 1 : Math.max(1, Math.abs(contentLength - lastLength));
+            lastLength = contentLength;
+            if (firstEditAt == null) {
+                firstEditAt = now;
+            }
+            lastEditAt = now;
+        }
+
+        synchronized boolean isDue(Instant now, long editVolume, Duration idle, Duration maxInterval) {
+            if (inFlight || firstEditAt == null) {
+                return false;
+            }
+            return volume >= editVolume
+                || !lastEditAt.plus(idle).isAfter(now)
+                || !firstEditAt.plus(maxInterval).isAfter(now);
+        }
+
+        synchronized boolean isForgettable(Instant now, Duration maxInterval) {
+            return !inFlight && firstEditAt == null
+                && (lastSnapshotAt == null || !lastSnapshotAt.plus(maxInterval).isAfter(now));
+        }
+
+        synchronized Optional<Pending> begin() {
+            if (inFlight || firstEditAt == null) {
+                return Optional.empty();
+            }
+            Pending pending = new Pending(lastUserId, Set.copyOf(editors), volume, firstEditAt);
+            inFlight = true;
+            editors.clear();
+            volume = 0;
+            firstEditAt = null;
+            return Optional.of(pending);
+        }
+
+        synchronized void finish(Pending pending, boolean succeeded, Instant now) {
+            inFlight = false;
+            if (succeeded) {
+                lastSnapshotAt = now;
+                return;
+            }
+            // Put the edits back so a later tick retries them
+            editors.addAll(pending.editors());
+            volume += pending.volume();
+            if (firstEditAt == null || pending.firstEditAt().isBefore(firstEditAt)) {
+                firstEditAt = pending.firstEditAt();
+            }
+            if (lastEditAt == null) {
+                lastEditAt = now;
+            }
+        }
+    }
+
+    /**
+     * Edits taken for one snapshot: the last editor, everyone who edited, and how much
+     */
+    private record Pending(ObjectId userId, Set<ObjectId> editors, long volume, Instant firstEditAt) {
+
+        boolean coalesced() {
+            return editors.size() > 1;
+        }
+    }
+}
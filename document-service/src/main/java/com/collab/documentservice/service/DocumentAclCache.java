@@ -0,0 +1,91 @@
+package com.collab.documentservice.service;
+
+import com.collab.documentservice.model.Document;
+import com.collab.documentservice.model.DocumentAcl;
+import com.collab.documentservice.repository.DocumentRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Document ACL Cache
+ * 
+ * Bounded, size-evicted cache of {@link DocumentAcl} per document, so
+ * permission checks on the WebSocket path, which has no document at hand,
+ * are memory lookups instead of loading the document. REST paths that have
+ * just loaded the document check {@link DocumentAcl#of} of that document and
+ * never read or fill the cache, so a request holding an older copy cannot
+ * put a stale ACL back.
+ * 
+ * After a write that changes collaborators the new ACL is put in place
+ * (or the entry dropped when the document is deleted), so this instance
+ * serves the change at once. Other instances see it when their entry
+ * expires: staleness across instances is bounded by
+ * {@code document.acl-cache.expire-after-write} (default 30 seconds).
+ * 
+ * Hit rate, load and eviction metrics are published as cache.* meters
+ * tagged cache=document.acl.
+ * 
+ * @author Arhum Khan
+ * @version 1.0.0
+ */
+@Component
+@Slf4j
+public class DocumentAclCache implements MeterBinder {
+
+    private final DocumentRepository documentRepository;
+    private final Cache<ObjectId, DocumentAcl> cache;
+
+    public DocumentAclCache(
+            DocumentRepository documentRepository,
+            @Value("${document.acl-cache.maximum-size:10000}") long maximumSize,
+            @Value("${document.acl-cache.expire-after-write:30s}") Duration expireAfterWrite) {
+        this.documentRepository = documentRepository;
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(expireAfterWrite)
+            .recordStats()
+            .build();
+    }
+
+    /**
+     * Get the ACL for a document, loading only ownerId and collaborators on a miss
+     * 
+     * @param documentId The document ID
+     * @return The ACL, or null if the document does not exist
+     */
+    public DocumentAcl get(ObjectId documentId) {
+        return cache.get(documentId, id -> documentRepository.findAclById(id)
+            .map(DocumentAcl::of)
+            .orElse(null));
+    }
+
+    /**
+     * Cache the ACL of a document whose collaborators were just saved
+     */
+    public void put(Document document) {
+        cache.put(document.getId(), DocumentAcl.of(document));
+        log.debug("Updated ACL for document: {}", document.getId());
+    }
+
+    /**
+     * Drop the cached ACL of a deleted document
+     */
+    public void invalidate(ObjectId documentId) {
+        cache.invalidate(documentId);
+        log.debug("Invalidated ACL for document: {}", documentId);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "document.acl");
+    }
+}
@@ -1,23 +1,34 @@
 package com.collab.documentservice.service;
 
+import com.collab.common.client.UserDirectoryClient;
+import com.collab.common.client.UserSummary;
 import com.collab.common.exception.BadRequestException;
 import com.collab.common.exception.ResourceNotFoundException;
 import com.collab.common.exception.UnauthorizedException;
+import com.collab.documentservice.client.VersionContent;
+import com.collab.documentservice.client.VersionServiceClient;
 import com.collab.documentservice.dto.*;
 import com.collab.documentservice.model.Document;
+import com.collab.documentservice.model.DocumentAcl;
 import com.collab.documentservice.model.DocumentInvitation;
+import com.collab.documentservice.model.UserDocument;
 import com.collab.documentservice.repository.DocumentRepository;
 import com.collab.documentservice.repository.DocumentInvitationRepository;
+import com.collab.documentservice.repository.UserDocumentRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.bson.types.ObjectId;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClientException;
 
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 /**
@@ -37,10 +48,20 @@ public class DocumentService {
 
     private final DocumentRepository documentRepository;
     private final DocumentInvitationRepository invitationRepository;
-    private final RestTemplate restTemplate;
-    
-    @Value("${api.gateway.url:http://localhost:8080}")
-    private String apiGatewayUrl;
+    private final UserDocumentRepository userDocumentRepository;
+    private final UserDocumentIndexService userDocumentIndexService;
+    private final DocumentAclCache documentAclCache;
+    private final InvitationCounterService invitationCounterService;
+    private final InvitationNotificationService invitationNotificationService;
+    private final UserDirectoryClient userDirectoryClient;
+    private final AutoSnapshotService autoSnapshotService;
+    private final LiveContributionTracker liveContributionTracker;
+    private final VersionServiceClient versionServiceClient;
+    private final SimpMessagingTemplate messagingTemplate;
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private static final int RECORD_REVERT_ATTEMPTS = 3;
 
     /**
      * Create a new document
@@ -55,6 +76,7 @@ public class DocumentService {
         );
 
         Document savedDocument = documentRepository.save(document);
+        userDocumentIndexService.onDocumentCreated(savedDocument);
         log.info("Document created successfully: {}", savedDocument.getId());
 
         return DocumentDTO.fromDocument(savedDocument);
@@ -97,17 +119,109 @@ public class DocumentService {
         }
         if (request.getContent() != null) {
             document.setContent(request.getContent());
+            document.setRevision(document.getRevision() + 1);
         }
         if (request.getLastModifiedBy() != null) {
             document.setLastModifiedBy(new ObjectId(request.getLastModifiedBy()));
         }
 
         Document updatedDocument = documentRepository.save(document);
+        userDocumentIndexService.onDocumentUpdated(updatedDocument);
+        if (request.getContent() != null) {
+            autoSnapshotService.recordEdit(updatedDocument.getId(), new ObjectId(userId), request.getContent().length());
+            liveContributionTracker.recordEdit(updatedDocument.getId(), new ObjectId(userId), request.getContent());
+        }
         log.info("Document updated successfully: {}", documentId);
 
         return DocumentDTO.fromDocument(updatedDocument);
     }
 
+    /**
+     * Revert a document to one of its versions in a single operation
+     * 
+     * Reads the version's content, saves it as the document's content, then
+     * has version-service record the revert by reference (no content is sent
+     * back). The save only applies if the document is still at the revision
+     * that was read, so a concurrent edit is never overwritten. Recording
+     * carries an idempotency key and is retried on transport and server
+     * errors; only if it still fails is the document's previous content
+     * restored (again only if nobody has changed it since) and the failure
+     * rethrown. Collaborators receive one content-change event on success.
+     */
+    public DocumentDTO revertToVersion(String documentId, String versionId, String userId) {
+        log.info("Reverting document: {} to version: {} by user: {}", documentId, versionId, userId);
+
+        Document document = documentRepository.findById(new ObjectId(documentId))
+            .orElseThrow(() -> new ResourceNotFoundException("Document", "id", documentId));
+
+        if (!hasEditPermission(document, new ObjectId(userId))) {
+            throw new UnauthorizedException("You don't have permission to edit this document");
+        }
+
+        VersionContent version = versionServiceClient.getVersion(versionId)
+            .filter(v -> documentId.equals(v.getDocumentId()))
+            .orElseThrow(() -> new ResourceNotFoundException("Version", "id", versionId));
+
+        String previousContent = document.getContent();
+        long readRevision = document.getRevision();
+        document.setContent(version.getContent());
+        document.setRevision(readRevision + 1);
+        document.setLastModifiedBy(new ObjectId(userId));
+        Document reverted = documentRepository.replaceIfRevision(document, readRevision)
+            .orElseThrow(() -> new BadRequestException("Document was changed while reverting, please try again"));
+
+        try {
+            recordRevert(documentId, versionId, userId);
+        } catch (RuntimeException e) {
+            log.warn("Recording revert of document {} failed, restoring its content: {}", documentId, e.getMessage());
+            restoreContent(reverted, previousContent);
+            throw e;
+        }
+
+        liveContributionTracker.rebase(reverted.getId(), version.getContent());
+        userDocumentIndexService.onDocumentUpdated(reverted);
+        String username = userDirectoryClient.findById(userId).map(UserSummary::getUsername).orElse(null);
+        messagingTemplate.convertAndSend("/topic/document/" + documentId,
+            DocumentMessage.contentChange(documentId, userId, username, version.getContent()));
+        log.info("Document {} reverted to version {}", documentId, versionId);
+
+        return DocumentDTO.fromDocument(reverted);
+    }
+
+    /**
+     * Have version-service record a revert, retrying under one idempotency key
+     * so a revert whose response was lost is not recorded twice
+     */
+    private void recordRevert(String documentId, String versionId, String userId) {
+        String revertKey = UUID.randomUUID().toString();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                versionServiceClient.recordRevert(documentId, versionId, userId, revertKey);
+                return;
+            } catch (HttpClientErrorException e) {
+                throw e; // 4xx: retrying will not change the answer
+            } catch (RestClientException e) {
+                if (attempt == RECORD_REVERT_ATTEMPTS) {
+                    throw e;
+                }
+                log.debug("Recording revert of document {} failed (attempt {}), retrying: {}",
+                    documentId, attempt, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Undo a content change, unless the document has been changed again since
+     */
+    private void restoreContent(Document changed, String previousContent) {
+        long changedRevision = changed.getRevision();
+        changed.setContent(previousContent);
+        changed.setRevision(changedRevision + 1);
+        if (documentRepository.replaceIfRevision(changed, changedRevision).isEmpty()) {
+            log.warn("Document {} changed during a failed revert, keeping its current content", changed.getId());
+        }
+    }
+
     /**
      * Share document with another user
      */
@@ -118,22 +232,15 @@ public class DocumentService {
             .orElseThrow(() -> new ResourceNotFoundException("Document", "id", documentId));
 
         // Check if requester has permission to share (owner or collaborator with edit permission)
-        ObjectId requesterObjectId = new ObjectId(requesterId);
-        boolean isOwner = document.getOwnerId().equals(requesterObjectId);
-        boolean hasEditPermission = document.getCollaborators().stream()
-            .anyMatch(c -> c.getUserId().equals(requesterObjectId) && "edit".equals(c.getPermission()));
-        
-        if (!isOwner && !hasEditPermission) {
+        DocumentAcl acl = DocumentAcl.of(document);
+        if (!acl.canEdit(new ObjectId(requesterId))) {
             throw new UnauthorizedException("Only document owner or editors can share");
         }
 
         ObjectId newCollaboratorId = new ObjectId(request.getUserId());
 
         // Check if already a collaborator
-        boolean alreadyCollaborator = document.getCollaborators().stream()
-            .anyMatch(c -> c.getUserId().equals(newCollaboratorId));
-
-        if (alreadyCollaborator) {
+        if (acl.canView(newCollaboratorId)) {
             throw new BadRequestException("User is already a collaborator");
         }
 
@@ -145,6 +252,8 @@ public class DocumentService {
         document.getCollaborators().add(collaborator);
 
         documentRepository.save(document);
+        documentAclCache.put(document);
+        userDocumentIndexService.onCollaboratorAdded(document, newCollaboratorId, request.getPermission());
         log.info("Document shared successfully with user: {}", request.getUserId());
     }
 
@@ -163,6 +272,8 @@ public class DocumentService {
         }
 
         documentRepository.delete(document);
+        documentAclCache.invalidate(document.getId());
+        userDocumentIndexService.onDocumentDeleted(document.getId());
         log.info("Document deleted successfully: {}", documentId);
     }
 
@@ -180,27 +291,58 @@ public class DocumentService {
     }
 
     /**
-     * Check if user has access to document (owner or collaborator)
+     * Get one page of document summaries for the dashboard
+     * 
+     * Served from the user_documents view as a single range scan on
+     * (userId, updatedAt, documentId), so the cost of a page is independent
+     * of how many documents the user can access or how large they are.
+     * 
+     * @param userId The user whose documents are listed
+     * @param cursor Cursor returned with the previous page, or null for the first page
+     * @param limit Requested page size, clamped to [1, MAX_PAGE_SIZE]
+     * @return The page of summaries and the cursor for the next one
+     * @throws BadRequestException if the cursor is malformed
      */
-    private boolean hasAccess(Document document, ObjectId userId) {
-        if (document.getOwnerId().equals(userId)) {
-            return true;
+    public DocumentSummaryPage getDocumentSummaries(String userId, String cursor, int limit) {
+        log.info("Fetching document summaries for user: {}", userId);
+
+        ObjectId userObjectId = new ObjectId(userId);
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        PageCursor after = PageCursor.decode(cursor);
+
+        // Fetch one extra row to learn whether another page exists
+        Pageable page = PageRequest.of(0, pageSize + 1,
+            Sort.by(Sort.Direction.DESC, "updatedAt", "documentId"));
+        List<UserDocument> entries = after == null
+            ? userDocumentRepository.findLatestPage(userObjectId, page)
+            : userDocumentRepository.findPageAfter(userObjectId, after.getUpdatedAt(), after.getId(), page);
+
+        String nextCursor = null;
+        if (entries.size() > pageSize) {
+            entries = entries.subList(0, pageSize);
+            UserDocument last = entries.get(pageSize - 1);
+            nextCursor = new PageCursor(last.getUpdatedAt(), last.getDocumentId()).encode();
         }
 
-        return document.getCollaborators().stream()
-            .anyMatch(c -> c.getUserId().equals(userId));
+        List<DocumentSummaryDTO> items = entries.stream()
+            .map(DocumentSummaryDTO::fromUserDocument)
+            .collect(Collectors.toList());
+
+        return new DocumentSummaryPage(items, nextCursor);
+    }
+
+    /**
+     * Check if user has access to document (owner or collaborator)
+     */
+    private boolean hasAccess(Document document, ObjectId userId) {
+        return DocumentAcl.of(document).canView(userId);
     }
 
     /**
      * Check if user has edit permission
      */
     private boolean hasEditPermission(Document document, ObjectId userId) {
-        if (document.getOwnerId().equals(userId)) {
-            return true;
-        }
-
-        return document.getCollaborators().stream()
-            .anyMatch(c -> c.getUserId().equals(userId) && "edit".equals(c.getPermission()));
+        return DocumentAcl.of(document).canEdit(userId);
     }
 
     /**
@@ -250,7 +392,6 @@ public class DocumentService {
         invitation.setDocumentTitle(document.getTitle());
         
         // We need to get the owner's email to show who sent the invitation
-        // For now, we'll fetch it via HTTP call to user-service
         String ownerEmail = getUserEmail(invitedByUserId);
         
         DocumentInvitation.InvitationUser invitedBy = new DocumentInvitation.InvitationUser();
@@ -269,6 +410,8 @@ public class DocumentService {
         invitation.setExpiresAt(java.time.LocalDateTime.now().plusDays(7));
 
         invitation = invitationRepository.save(invitation);
+        invitationCounterService.adjust(invitedEmail, 1);
+        invitationNotificationService.invitationReceived(invitation);
         log.info("Invitation sent successfully: {}", invitation.getId());
 
         return invitation;
@@ -278,16 +421,14 @@ public class DocumentService {
      * Get all pending invitations for a user
      * 
      * Retrieves all invitations with PENDING status for the specified email address.
-     * Used to display invitations in the user's invitation center.
+     * Used to display invitations in the user's invitation center. Served by the
+     * (invitedUser.email, status) index with a projection.
      * 
      * @param userEmail The email address of the invited user
      * @return List of pending invitations for the user
      */
     public List<DocumentInvitation> getPendingInvitations(String userEmail) {
-        return invitationRepository.findAll().stream()
-            .filter(inv -> "PENDING".equals(inv.getStatus()) && 
-                          inv.getInvitedUser().getEmail().equals(userEmail))
-            .collect(Collectors.toList());
+        return invitationRepository.findPendingByInvitedEmail(userEmail);
     }
 
     /**
@@ -319,16 +460,23 @@ public class DocumentService {
             throw new BadRequestException("Invitation is no longer pending");
         }
 
-        if (invitation.getExpiresAt() != null && 
-            java.time.LocalDateTime.now().isAfter(invitation.getExpiresAt())) {
-            invitation.setStatus("EXPIRED");
-            invitationRepository.save(invitation);
+        java.time.LocalDateTime now = java.time.LocalDateTime.now();
+        if (invitation.getExpiresAt() != null && now.isAfter(invitation.getExpiresAt())) {
+            if (resolvePending(invitation, "EXPIRED", now)) {
+                invitationCounterService.adjust(userEmail, -1);
+                invitationNotificationService.invitationExpired(invitation);
+            }
             throw new BadRequestException("Invitation has expired");
         }
 
         Document document = documentRepository.findById(invitation.getDocumentId())
             .orElseThrow(() -> new ResourceNotFoundException("Document not found"));
 
+        // Claim the invitation first, so concurrent accepts and declines resolve it once
+        if (!resolvePending(invitation, "ACCEPTED", now)) {
+            throw new BadRequestException("Invitation is no longer pending");
+        }
+
         // Add user as collaborator with their actual userId
         Document.Collaborator collaborator = new Document.Collaborator();
         collaborator.setUserId(new ObjectId(userId));
@@ -337,11 +485,11 @@ public class DocumentService {
         document.getCollaborators().add(collaborator);
 
         documentRepository.save(document);
+        documentAclCache.put(document);
+        userDocumentIndexService.onCollaboratorAdded(document, collaborator.getUserId(), collaborator.getPermission());
 
-        // Update invitation status
-        invitation.setStatus("ACCEPTED");
-        invitation.setRespondedAt(java.time.LocalDateTime.now());
-        invitationRepository.save(invitation);
+        invitationCounterService.adjust(userEmail, -1);
+        invitationNotificationService.invitationAccepted(invitation);
 
         log.info("Invitation accepted successfully");
 
@@ -374,9 +522,11 @@ public class DocumentService {
             throw new BadRequestException("Invitation is no longer pending");
         }
 
-        invitation.setStatus("DECLINED");
-        invitation.setRespondedAt(java.time.LocalDateTime.now());
-        invitationRepository.save(invitation);
+        if (!resolvePending(invitation, "DECLINED", java.time.LocalDateTime.now())) {
+            throw new BadRequestException("Invitation is no longer pending");
+        }
+        invitationCounterService.adjust(userEmail, -1);
+        invitationNotificationService.invitationDeclined(invitation);
 
         log.info("Invitation declined");
     }
@@ -385,7 +535,8 @@ public class DocumentService {
      * Cancel a sent invitation
      * 
      * Allows the invitation sender to cancel a pending invitation before it's accepted.
-     * Only the user who sent the invitation can cancel it.
+     * Only the user who sent the invitation can cancel it; an invitation that is
+     * no longer pending is left as it is.
      * 
      * @param invitationId The ID of the invitation to cancel
      * @param ownerUserId The ID of the user canceling (must be invitation sender)
@@ -402,48 +553,56 @@ public class DocumentService {
             throw new UnauthorizedException("Only invitation sender can cancel");
         }
 
-        invitation.setStatus("CANCELLED");
-        invitationRepository.save(invitation);
+        if (!resolvePending(invitation, "CANCELLED", java.time.LocalDateTime.now())) {
+            log.info("Invitation {} already resolved as {}, nothing to cancel", invitationId, invitation.getStatus());
+            return;
+        }
+        invitationCounterService.adjust(invitation.getInvitedUser().getEmail(), -1);
+        invitationNotificationService.invitationCancelled(invitation);
 
         log.info("Invitation cancelled");
     }
 
+    /**
+     * Move an invitation out of PENDING, only if it is still pending
+     * 
+     * @return true if this call resolved it; the loaded invitation is updated to match
+     */
+    private boolean resolvePending(DocumentInvitation invitation, String status, java.time.LocalDateTime now) {
+        if (invitationRepository.resolvePending(invitation.getId(), status, now) == 0) {
+            return false;
+        }
+        invitation.setStatus(status);
+        invitation.setRespondedAt(now);
+        return true;
+    }
+
     /**
      * Get count of pending invitations for a user
      * 
      * Returns the number of pending invitations for displaying badge notifications.
+     * Served from the per-recipient counter, a single point read by _id.
      * 
      * @param userEmail The email address of the user
      * @return Count of pending invitations
      */
     public long getInvitationCount(String userEmail) {
-        return getPendingInvitations(userEmail).size();
+        return invitationCounterService.getPendingCount(userEmail);
     }
     
     /**
-     * Get user email from user service via API Gateway
+     * Get user email from the user directory
      * 
      * @param userId The user ID
-     * @return The user's email address
+     * @return The user's email address, or a short placeholder if it cannot be resolved
      */
     private String getUserEmail(String userId) {
-        try {
-            String url = apiGatewayUrl + "/api/users/profile/" + userId;
-            Map<String, Object> response = restTemplate.getForObject(url, Map.class);
-            
-            if (response != null && response.get("data") != null) {
-                Map<String, Object> userData = (Map<String, Object>) response.get("data");
-                String email = (String) userData.get("email");
-                if (email != null && !email.isEmpty()) {
-                    return email;
-                }
-            }
-            
-            log.warn("Could not fetch email for user {}, using userId as fallback", userId);
-            return "User " + userId.substring(0, Math.min(8, userId.length()));
-        } catch (Exception e) {
-            log.error("Error fetching user email for userId {}: {}", userId, e.getMessage());
-            return "User " + userId.substring(0, Math.min(8, userId.length()));
-        }
+        return userDirectoryClient.findById(userId)
+            .map(UserSummary::getEmail)
+            .filter(email -> !email.isEmpty())
+            .orElseGet(() -> {
+                log.warn("Could not fetch email for user {}, using userId as fallback", userId);
+                return "User " + userId.substring(0, Math.min(8, userId.length()));
+            });
     }
 }
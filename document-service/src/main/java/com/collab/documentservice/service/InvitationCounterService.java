@@ -0,0 +1,144 @@
+package com.collab.documentservice.service;
+
+import com.collab.documentservice.model.InvitationCounter;
+import com.collab.documentservice.repository.DocumentInvitationRepository;
+import com.collab.documentservice.repository.InvitationCounterRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Invitation Counter Service
+ * 
+ * Keeps the per-recipient pending invitation counter in step with invitation
+ * status changes. Call {@link #adjust} after the invitation itself has been
+ * written, and only for transitions that write actually made (status changes
+ * are conditional on PENDING, so concurrent transitions adjust once): a
+ * counter that does not exist yet is seeded from the indexed pending count,
+ * which already reflects that write.
+ * 
+ * A counter can still drift when a seed races with a concurrent change, so
+ * every {@code reconcile-interval} each counter is compared with the
+ * indexed count and corrected with a compare-and-set, which never
+ * overwrites an adjustment made since it was read.
+ * 
+ * @author Arhum Khan
+ * @version 1.0.0
+ */
+@Service
+@Slf4j
+public class InvitationCounterService {
+
+    private static final String FIRST_EMAIL = "";
+
+    private final InvitationCounterRepository counterRepository;
+    private final DocumentInvitationRepository invitationRepository;
+    private final int batchSize;
+
+    public InvitationCounterService(
+            InvitationCounterRepository counterRepository,
+            DocumentInvitationRepository invitationRepository,
+            @Value("${document.invitations.batch-size:500}") int batchSize) {
+        this.counterRepository = counterRepository;
+        this.invitationRepository = invitationRepository;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Get the number of pending invitations for an email
+     */
+    public long getPendingCount(String email) {
+        return counterRepository.findById(email)
+            .map(InvitationCounter::getPending)
+            .orElseGet(() -> seed(email));
+    }
+
+    /**
+     * Apply a change in the number of pending invitations for an email
+     * 
+     * @param email The recipient's email address
+     * @param delta +1 when an invitation is sent, negative when pending invitations are resolved
+     */
+    public void adjust(String email, long delta) {
+        if (counterRepository.addPending(email, delta) == 0 && !trySeed(email)) {
+            // Another request seeded the counter, possibly from a count taken before this change
+            counterRepository.addPending(email, delta);
+        }
+    }
+
+    /**
+     * Correct a counter to the indexed pending count, unless it changes meanwhile
+     * 
+     * @return true if the counter was changed
+     */
+    boolean correct(String email) {
+        Optional<InvitationCounter> counter = counterRepository.findById(email);
+        if (counter.isEmpty()) {
+            return trySeed(email);
+        }
+        long expected = counter.get().getPending();
+        long actual = invitationRepository.countPendingByInvitedEmail(email);
+        return actual != expected && counterRepository.setPendingIf(email, expected, actual) > 0;
+    }
+
+    /**
+     * Recount every counter against the indexed pending count
+     * 
+     * @return Number of counters corrected
+     */
+    @Scheduled(fixedDelayString = "${document.invitations.reconcile-interval:PT1H}")
+    public int reconcile() {
+        int corrected = 0;
+        String after = FIRST_EMAIL;
+        List<InvitationCounter> page;
+        do {
+            page = counterRepository.findAfter(after, PageRequest.of(0, batchSize));
+            for (InvitationCounter counter : page) {
+                try {
+                    if (correct(counter.getEmail())) {
+                        corrected++;
+                    }
+                } catch (RuntimeException e) {
+                    log.warn("Failed to reconcile invitation counter for {}: {}", counter.getEmail(), e.getMessage());
+                }
+                after = counter.getEmail();
+            }
+        } while (page.size() == batchSize);
+
+        if (corrected > 0) {
+            log.info("Corrected {} invitation counters", corrected);
+        }
+        return corrected;
+    }
+
+    private long seed(String email) {
+        long count = invitationRepository.countPendingByInvitedEmail(email);
+        insert(email, count);
+        return count;
+    }
+
+    /**
+     * Seed a missing counter
+     * 
+     * @return false if another request seeded it first
+     */
+    private boolean trySeed(String email) {
+        return insert(email, invitationRepository.countPendingByInvitedEmail(email));
+    }
+
+    private boolean insert(String email, long count) {
+        try {
+            counterRepository.insert(new InvitationCounter(email, count));
+            log.debug("Seeded invitation counter for {} at {}", email, count);
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.collab.documentservice.service;
+
+import com.collab.documentservice.model.DocumentInvitation;
+import com.collab.documentservice.repository.DocumentInvitationRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Invitation Expiry Service
+ * 
+ * Background jobs that keep the invitations collection small:
+ * - the sweeper flips overdue PENDING invitations to EXPIRED in batches,
+ *   keeping the recipients' counters and badges in step
+ * - the retention job deletes resolved invitations once they are older
+ *   than the retention window
+ * 
+ * Expiry is a status change rather than a native TTL delete because the
+ * pending counters and push notifications must observe it. Only
+ * invitations the sweep's conditional update actually moved from PENDING
+ * to EXPIRED are counted and notified; invitations accepted, declined or
+ * expired elsewhere in between are left to whoever resolved them. Running
+ * the jobs on several instances is therefore harmless.
+ * 
+ * @author Arhum Khan
+ * @version 1.0.0
+ */
+@Service
+@Slf4j
+public class InvitationExpiryService {
+
+    static final List<String> RESOLVED_STATUSES = List.of("ACCEPTED", "DECLINED", "CANCELLED", "EXPIRED");
+
+    private final DocumentInvitationRepository invitationRepository;
+    private final InvitationCounterService invitationCounterService;
+    private final InvitationNotificationService invitationNotificationService;
+    private final int batchSize;
+    private final Duration retention;
+
+    public InvitationExpiryService(
+            DocumentInvitationRepository invitationRepository,
+            InvitationCounterService invitationCounterService,
+            InvitationNotificationService invitationNotificationService,
+            @Value("${document.invitations.batch-size:500}") int batchSize,
+            @Value("${document.invitations.retention:30d}") Duration retention) {
+        this.invitationRepository = invitationRepository;
+        this.invitationCounterService = invitationCounterService;
+        this.invitationNotificationService = invitationNotificationService;
+        this.batchSize = batchSize;
+        this.retention = retention;
+    }
+
+    /**
+     * Expire every overdue pending invitation
+     * 
+     * @return Number of invitations expired
+     */
+    @Scheduled(fixedDelayString = "${document.invitations.sweep-interval:PT1M}")
+    public long expireOverdue() {
+        LocalDateTime now = LocalDateTime.now();
+        long total = 0;
+        List<DocumentInvitation> batch;
+        do {
+            batch = invitationRepository.findOverdue(now, PageRequest.of(0, batchSize));
+            if (batch.isEmpty()) {
+                break;
+            }
+            List<ObjectId> ids = batch.stream().map(DocumentInvitation::getId).toList();
+            long expired = invitationRepository.expirePending(ids, now);
+            total += expired;
+
+            List<DocumentInvitation> expiredHere = batch;
+            if (expired < batch.size()) {
+                // Some were resolved between the read and the update: keep only the ones this sweep expired
+                Set<ObjectId> expiredIds = invitationRepository.findExpiredAt(ids, now).stream()
+                    .map(DocumentInvitation::getId)
+                    .collect(Collectors.toSet());
+                expiredHere = batch.stream().filter(i -> expiredIds.contains(i.getId())).toList();
+            }
+            expiredHere.stream()
+                .collect(Collectors.groupingBy(i -> i.getInvitedUser().getEmail(), Collectors.counting()))
+                .forEach((email, count) -> invitationCounterService.adjust(email, -count));
+            expiredHere.forEach(invitationNotificationService::invitationExpired);
+        } while (batch.size() == batchSize);
+
+        if (total > 0) {
+            log.info("Expired {} overdue invitations", total);
+        }
+        return total;
+    }
+
+    /**
+     * Delete resolved invitations older than the retention window
+     * 
+     * @return Number of invitations deleted
+     */
+    @Scheduled(fixedDelayString = "${document.invitations.purge-interval:PT1H}")
+    public long purgeResolved() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+        long total = 0;
+        List<DocumentInvitation> batch;
+        do {
+            batch = invitationRepository.findResolvedBefore(RESOLVED_STATUSES, cutoff, PageRequest.of(0, batchSize));
+            if (batch.isEmpty()) {
+                break;
+            }
+            total += invitationRepository.deleteByIdIn(batch.stream().map(DocumentInvitation::getId).toList());
+        } while (batch.size() == batchSize);
+
+        if (total > 0) {
+            log.info("Purged {} resolved invitations older than {}", total, cutoff);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,63 @@
+package com.collab.documentservice.service;
+
+import com.collab.documentservice.dto.InvitationEvent;
+import com.collab.documentservice.model.DocumentInvitation;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+/**
+ * Invitation Notification Service
+ * 
+ * Pushes invitation changes to the recipient's per-user STOMP queue so
+ * clients can keep their badge current without polling. Each event carries
+ * the recipient's pending count, read from the invitation counter after it
+ * has been adjusted. Delivery is best effort: the invitation write has
+ * already succeeded, and a client that misses an event catches up with a
+ * count fetch on its next connect.
+ * 
+ * @author Arhum Khan
+ * @version 1.0.0
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class InvitationNotificationService {
+
+    public static final String INVITATION_QUEUE = "/queue/invitations";
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final InvitationCounterService invitationCounterService;
+
+    public void invitationReceived(DocumentInvitation invitation) {
+        publish("invitation-received", invitation);
+    }
+
+    public void invitationAccepted(DocumentInvitation invitation) {
+        publish("invitation-accepted", invitation);
+    }
+
+    public void invitationDeclined(DocumentInvitation invitation) {
+        publish("invitation-declined", invitation);
+    }
+
+    public void invitationCancelled(DocumentInvitation invitation) {
+        publish("invitation-cancelled", invitation);
+    }
+
+    public void invitationExpired(DocumentInvitation invitation) {
+        publish("invitation-expired", invitation);
+    }
+
+    private void publish(String type, DocumentInvitation invitation) {
+        String email = invitation.getInvitedUser().getEmail();
+        try {
+            long pendingCount = invitationCounterService.getPendingCount(email);
+            messagingTemplate.convertAndSendToUser(email, INVITATION_QUEUE,
+                InvitationEvent.of(type, invitation, pendingCount));
+        } catch (Exception e) {
+            log.warn("Failed to push {} for invitation {}: {}", type, invitation.getId(), e.getMessage());
+        }
+    }
+}
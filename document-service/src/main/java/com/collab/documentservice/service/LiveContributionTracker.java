@@ -0,0 +1,254 @@
+package com.collab.documentservice.service;
+
+import com.collab.documentservice.client.EditContribution;
+import com.collab.documentservice.client.VersionServiceClient;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live Contribution Tracker
+ * 
+ * Measures every accepted content change (WebSocket edits and REST saves)
+ * and credits the characters added and deleted to the editor, so
+ * contribution stats reflect who typed what rather than who happened to
+ * create a version. Edits carry the whole content, so each edit is measured
+ * against the document's previous content by trimming their common prefix
+ * and suffix: exact for a single contiguous change, which is what each
+ * debounced client edit is.
+ * 
+ * The edit path takes no locks: the previous content is swapped with one
+ * atomic {@code put} and counts go into {@link LongAdder}s per document and
+ * user. Counters idle for a whole interval are retired and removed; an edit
+ * enters its counters before adding to them, a counter is only retired when
+ * no edit is inside it, and an edit that finds its counters retired retries
+ * on fresh ones, so no count lands on a removed counter. Every {@code flush-interval} the counts are drained and reported to
+ * version-service in batches of {@code batch-size}; counts that fail to send
+ * are added back and retried on the next flush, and pending counts are sent
+ * on shutdown.
+ * 
+ * The first edit seen for a document, after startup or after the document
+ * has been idle for {@code baseline-ttl}, only records its content as the
+ * baseline. Reverts replace the baseline without counting, since restoring
+ * earlier content is not authorship.
+ * 
+ * @author Arhum Khan
+ * @version 1.0.0
+ */
+@Service
+@Slf4j
+public class LiveContributionTracker {
+
+    private final VersionServiceClient versionServiceClient;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long baselineTtlNanos;
+    private final Map<ObjectId, Baseline> baselines = new ConcurrentHashMap<>();
+    private final Map<ContributionKey, EditCounters> counters = new ConcurrentHashMap<>();
+
+    public LiveContributionTracker(
+            VersionServiceClient versionServiceClient,
+            @Value("${document.live-contributions.enabled:true}") boolean enabled,
+            @Value("${document.live-contributions.batch-size:500}") int batchSize,
+            @Value("${document.live-contributions.baseline-ttl:10m}") Duration baselineTtl) {
+        this.versionServiceClient = versionServiceClient;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.baselineTtlNanos = baselineTtl.toNanos();
+    }
+
+    /**
+     * Count an accepted content change towards its editor's contribution
+     */
+    public void recordEdit(ObjectId documentId, ObjectId userId, String content) {
+        if (!enabled || content == null) {
+            return;
+        }
+        Baseline previous = baselines.put(documentId, new Baseline(content, System.nanoTime()));
+        if (previous == null) {
+            return;
+        }
+        String before = previous.content();
+        int shorter = Math.min(before.length(), content.length());
+        int prefix = 0;
+        while (prefix < shorter && before.charAt(prefix) == content.charAt(prefix)) {
+            prefix++;
+        }
+        int suffix = 0;
+        while (suffix < shorter - prefix
+                && before.charAt(before.length() - 1 - suffix) == content.charAt(content.length() - 1 - suffix)) {
+            suffix++;
+        }
+        int deleted = before.length() - prefix - suffix;
+        int added = content.length() - prefix - suffix;
+        if (added == 0 && deleted == 0) {
+            return;
+        }
+        add(new ContributionKey(documentId, userId), 1, added, deleted);
+    }
+
+    /**
+     * Replace a document's baseline content without counting the change
+     */
+    public void rebase(ObjectId documentId, String content) {
+        if (!enabled || content == null) {
+            return;
+        }
+        baselines.put(documentId, new Baseline(content, System.nanoTime()));
+    }
+
+    /**
+     * Report all counted edits to version-service
+     * 
+     * @return Number of (document, user) counts reported
+     */
+    @Scheduled(fixedDelayString = "${document.live-contributions.flush-interval:PT15S}")
+    public int flush() {
+        List<EditContribution> drained = new ArrayList<>();
+        for (Map.Entry<ContributionKey, EditCounters> entry : counters.entrySet()) {
+            EditContribution contribution = entry.getValue().drain(entry.getKey());
+            if (contribution != null) {
+                drained.add(contribution);
+                continue;
+            }
+            // Idle for a whole interval: retire and drop the entry, keeping anything counted meanwhile
+            if (entry.getValue().retire()) {
+                counters.remove(entry.getKey(), entry.getValue());
+                EditContribution late = entry.getValue().drain(entry.getKey());
+                if (late != null) {
+                    drained.add(late);
+                }
+            }
+        }
+        long cutoff = System.nanoTime() - baselineTtlNanos;
+        for (Map.Entry<ObjectId, Baseline> entry : baselines.entrySet()) {
+            if (entry.getValue().at() - cutoff < 0) {
+                // Only if no edit has replaced it since
+                baselines.remove(entry.getKey(), entry.getValue());
+            }
+        }
+
+        int reported = 0;
+        for (int from = 0; from < drained.size(); from += batchSize) {
+            List<EditContribution> batch = drained.subList(from, Math.min(from + batchSize, drained.size()));
+            try {
+                versionServiceClient.recordEdits(List.copyOf(batch));
+                reported += batch.size();
+            } catch (RuntimeException e) {
+                log.warn("Failed to report {} edit contributions, retrying on next flush: {}",
+                    batch.size(), e.getMessage());
+                batch.forEach(this::restore);
+            }
+        }
+        if (reported > 0) {
+            log.debug("Reported {} edit contributions", reported);
+        }
+        return reported;
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        flush();
+    }
+
+    private void restore(EditContribution contribution) {
+        add(new ContributionKey(new ObjectId(contribution.documentId()), new ObjectId(contribution.userId())),
+            contribution.edits(), contribution.charsAdded(), contribution.charsDeleted());
+    }
+
+    private void add(ContributionKey key, long edits, long added, long deleted) {
+        while (true) {
+            EditCounters entry = counters.computeIfAbsent(key, k -> new EditCounters());
+            if (entry.add(edits, added, deleted)) {
+                return;
+            }
+            // Retired by a concurrent flush: make sure it is gone and count on a fresh entry
+            counters.remove(key, entry);
+        }
+    }
+
+    private record ContributionKey(ObjectId documentId, ObjectId userId) {
+    }
+
+    private record Baseline(String content, long at) {
+    }
+
+    /**
+     * Striped counters of one user's edits to one document
+     * 
+     * {@code writers} counts edits adding to the counters, or is -1 once the
+     * counters are retired and take no more edits.
+     */
+    private static final class EditCounters {
+
+        private final LongAdder edits = new LongAdder();
+        private final LongAdder charsAdded = new LongAdder();
+        private final LongAdder charsDeleted = new LongAdder();
+        private final AtomicInteger writers = new AtomicInteger();
+
+        /**
+         * Add to the counters, unless they are retired
+         * 
+         * @return false if the counters are retired and nothing was added
+         */
+        boolean add(long edits, long added, long deleted) {
+            int current;
+            do {
+                current = writers.get();
+                if (current < 0) {
+                    return false;
+                }
+            } while (!writers.compareAndSet(current, current + 1));
+            try {
+                this.edits.add(edits);
+                charsAdded.add(added);
+                charsDeleted.add(deleted);
+            } finally {
+                writers.decrementAndGet();
+            }
+            return true;
+        }
+
+        /**
+         * Stop taking edits, if no edit is adding to the counters right now
+         * 
+         * Once this succeeds every earlier edit has finished adding, so a
+         * drain after it sees all of them.
+         */
+        boolean retire() {
+            return writers.compareAndSet(0, -1);
+        }
+
+        /**
+         * Take the counts so far, or null if there are none
+         * 
+         * sumThenReset swaps each cell to zero atomically, so an edit counted
+         * concurrently lands either in this drain or in the next one.
+         */
+        EditContribution drain(ContributionKey key) {
+            long edits = this.edits.sumThenReset();
+            long added = charsAdded.sumThenReset();
+            long deleted = charsDeleted.sumThenReset();
+            if (edits == 0 && added == 0 && deleted == 0) {
+                return null;
+            }
+            return new EditContribution(key.documentId().toHexString(), key.userId().toHexString(),
+                saturate(edits), saturate(added), saturate(deleted));
+        }
+
+        private static int saturate(long count) {
+            return (int) Math.min(count, Integer.MAX_VALUE);
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.collab.documentservice.service;
+
+import com.collab.documentservice.dto.UserDocumentIndexReport;
+import com.collab.documentservice.model.Document;
+import com.collab.documentservice.model.UserDocument;
+import com.collab.documentservice.repository.DocumentRepository;
+import com.collab.documentservice.repository.UserDocumentRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * User Document Index Service
+ * 
+ * Maintains the user_documents materialized view alongside document writes
+ * and provides the rebuild and verification tooling for it.
+ * 
+ * Live maintenance is eventually consistent: the document write has already
+ * succeeded when these hooks run, so a failure here is logged rather than
+ * surfaced to the caller, and {@link #rebuild()} repairs any drift.
+ * 
+ * @author Arhum Khan
+ * @version 1.0.0
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UserDocumentIndexService {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final UserDocumentRepository userDocumentRepository;
+    private final DocumentRepository documentRepository;
+
+    /**
+     * Record the owner entry for a newly created document
+     */
+    public void onDocumentCreated(Document document) {
+        apply("create", document.getId(), () -> userDocumentRepository.upsert(new UserDocument(
+            document.getOwnerId(), document.getId(), "owner", document.getTitle(), document.getUpdatedAt())));
+    }
+
+    /**
+     * Record an entry for a user who gained access through sharing or an accepted invitation
+     */
+    public void onCollaboratorAdded(Document document, ObjectId userId, String permission) {
+        apply("share", document.getId(), () -> userDocumentRepository.upsert(new UserDocument(
+            userId, document.getId(), permission, document.getTitle(), document.getUpdatedAt())));
+    }
+
+    /**
+     * Propagate title and last update time to every member's entry
+     */
+    public void onDocumentUpdated(Document document) {
+        apply("update", document.getId(), () -> userDocumentRepository.updateTitleAndUpdatedAt(
+            document.getId(), document.getTitle(), document.getUpdatedAt(), LocalDateTime.now()));
+    }
+
+    /**
+     * Drop every entry for a deleted document
+     */
+    public void onDocumentDeleted(ObjectId documentId) {
+        apply("delete", documentId, () -> userDocumentRepository.deleteByDocumentId(documentId));
+    }
+
+    /**
+     * Rebuild the view from the documents collection
+     * 
+     * Upserts the expected entries in batches, then removes every entry that
+     * was not refreshed by this run. Entries written by live traffic while the
+     * rebuild runs carry a newer syncedAt and survive the cleanup. A document
+     * deleted between being streamed and its batch being written would get
+     * its entries back, so each batch re-checks which of its documents still
+     * exist once written and drops the entries of the ones that are gone.
+     * 
+     * @return Counts of entries written and removed
+     */
+    public UserDocumentIndexReport rebuild() {
+        log.info("Rebuilding user_documents view");
+        LocalDateTime startedAt = LocalDateTime.now();
+        UserDocumentIndexReport report = new UserDocumentIndexReport();
+
+        List<UserDocument> batch = new ArrayList<>(BATCH_SIZE);
+        try (Stream<Document> documents = documentRepository.streamAllWithoutContent()) {
+            documents.forEach(document -> {
+                report.setDocumentsScanned(report.getDocumentsScanned() + 1);
+                batch.addAll(expectedEntries(document).values());
+                if (batch.size() >= BATCH_SIZE) {
+                    writeBatch(batch, report);
+                    batch.clear();
+                }
+            });
+        }
+        writeBatch(batch, report);
+
+        report.setEntriesRemoved(report.getEntriesRemoved()
+            + userDocumentRepository.deleteBySyncedAtBefore(startedAt));
+
+        log.info("Rebuilt user_documents view: {}", report);
+        return report;
+    }
+
+    private void writeBatch(List<UserDocument> batch, UserDocumentIndexReport report) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        userDocumentRepository.upsertAll(batch);
+        report.setEntriesWritten(report.getEntriesWritten() + batch.size());
+
+        // Deletes that ran before the upsert above did not see these entries
+        Set<ObjectId> written = batch.stream().map(UserDocument::getDocumentId).collect(Collectors.toSet());
+        documentRepository.findIdsByIdIn(written).forEach(document -> written.remove(document.getId()));
+        if (!written.isEmpty()) {
+            report.setEntriesRemoved(report.getEntriesRemoved() + userDocumentRepository.deleteByDocumentIdIn(written));
+        }
+    }
+
+    /**
+     * Compare the view against the documents collection without modifying it
+     * 
+     * @return Counts of missing, stale, extra and orphaned entries
+     */
+    public UserDocumentIndexReport verify() {
+        log.info("Verifying user_documents view");
+        UserDocumentIndexReport report = new UserDocumentIndexReport();
+        long[] entriesSeen = {0};
+
+        List<Document> batch = new ArrayList<>(BATCH_SIZE);
+        try (Stream<Document> documents = documentRepository.streamAllWithoutContent()) {
+            documents.forEach(document -> {
+                batch.add(document);
+                if (batch.size() >= BATCH_SIZE) {
+                    entriesSeen[0] += verifyBatch(batch, report);
+                    batch.clear();
+                }
+            });
+        }
+        entriesSeen[0] += verifyBatch(batch, report);
+
+        report.setOrphanEntries(Math.max(0, userDocumentRepository.count() - entriesSeen[0]));
+
+        log.info("Verified user_documents view: {}", report);
+        return report;
+    }
+
+    private long verifyBatch(List<Document> documents, UserDocumentIndexReport report) {
+        if (documents.isEmpty()) {
+            return 0;
+        }
+        List<ObjectId> ids = documents.stream().map(Document::getId).collect(Collectors.toList());
+        Map<ObjectId, List<UserDocument>> actualByDocument = userDocumentRepository.findByDocumentIdIn(ids).stream()
+            .collect(Collectors.groupingBy(UserDocument::getDocumentId));
+
+        long seen = 0;
+        for (Document document : documents) {
+            report.setDocumentsScanned(report.getDocumentsScanned() + 1);
+            Map<ObjectId, UserDocument> expected = expectedEntries(document);
+            List<UserDocument> actual = actualByDocument.getOrDefault(document.getId(), List.of());
+            seen += actual.size();
+
+            for (UserDocument entry : actual) {
+                UserDocument want = expected.remove(entry.getUserId());
+                if (want == null) {
+                    report.setExtraEntries(report.getExtraEntries() + 1);
+                } else if (!Objects.equals(want.getRole(), entry.getRole())
+                        || !Objects.equals(want.getTitle(), entry.getTitle())
+                        || !Objects.equals(want.getUpdatedAt(), entry.getUpdatedAt())) {
+                    report.setStaleEntries(report.getStaleEntries() + 1);
+                }
+            }
+            report.setMissingEntries(report.getMissingEntries() + expected.size());
+        }
+        return seen;
+    }
+
+    private Map<ObjectId, UserDocument> expectedEntries(Document document) {
+        Map<ObjectId, UserDocument> entries = new LinkedHashMap<>();
+        entries.put(document.getOwnerId(), new UserDocument(
+            document.getOwnerId(), document.getId(), "owner", document.getTitle(), document.getUpdatedAt()));
+        for (Document.Collaborator collaborator : document.getCollaborators()) {
+            if (collaborator.getUserId() != null) {
+                entries.putIfAbsent(collaborator.getUserId(), new UserDocument(
+                    collaborator.getUserId(), document.getId(), collaborator.getPermission(),
+                    document.getTitle(), document.getUpdatedAt()));
+            }
+        }
+        return entries;
+    }
+
+    private void apply(String operation, ObjectId documentId, Runnable change) {
+        try {
+            change.run();
+        } catch (RuntimeException e) {
+            log.warn("Failed to update user_documents on {} of document {}: {} (run a rebuild to repair)",
+                operation, documentId, e.getMessage());
+        }
+    }
+}
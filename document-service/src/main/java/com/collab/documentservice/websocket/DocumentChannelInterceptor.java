@@ -0,0 +1,125 @@
+package com.collab.documentservice.websocket;
+
+import com.collab.common.util.JwtUtil;
+import com.collab.documentservice.model.DocumentAcl;
+import com.collab.documentservice.service.DocumentAclCache;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Component;
+
+import java.security.Principal;
+
+/**
+ * Document Channel Interceptor
+ * 
+ * Authenticates STOMP sessions and enforces document permissions on the
+ * inbound channel. The JWT is validated once on CONNECT and the resulting
+ * {@link StompPrincipal} is bound to the session; SUBSCRIBE and SEND frames
+ * are then checked against the cached {@link DocumentAcl}, which costs a
+ * destination parse and an in-memory lookup per frame.
+ * 
+ * <ul>
+ *   <li>SUBSCRIBE /topic/document/{id} requires view access</li>
+ *   <li>SEND /app/document/{id}/edit requires edit access</li>
+ *   <li>SEND /app/document/{id}/join|leave requires view access</li>
+ * </ul>
+ * 
+ * @author Arhum Khan
+ * @version 1.0.0
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DocumentChannelInterceptor implements ChannelInterceptor {
+
+    static final String TOPIC_PREFIX = "/topic/document/";
+    static final String APP_PREFIX = "/app/document/";
+    static final String USER_PREFIX = "/user/";
+
+    private final JwtUtil jwtUtil;
+    private final DocumentAclCache documentAclCache;
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() == null) {
+            return message;
+        }
+
+        StompCommand command = accessor.getCommand();
+        if (command == StompCommand.CONNECT) {
+            accessor.setUser(authenticate(accessor));
+        } else if (command == StompCommand.SUBSCRIBE) {
+            authorizeSubscribe(principalOf(accessor), accessor.getDestination());
+        } else if (command == StompCommand.SEND) {
+            authorizeSend(principalOf(accessor), accessor.getDestination());
+        }
+        return message;
+    }
+
+    private StompPrincipal authenticate(StompHeaderAccessor accessor) {
+        String token = jwtUtil.extractToken(accessor.getFirstNativeHeader("Authorization"));
+        if (token == null || !jwtUtil.validateToken(token)) {
+            throw new AccessDeniedException("Missing or invalid token");
+        }
+        StompPrincipal principal = new StompPrincipal(
+            new ObjectId(jwtUtil.getUserIdFromToken(token)),
+            jwtUtil.getUsernameFromToken(token),
+            jwtUtil.getEmailFromToken(token)
+        );
+        log.debug("STOMP session {} authenticated as {}", accessor.getSessionId(), principal.getName());
+        return principal;
+    }
+
+    private void authorizeSubscribe(StompPrincipal principal, String destination) {
+        if (destination != null && destination.startsWith(USER_PREFIX)) {
+            return;
+        }
+        if (destination == null || !destination.startsWith(TOPIC_PREFIX)) {
+            throw new AccessDeniedException("Subscription not allowed: " + destination);
+        }
+        DocumentAcl acl = aclFor(destination, TOPIC_PREFIX);
+        if (acl == null || !acl.canView(principal.getUserId())) {
+            throw new AccessDeniedException("No access to " + destination);
+        }
+    }
+
+    private void authorizeSend(StompPrincipal principal, String destination) {
+        if (destination == null || !destination.startsWith(APP_PREFIX)) {
+            throw new AccessDeniedException("Destination not allowed: " + destination);
+        }
+        DocumentAcl acl = aclFor(destination, APP_PREFIX);
+        DocumentAcl.Permission permission = acl == null
+            ? DocumentAcl.Permission.NONE
+            : acl.permissionOf(principal.getUserId());
+        boolean allowed = destination.endsWith("/edit") ? permission.canEdit() : permission.canView();
+        if (!allowed) {
+            throw new AccessDeniedException("Not permitted to send to " + destination);
+        }
+    }
+
+    private DocumentAcl aclFor(String destination, String prefix) {
+        int end = destination.indexOf('/', prefix.length());
+        String documentId = destination.substring(prefix.length(), end < 0 ? destination.length() : end);
+        if (!ObjectId.isValid(documentId)) {
+            return null;
+        }
+        return documentAclCache.get(new ObjectId(documentId));
+    }
+
+    private StompPrincipal principalOf(StompHeaderAccessor accessor) {
+        Principal user = accessor.getUser();
+        if (!(user instanceof StompPrincipal principal)) {
+            throw new AccessDeniedException("Session is not authenticated");
+        }
+        return principal;
+    }
+}
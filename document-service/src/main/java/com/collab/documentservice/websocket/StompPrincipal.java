@@ -0,0 +1,33 @@
+package com.collab.documentservice.websocket;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.bson.types.ObjectId;
+
+import java.security.Principal;
+
+/**
+ * STOMP Session Principal
+ * 
+ * Identity established once from the JWT on the CONNECT frame and attached
+ * to the WebSocket session, so later frames carry the already-parsed user
+ * instead of re-validating a token or trusting ids sent in the payload.
+ * The principal name is the email address, which is how invitations address
+ * their recipient, so per-user queues can be targeted without a user lookup.
+ * 
+ * @author Arhum Khan
+ * @version 1.0.0
+ */
+@Getter
+@AllArgsConstructor
+public class StompPrincipal implements Principal {
+
+    private final ObjectId userId;
+    private final String username;
+    private final String email;
+
+    @Override
+    public String getName() {
+        return email;
+    }
+}
@@ -0,0 +1,88 @@
+package com.collab.documentservice.repository;
+
+import com.collab.common.util.ContentCodec;
+import com.collab.documentservice.model.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DocumentCompressionCallbackTest {
+
+    private static final String LONG_CONTENT = "Collaborative editing keeps everyone on the same page. ".repeat(100);
+
+    private final DocumentCompressionCallback callback = new DocumentCompressionCallback(1024);
+
+    @Test
+    void onBeforeConvert_LargeContent_StoredCompressed() {
+        // Arrange
+        Document document = new Document("Doc", LONG_CONTENT, new ObjectId());
+
+        // Act
+        callback.onBeforeConvert(document, "documents");
+
+        // Assert
+        assertEquals(ContentCodec.DEFLATE, document.getContentCodec());
+        assertTrue(document.getCompressedContent().length < LONG_CONTENT.length() / 5);
+        assertEquals(LONG_CONTENT, document.getContent());
+    }
+
+    @Test
+    void onBeforeConvert_SmallContent_StoredPlain() {
+        // Arrange
+        Document document = new Document("Doc", "short", new ObjectId());
+
+        // Act
+        callback.onBeforeConvert(document, "documents");
+
+        // Assert
+        assertNull(document.getContentCodec());
+        assertNull(document.getCompressedContent());
+        assertEquals("short", document.getContent());
+    }
+
+    @Test
+    void loadedCompressedDocument_DecompressesOnFirstRead() {
+        // Arrange: the shape a compressed document has straight after loading
+        Document document = new Document();
+        document.setContentCodec(ContentCodec.DEFLATE);
+        document.setCompressedContent(ContentCodec.compress(LONG_CONTENT, 0));
+
+        // Act & Assert
+        assertNull(document.getDecodedContent());
+        assertEquals(LONG_CONTENT, document.getContent());
+        assertSame(document.getContent(), document.getContent());
+    }
+
+    @Test
+    void onBeforeConvert_UnchangedCompressedContent_WrittenBackAsIs() {
+        // Arrange
+        byte[] stored = ContentCodec.compress(LONG_CONTENT, 0);
+        Document document = new Document();
+        document.setContentCodec(ContentCodec.DEFLATE);
+        document.setCompressedContent(stored);
+
+        // Act
+        callback.onBeforeConvert(document, "documents");
+
+        // Assert
+        assertSame(stored, document.getCompressedContent());
+        assertNull(document.getDecodedContent());
+    }
+
+    @Test
+    void setContent_ReplacesCompressedContent() {
+        // Arrange
+        Document document = new Document("Doc", LONG_CONTENT, new ObjectId());
+        callback.onBeforeConvert(document, "documents");
+
+        // Act
+        document.setContent("edited");
+        callback.onBeforeConvert(document, "documents");
+
+        // Assert
+        assertEquals("edited", document.getContent());
+        assertNull(document.getCompressedContent());
+        assertNull(document.getContentCodec());
+    }
+}
@@ -0,0 +1,211 @@
+package com.collab.documentservice.service;
+
+import com.collab.documentservice.client.VersionServiceClient;
+import com.collab.documentservice.model.Document;
+import com.collab.documentservice.repository.DocumentRepository;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AutoSnapshotServiceTest {
+
+    @Mock
+    private DocumentRepository documentRepository;
+
+    @Mock
+    private VersionServiceClient versionServiceClient;
+
+    private AutoSnapshotService autoSnapshotService;
+
+    @AfterEach
+    void tearDown() {
+        if (autoSnapshotService != null) {
+            autoSnapshotService.shutdown();
+        }
+    }
+
+    @Test
+    void snapshotDue_BelowThresholds_DoesNothing() {
+        // Arrange
+        autoSnapshotService = service(true, 1000, 4);
+        autoSnapshotService.recordEdit(new ObjectId(), new ObjectId(), 10);
+
+        // Act
+        int started = autoSnapshotService.snapshotDue();
+
+        // Assert
+        assertEquals(0, started);
+        verifyNoInteractions(documentRepository, versionServiceClient);
+    }
+
+    @Test
+    void snapshotDue_VolumeReached_CoalescesEditsIntoOneSnapshotMarkedCoalesced() {
+        // Arrange
+        autoSnapshotService = service(true, 50, 4);
+        ObjectId documentId = new ObjectId();
+        ObjectId firstEditor = new ObjectId();
+        ObjectId lastEditor = new ObjectId();
+        when(documentRepository.findById(documentId)).thenReturn(Optional.of(document("saved content")));
+        autoSnapshotService.recordEdit(documentId, firstEditor, 10);
+        autoSnapshotService.recordEdit(documentId, firstEditor, 40);
+        autoSnapshotService.recordEdit(documentId, lastEditor, 70);
+
+        // Act
+        int started = autoSnapshotService.snapshotDue();
+
+        // Assert
+        assertEquals(1, started);
+        verify(versionServiceClient, timeout(1000)).createSnapshot(documentId.toHexString(), "saved content",
+            lastEditor.toHexString(), AutoSnapshotService.SNAPSHOT_DESCRIPTION, true);
+        verifyNoMoreInteractions(versionServiceClient);
+    }
+
+    @Test
+    void snapshotDue_SnapshotInFlight_BoundsConcurrencyAndSkipsBusyDocument() throws InterruptedException {
+        // Arrange
+        autoSnapshotService = service(true, 1, 1);
+        ObjectId first = new ObjectId();
+        ObjectId second = new ObjectId();
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(documentRepository.findById(any(ObjectId.class))).thenReturn(Optional.of(document("content")));
+        doAnswer(invocation -> {
+            entered.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(versionServiceClient).createSnapshot(anyString(), anyString(), anyString(), anyString(), anyBoolean());
+        autoSnapshotService.recordEdit(first, new ObjectId(), 5);
+        autoSnapshotService.recordEdit(second, new ObjectId(), 5);
+
+        // Act
+        int firstTick = autoSnapshotService.snapshotDue();
+        assertTrue(entered.await(1, TimeUnit.SECONDS));
+        int busyTick = autoSnapshotService.snapshotDue();
+        release.countDown();
+
+        // Assert
+        assertEquals(1, firstTick);
+        assertEquals(0, busyTick);
+        verify(versionServiceClient, timeout(1000)).createSnapshot(anyString(), anyString(), anyString(), anyString(), anyBoolean());
+    }
+
+    @Test
+    void snapshotDue_SnapshotFails_RetriesOnNextTick() {
+        // Arrange
+        autoSnapshotService = service(true, 1, 4);
+        ObjectId documentId = new ObjectId();
+        when(documentRepository.findById(documentId)).thenReturn(Optional.of(document("content")));
+        doThrow(new RuntimeException("version-service unavailable")).doNothing()
+            .when(versionServiceClient).createSnapshot(anyString(), anyString(), anyString(), anyString(), anyBoolean());
+        autoSnapshotService.recordEdit(documentId, new ObjectId(), 5);
+
+        // Act
+        assertEquals(1, autoSnapshotService.snapshotDue());
+        verify(versionServiceClient, timeout(1000)).createSnapshot(eq(documentId.toHexString()),
+            anyString(), anyString(), anyString(), anyBoolean());
+        int retried = awaitStarted();
+
+        // Assert
+        assertEquals(1, retried);
+        verify(versionServiceClient, timeout(1000).times(2)).createSnapshot(eq(documentId.toHexString()),
+            anyString(), anyString(), anyString(), anyBoolean());
+    }
+
+    @Test
+    void recordEdit_Disabled_IsIgnored() {
+        // Arrange
+        autoSnapshotService = service(false, 1, 4);
+        autoSnapshotService.recordEdit(new ObjectId(), new ObjectId(), 5000);
+
+        // Act
+        int started = autoSnapshotService.snapshotDue();
+
+        // Assert
+        assertEquals(0, started);
+        verifyNoInteractions(documentRepository, versionServiceClient);
+    }
+
+    @Test
+    void shutdown_DirtyDocumentBelowThresholds_IsSnapshotted() {
+        // Arrange
+        autoSnapshotService = service(true, 1000, 4);
+        ObjectId documentId = new ObjectId();
+        ObjectId editor = new ObjectId();
+        when(documentRepository.findById(documentId)).thenReturn(Optional.of(document("unsaved work")));
+        autoSnapshotService.recordEdit(documentId, editor, 10);
+
+        // Act
+        autoSnapshotService.shutdown();
+
+        // Assert
+        verify(versionServiceClient).createSnapshot(documentId.toHexString(), "unsaved work",
+            editor.toHexString(), AutoSnapshotService.SNAPSHOT_DESCRIPTION, false);
+        assertEquals(0, autoSnapshotService.snapshotDue());
+    }
+
+    @Test
+    void shutdown_SnapshotInFlight_WaitsThenFlushesLaterEdits() throws InterruptedException {
+        // Arrange
+        autoSnapshotService = service(true, 1, 1);
+        ObjectId documentId = new ObjectId();
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(documentRepository.findById(documentId)).thenReturn(Optional.of(document("content")));
+        doAnswer(invocation -> {
+            entered.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        }).doNothing().when(versionServiceClient).createSnapshot(anyString(), anyString(), anyString(), anyString(), anyBoolean());
+        autoSnapshotService.recordEdit(documentId, new ObjectId(), 5);
+        assertEquals(1, autoSnapshotService.snapshotDue());
+        assertTrue(entered.await(1, TimeUnit.SECONDS));
+        autoSnapshotService.recordEdit(documentId, new ObjectId(), 50);
+
+        // Act
+        CompletableFuture.runAsync(release::countDown, CompletableFuture.delayedExecutor(100, TimeUnit.MILLISECONDS));
+        autoSnapshotService.shutdown();
+
+        // Assert
+        verify(versionServiceClient, times(2)).createSnapshot(eq(documentId.toHexString()),
+            anyString(), anyString(), anyString(), anyBoolean());
+    }
+
+    private AutoSnapshotService service(boolean enabled, long editVolume, int maxConcurrent) {
+        return new AutoSnapshotService(documentRepository, versionServiceClient, enabled, editVolume,
+            Duration.ofHours(1), Duration.ofHours(2), maxConcurrent, Duration.ofSeconds(5));
+    }
+
+    /**
+     * Tick until the previous (failed) snapshot has been re-queued and a new one starts
+     */
+    private int awaitStarted() {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        int started = 0;
+        while (started == 0 && System.nanoTime() < deadline) {
+            started = autoSnapshotService.snapshotDue();
+            Thread.onSpinWait();
+        }
+        return started;
+    }
+
+    private static Document document(String content) {
+        return new Document("Title", content, new ObjectId());
+    }
+}
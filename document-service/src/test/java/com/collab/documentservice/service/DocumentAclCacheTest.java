@@ -0,0 +1,120 @@
+package com.collab.documentservice.service;
+
+import com.collab.documentservice.model.Document;
+import com.collab.documentservice.model.DocumentAcl;
+import com.collab.documentservice.repository.DocumentRepository;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DocumentAclCacheTest {
+
+    @Mock
+    private DocumentRepository documentRepository;
+
+    private DocumentAclCache documentAclCache;
+    private ObjectId ownerId;
+    private Document document;
+
+    @BeforeEach
+    void setUp() {
+        documentAclCache = new DocumentAclCache(documentRepository, 100, Duration.ofMinutes(10));
+        ownerId = new ObjectId();
+        document = new Document("Doc", "content", ownerId);
+        document.setId(new ObjectId());
+    }
+
+    @Test
+    void permissionOf_ResolvesEveryCollaborator() {
+        // Arrange: enough collaborators to force probing collisions
+        List<ObjectId> editors = new ArrayList<>();
+        List<ObjectId> viewers = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            ObjectId editor = new ObjectId();
+            ObjectId viewer = new ObjectId();
+            editors.add(editor);
+            viewers.add(viewer);
+            document.getCollaborators().add(new Document.Collaborator(editor, "edit"));
+            document.getCollaborators().add(new Document.Collaborator(viewer, "view"));
+        }
+
+        // Act
+        DocumentAcl acl = DocumentAcl.of(document);
+
+        // Assert
+        assertEquals(DocumentAcl.Permission.OWNER, acl.permissionOf(ownerId));
+        editors.forEach(id -> assertEquals(DocumentAcl.Permission.EDIT, acl.permissionOf(id)));
+        viewers.forEach(id -> assertEquals(DocumentAcl.Permission.VIEW, acl.permissionOf(id)));
+        assertEquals(DocumentAcl.Permission.NONE, acl.permissionOf(new ObjectId()));
+        assertEquals(DocumentAcl.Permission.NONE, acl.permissionOf(null));
+    }
+
+    @Test
+    void get_LoadsOnceThenServesFromMemory() {
+        // Arrange
+        when(documentRepository.findAclById(document.getId())).thenReturn(Optional.of(document));
+
+        // Act
+        DocumentAcl first = documentAclCache.get(document.getId());
+        DocumentAcl second = documentAclCache.get(document.getId());
+
+        // Assert
+        assertSame(first, second);
+        assertTrue(first.canEdit(ownerId));
+        verify(documentRepository, times(1)).findAclById(document.getId());
+    }
+
+    @Test
+    void get_MissingDocument_ReturnsNull() {
+        // Arrange
+        when(documentRepository.findAclById(document.getId())).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertNull(documentAclCache.get(document.getId()));
+    }
+
+    @Test
+    void put_ReplacesCachedAclWithoutReloading() {
+        // Arrange
+        ObjectId newUser = new ObjectId();
+        when(documentRepository.findAclById(document.getId())).thenReturn(Optional.of(document));
+        assertFalse(documentAclCache.get(document.getId()).canView(newUser));
+        Document saved = new Document("Title", "Content", ownerId);
+        saved.setId(document.getId());
+        saved.getCollaborators().add(new Document.Collaborator(newUser, "view"));
+
+        // Act
+        documentAclCache.put(saved);
+
+        // Assert
+        assertTrue(documentAclCache.get(document.getId()).canView(newUser));
+        assertFalse(documentAclCache.get(document.getId()).canEdit(newUser));
+        verify(documentRepository, times(1)).findAclById(document.getId());
+    }
+
+    @Test
+    void invalidate_ReloadsOnNextGet() {
+        // Arrange
+        when(documentRepository.findAclById(document.getId())).thenReturn(Optional.of(document));
+        documentAclCache.get(document.getId());
+
+        // Act
+        documentAclCache.invalidate(document.getId());
+        documentAclCache.get(document.getId());
+
+        // Assert
+        verify(documentRepository, times(2)).findAclById(document.getId());
+    }
+}
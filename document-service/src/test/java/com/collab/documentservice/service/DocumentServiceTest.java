@@ -1,19 +1,33 @@
 package com.collab.documentservice.service;
 
+import com.collab.common.client.UserDirectoryClient;
+import com.collab.common.client.UserSummary;
 import com.collab.common.exception.BadRequestException;
 import com.collab.common.exception.ResourceNotFoundException;
 import com.collab.common.exception.UnauthorizedException;
+import com.collab.documentservice.client.VersionContent;
+import com.collab.documentservice.client.VersionServiceClient;
 import com.collab.documentservice.dto.*;
 import com.collab.documentservice.model.Document;
+import com.collab.documentservice.model.DocumentInvitation;
+import com.collab.documentservice.model.UserDocument;
+import com.collab.documentservice.repository.DocumentInvitationRepository;
 import com.collab.documentservice.repository.DocumentRepository;
+import com.collab.documentservice.repository.UserDocumentRepository;
 import org.bson.types.ObjectId;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.web.client.ResourceAccessException;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -21,6 +35,11 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -29,6 +48,39 @@ class DocumentServiceTest {
     @Mock
     private DocumentRepository documentRepository;
 
+    @Mock
+    private UserDocumentRepository userDocumentRepository;
+
+    @Mock
+    private UserDocumentIndexService userDocumentIndexService;
+
+    @Mock
+    private DocumentInvitationRepository invitationRepository;
+
+    @Mock
+    private InvitationCounterService invitationCounterService;
+
+    @Mock
+    private InvitationNotificationService invitationNotificationService;
+
+    @Mock
+    private UserDirectoryClient userDirectoryClient;
+
+    @Mock
+    private AutoSnapshotService autoSnapshotService;
+
+    @Mock
+    private LiveContributionTracker liveContributionTracker;
+
+    @Mock
+    private VersionServiceClient versionServiceClient;
+
+    @Mock
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Spy
+    private DocumentAclCache documentAclCache = new DocumentAclCache(null, 1000, Duration.ofMinutes(10));
+
     @InjectMocks
     private DocumentService documentService;
 
@@ -63,6 +115,7 @@ class DocumentServiceTest {
         assertEquals("Test Document", result.getTitle());
         assertEquals("Test content", result.getContent());
         verify(documentRepository, times(1)).save(any(Document.class));
+        verify(userDocumentIndexService, times(1)).onDocumentCreated(testDocument);
     }
 
     @Test
@@ -122,6 +175,124 @@ class DocumentServiceTest {
         // Assert
         assertNotNull(result);
         verify(documentRepository, times(1)).save(any(Document.class));
+        verify(autoSnapshotService).recordEdit(testDocument.getId(), ownerId, request.getContent().length());
+    }
+
+    @Test
+    void revertToVersion_AsOwner_SavesRecordsAndBroadcastsOnce() {
+        // Arrange
+        String versionId = new ObjectId().toString();
+        when(documentRepository.findById(documentId)).thenReturn(Optional.of(testDocument));
+        when(documentRepository.replaceIfRevision(any(Document.class), eq(0L)))
+            .thenAnswer(invocation -> Optional.of(invocation.getArgument(0)));
+        when(versionServiceClient.getVersion(versionId))
+            .thenReturn(Optional.of(new VersionContent(versionId, documentId.toString(), "Old content")));
+        when(userDirectoryClient.findById(ownerId.toString()))
+            .thenReturn(Optional.of(new UserSummary(ownerId.toString(), "owner", "owner@example.com")));
+
+        // Act
+        DocumentDTO result = documentService.revertToVersion(documentId.toString(), versionId, ownerId.toString());
+
+        // Assert
+        assertEquals("Old content", result.getContent());
+        assertEquals(1, result.getRevision());
+        verify(versionServiceClient).recordRevert(eq(documentId.toString()), eq(versionId), eq(ownerId.toString()),
+            anyString());
+        verify(messagingTemplate, times(1)).convertAndSend(eq("/topic/document/" + documentId),
+            argThat((DocumentMessage message) -> "content-change".equals(message.getType())
+                && "Old content".equals(message.getContent()) && "owner".equals(message.getUsername())));
+        verify(autoSnapshotService, never()).recordEdit(any(), any(), anyInt());
+        verify(liveContributionTracker).rebase(documentId, "Old content");
+        verify(liveContributionTracker, never()).recordEdit(any(), any(), any());
+    }
+
+    @Test
+    void revertToVersion_ConcurrentEdit_ThrowsWithoutRecording() {
+        // Arrange
+        String versionId = new ObjectId().toString();
+        when(documentRepository.findById(documentId)).thenReturn(Optional.of(testDocument));
+        when(documentRepository.replaceIfRevision(any(Document.class), eq(0L))).thenReturn(Optional.empty());
+        when(versionServiceClient.getVersion(versionId))
+            .thenReturn(Optional.of(new VersionContent(versionId, documentId.toString(), "Old content")));
+
+        // Act & Assert
+        assertThrows(BadRequestException.class,
+            () -> documentService.revertToVersion(documentId.toString(), versionId, ownerId.toString()));
+        verify(versionServiceClient, never()).recordRevert(anyString(), anyString(), anyString(), anyString());
+        verifyNoInteractions(messagingTemplate);
+    }
+
+    @Test
+    void revertToVersion_RecordFailsOnce_RetriesWithSameKey() {
+        // Arrange
+        String versionId = new ObjectId().toString();
+        when(documentRepository.findById(documentId)).thenReturn(Optional.of(testDocument));
+        when(documentRepository.replaceIfRevision(any(Document.class), anyLong()))
+            .thenAnswer(invocation -> Optional.of(invocation.getArgument(0)));
+        when(versionServiceClient.getVersion(versionId))
+            .thenReturn(Optional.of(new VersionContent(versionId, documentId.toString(), "Old content")));
+        doThrow(new ResourceAccessException("read timed out")).doNothing()
+            .when(versionServiceClient).recordRevert(anyString(), anyString(), anyString(), anyString());
+
+        // Act
+        DocumentDTO result = documentService.revertToVersion(documentId.toString(), versionId, ownerId.toString());
+
+        // Assert
+        assertEquals("Old content", result.getContent());
+        ArgumentCaptor<String> keys = ArgumentCaptor.forClass(String.class);
+        verify(versionServiceClient, times(2)).recordRevert(anyString(), anyString(), anyString(), keys.capture());
+        assertEquals(keys.getAllValues().get(0), keys.getAllValues().get(1));
+        verify(documentRepository, times(1)).replaceIfRevision(any(Document.class), anyLong());
+    }
+
+    @Test
+    void revertToVersion_RecordKeepsFailing_RestoresContentAndRethrows() {
+        // Arrange
+        String versionId = new ObjectId().toString();
+        when(documentRepository.findById(documentId)).thenReturn(Optional.of(testDocument));
+        when(documentRepository.replaceIfRevision(any(Document.class), anyLong()))
+            .thenAnswer(invocation -> Optional.of(invocation.getArgument(0)));
+        when(versionServiceClient.getVersion(versionId))
+            .thenReturn(Optional.of(new VersionContent(versionId, documentId.toString(), "Old content")));
+        doThrow(new ResourceAccessException("version-service down"))
+            .when(versionServiceClient).recordRevert(anyString(), anyString(), anyString(), anyString());
+
+        // Act & Assert
+        assertThrows(ResourceAccessException.class,
+            () -> documentService.revertToVersion(documentId.toString(), versionId, ownerId.toString()));
+        assertEquals("Test content", testDocument.getContent());
+        assertEquals(2, testDocument.getRevision());
+        verify(versionServiceClient, times(3)).recordRevert(anyString(), anyString(), anyString(), anyString());
+        verify(documentRepository).replaceIfRevision(testDocument, 0L);
+        verify(documentRepository).replaceIfRevision(testDocument, 1L);
+        verify(documentRepository, never()).save(any());
+        verifyNoInteractions(messagingTemplate);
+    }
+
+    @Test
+    void revertToVersion_VersionOfOtherDocument_ThrowsException() {
+        // Arrange
+        String versionId = new ObjectId().toString();
+        when(documentRepository.findById(documentId)).thenReturn(Optional.of(testDocument));
+        when(versionServiceClient.getVersion(versionId))
+            .thenReturn(Optional.of(new VersionContent(versionId, new ObjectId().toString(), "Other")));
+
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class,
+            () -> documentService.revertToVersion(documentId.toString(), versionId, ownerId.toString()));
+        verify(documentRepository, never()).replaceIfRevision(any(), anyLong());
+    }
+
+    @Test
+    void revertToVersion_Unauthorized_ThrowsException() {
+        // Arrange
+        when(documentRepository.findById(documentId)).thenReturn(Optional.of(testDocument));
+
+        // Act & Assert
+        assertThrows(UnauthorizedException.class,
+            () -> documentService.revertToVersion(documentId.toString(), new ObjectId().toString(),
+                new ObjectId().toString()));
+        verifyNoInteractions(versionServiceClient);
     }
 
     @Test
@@ -162,6 +333,39 @@ class DocumentServiceTest {
 
         // Assert
         verify(documentRepository, times(1)).save(any(Document.class));
+        verify(documentAclCache, times(1)).put(testDocument);
+    }
+
+    @Test
+    void shareDocument_ByEditor_Success() {
+        // Arrange
+        ObjectId editorId = new ObjectId();
+        testDocument.getCollaborators().add(new Document.Collaborator(editorId, "edit"));
+        ShareDocumentRequest request = new ShareDocumentRequest(new ObjectId().toString(), "view");
+
+        when(documentRepository.findById(documentId)).thenReturn(Optional.of(testDocument));
+
+        // Act
+        documentService.shareDocument(documentId.toString(), request, editorId.toString());
+
+        // Assert
+        assertEquals(2, testDocument.getCollaborators().size());
+        verify(documentRepository, times(1)).save(testDocument);
+    }
+
+    @Test
+    void updateDocument_ViewOnlyCollaborator_ThrowsException() {
+        // Arrange
+        ObjectId viewerId = new ObjectId();
+        testDocument.getCollaborators().add(new Document.Collaborator(viewerId, "view"));
+        UpdateDocumentRequest request = new UpdateDocumentRequest("content", null, viewerId.toString());
+
+        when(documentRepository.findById(documentId)).thenReturn(Optional.of(testDocument));
+
+        // Act & Assert
+        assertThrows(UnauthorizedException.class,
+            () -> documentService.updateDocument(documentId.toString(), request, viewerId.toString()));
+        verify(documentRepository, never()).save(any(Document.class));
     }
 
     @Test
@@ -220,6 +424,7 @@ class DocumentServiceTest {
 
         // Assert
         verify(documentRepository, times(1)).delete(testDocument);
+        verify(userDocumentIndexService, times(1)).onDocumentDeleted(documentId);
     }
 
     @Test
@@ -273,4 +478,144 @@ class DocumentServiceTest {
         assertNotNull(result);
         assertTrue(result.isEmpty());
     }
+
+    @Test
+    void getDocumentSummaries_MorePages_ReturnsCursor() {
+        // Arrange
+        ObjectId userId = new ObjectId();
+        java.time.LocalDateTime now = java.time.LocalDateTime.now();
+
+        UserDocument newer = new UserDocument(userId, new ObjectId(), "owner", "Newer", now);
+        UserDocument older = new UserDocument(userId, new ObjectId(), "view", "Older", now.minusHours(1));
+        UserDocument extra = new UserDocument(userId, new ObjectId(), "edit", "Extra", now.minusHours(2));
+
+        when(userDocumentRepository.findLatestPage(eq(userId), any(Pageable.class)))
+            .thenReturn(new ArrayList<>(Arrays.asList(newer, older, extra)));
+
+        // Act
+        DocumentSummaryPage page = documentService.getDocumentSummaries(userId.toString(), null, 2);
+
+        // Assert
+        assertEquals(2, page.getItems().size());
+        assertEquals("owner", page.getItems().get(0).getPermission());
+        assertEquals("view", page.getItems().get(1).getPermission());
+        assertNotNull(page.getNextCursor());
+
+        PageCursor cursor = PageCursor.decode(page.getNextCursor());
+        assertEquals(older.getDocumentId(), cursor.getId());
+        assertEquals(older.getUpdatedAt(), cursor.getUpdatedAt());
+    }
+
+    @Test
+    void getDocumentSummaries_LastPage_NoCursor() {
+        // Arrange
+        ObjectId userId = new ObjectId();
+        PageCursor after = new PageCursor(java.time.LocalDateTime.now(), new ObjectId());
+        when(userDocumentRepository.findPageAfter(
+                eq(userId), eq(after.getUpdatedAt()), eq(after.getId()), any(Pageable.class)))
+            .thenReturn(new ArrayList<>());
+
+        // Act
+        DocumentSummaryPage page = documentService.getDocumentSummaries(userId.toString(), after.encode(), 20);
+
+        // Assert
+        assertTrue(page.getItems().isEmpty());
+        assertNull(page.getNextCursor());
+        verify(userDocumentRepository, never()).findLatestPage(any(), any());
+    }
+
+    @Test
+    void getDocumentSummaries_InvalidCursor_ThrowsException() {
+        assertThrows(BadRequestException.class,
+            () -> documentService.getDocumentSummaries(ownerId.toString(), "not-a-cursor", 20));
+    }
+
+    @Test
+    void getInvitationCount_ReadsCounter() {
+        // Arrange
+        when(invitationCounterService.getPendingCount("user@example.com")).thenReturn(3L);
+
+        // Act
+        long count = documentService.getInvitationCount("user@example.com");
+
+        // Assert
+        assertEquals(3L, count);
+        verify(invitationRepository, never()).findAll();
+    }
+
+    @Test
+    void declineInvitation_DecrementsCounter() {
+        // Arrange
+        DocumentInvitation invitation = pendingInvitation("user@example.com");
+        when(invitationRepository.findById(invitation.getId())).thenReturn(Optional.of(invitation));
+        when(invitationRepository.resolvePending(eq(invitation.getId()), eq("DECLINED"), any())).thenReturn(1L);
+
+        // Act
+        documentService.declineInvitation(invitation.getId().toString(), "user@example.com");
+
+        // Assert
+        assertEquals("DECLINED", invitation.getStatus());
+        verify(invitationCounterService, times(1)).adjust("user@example.com", -1);
+        verify(invitationNotificationService, times(1)).invitationDeclined(invitation);
+    }
+
+    @Test
+    void declineInvitation_ResolvedConcurrently_ThrowsAndLeavesCounter() {
+        // Arrange
+        DocumentInvitation invitation = pendingInvitation("user@example.com");
+        when(invitationRepository.findById(invitation.getId())).thenReturn(Optional.of(invitation));
+        when(invitationRepository.resolvePending(eq(invitation.getId()), eq("DECLINED"), any())).thenReturn(0L);
+
+        // Act & Assert
+        assertThrows(BadRequestException.class,
+            () -> documentService.declineInvitation(invitation.getId().toString(), "user@example.com"));
+        verify(invitationCounterService, never()).adjust(any(), anyLong());
+        verify(invitationNotificationService, never()).invitationDeclined(any());
+    }
+
+    @Test
+    void acceptInvitation_AcceptedConcurrently_DoesNotAddCollaborator() {
+        // Arrange
+        DocumentInvitation invitation = pendingInvitation("user@example.com");
+        when(invitationRepository.findById(invitation.getId())).thenReturn(Optional.of(invitation));
+        when(documentRepository.findById(documentId)).thenReturn(Optional.of(testDocument));
+        when(invitationRepository.resolvePending(eq(invitation.getId()), eq("ACCEPTED"), any())).thenReturn(0L);
+
+        // Act & Assert
+        assertThrows(BadRequestException.class, () -> documentService.acceptInvitation(
+            invitation.getId().toString(), "user@example.com", new ObjectId().toString()));
+        verify(documentRepository, never()).save(any(Document.class));
+        verify(invitationCounterService, never()).adjust(any(), anyLong());
+    }
+
+    @Test
+    void cancelInvitation_AlreadyResolved_LeavesCounter() {
+        // Arrange
+        DocumentInvitation invitation = pendingInvitation("user@example.com");
+        invitation.setStatus("DECLINED");
+        when(invitationRepository.findById(invitation.getId())).thenReturn(Optional.of(invitation));
+        when(invitationRepository.resolvePending(eq(invitation.getId()), eq("CANCELLED"), any())).thenReturn(0L);
+
+        // Act
+        documentService.cancelInvitation(invitation.getId().toString(), ownerId.toString());
+
+        // Assert
+        assertEquals("DECLINED", invitation.getStatus());
+        verify(invitationCounterService, never()).adjust(any(), anyLong());
+        verify(invitationNotificationService, never()).invitationCancelled(any());
+    }
+
+    private DocumentInvitation pendingInvitation(String email) {
+        DocumentInvitation invitation = new DocumentInvitation();
+        invitation.setId(new ObjectId());
+        invitation.setDocumentId(documentId);
+        invitation.setDocumentTitle("Test Document");
+        invitation.setInvitedBy(new DocumentInvitation.InvitationUser(ownerId.toString(), "owner@example.com"));
+        invitation.setInvitedUser(new DocumentInvitation.InvitationUser(null, email));
+        invitation.setPermission("edit");
+        invitation.setStatus("PENDING");
+        invitation.setInvitedAt(java.time.LocalDateTime.now());
+        invitation.setExpiresAt(java.time.LocalDateTime.now().plusDays(7));
+        return invitation;
+    }
 }
@@ -0,0 +1,110 @@
+package com.collab.documentservice.service;
+
+import com.collab.documentservice.model.InvitationCounter;
+import com.collab.documentservice.repository.DocumentInvitationRepository;
+import com.collab.documentservice.repository.InvitationCounterRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InvitationCounterServiceTest {
+
+    private static final String EMAIL = "user@example.com";
+
+    @Mock
+    private InvitationCounterRepository counterRepository;
+
+    @Mock
+    private DocumentInvitationRepository invitationRepository;
+
+    private InvitationCounterService invitationCounterService;
+
+    @BeforeEach
+    void setUp() {
+        invitationCounterService = new InvitationCounterService(counterRepository, invitationRepository, 2);
+    }
+
+    @Test
+    void getPendingCount_ExistingCounter_PointRead() {
+        when(counterRepository.findById(EMAIL)).thenReturn(Optional.of(new InvitationCounter(EMAIL, 4)));
+
+        assertEquals(4, invitationCounterService.getPendingCount(EMAIL));
+        verify(invitationRepository, never()).countPendingByInvitedEmail(any());
+    }
+
+    @Test
+    void getPendingCount_MissingCounter_SeedsFromIndexedCount() {
+        when(counterRepository.findById(EMAIL)).thenReturn(Optional.empty());
+        when(invitationRepository.countPendingByInvitedEmail(EMAIL)).thenReturn(2L);
+
+        assertEquals(2, invitationCounterService.getPendingCount(EMAIL));
+        verify(counterRepository).insert(new InvitationCounter(EMAIL, 2));
+    }
+
+    @Test
+    void adjust_ExistingCounter_SingleAtomicUpdate() {
+        when(counterRepository.addPending(EMAIL, -1)).thenReturn(1L);
+
+        invitationCounterService.adjust(EMAIL, -1);
+
+        verify(counterRepository, never()).insert(any(InvitationCounter.class));
+    }
+
+    @Test
+    void adjust_ConcurrentSeed_AppliesDeltaToWinnersCounter() {
+        when(counterRepository.addPending(EMAIL, 1)).thenReturn(0L).thenReturn(1L);
+        when(invitationRepository.countPendingByInvitedEmail(EMAIL)).thenReturn(1L);
+        when(counterRepository.insert(any(InvitationCounter.class))).thenThrow(new DuplicateKeyException("dup"));
+
+        assertDoesNotThrow(() -> invitationCounterService.adjust(EMAIL, 1));
+        verify(counterRepository, times(2)).addPending(EMAIL, 1);
+    }
+
+    @Test
+    void adjust_MissingCounter_SeedIncludesChange() {
+        when(counterRepository.addPending(EMAIL, 1)).thenReturn(0L);
+        when(invitationRepository.countPendingByInvitedEmail(EMAIL)).thenReturn(1L);
+
+        invitationCounterService.adjust(EMAIL, 1);
+
+        verify(counterRepository).insert(new InvitationCounter(EMAIL, 1));
+        verify(counterRepository, times(1)).addPending(EMAIL, 1);
+    }
+
+    @Test
+    void reconcile_CorrectsDriftedCountersWithCompareAndSet() {
+        InvitationCounter drifted = new InvitationCounter(EMAIL, 5);
+        InvitationCounter accurate = new InvitationCounter("other@example.com", 1);
+        InvitationCounter changed = new InvitationCounter("third@example.com", 2);
+        when(counterRepository.findAfter(eq(""), any(Pageable.class))).thenReturn(List.of(drifted, accurate));
+        when(counterRepository.findAfter(eq("other@example.com"), any(Pageable.class))).thenReturn(List.of(changed));
+        when(counterRepository.findById(EMAIL)).thenReturn(Optional.of(drifted));
+        when(counterRepository.findById("other@example.com")).thenReturn(Optional.of(accurate));
+        when(counterRepository.findById("third@example.com")).thenReturn(Optional.of(changed));
+        when(invitationRepository.countPendingByInvitedEmail(EMAIL)).thenReturn(3L);
+        when(invitationRepository.countPendingByInvitedEmail("other@example.com")).thenReturn(1L);
+        when(invitationRepository.countPendingByInvitedEmail("third@example.com")).thenReturn(0L);
+        when(counterRepository.setPendingIf(EMAIL, 5, 3)).thenReturn(1L);
+        when(counterRepository.setPendingIf("third@example.com", 2, 0)).thenReturn(0L);   // adjusted meanwhile
+
+        int corrected = invitationCounterService.reconcile();
+
+        assertEquals(1, corrected);
+        verify(counterRepository, never()).setPendingIf(eq("other@example.com"), anyLong(), anyLong());
+        verify(counterRepository, never()).save(any());
+    }
+}
@@ -0,0 +1,111 @@
+package com.collab.documentservice.service;
+
+import com.collab.documentservice.model.DocumentInvitation;
+import com.collab.documentservice.repository.DocumentInvitationRepository;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InvitationExpiryServiceTest {
+
+    @Mock
+    private DocumentInvitationRepository invitationRepository;
+
+    @Mock
+    private InvitationCounterService invitationCounterService;
+
+    @Mock
+    private InvitationNotificationService invitationNotificationService;
+
+    private InvitationExpiryService invitationExpiryService;
+
+    @BeforeEach
+    void setUp() {
+        invitationExpiryService = new InvitationExpiryService(invitationRepository,
+            invitationCounterService, invitationNotificationService, 2, Duration.ofDays(30));
+    }
+
+    @Test
+    void expireOverdue_BatchesUntilShortPage_AndDecrementsPerRecipient() {
+        // Arrange
+        DocumentInvitation a1 = invitation("a@example.com");
+        DocumentInvitation a2 = invitation("a@example.com");
+        DocumentInvitation b1 = invitation("b@example.com");
+        when(invitationRepository.findOverdue(any(LocalDateTime.class), any(Pageable.class)))
+            .thenReturn(List.of(a1, a2))
+            .thenReturn(List.of(b1));
+        when(invitationRepository.expirePending(anyList(), any(LocalDateTime.class))).thenReturn(2L, 1L);
+
+        // Act
+        long expired = invitationExpiryService.expireOverdue();
+
+        // Assert
+        assertEquals(3, expired);
+        verify(invitationRepository, times(2)).findOverdue(any(LocalDateTime.class), any(Pageable.class));
+        verify(invitationCounterService).adjust("a@example.com", -2);
+        verify(invitationCounterService).adjust("b@example.com", -1);
+        verify(invitationNotificationService, times(3)).invitationExpired(any());
+    }
+
+    @Test
+    void expireOverdue_ConcurrentResolution_CountsAndNotifiesOnlyExpired() {
+        // Arrange
+        DocumentInvitation accepted = invitation("a@example.com");
+        DocumentInvitation expired = invitation("a@example.com");
+        when(invitationRepository.findOverdue(any(LocalDateTime.class), any(Pageable.class)))
+            .thenReturn(List.of(accepted, expired))
+            .thenReturn(List.of());
+        when(invitationRepository.expirePending(anyList(), any(LocalDateTime.class))).thenReturn(1L);
+        when(invitationRepository.findExpiredAt(anyList(), any(LocalDateTime.class))).thenReturn(List.of(expired));
+
+        // Act
+        long total = invitationExpiryService.expireOverdue();
+
+        // Assert
+        assertEquals(1, total);
+        verify(invitationCounterService).adjust("a@example.com", -1);
+        verify(invitationNotificationService).invitationExpired(expired);
+        verify(invitationNotificationService, never()).invitationExpired(accepted);
+    }
+
+    @Test
+    void purgeResolved_DeletesInBatches() {
+        // Arrange
+        when(invitationRepository.findResolvedBefore(anyList(), any(LocalDateTime.class), any(Pageable.class)))
+            .thenReturn(List.of(invitation("a@example.com"), invitation("b@example.com")))
+            .thenReturn(List.of());
+        when(invitationRepository.deleteByIdIn(anyList())).thenReturn(2L);
+
+        // Act
+        long purged = invitationExpiryService.purgeResolved();
+
+        // Assert
+        assertEquals(2, purged);
+        verify(invitationRepository, times(1)).deleteByIdIn(anyList());
+    }
+
+    private DocumentInvitation invitation(String email) {
+        DocumentInvitation invitation = new DocumentInvitation();
+        invitation.setId(new ObjectId());
+        invitation.setDocumentId(new ObjectId());
+        invitation.setInvitedUser(new DocumentInvitation.InvitationUser(null, email));
+        invitation.setExpiresAt(LocalDateTime.now().minusDays(1));
+        return invitation;
+    }
+}
@@ -0,0 +1,71 @@
+package com.collab.documentservice.service;
+
+import com.collab.documentservice.dto.InvitationEvent;
+import com.collab.documentservice.model.DocumentInvitation;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InvitationNotificationServiceTest {
+
+    private static final String EMAIL = "user@example.com";
+
+    @Mock
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Mock
+    private InvitationCounterService invitationCounterService;
+
+    @InjectMocks
+    private InvitationNotificationService invitationNotificationService;
+
+    @Test
+    void invitationReceived_PushesToRecipientQueueWithCount() {
+        // Arrange
+        DocumentInvitation invitation = invitation();
+        when(invitationCounterService.getPendingCount(EMAIL)).thenReturn(2L);
+
+        // Act
+        invitationNotificationService.invitationReceived(invitation);
+
+        // Assert
+        ArgumentCaptor<InvitationEvent> event = ArgumentCaptor.forClass(InvitationEvent.class);
+        verify(messagingTemplate).convertAndSendToUser(eq(EMAIL), eq("/queue/invitations"), event.capture());
+        assertEquals("invitation-received", event.getValue().getType());
+        assertEquals(invitation.getId().toHexString(), event.getValue().getInvitationId());
+        assertEquals(2L, event.getValue().getPendingCount());
+    }
+
+    @Test
+    void publish_BrokerFailure_DoesNotPropagate() {
+        // Arrange
+        when(invitationCounterService.getPendingCount(EMAIL)).thenReturn(0L);
+        doThrow(new MessagingException("broker down"))
+            .when(messagingTemplate).convertAndSendToUser(any(), any(), any(Object.class));
+
+        // Act & Assert
+        assertDoesNotThrow(() -> invitationNotificationService.invitationDeclined(invitation()));
+    }
+
+    private DocumentInvitation invitation() {
+        DocumentInvitation invitation = new DocumentInvitation();
+        invitation.setId(new ObjectId());
+        invitation.setDocumentId(new ObjectId());
+        invitation.setDocumentTitle("Test Document");
+        invitation.setInvitedUser(new DocumentInvitation.InvitationUser(null, EMAIL));
+        invitation.setStatus("PENDING");
+        return invitation;
+    }
+}
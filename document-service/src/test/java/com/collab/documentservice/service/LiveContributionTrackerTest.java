@@ -0,0 +1,192 @@
+package com.collab.documentservice.service;
+
+import com.collab.documentservice.client.EditContribution;
+import com.collab.documentservice.client.VersionServiceClient;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LiveContributionTrackerTest {
+
+    @Mock
+    private VersionServiceClient versionServiceClient;
+
+    private final ObjectId documentId = new ObjectId();
+    private final ObjectId userId = new ObjectId();
+
+    @Test
+    void recordEdit_FirstContent_OnlySetsBaseline() {
+        // Arrange
+        LiveContributionTracker tracker = tracker(true);
+        tracker.recordEdit(documentId, userId, "hello world");
+
+        // Act
+        int reported = tracker.flush();
+
+        // Assert
+        assertEquals(0, reported);
+        verifyNoInteractions(versionServiceClient);
+    }
+
+    @Test
+    void recordEdit_ChangeInMiddle_CountsOnlyChangedCharacters() {
+        // Arrange
+        LiveContributionTracker tracker = tracker(true);
+        tracker.recordEdit(documentId, userId, "hello world");
+        tracker.recordEdit(documentId, userId, "hello brave world");
+        tracker.recordEdit(documentId, userId, "hello brave new world");
+        tracker.recordEdit(documentId, userId, "hello new world");
+
+        // Act
+        int reported = tracker.flush();
+
+        // Assert
+        assertEquals(1, reported);
+        verify(versionServiceClient).recordEdits(List.of(
+            new EditContribution(documentId.toHexString(), userId.toHexString(), 3, 10, 6)));
+    }
+
+    @Test
+    void recordEdit_SeveralEditors_MergedPerDocumentAndUser() {
+        // Arrange
+        LiveContributionTracker tracker = tracker(true);
+        ObjectId otherUser = new ObjectId();
+        tracker.recordEdit(documentId, userId, "a");
+        tracker.recordEdit(documentId, userId, "ab");
+        tracker.recordEdit(documentId, otherUser, "abc");
+        tracker.recordEdit(documentId, userId, "abcd");
+        tracker.recordEdit(documentId, userId, "abcd");
+
+        // Act
+        tracker.flush();
+
+        // Assert
+        verify(versionServiceClient).recordEdits(argThat(batch -> batch.size() == 2
+            && batch.contains(new EditContribution(documentId.toHexString(), userId.toHexString(), 2, 2, 0))
+            && batch.contains(new EditContribution(documentId.toHexString(), otherUser.toHexString(), 1, 1, 0))));
+    }
+
+    @Test
+    void rebase_ReplacesBaselineWithoutCounting() {
+        // Arrange
+        LiveContributionTracker tracker = tracker(true);
+        tracker.recordEdit(documentId, userId, "draft two");
+        tracker.rebase(documentId, "draft one");
+        tracker.recordEdit(documentId, userId, "draft one!");
+
+        // Act
+        tracker.flush();
+
+        // Assert
+        verify(versionServiceClient).recordEdits(List.of(
+            new EditContribution(documentId.toHexString(), userId.toHexString(), 1, 1, 0)));
+    }
+
+    @Test
+    void flush_ReportFails_RetriesOnNextFlush() {
+        // Arrange
+        LiveContributionTracker tracker = tracker(true);
+        List<EditContribution> expected = List.of(
+            new EditContribution(documentId.toHexString(), userId.toHexString(), 1, 3, 0));
+        doThrow(new RuntimeException("version-service unavailable")).doNothing()
+            .when(versionServiceClient).recordEdits(anyList());
+        tracker.recordEdit(documentId, userId, "abc");
+        tracker.recordEdit(documentId, userId, "abcdef");
+
+        // Act
+        int failed = tracker.flush();
+        int retried = tracker.flush();
+
+        // Assert
+        assertEquals(0, failed);
+        assertEquals(1, retried);
+        verify(versionServiceClient, times(2)).recordEdits(expected);
+        assertEquals(0, tracker.flush());
+        verifyNoMoreInteractions(versionServiceClient);
+    }
+
+    @Test
+    void flush_IdleEntryDropped_LaterEditsStillCounted() {
+        // Arrange
+        LiveContributionTracker tracker = tracker(true);
+        tracker.recordEdit(documentId, userId, "a");
+        tracker.recordEdit(documentId, userId, "ab");
+        tracker.flush();
+        tracker.flush();   // idle for a whole interval: entry retired
+
+        // Act
+        tracker.recordEdit(documentId, userId, "abc");
+        int reported = tracker.flush();
+
+        // Assert
+        assertEquals(1, reported);
+        verify(versionServiceClient, times(2)).recordEdits(List.of(
+            new EditContribution(documentId.toHexString(), userId.toHexString(), 1, 1, 0)));
+    }
+
+    @Test
+    void flush_ConcurrentWithEdits_LosesNoCounts() throws InterruptedException {
+        // Arrange
+        LiveContributionTracker tracker = tracker(true);
+        LongAdder reportedEdits = new LongAdder();
+        doAnswer(invocation -> {
+            invocation.<List<EditContribution>>getArgument(0).forEach(c -> reportedEdits.add(c.edits()));
+            return null;
+        }).when(versionServiceClient).recordEdits(anyList());
+        int threads = 4;
+        int editsPerThread = 20_000;
+        ExecutorService editors = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            editors.execute(() -> {
+                ObjectId document = new ObjectId();
+                ObjectId editor = new ObjectId();
+                for (int i = 0; i <= editsPerThread; i++) {
+                    tracker.recordEdit(document, editor, (i % 2 == 0) ? "even" : "odd");
+                }
+            });
+        }
+        editors.shutdown();
+
+        // Act
+        while (!editors.awaitTermination(1, TimeUnit.MILLISECONDS)) {
+            tracker.flush();
+        }
+        tracker.flush();
+
+        // Assert
+        assertEquals((long) threads * editsPerThread, reportedEdits.sum());
+    }
+
+    @Test
+    void recordEdit_Disabled_IsIgnored() {
+        // Arrange
+        LiveContributionTracker tracker = tracker(false);
+        tracker.recordEdit(documentId, userId, "a");
+        tracker.recordEdit(documentId, userId, "abc");
+
+        // Act
+        int reported = tracker.flush();
+
+        // Assert
+        assertEquals(0, reported);
+        verifyNoInteractions(versionServiceClient);
+    }
+
+    private LiveContributionTracker tracker(boolean enabled) {
+        return new LiveContributionTracker(versionServiceClient, enabled, 500, Duration.ofMinutes(10));
+    }
+}
@@ -0,0 +1,120 @@
+package com.collab.documentservice.service;
+
+import com.collab.documentservice.dto.UserDocumentIndexReport;
+import com.collab.documentservice.model.Document;
+import com.collab.documentservice.model.UserDocument;
+import com.collab.documentservice.repository.DocumentRepository;
+import com.collab.documentservice.repository.UserDocumentRepository;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserDocumentIndexServiceTest {
+
+    @Mock
+    private UserDocumentRepository userDocumentRepository;
+
+    @Mock
+    private DocumentRepository documentRepository;
+
+    @Captor
+    private ArgumentCaptor<Collection<UserDocument>> entriesCaptor;
+
+    @InjectMocks
+    private UserDocumentIndexService userDocumentIndexService;
+
+    private ObjectId ownerId;
+    private ObjectId collaboratorId;
+    private Document document;
+
+    @BeforeEach
+    void setUp() {
+        ownerId = new ObjectId();
+        collaboratorId = new ObjectId();
+        document = new Document("Doc", null, ownerId);
+        document.setId(new ObjectId());
+        document.getCollaborators().add(new Document.Collaborator(collaboratorId, "edit"));
+    }
+
+    @Test
+    void verify_ReportsMissingStaleAndOrphanEntries() {
+        // Arrange: owner entry is stale, collaborator entry is missing, one orphan elsewhere
+        UserDocument staleOwner = new UserDocument(ownerId, document.getId(), "owner", "Old title", document.getUpdatedAt());
+        when(documentRepository.streamAllWithoutContent()).thenReturn(Stream.of(document));
+        when(userDocumentRepository.findByDocumentIdIn(anyCollection())).thenReturn(List.of(staleOwner));
+        when(userDocumentRepository.count()).thenReturn(2L);
+
+        // Act
+        UserDocumentIndexReport report = userDocumentIndexService.verify();
+
+        // Assert
+        assertEquals(1, report.getDocumentsScanned());
+        assertEquals(1, report.getStaleEntries());
+        assertEquals(1, report.getMissingEntries());
+        assertEquals(0, report.getExtraEntries());
+        assertEquals(1, report.getOrphanEntries());
+        assertFalse(report.isConsistent());
+    }
+
+    @Test
+    void rebuild_UpsertsOwnerAndCollaboratorsThenDropsUnrefreshed() {
+        // Arrange
+        when(documentRepository.streamAllWithoutContent()).thenReturn(Stream.of(document));
+        when(documentRepository.findIdsByIdIn(anyCollection())).thenReturn(List.of(document));
+        when(userDocumentRepository.deleteBySyncedAtBefore(any())).thenReturn(3L);
+
+        // Act
+        UserDocumentIndexReport report = userDocumentIndexService.rebuild();
+
+        // Assert
+        verify(userDocumentRepository).upsertAll(entriesCaptor.capture());
+        List<String> roles = entriesCaptor.getValue().stream().map(UserDocument::getRole).toList();
+        assertEquals(Arrays.asList("owner", "edit"), roles);
+        assertEquals(2, report.getEntriesWritten());
+        assertEquals(3, report.getEntriesRemoved());
+    }
+
+    @Test
+    void rebuild_DocumentDeletedDuringRebuild_DropsItsEntries() {
+        // Arrange: the document is streamed, then deleted before its batch is written
+        when(documentRepository.streamAllWithoutContent()).thenReturn(Stream.of(document));
+        when(documentRepository.findIdsByIdIn(anyCollection())).thenReturn(List.of());
+        when(userDocumentRepository.deleteByDocumentIdIn(anyCollection())).thenReturn(2L);
+
+        // Act
+        UserDocumentIndexReport report = userDocumentIndexService.rebuild();
+
+        // Assert
+        verify(userDocumentRepository).deleteByDocumentIdIn(Set.of(document.getId()));
+        assertEquals(2, report.getEntriesWritten());
+        assertEquals(2, report.getEntriesRemoved());
+    }
+
+    @Test
+    void onDocumentUpdated_RepositoryFailure_IsSwallowed() {
+        // Arrange
+        when(userDocumentRepository.updateTitleAndUpdatedAt(any(), any(), any(), any()))
+            .thenThrow(new RuntimeException("mongo down"));
+
+        // Act & Assert
+        assertDoesNotThrow(() -> userDocumentIndexService.onDocumentUpdated(document));
+    }
+}
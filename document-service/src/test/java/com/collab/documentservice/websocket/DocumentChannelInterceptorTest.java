@@ -0,0 +1,131 @@
+package com.collab.documentservice.websocket;
+
+import com.collab.common.util.JwtUtil;
+import com.collab.documentservice.model.Document;
+import com.collab.documentservice.model.DocumentAcl;
+import com.collab.documentservice.service.DocumentAclCache;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DocumentChannelInterceptorTest {
+
+    @Mock
+    private DocumentAclCache documentAclCache;
+
+    @Mock
+    private MessageChannel channel;
+
+    private JwtUtil jwtUtil;
+    private DocumentChannelInterceptor interceptor;
+
+    private ObjectId ownerId;
+    private ObjectId viewerId;
+    private ObjectId documentId;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", "collab-edit-secret-key-must-be-at-least-256-bits-for-HS256-algorithm");
+        ReflectionTestUtils.setField(jwtUtil, "expiration", 60_000L);
+        interceptor = new DocumentChannelInterceptor(jwtUtil, documentAclCache);
+
+        ownerId = new ObjectId();
+        viewerId = new ObjectId();
+        documentId = new ObjectId();
+
+        Document document = new Document("Doc", "", ownerId);
+        document.setId(documentId);
+        document.getCollaborators().add(new Document.Collaborator(viewerId, "view"));
+        lenient().when(documentAclCache.get(documentId)).thenReturn(DocumentAcl.of(document));
+    }
+
+    @Test
+    void connect_ValidToken_BindsPrincipal() {
+        // Arrange
+        String token = jwtUtil.generateToken(ownerId.toHexString(), "owner", "owner@example.com");
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.CONNECT);
+        accessor.addNativeHeader("Authorization", "Bearer " + token);
+        accessor.setLeaveMutable(true);
+        Message<byte[]> message = MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+
+        // Act
+        interceptor.preSend(message, channel);
+
+        // Assert
+        StompPrincipal principal = (StompPrincipal) accessor.getUser();
+        assertNotNull(principal);
+        assertEquals(ownerId, principal.getUserId());
+        assertEquals("owner@example.com", principal.getEmail());
+    }
+
+    @Test
+    void connect_InvalidToken_Rejected() {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.CONNECT);
+        accessor.addNativeHeader("Authorization", "Bearer not-a-jwt");
+        accessor.setLeaveMutable(true);
+        Message<byte[]> message = MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+
+        assertThrows(AccessDeniedException.class, () -> interceptor.preSend(message, channel));
+    }
+
+    @Test
+    void subscribe_Viewer_Allowed() {
+        assertDoesNotThrow(() -> interceptor.preSend(
+            frame(StompCommand.SUBSCRIBE, "/topic/document/" + documentId, viewerId), channel));
+    }
+
+    @Test
+    void subscribe_Stranger_Rejected() {
+        assertThrows(AccessDeniedException.class, () -> interceptor.preSend(
+            frame(StompCommand.SUBSCRIBE, "/topic/document/" + documentId, new ObjectId()), channel));
+    }
+
+    @Test
+    void send_EditByViewer_Rejected() {
+        assertThrows(AccessDeniedException.class, () -> interceptor.preSend(
+            frame(StompCommand.SEND, "/app/document/" + documentId + "/edit", viewerId), channel));
+    }
+
+    @Test
+    void send_JoinByViewer_Allowed() {
+        assertDoesNotThrow(() -> interceptor.preSend(
+            frame(StompCommand.SEND, "/app/document/" + documentId + "/join", viewerId), channel));
+    }
+
+    @Test
+    void send_EditByOwner_Allowed() {
+        assertDoesNotThrow(() -> interceptor.preSend(
+            frame(StompCommand.SEND, "/app/document/" + documentId + "/edit", ownerId), channel));
+    }
+
+    @Test
+    void send_Unauthenticated_Rejected() {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.SEND);
+        accessor.setDestination("/app/document/" + documentId + "/edit");
+        Message<byte[]> message = MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+
+        assertThrows(AccessDeniedException.class, () -> interceptor.preSend(message, channel));
+    }
+
+    private Message<byte[]> frame(StompCommand command, String destination, ObjectId userId) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(command);
+        accessor.setDestination(destination);
+        accessor.setUser(new StompPrincipal(userId, "user", "user@example.com"));
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+}
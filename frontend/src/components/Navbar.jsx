@@ -4,6 +4,8 @@
  * Application-wide navigation bar with user menu and logout functionality.
  * Displays current user information, invitation badge, and provides quick navigation.
  * Supports real-time dashboard updates when invitations are accepted.
+ * The invitation badge is fetched once per connection and then kept current
+ * by events pushed over the user's WebSocket queue.
  * 
  * @component
  * @param {Object} props - Component props
@@ -33,11 +35,12 @@ import {
   Description,
   Mail,
 } from '@mui/icons-material'
-import { useState, useEffect } from 'react'
+import { useState, useCallback } from 'react'
 import { useAuth } from '../context/AuthContext'
 import { useNavigate } from 'react-router-dom'
 import InvitationCenter from './InvitationCenter'
 import documentService from '../services/documentService'
+import { useInvitationNotifications } from '../hooks/useInvitationNotifications'
 
 const Navbar = ({ onDocumentUpdate }) => {
   const { user, logout } = useAuth()
@@ -46,16 +49,7 @@ const Navbar = ({ onDocumentUpdate }) => {
   const [invitationOpen, setInvitationOpen] = useState(false)
   const [invitationCount, setInvitationCount] = useState(0)
 
-  useEffect(() => {
-    if (user?.email) {
-      loadInvitationCount()
-      // Refresh count every 10 seconds for more responsive notifications
-      const interval = setInterval(loadInvitationCount, 10000)
-      return () => clearInterval(interval)
-    }
-  }, [user])
-
-  const loadInvitationCount = async () => {
+  const loadInvitationCount = useCallback(async () => {
     try {
       const response = await documentService.getInvitationCount(user.email)
       if (response.success) {
@@ -64,7 +58,14 @@ const Navbar = ({ onDocumentUpdate }) => {
     } catch (error) {
       console.error('Failed to load invitation count:', error)
     }
-  }
+  }, [user?.email])
+
+  const handleInvitationEvent = useCallback((event) => {
+    setInvitationCount(event.pendingCount || 0)
+  }, [])
+
+  // One count fetch per connection, then server-pushed updates
+  useInvitationNotifications(user?.email, loadInvitationCount, handleInvitationEvent)
 
   const handleMenu = (event) => {
     setAnchorEl(event.currentTarget)
@@ -72,17 +73,13 @@ const Navbar = ({ onDocumentUpdate }) => {
 
   const handleInvitationClick = () => {
     setInvitationOpen(true)
-    // Refresh count immediately when opening
-    loadInvitationCount()
   }
 
   const handleInvitationClose = () => {
     setInvitationOpen(false)
-    loadInvitationCount() // Refresh count when closing
   }
 
   const handleInvitationAccepted = () => {
-    loadInvitationCount()
     // Trigger dashboard refresh in real-time
     if (onDocumentUpdate) {
       onDocumentUpdate()
@@ -0,0 +1,62 @@
+/**
+ * Invitation Notifications Hook
+ * 
+ * Custom React hook that keeps a STOMP connection open for the logged-in user
+ * and listens on their personal invitation queue. The server pushes an event
+ * whenever one of the user's invitations is sent, accepted, declined,
+ * cancelled or expires, so no polling is needed.
+ * 
+ * @module useInvitationNotifications
+ */
+
+import { useEffect, useRef } from 'react'
+import SockJS from 'sockjs-client'
+import { Client } from '@stomp/stompjs'
+
+/**
+ * @param {string} userEmail - Email of the logged-in user (enables the hook when set)
+ * @param {Function} onConnect - Called on every (re)connect, e.g. to fetch the current count once
+ * @param {Function} onEvent - Called with each invitation event ({ type, pendingCount, ... })
+ */
+export const useInvitationNotifications = (userEmail, onConnect, onEvent) => {
+  const onConnectRef = useRef(onConnect)
+  const onEventRef = useRef(onEvent)
+  onConnectRef.current = onConnect
+  onEventRef.current = onEvent
+
+  useEffect(() => {
+    if (!userEmail) return
+
+    const stompClient = new Client({
+      webSocketFactory: () => new SockJS('http://localhost:8082/ws'),
+      // The server resolves /user/queue/... against the principal from this token
+      connectHeaders: {
+        Authorization: `Bearer ${localStorage.getItem('token')}`,
+      },
+      debug: () => {
+        // Production: Disable STOMP debug logging
+      },
+      reconnectDelay: 5000,
+      heartbeatIncoming: 25000,
+      heartbeatOutgoing: 25000,
+    })
+
+    stompClient.onConnect = () => {
+      stompClient.subscribe('/user/queue/invitations', (message) => {
+        onEventRef.current?.(JSON.parse(message.body))
+      })
+      // Catch up on anything missed while disconnected
+      onConnectRef.current?.()
+    }
+
+    stompClient.onStompError = (frame) => {
+      console.error('STOMP error:', frame)
+    }
+
+    stompClient.activate()
+
+    return () => {
+      stompClient.deactivate()
+    }
+  }, [userEmail])
+}
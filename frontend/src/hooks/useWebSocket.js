@@ -23,6 +23,10 @@ export const useWebSocket = (documentId, userId, username, onMessage, permission
     const socket = new SockJS('http://localhost:8082/ws')
     const stompClient = new Client({
       webSocketFactory: () => socket,
+      // The server authenticates the session once from this token on CONNECT
+      connectHeaders: {
+        Authorization: `Bearer ${localStorage.getItem('token')}`,
+      },
       debug: () => {
         // Production: Disable STOMP debug logging
       },
@@ -50,6 +50,8 @@ const Dashboard = () => {
   const navigate = useNavigate()
   const [documents, setDocuments] = useState([])
   const [loading, setLoading] = useState(true)
+  const [nextCursor, setNextCursor] = useState(null)
+  const [loadingMore, setLoadingMore] = useState(false)
   const [openDialog, setOpenDialog] = useState(false)
   const [newDocTitle, setNewDocTitle] = useState('')
 
@@ -57,19 +59,13 @@ const Dashboard = () => {
     loadDocuments()
   }, [])
 
-  // Strip HTML tags from content for preview
-  const stripHtml = (html) => {
-    const tmp = document.createElement('DIV')
-    tmp.innerHTML = html
-    return tmp.textContent || tmp.innerText || ''
-  }
-
   const loadDocuments = async () => {
     try {
       setLoading(true)
-      const response = await documentService.getAllDocuments(user.userId)
+      const response = await documentService.getDocumentSummaries(user.userId)
       if (response.success) {
-        setDocuments(response.data)
+        setDocuments(response.data.items)
+        setNextCursor(response.data.nextCursor)
       }
     } catch (error) {
       console.error('Failed to load documents:', error)
@@ -79,6 +75,22 @@ const Dashboard = () => {
     }
   }
 
+  const loadMoreDocuments = async () => {
+    try {
+      setLoadingMore(true)
+      const response = await documentService.getDocumentSummaries(user.userId, nextCursor)
+      if (response.success) {
+        setDocuments((prev) => [...prev, ...response.data.items])
+        setNextCursor(response.data.nextCursor)
+      }
+    } catch (error) {
+      console.error('Failed to load more documents:', error)
+      toast.error('Failed to load more documents')
+    } finally {
+      setLoadingMore(false)
+    }
+  }
+
   const handleCreateDocument = async () => {
     if (!newDocTitle.trim()) {
       toast.error('Please enter a document title')
@@ -202,7 +214,7 @@ const Dashboard = () => {
               My Documents
             </Typography>
             <Typography variant="body1" color="text.secondary">
-              {documents.length} {documents.length === 1 ? 'document' : 'documents'} available
+              {documents.length}{nextCursor ? '+' : ''} {documents.length === 1 ? 'document' : 'documents'} available
             </Typography>
           </Box>
 
@@ -299,16 +311,16 @@ const Dashboard = () => {
                             {doc.title}
                           </Typography>
                           <Chip
-                            label={doc.ownerId === user.userId ? 'Owner' : 'Shared'}
+                            label={doc.permission === 'owner' ? 'Owner' : 'Shared'}
                             size="small"
-                            icon={doc.ownerId === user.userId ? <Person /> : null}
+                            icon={doc.permission === 'owner' ? <Person /> : null}
                             sx={{
                               height: 22,
                               fontSize: '0.75rem',
-                              background: doc.ownerId === user.userId
+                              background: doc.permission === 'owner'
                                 ? alpha('#6366f1', 0.1)
                                 : alpha('#10b981', 0.1),
-                              color: doc.ownerId === user.userId ? '#6366f1' : '#10b981',
+                              color: doc.permission === 'owner' ? '#6366f1' : '#10b981',
                               fontWeight: 600,
                             }}
                           />
@@ -318,17 +330,11 @@ const Dashboard = () => {
                       <Typography
                         variant="body2"
                         color="text.secondary"
-                        sx={{
-                          mb: 2,
-                          overflow: 'hidden',
-                          textOverflow: 'ellipsis',
-                          display: '-webkit-box',
-                          WebkitLineClamp: 2,
-                          WebkitBoxOrient: 'vertical',
-                          minHeight: '2.5em',
-                        }}
+                        sx={{ mb: 2 }}
                       >
-                        {stripHtml(doc.content || 'No content yet')}
+                        {doc.permission === 'owner'
+                          ? 'You own this document'
+                          : doc.permission === 'edit' ? 'You can edit' : 'View only'}
                       </Typography>
 
                       <Box sx={{ display: 'flex', alignItems: 'center', gap: 0.5 }}>
@@ -370,7 +376,7 @@ const Dashboard = () => {
                       >
                         Open
                       </Button>
-                      {doc.ownerId === user.userId && (
+                      {doc.permission === 'owner' && (
                         <IconButton
                           size="small"
                           onClick={(e) => handleDeleteDocument(doc.id, e)}
@@ -392,6 +398,19 @@ const Dashboard = () => {
           </Grid>
         )}
 
+        {!loading && nextCursor && (
+          <Box sx={{ display: 'flex', justifyContent: 'center', mt: 4 }}>
+            <Button
+              variant="outlined"
+              onClick={loadMoreDocuments}
+              disabled={loadingMore}
+              startIcon={loadingMore ? <CircularProgress size={16} /> : null}
+            >
+              Load more
+            </Button>
+          </Box>
+        )}
+
         {/* Create Document Dialog */}
         <Dialog
           open={openDialog}
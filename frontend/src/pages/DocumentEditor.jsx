@@ -56,6 +56,7 @@ const DocumentEditor = () => {
   const [userPermission, setUserPermission] = useState('edit') // 'edit' or 'view'
   const [versionDrawerOpen, setVersionDrawerOpen] = useState(false)
   const [versions, setVersions] = useState([])
+  const [versionsCursor, setVersionsCursor] = useState(null)
   const [saving, setSaving] = useState(false)
   const [shareDialogOpen, setShareDialogOpen] = useState(false)
   const [shareEmail, setShareEmail] = useState('')
@@ -250,10 +251,16 @@ const DocumentEditor = () => {
         documentId,
         content,
         user.userId,
-        description || 'Manual save'
+        description || 'Manual save',
+        true
       )
-      if (response.success) {
+      if (response.success && response.data.status === 'PENDING') {
+        toast.info('Version queued, it will appear in history shortly')
+      } else if (response.success) {
         toast.success('Version created successfully')
+        if (versionDrawerOpen) {
+          loadVersionHistory()
+        }
       }
     } catch (error) {
       console.error('Failed to create version:', error)
@@ -261,12 +268,13 @@ const DocumentEditor = () => {
     }
   }
 
-  // Load version history
-  const loadVersionHistory = async () => {
+  // Load version history (first page, or the next page when a cursor is given)
+  const loadVersionHistory = async (cursor = null) => {
     try {
-      const response = await versionService.getVersionHistory(documentId)
+      const response = await versionService.getVersionHistory(documentId, cursor)
       if (response.success) {
-        setVersions(response.data)
+        setVersions((previous) => (cursor ? [...previous, ...response.data.items] : response.data.items))
+        setVersionsCursor(response.data.nextCursor)
       }
     } catch (error) {
       console.error('Failed to load versions:', error)
@@ -278,24 +286,8 @@ const DocumentEditor = () => {
   const handleRevertToVersion = async (versionId) => {
     if (window.confirm('Are you sure you want to revert to this version?')) {
       try {
-        // First, get the version content
-        const versionResponse = await versionService.getVersion(versionId)
-        if (!versionResponse.success) {
-          toast.error('Failed to load version')
-          return
-        }
-
-        const oldContent = versionResponse.data.content
-
-        // Update the document with the old content
-        await documentService.updateDocument(
-          documentId,
-          { content: oldContent, lastModifiedBy: user.userId },
-          user.userId
-        )
-
-        // Create a version record
-        await versionService.revertToVersion(
+        // The server restores the content, records the revert and notifies collaborators
+        const response = await documentService.revertToVersion(
           documentId,
           versionId,
           user.userId
@@ -303,13 +295,10 @@ const DocumentEditor = () => {
 
         toast.success('Document reverted successfully')
         
-        // Reload and update UI
-        setContent(oldContent)
-        loadDocument()
+        // Update UI
+        setContent(response.data.content)
+        setDocument(response.data)
         setVersionDrawerOpen(false)
-        
-        // Broadcast the change to other users
-        sendMessage(oldContent)
       } catch (error) {
         console.error('Failed to revert:', error)
         toast.error('Failed to revert to version')
@@ -544,6 +533,11 @@ const DocumentEditor = () => {
               </ListItem>
             ))}
           </List>
+          {versionsCursor && (
+            <Button fullWidth onClick={() => loadVersionHistory(versionsCursor)}>
+              Load older versions
+            </Button>
+          )}
         </Box>
       </Drawer>
 
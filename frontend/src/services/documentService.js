@@ -33,6 +33,15 @@ const documentService = {
     return response.data
   },
 
+  async revertToVersion(documentId, versionId, userId) {
+    const response = await api.post(
+      `/api/documents/${documentId}/revert/${versionId}`,
+      {},
+      { params: { userId } }
+    )
+    return response.data
+  },
+
   async shareDocument(documentId, userId, permission, ownerId) {
     const response = await api.post(
       `/api/documents/${documentId}/share`,
@@ -56,6 +65,13 @@ const documentService = {
     return response.data
   },
 
+  async getDocumentSummaries(userId, cursor = null, limit = 20) {
+    const response = await api.get('/api/documents/summaries', {
+      params: { userId, cursor, limit },
+    })
+    return response.data
+  },
+
   // ============ INVITATION METHODS ============
 
   async sendInvitation(documentId, ownerId, email, permission) {
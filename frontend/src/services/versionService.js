@@ -10,17 +10,22 @@
 import api from './api'
 
 const versionService = {
-  async createVersion(documentId, content, userId, description) {
+  // wait: store the version before responding instead of queueing it
+  async createVersion(documentId, content, userId, description, wait = false) {
     const response = await api.post(`/api/versions/${documentId}`, {
       content,
       userId,
       description,
+    }, {
+      params: { wait: wait || undefined },
     })
     return response.data
   },
 
-  async getVersionHistory(documentId) {
-    const response = await api.get(`/api/versions/${documentId}`)
+  async getVersionHistory(documentId, cursor = null, limit = 50) {
+    const response = await api.get(`/api/versions/${documentId}`, {
+      params: { cursor: cursor || undefined, limit },
+    })
     return response.data
   },
 
@@ -29,6 +34,25 @@ const versionService = {
     return response.data
   },
 
+  async compareVersions(documentId, fromVersionId, toVersionId) {
+    const response = await api.get(`/api/versions/${documentId}/compare`, {
+      params: { from: fromVersionId, to: toVersionId },
+    })
+    return response.data
+  },
+
+  async getVersionAt(documentId, timestamp) {
+    const response = await api.get(`/api/versions/${documentId}/at`, {
+      params: { ts: timestamp },
+    })
+    return response.data
+  },
+
+  async getBlame(documentId) {
+    const response = await api.get(`/api/versions/${documentId}/blame`)
+    return response.data
+  },
+
   async revertToVersion(documentId, versionId, userId) {
     const response = await api.post(
       `/api/versions/${documentId}/revert/${versionId}`,
@@ -42,6 +66,13 @@ const versionService = {
     const response = await api.get(`/api/versions/${documentId}/contributions`)
     return response.data
   },
+
+  async getContributionLeaderboard(documentId, from = null, to = null, limit = 10) {
+    const response = await api.get(`/api/versions/${documentId}/contributions/leaderboard`, {
+      params: { from: from || undefined, to: to || undefined, limit },
+    })
+    return response.data
+  },
 }
 
 export default versionService
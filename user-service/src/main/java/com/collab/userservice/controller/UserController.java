@@ -13,6 +13,8 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 /**
  * User Controller
  * 
@@ -71,6 +73,19 @@ public class UserController {
         return ResponseEntity.ok(ApiResponse.success(user));
     }
 
+    @PostMapping("/profiles:batch")
+    @Operation(summary = "Get user profiles in batch",
+        description = "Resolve up to " + BatchProfileRequest.MAX_IDS + " user IDs in one call; unknown IDs are omitted")
+    @ApiResponses(value = {
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Profiles retrieved successfully"),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "No IDs or too many IDs")
+    })
+    public ResponseEntity<ApiResponse<List<UserDTO>>> getUserProfiles(@Valid @RequestBody BatchProfileRequest request) {
+        log.info("POST /api/users/profiles:batch - {} ids", request.getIds().size());
+        List<UserDTO> users = userService.getUserProfiles(request.getIds());
+        return ResponseEntity.ok(ApiResponse.success(users));
+    }
+
     @PutMapping("/profile/{userId}")
     @Operation(summary = "Update user profile", description = "Update username and avatar")
     @ApiResponses(value = {
@@ -0,0 +1,24 @@
+package com.collab.userservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Batch user profile lookup request")
+public class BatchProfileRequest {
+
+    public static final int MAX_IDS = 500;
+
+    @NotEmpty(message = "At least one user ID is required")
+    @Size(max = MAX_IDS, message = "At most " + MAX_IDS + " user IDs per request")
+    @Schema(description = "User IDs to resolve", example = "[\"507f1f77bcf86cd799439011\"]")
+    private List<String> ids;
+}
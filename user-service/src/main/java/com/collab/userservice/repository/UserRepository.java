@@ -3,8 +3,11 @@ package com.collab.userservice.repository;
 import com.collab.userservice.model.User;
 import org.bson.types.ObjectId;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -17,4 +20,10 @@ public interface UserRepository extends MongoRepository<User, ObjectId> {
     boolean existsByEmail(String email);
     
     boolean existsByUsername(String username);
+
+    /**
+     * Find public profile fields for a set of users in one query
+     */
+    @Query(value = "{'_id': {'$in': ?0}}", fields = "{'username': 1, 'email': 1, 'avatar': 1}")
+    List<User> findProfilesByIdIn(Collection<ObjectId> ids);
 }
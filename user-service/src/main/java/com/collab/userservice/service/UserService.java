@@ -14,6 +14,11 @@ import org.bson.types.ObjectId;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
 /**
  * User Service
  * 
@@ -104,6 +109,28 @@ public class UserService {
         return UserDTO.fromUser(user);
     }
 
+    /**
+     * Get profiles for several users at once
+     * 
+     * Resolves all ids with a single $in query that loads only the public
+     * profile fields. Malformed and unknown ids are left out of the result.
+     */
+    public List<UserDTO> getUserProfiles(List<String> userIds) {
+        log.info("Fetching {} user profiles", userIds.size());
+
+        Set<ObjectId> ids = userIds.stream()
+            .filter(ObjectId::isValid)
+            .map(ObjectId::new)
+            .collect(Collectors.toCollection(LinkedHashSet::new));
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        return userRepository.findProfilesByIdIn(ids).stream()
+            .map(UserDTO::fromUser)
+            .collect(Collectors.toList());
+    }
+
     /**
      * Update user profile
      */
@@ -16,10 +16,13 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -134,6 +137,37 @@ class UserServiceTest {
         assertEquals(user.getEmail(), result.getEmail());
     }
 
+    @Test
+    void getUserProfiles_SingleQuery_SkipsMalformedAndDuplicateIds() {
+        // Arrange
+        ObjectId firstId = new ObjectId();
+        ObjectId secondId = new ObjectId();
+        User first = new User("first", "first@example.com", null);
+        first.setId(firstId);
+        User second = new User("second", "second@example.com", null);
+        second.setId(secondId);
+
+        when(userRepository.findProfilesByIdIn(anyCollection())).thenReturn(List.of(first, second));
+
+        // Act
+        List<UserDTO> result = userService.getUserProfiles(
+            List.of(firstId.toString(), secondId.toString(), firstId.toString(), "not-an-id"));
+
+        // Assert
+        assertEquals(2, result.size());
+        verify(userRepository, times(1)).findProfilesByIdIn(argThat(ids -> ids.size() == 2));
+    }
+
+    @Test
+    void getUserProfiles_OnlyMalformedIds_SkipsQuery() {
+        // Act
+        List<UserDTO> result = userService.getUserProfiles(List.of("not-an-id"));
+
+        // Assert
+        assertTrue(result.isEmpty());
+        verify(userRepository, never()).findProfilesByIdIn(anyCollection());
+    }
+
     @Test
     void getUserProfile_NotFound_ThrowsException() {
         // Arrange
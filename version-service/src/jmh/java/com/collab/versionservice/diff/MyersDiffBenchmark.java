@@ -0,0 +1,94 @@
+package com.collab.versionservice.diff;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Myers Diff Benchmark
+ * 
+ * Measures diff cost for the edit shapes the version service sees: a small
+ * local edit (the common autosave case), many scattered edits, and a
+ * complete rewrite that exercises the cost budget.
+ * 
+ * Run with: mvn -Pbenchmark -pl version-service -am verify -DskipTests
+ * 
+ * @author Arhum Khan
+ * @version 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MyersDiffBenchmark {
+
+    @Param({"10000", "100000"})
+    private int size;
+
+    @Param({"CHARACTER", "WORD", "LINE"})
+    private Granularity granularity;
+
+    private MyersDiff myersDiff;
+    private String original;
+    private String localEdit;
+    private String scatteredEdits;
+    private String rewrite;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        myersDiff = new MyersDiff(granularity, 2_000_000);
+        original = words(random, size);
+
+        int middle = size / 2;
+        localEdit = original.substring(0, middle) + "inserted sentence. " + original.substring(middle);
+
+        StringBuilder scattered = new StringBuilder(original);
+        for (int i = 0; i < 50; i++) {
+            int at = random.nextInt(scattered.length());
+            scattered.insert(at, "edit ");
+        }
+        scatteredEdits = scattered.toString();
+
+        rewrite = words(random, size);
+    }
+
+    @Benchmark
+    public DiffResult localEdit() {
+        return myersDiff.diff(original, localEdit);
+    }
+
+    @Benchmark
+    public DiffResult scatteredEdits() {
+        return myersDiff.diff(original, scatteredEdits);
+    }
+
+    @Benchmark
+    public DiffResult rewrite() {
+        return myersDiff.diff(original, rewrite);
+    }
+
+    private static String words(Random random, int length) {
+        String[] vocabulary = {"the", "document", "version", "edit", "collaborator", "change", "text", "and"};
+        StringBuilder text = new StringBuilder(length + 16);
+        int wordsOnLine = 0;
+        while (text.length() < length) {
+            text.append(vocabulary[random.nextInt(vocabulary.length)]);
+            text.append(++wordsOnLine % 12 == 0 ? '\n' : ' ');
+        }
+        return text.toString();
+    }
+}
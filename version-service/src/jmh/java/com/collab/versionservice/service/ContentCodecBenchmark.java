@@ -0,0 +1,92 @@
+package com.collab.versionservice.service;
+
+import com.collab.common.util.ContentCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Content Codec Benchmark
+ * 
+ * Compression and decompression cost of {@link ContentCodec} on the kinds
+ * of content the editor stores: prose, HTML markup from the rich text
+ * editor, and low-redundancy text. The compression ratio of each corpus is
+ * printed once per trial.
+ * 
+ * Run with: mvn -Pbenchmark -pl version-service -am verify -DskipTests -Djmh.args=ContentCodecBenchmark
+ * 
+ * @author Arhum Khan
+ * @version 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ContentCodecBenchmark {
+
+    private static final String[] VOCABULARY = {
+        "the", "document", "version", "editor", "collaborator", "changes", "review", "paragraph",
+        "section", "draft", "final", "comment", "and", "with", "for", "team"
+    };
+
+    @Param({"PROSE", "HTML", "RANDOM"})
+    private String corpus;
+
+    @Param({"10000", "100000"})
+    private int size;
+
+    private String text;
+    private byte[] compressed;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        StringBuilder builder = new StringBuilder(size + 64);
+        while (builder.length() < size) {
+            switch (corpus) {
+                case "PROSE" -> builder.append(sentence(random)).append(' ');
+                case "HTML" -> builder.append("<p class=\"ql-align-justify\"><strong>")
+                    .append(VOCABULARY[random.nextInt(VOCABULARY.length)])
+                    .append("</strong> ").append(sentence(random)).append("</p>\n");
+                default -> builder.append((char) (33 + random.nextInt(94)));
+            }
+        }
+        text = builder.toString();
+        compressed = ContentCodec.compress(text, 0);
+        System.out.printf("%n%s/%d: %s%n", corpus, size, compressed == null
+            ? "not compressible"
+            : String.format("%.2fx", (double) text.length() / compressed.length));
+    }
+
+    @Benchmark
+    public byte[] compress() {
+        return ContentCodec.compress(text, 0);
+    }
+
+    @Benchmark
+    public String decompress() {
+        return compressed != null ? ContentCodec.decompress(ContentCodec.DEFLATE, compressed) : text;
+    }
+
+    private static String sentence(Random random) {
+        StringBuilder sentence = new StringBuilder();
+        int words = 6 + random.nextInt(10);
+        for (int i = 0; i < words; i++) {
+            sentence.append(i == 0 ? "" : " ").append(VOCABULARY[random.nextInt(VOCABULARY.length)]);
+        }
+        return sentence.append('.').toString();
+    }
+}
@@ -0,0 +1,73 @@
+package com.collab.versionservice.controller;
+
+import com.collab.common.dto.ApiResponse;
+import com.collab.common.exception.UnauthorizedException;
+import com.collab.versionservice.dto.EditContributionsRequest;
+import com.collab.versionservice.service.VersionService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Internal Contribution Controller
+ * 
+ * Service-to-service endpoints for contribution accounting. They live under
+ * /internal, outside the /api/versions/** route the gateway exposes, and
+ * require the shared {@code internal.service-token} in the
+ * {@value #SERVICE_TOKEN_HEADER} header, so clients cannot inflate
+ * contributions or leaderboards.
+ * 
+ * @author Arhum Khan
+ * @version 1.0.0
+ */
+@RestController
+@RequestMapping("/internal/contributions")
+@Slf4j
+@Tag(name = "Internal", description = "Service-to-service APIs, not routed by the gateway")
+public class InternalContributionController {
+
+    public static final String SERVICE_TOKEN_HEADER = "X-Service-Token";
+
+    private final VersionService versionService;
+    private final byte[] serviceToken;
+
+    public InternalContributionController(
+            VersionService versionService,
+            @Value("${internal.service-token}") String serviceToken) {
+        this.versionService = versionService;
+        this.serviceToken = serviceToken.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @PostMapping("/edits")
+    @Operation(
+        summary = "Record live edit contributions",
+        description = "Add edit counts and characters added and deleted, measured by document-service from its edit stream, to contributions and their rollups"
+    )
+    @ApiResponses(value = {
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "202", description = "Edits recorded"),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Invalid input"),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "401", description = "Missing or wrong service token")
+    })
+    public ResponseEntity<ApiResponse<Void>> recordEdits(
+            @Parameter(description = "Shared service token") @RequestHeader(value = SERVICE_TOKEN_HEADER, required = false) String token,
+            @Valid @RequestBody EditContributionsRequest request) {
+        if (token == null || !MessageDigest.isEqual(serviceToken, token.getBytes(StandardCharsets.UTF_8))) {
+            throw new UnauthorizedException("A valid service token is required");
+        }
+        log.info("POST /internal/contributions/edits - {} entries", request.getContributions().size());
+        versionService.recordEdits(request);
+        return ResponseEntity
+            .status(HttpStatus.ACCEPTED)
+            .body(ApiResponse.success("Edits recorded", null));
+    }
+}
@@ -1,10 +1,19 @@
 package com.collab.versionservice.controller;
 
 import com.collab.common.dto.ApiResponse;
+import com.collab.versionservice.dto.BlameDTO;
 import com.collab.versionservice.dto.ContributionDTO;
+import com.collab.versionservice.dto.ContributionLeaderboardDTO;
 import com.collab.versionservice.dto.CreateVersionRequest;
+import com.collab.versionservice.dto.VersionComparisonDTO;
 import com.collab.versionservice.dto.VersionDTO;
+import com.collab.versionservice.dto.VersionHistoryPage;
+import com.collab.versionservice.dto.VersionSummaryDTO;
+import com.collab.versionservice.service.BlameService;
+import com.collab.versionservice.service.ContributionLeaderboardService;
+import com.collab.versionservice.service.VersionComparisonService;
 import com.collab.versionservice.service.VersionService;
+import com.collab.versionservice.service.VersionWritePipeline;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
@@ -12,10 +21,12 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -36,48 +47,122 @@ import java.util.List;
 public class VersionController {
 
     private final VersionService versionService;
+    private final VersionComparisonService versionComparisonService;
+    private final BlameService blameService;
+    private final VersionWritePipeline versionWritePipeline;
+    private final ContributionLeaderboardService contributionLeaderboardService;
 
     @PostMapping("/{documentId}")
-    @Operation(summary = "Create version snapshot", description = "Create a new version snapshot of the document")
+    @Operation(
+        summary = "Create version snapshot",
+        description = "Queue a new version snapshot of the document and return its id. The version is stored in the background, after the document's earlier versions; pass wait=true to wait until it is stored. Poll GET /api/versions/version/{versionId} for its status."
+    )
     @ApiResponses(value = {
-        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "201", description = "Version created successfully"),
-        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Invalid input")
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "201", description = "Version created successfully (wait=true)"),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "202", description = "Version accepted for storage (or not stored within the wait timeout)"),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Invalid input"),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "503", description = "Version queue full, retry later")
     })
-    public ResponseEntity<ApiResponse<VersionDTO>> createVersion(
+    public ResponseEntity<ApiResponse<?>> createVersion(
             @PathVariable String documentId,
-            @Valid @RequestBody CreateVersionRequest request) {
-        log.info("POST /api/versions/{}", documentId);
-        VersionDTO version = versionService.createVersion(documentId, request);
+            @Valid @RequestBody CreateVersionRequest request,
+            @Parameter(description = "Store the version before responding") @RequestParam(defaultValue = "false") boolean wait) {
+        log.info("POST /api/versions/{} - wait: {}", documentId, wait);
+        if (wait) {
+            VersionDTO version = versionWritePipeline.submitAndWait(documentId, request);
+            if (version.getStatus() == VersionDTO.Status.PENDING) {
+                return ResponseEntity
+                    .status(HttpStatus.ACCEPTED)
+                    .body(ApiResponse.success("Version accepted, not yet stored", version));
+            }
+            return ResponseEntity
+                .status(HttpStatus.CREATED)
+                .body(ApiResponse.success("Version created successfully", version));
+        }
+        VersionSummaryDTO version = versionWritePipeline.submit(documentId, request);
         return ResponseEntity
-            .status(HttpStatus.CREATED)
-            .body(ApiResponse.success("Version created successfully", version));
+            .status(HttpStatus.ACCEPTED)
+            .body(ApiResponse.success("Version accepted", version));
     }
 
     @GetMapping("/{documentId}")
-    @Operation(summary = "Get version history", description = "Get all versions for a document (sorted by timestamp desc)")
+    @Operation(
+        summary = "Get version history",
+        description = "Get one page of a document's versions, newest first, without content. Pass the returned nextCursor to fetch older versions; fetch a version's content with GET /api/versions/version/{versionId}."
+    )
     @ApiResponses(value = {
-        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Version history retrieved successfully")
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Version history retrieved successfully"),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Invalid cursor")
     })
-    public ResponseEntity<ApiResponse<List<VersionDTO>>> getVersionHistory(@PathVariable String documentId) {
-        log.info("GET /api/versions/{}", documentId);
-        List<VersionDTO> versions = versionService.getVersionHistory(documentId);
-        return ResponseEntity.ok(ApiResponse.success(versions));
+    public ResponseEntity<ApiResponse<VersionHistoryPage>> getVersionHistory(
+            @PathVariable String documentId,
+            @Parameter(description = "Cursor from the previous page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size (max 100)") @RequestParam(defaultValue = "50") int limit) {
+        log.info("GET /api/versions/{} - limit: {}", documentId, limit);
+        VersionHistoryPage page = versionService.getVersionHistory(documentId, cursor, limit);
+        return ResponseEntity.ok(ApiResponse.success(page));
     }
 
     @GetMapping("/version/{versionId}")
-    @Operation(summary = "Get specific version", description = "Get details of a specific version")
+    @Operation(summary = "Get specific version", description = "Get details of a specific version. A version accepted but not yet stored has status PENDING; one that could not be stored has status FAILED.")
     @ApiResponses(value = {
         @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Version retrieved successfully"),
         @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "Version not found")
     })
     public ResponseEntity<ApiResponse<VersionDTO>> getVersion(@PathVariable String versionId) {
         log.info("GET /api/versions/version/{}", versionId);
-        VersionDTO version = versionService.getVersion(versionId);
+        VersionDTO version = versionWritePipeline.getVersion(versionId);
+        return ResponseEntity.ok(ApiResponse.success(version));
+    }
+
+    @GetMapping("/{documentId}/at")
+    @Operation(
+        summary = "Get document as of an instant",
+        description = "Get the version that was current at the given date-time (ISO-8601, server time), with its content"
+    )
+    @ApiResponses(value = {
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Version retrieved successfully"),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "No version at or before that instant")
+    })
+    public ResponseEntity<ApiResponse<VersionDTO>> getVersionAt(
+            @PathVariable String documentId,
+            @Parameter(description = "Instant to read the document at, e.g. 2024-05-01T12:00:00")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime ts) {
+        log.info("GET /api/versions/{}/at - ts: {}", documentId, ts);
+        VersionDTO version = versionService.getVersionAt(documentId, ts);
         return ResponseEntity.ok(ApiResponse.success(version));
     }
 
+    @GetMapping("/{documentId}/blame")
+    @Operation(summary = "Get blame", description = "Get who wrote each line of the document's newest version, as runs of consecutive lines per user")
+    @ApiResponses(value = {
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Blame retrieved successfully"),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "Document has no versions")
+    })
+    public ResponseEntity<ApiResponse<BlameDTO>> getBlame(@PathVariable String documentId) {
+        log.info("GET /api/versions/{}/blame", documentId);
+        BlameDTO blame = blameService.getBlame(documentId);
+        return ResponseEntity.ok(ApiResponse.success(blame));
+    }
+
+    @GetMapping("/{documentId}/compare")
+    @Operation(summary = "Compare versions", description = "Get the changed lines between two versions of a document")
+    @ApiResponses(value = {
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Comparison retrieved successfully"),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "Version not found")
+    })
+    public ResponseEntity<ApiResponse<VersionComparisonDTO>> compareVersions(
+            @PathVariable String documentId,
+            @Parameter(description = "Version to compare from") @RequestParam String from,
+            @Parameter(description = "Version to compare to") @RequestParam String to) {
+        log.info("GET /api/versions/{}/compare - from: {}, to: {}", documentId, from, to);
+        VersionComparisonDTO comparison = versionComparisonService.compare(documentId, from, to);
+        return ResponseEntity.ok(ApiResponse.success(comparison));
+    }
+
     @PostMapping("/{documentId}/revert/{versionId}")
-    @Operation(summary = "Revert to version", description = "Revert document to a previous version")
+    @Operation(summary = "Revert to version", description = "Revert document to a previous version. "
+        + "Requests repeated with the same Idempotency-Key record the revert once.")
     @ApiResponses(value = {
         @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Document reverted successfully"),
         @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "Version not found")
@@ -85,9 +170,11 @@ public class VersionController {
     public ResponseEntity<ApiResponse<VersionDTO>> revertToVersion(
             @PathVariable String documentId,
             @PathVariable String versionId,
-            @Parameter(description = "User ID performing the revert") @RequestParam String userId) {
+            @Parameter(description = "User ID performing the revert") @RequestParam String userId,
+            @Parameter(description = "Key identifying this revert across retries")
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
         log.info("POST /api/versions/{}/revert/{} - userId: {}", documentId, versionId, userId);
-        VersionDTO version = versionService.revertToVersion(documentId, versionId, userId);
+        VersionDTO version = versionService.revertToVersion(documentId, versionId, userId, idempotencyKey);
         return ResponseEntity.ok(ApiResponse.success("Document reverted successfully", version));
     }
 
@@ -101,4 +188,27 @@ public class VersionController {
         List<ContributionDTO> contributions = versionService.getContributions(documentId);
         return ResponseEntity.ok(ApiResponse.success(contributions));
     }
+
+    @GetMapping("/{documentId}/contributions/leaderboard")
+    @Operation(
+        summary = "Get contribution leaderboard",
+        description = "Get the users who changed a document most between two instants (server time, rounded down to the hour), from precomputed hourly, daily and weekly rollups. Defaults to the last 7 days. Bounds older than the hourly or daily rollup retention are rounded down to the day or week."
+    )
+    @ApiResponses(value = {
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Leaderboard retrieved successfully"),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "from is not before to")
+    })
+    public ResponseEntity<ApiResponse<ContributionLeaderboardDTO>> getLeaderboard(
+            @PathVariable String documentId,
+            @Parameter(description = "Start of the window (inclusive)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "End of the window (exclusive), default now")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @Parameter(description = "Number of contributors (max 100)") @RequestParam(defaultValue = "10") int limit) {
+        log.info("GET /api/versions/{}/contributions/leaderboard - from: {}, to: {}", documentId, from, to);
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        LocalDateTime start = from != null ? from : end.minusDays(7);
+        ContributionLeaderboardDTO leaderboard = contributionLeaderboardService.getLeaderboard(documentId, start, end, limit);
+        return ResponseEntity.ok(ApiResponse.success(leaderboard));
+    }
 }
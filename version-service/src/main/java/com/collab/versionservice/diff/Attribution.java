@@ -0,0 +1,154 @@
+package com.collab.versionservice.diff;
+
+import com.collab.versionservice.model.BlameSpan;
+import org.bson.types.ObjectId;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Attribution
+ * 
+ * Carries character authorship through diffs and groups it into lines.
+ * Authorship is a list of run-length {@link BlameSpan}s covering a text;
+ * adjacent spans never share an author. A null author marks text whose
+ * author is unknown.
+ * 
+ * @author Arhum Khan
+ * @version 1.0.0
+ */
+public final class Attribution {
+
+    private Attribution() {
+    }
+
+    /**
+     * A line range attributed to one user
+     * 
+     * @param startLine First line of the range, counting from 1
+     * @param lineCount Number of lines in the range
+     * @param userId Author of most of each line's characters, or null if unknown
+     */
+    public record LineRun(int startLine, int lineCount, ObjectId userId) {
+    }
+
+    /**
+     * Spans for a text written entirely by one user
+     */
+    public static List<BlameSpan> of(ObjectId userId, int length) {
+        List<BlameSpan> spans = new ArrayList<>(1);
+        append(spans, userId, length);
+        return spans;
+    }
+
+    /**
+     * Number of characters the spans cover
+     */
+    public static int length(List<BlameSpan> spans) {
+        int total = 0;
+        for (BlameSpan span : spans) {
+            total += span.getLength();
+        }
+        return total;
+    }
+
+    /**
+     * Authorship of a new text: kept text keeps its author, inserted text
+     * belongs to {@code userId}
+     * 
+     * @param spans Authorship of the old text
+     * @param edits Diff from the old text to the new one
+     * @throws IllegalArgumentException if the diff covers more text than the spans
+     */
+    public static List<BlameSpan> apply(List<BlameSpan> spans, List<DiffEdit> edits, ObjectId userId) {
+        List<BlameSpan> result = new ArrayList<>(spans.size() + 2);
+        int index = 0;
+        int offset = 0; // characters of spans[index] already consumed
+        for (DiffEdit edit : edits) {
+            int remaining = edit.text().length();
+            if (edit.operation() == DiffEdit.Operation.INSERT) {
+                append(result, userId, remaining);
+                continue;
+            }
+            while (remaining > 0) {
+                if (index >= spans.size()) {
+                    throw new IllegalArgumentException("Diff is longer than the attributed text");
+                }
+                BlameSpan span = spans.get(index);
+                int take = Math.min(remaining, span.getLength() - offset);
+                if (edit.operation() == DiffEdit.Operation.EQUAL) {
+                    append(result, span.getUserId(), take);
+                }
+                remaining -= take;
+                offset += take;
+                if (offset == span.getLength()) {
+                    index++;
+                    offset = 0;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Group a text's lines into runs of consecutive lines with the same author
+     * 
+     * @param content The text the spans cover
+     */
+    public static List<LineRun> lines(String content, List<BlameSpan> spans) {
+        List<LineRun> runs = new ArrayList<>();
+        Map<ObjectId, Integer> counts = new LinkedHashMap<>();
+        int line = 1;
+        int position = 0;
+        for (BlameSpan span : spans) {
+            int end = Math.min(position + span.getLength(), content.length());
+            while (position < end) {
+                int newline = content.indexOf('\n', position);
+                boolean endsLine = newline >= 0 && newline < end;
+                int stop = endsLine ? newline + 1 : end;
+                counts.merge(span.getUserId(), stop - position, Integer::sum);
+                position = stop;
+                if (endsLine) {
+                    closeLine(runs, line++, counts);
+                }
+            }
+        }
+        if (!counts.isEmpty()) {
+            closeLine(runs, line, counts);
+        }
+        return runs;
+    }
+
+    private static void closeLine(List<LineRun> runs, int line, Map<ObjectId, Integer> counts) {
+        ObjectId author = null;
+        int most = -1;
+        for (Map.Entry<ObjectId, Integer> entry : counts.entrySet()) {
+            if (entry.getValue() > most) {
+                author = entry.getKey();
+                most = entry.getValue();
+            }
+        }
+        counts.clear();
+        LineRun last = runs.isEmpty() ? null : runs.get(runs.size() - 1);
+        if (last != null && Objects.equals(last.userId(), author)) {
+            runs.set(runs.size() - 1, new LineRun(last.startLine(), last.lineCount() + 1, author));
+        } else {
+            runs.add(new LineRun(line, 1, author));
+        }
+    }
+
+    private static void append(List<BlameSpan> spans, ObjectId userId, int length) {
+        if (length <= 0) {
+            return;
+        }
+        BlameSpan last = spans.isEmpty() ? null : spans.get(spans.size() - 1);
+        if (last != null && Objects.equals(last.getUserId(), userId)) {
+            last.setLength(last.getLength() + length);
+        } else {
+            spans.add(new BlameSpan(userId, length));
+        }
+    }
+}
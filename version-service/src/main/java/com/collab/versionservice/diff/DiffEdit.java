@@ -0,0 +1,16 @@
+package com.collab.versionservice.diff;
+
+/**
+ * One run of a diff: text kept, removed from the old version, or added in the new one
+ * 
+ * @param operation What happened to the text
+ * @param text The text itself
+ * @author Arhum Khan
+ * @version 1.0.0
+ */
+public record DiffEdit(Operation operation, String text) {
+
+    public enum Operation {
+        EQUAL, DELETE, INSERT
+    }
+}
@@ -0,0 +1,96 @@
+package com.collab.versionservice.diff;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One changed region of a line diff, in the style of a unified diff hunk:
+ * the changed lines surrounded by a few lines of unchanged context
+ * 
+ * @param oldStart First line of the hunk in the old text (1-based)
+ * @param oldLines Number of old lines the hunk covers
+ * @param newStart First line of the hunk in the new text (1-based)
+ * @param newLines Number of new lines the hunk covers
+ * @param edits Context, deleted and inserted lines in order
+ * @author Arhum Khan
+ * @version 1.0.0
+ */
+public record DiffHunk(int oldStart, int oldLines, int newStart, int newLines, List<DiffEdit> edits) {
+
+    /**
+     * Group a line-granularity diff into hunks
+     * 
+     * @param result Diff computed with {@link Granularity#LINE}
+     * @param contextLines Unchanged lines to keep around each change; changes
+     *                     separated by at most twice this many lines share a hunk
+     */
+    public static List<DiffHunk> of(DiffResult result, int contextLines) {
+        List<DiffEdit> lines = new ArrayList<>();
+        for (DiffEdit edit : result.edits()) {
+            for (String line : Granularity.LINE.tokenize(edit.text())) {
+                lines.add(new DiffEdit(edit.operation(), line));
+            }
+        }
+
+        int[] oldLineAt = new int[lines.size()];
+        int[] newLineAt = new int[lines.size()];
+        int oldLine = 1;
+        int newLine = 1;
+        for (int i = 0; i < lines.size(); i++) {
+            oldLineAt[i] = oldLine;
+            newLineAt[i] = newLine;
+            DiffEdit.Operation operation = lines.get(i).operation();
+            if (operation != DiffEdit.Operation.INSERT) {
+                oldLine++;
+            }
+            if (operation != DiffEdit.Operation.DELETE) {
+                newLine++;
+            }
+        }
+
+        List<DiffHunk> hunks = new ArrayList<>();
+        int i = 0;
+        while (i < lines.size()) {
+            if (lines.get(i).operation() == DiffEdit.Operation.EQUAL) {
+                i++;
+                continue;
+            }
+            int start = Math.max(0, i - contextLines);
+            int lastChange = i;
+            int j = i + 1;
+            while (j < lines.size()) {
+                if (lines.get(j).operation() != DiffEdit.Operation.EQUAL) {
+                    lastChange = j;
+                } else if (j - lastChange > 2 * contextLines) {
+                    break;
+                }
+                j++;
+            }
+            int end = Math.min(lines.size(), lastChange + 1 + contextLines);
+            hunks.add(hunk(lines, start, end, oldLineAt[start], newLineAt[start]));
+            i = end;
+        }
+        return hunks;
+    }
+
+    private static DiffHunk hunk(List<DiffEdit> lines, int start, int end, int oldStart, int newStart) {
+        List<DiffEdit> edits = new ArrayList<>();
+        int oldLines = 0;
+        int newLines = 0;
+        for (DiffEdit line : lines.subList(start, end)) {
+            if (line.operation() != DiffEdit.Operation.INSERT) {
+                oldLines++;
+            }
+            if (line.operation() != DiffEdit.Operation.DELETE) {
+                newLines++;
+            }
+            int last = edits.size() - 1;
+            if (last >= 0 && edits.get(last).operation() == line.operation()) {
+                edits.set(last, new DiffEdit(line.operation(), edits.get(last).text() + line.text()));
+            } else {
+                edits.add(line);
+            }
+        }
+        return new DiffHunk(oldStart, oldLines, newStart, newLines, edits);
+    }
+}
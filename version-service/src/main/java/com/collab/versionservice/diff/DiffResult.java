@@ -0,0 +1,34 @@
+package com.collab.versionservice.diff;
+
+import java.util.List;
+
+/**
+ * Result of diffing two texts
+ * 
+ * @param edits The edits in text order; adjacent edits never share an operation
+ *              except for a DELETE directly followed by an INSERT
+ * @param budgetExhausted Whether the cost budget ran out, in which case some
+ *                        regions are reported as a whole replacement instead of a minimal edit
+ * @author Arhum Khan
+ * @version 1.0.0
+ */
+public record DiffResult(List<DiffEdit> edits, boolean budgetExhausted) {
+
+    public int charsAdded() {
+        return count(DiffEdit.Operation.INSERT);
+    }
+
+    public int charsDeleted() {
+        return count(DiffEdit.Operation.DELETE);
+    }
+
+    private int count(DiffEdit.Operation operation) {
+        int total = 0;
+        for (DiffEdit edit : edits) {
+            if (edit.operation() == operation) {
+                total += edit.text().length();
+            }
+        }
+        return total;
+    }
+}
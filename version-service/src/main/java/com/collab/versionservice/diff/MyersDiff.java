@@ -0,0 +1,217 @@
+package com.collab.versionservice.diff;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Myers Diff
+ * 
+ * Minimal-edit diff of two texts using Myers' O(ND) algorithm in its
+ * linear-space form: each step finds the middle snake of the remaining
+ * region by searching forwards and backwards at once, then recurses on the
+ * two halves, so memory stays O(N + M) regardless of how different the
+ * texts are. Common prefixes and suffixes are stripped before every
+ * search, which makes the usual small edit close to a linear scan.
+ * 
+ * Every diagonal probe is charged against a cost budget. When the budget
+ * runs out, each region still unresolved is reported as a whole
+ * replacement, so pathological rewrites cost bounded time instead of
+ * growing with N x D.
+ * 
+ * @author Arhum Khan
+ * @version 1.0.0
+ */
+public final class MyersDiff {
+
+    private final Granularity granularity;
+    private final long costBudget;
+
+    public MyersDiff(Granularity granularity, long costBudget) {
+        this.granularity = granularity;
+        this.costBudget = costBudget;
+    }
+
+    /**
+     * Diff two texts
+     */
+    public DiffResult diff(String oldText, String newText) {
+        String a = oldText != null ? oldText : "";
+        String b = newText != null ? newText : "";
+
+        List<String> oldTokens = granularity.tokenize(a);
+        List<String> newTokens = granularity.tokenize(b);
+        Map<String, Integer> ids = new HashMap<>();
+        Run run = new Run(oldTokens, newTokens, intern(oldTokens, ids), intern(newTokens, ids), costBudget);
+        run.diff(0, run.a.length, 0, run.b.length);
+        return new DiffResult(run.edits, run.budgetExhausted);
+    }
+
+    private static int[] intern(List<String> tokens, Map<String, Integer> ids) {
+        int[] result = new int[tokens.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = ids.computeIfAbsent(tokens.get(i), t -> ids.size());
+        }
+        return result;
+    }
+
+    /**
+     * State of a single diff: token arrays, remaining budget and the edits emitted so far
+     */
+    private static final class Run {
+
+        private final List<String> oldTokens;
+        private final List<String> newTokens;
+        private final int[] a;
+        private final int[] b;
+        private final List<DiffEdit> edits = new ArrayList<>();
+        private long budget;
+        private boolean budgetExhausted;
+
+        Run(List<String> oldTokens, List<String> newTokens, int[] a, int[] b, long budget) {
+            this.oldTokens = oldTokens;
+            this.newTokens = newTokens;
+            this.a = a;
+            this.b = b;
+            this.budget = budget;
+        }
+
+        void diff(int aLo, int aHi, int bLo, int bHi) {
+            int prefix = 0;
+            while (aLo + prefix < aHi && bLo + prefix < bHi && a[aLo + prefix] == b[bLo + prefix]) {
+                prefix++;
+            }
+            emit(DiffEdit.Operation.EQUAL, oldTokens, aLo, aLo + prefix);
+            aLo += prefix;
+            bLo += prefix;
+
+            int suffix = 0;
+            while (aLo < aHi - suffix && bLo < bHi - suffix && a[aHi - 1 - suffix] == b[bHi - 1 - suffix]) {
+                suffix++;
+            }
+            aHi -= suffix;
+            bHi -= suffix;
+
+            if (aLo == aHi) {
+                emit(DiffEdit.Operation.INSERT, newTokens, bLo, bHi);
+            } else if (bLo == bHi) {
+                emit(DiffEdit.Operation.DELETE, oldTokens, aLo, aHi);
+            } else {
+                int[] split = middleSnake(aLo, aHi, bLo, bHi);
+                if (split == null) {
+                    emit(DiffEdit.Operation.DELETE, oldTokens, aLo, aHi);
+                    emit(DiffEdit.Operation.INSERT, newTokens, bLo, bHi);
+                } else {
+                    diff(aLo, split[0], bLo, split[1]);
+                    diff(split[0], aHi, split[1], bHi);
+                }
+            }
+
+            emit(DiffEdit.Operation.EQUAL, oldTokens, aHi, aHi + suffix);
+        }
+
+        /**
+         * Find a point on an optimal edit path that splits the region in two
+         * 
+         * @return {x, y} in absolute token positions, or null if the regions share
+         *         nothing or the budget ran out
+         */
+        private int[] middleSnake(int aLo, int aHi, int bLo, int bHi) {
+            int n = aHi - aLo;
+            int m = bHi - bLo;
+            int maxD = (n + m + 1) / 2;
+            int offset = maxD;
+            int size = 2 * maxD + 2;
+            int[] forward = new int[size];
+            int[] backward = new int[size];
+            Arrays.fill(forward, -1);
+            Arrays.fill(backward, -1);
+            forward[offset + 1] = 0;
+            backward[offset + 1] = 0;
+            int delta = n - m;
+            boolean oddDelta = (delta & 1) != 0;
+            int kForwardStart = 0;
+            int kForwardEnd = 0;
+            int kBackwardStart = 0;
+            int kBackwardEnd = 0;
+
+            for (int d = 0; d < maxD; d++) {
+                if (budget <= 0) {
+                    budgetExhausted = true;
+                    return null;
+                }
+                budget -= 2L * d + 2;
+
+                for (int k = -d + kForwardStart; k <= d - kForwardEnd; k += 2) {
+                    int kOffset = offset + k;
+                    int x = (k == -d || (k != d && forward[kOffset - 1] < forward[kOffset + 1]))
+                        ? forward[kOffset + 1]
+                        : forward[kOffset - 1] + 1;
+                    int y = x - k;
+                    while (x < n && y < m && a[aLo + x] == b[bLo + y]) {
+                        x++;
+                        y++;
+                    }
+                    forward[kOffset] = x;
+                    if (x > n) {
+                        kForwardEnd += 2;
+                    } else if (y > m) {
+                        kForwardStart += 2;
+                    } else if (oddDelta) {
+                        int backOffset = offset + delta - k;
+                        if (backOffset >= 0 && backOffset < size && backward[backOffset] != -1
+                                && x >= n - backward[backOffset]) {
+                            return new int[] {aLo + x, bLo + y};
+                        }
+                    }
+                }
+
+                for (int k = -d + kBackwardStart; k <= d - kBackwardEnd; k += 2) {
+                    int kOffset = offset + k;
+                    int x = (k == -d || (k != d && backward[kOffset - 1] < backward[kOffset + 1]))
+                        ? backward[kOffset + 1]
+                        : backward[kOffset - 1] + 1;
+                    int y = x - k;
+                    while (x < n && y < m && a[aHi - 1 - x] == b[bHi - 1 - y]) {
+                        x++;
+                        y++;
+                    }
+                    backward[kOffset] = x;
+                    if (x > n) {
+                        kBackwardEnd += 2;
+                    } else if (y > m) {
+                        kBackwardStart += 2;
+                    } else if (!oddDelta) {
+                        int forwardOffset = offset + delta - k;
+                        if (forwardOffset >= 0 && forwardOffset < size && forward[forwardOffset] != -1) {
+                            int forwardX = forward[forwardOffset];
+                            int forwardY = forwardX - (forwardOffset - offset);
+                            if (forwardX >= n - x) {
+                                return new int[] {aLo + forwardX, bLo + forwardY};
+                            }
+                        }
+                    }
+                }
+            }
+            return null;
+        }
+
+        private void emit(DiffEdit.Operation operation, List<String> tokens, int from, int to) {
+            if (from >= to) {
+                return;
+            }
+            StringBuilder text = new StringBuilder();
+            for (int i = from; i < to; i++) {
+                text.append(tokens.get(i));
+            }
+            int last = edits.size() - 1;
+            if (last >= 0 && edits.get(last).operation() == operation) {
+                edits.set(last, new DiffEdit(operation, edits.get(last).text() + text));
+            } else {
+                edits.add(new DiffEdit(operation, text.toString()));
+            }
+        }
+    }
+}
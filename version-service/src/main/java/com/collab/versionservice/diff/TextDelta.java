@@ -0,0 +1,114 @@
+package com.collab.versionservice.diff;
+
+import com.collab.versionservice.model.DeltaOp;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Text Delta
+ * 
+ * Encodes a new text as a list of {@link DeltaOp}s against an old text and
+ * applies such deltas back. Anything after the last operation is implicitly
+ * retained, so an unchanged tail costs nothing.
+ * 
+ * The encoder trims the common prefix and suffix and replaces the middle,
+ * which is compact for the usual single-region edit between snapshots.
+ * Boundaries never split a surrogate pair, so every stored insert is valid UTF-16.
+ * 
+ * @author Arhum Khan
+ * @version 1.0.0
+ */
+public final class TextDelta {
+
+    /** Approximate stored size of an operation besides its inserted text */
+    private static final int OP_OVERHEAD = 8;
+
+    private TextDelta() {
+    }
+
+    /**
+     * Compute the operations that turn {@code oldText} into {@code newText}
+     */
+    public static List<DeltaOp> diff(String oldText, String newText) {
+        String a = oldText != null ? oldText : "";
+        String b = newText != null ? newText : "";
+
+        int max = Math.min(a.length(), b.length());
+        int prefix = 0;
+        while (prefix < max && a.charAt(prefix) == b.charAt(prefix)) {
+            prefix++;
+        }
+        if (prefix > 0 && Character.isHighSurrogate(a.charAt(prefix - 1))) {
+            prefix--;
+        }
+
+        int suffix = 0;
+        while (suffix < max - prefix
+                && a.charAt(a.length() - 1 - suffix) == b.charAt(b.length() - 1 - suffix)) {
+            suffix++;
+        }
+        if (suffix > 0 && Character.isLowSurrogate(a.charAt(a.length() - suffix))) {
+            suffix--;
+        }
+
+        List<DeltaOp> ops = new ArrayList<>(3);
+        if (prefix == a.length() && prefix == b.length()) {
+            return ops;
+        }
+        if (prefix > 0) {
+            ops.add(DeltaOp.retain(prefix));
+        }
+        int deleted = a.length() - prefix - suffix;
+        if (deleted > 0) {
+            ops.add(DeltaOp.delete(deleted));
+        }
+        if (b.length() - prefix - suffix > 0) {
+            ops.add(DeltaOp.insert(b.substring(prefix, b.length() - suffix)));
+        }
+        return ops;
+    }
+
+    /**
+     * Apply operations produced by {@link #diff} to the text they were computed against
+     *
+     * @throws IllegalArgumentException if the operations run past the end of {@code base}
+     */
+    public static String apply(String base, List<DeltaOp> ops) {
+        String source = base != null ? base : "";
+        StringBuilder out = new StringBuilder(source.length());
+        int pos = 0;
+        for (DeltaOp op : ops) {
+            if (op.getRetain() != null) {
+                int end = checkedEnd(source, pos, op.getRetain());
+                out.append(source, pos, end);
+                pos = end;
+            } else if (op.getDelete() != null) {
+                pos = checkedEnd(source, pos, op.getDelete());
+            } else if (op.getInsert() != null) {
+                out.append(op.getInsert());
+            }
+        }
+        out.append(source, pos, source.length());
+        return out.toString();
+    }
+
+    /**
+     * Approximate stored size of a delta, for comparing it against the full text
+     */
+    public static int encodedSize(List<DeltaOp> ops) {
+        int size = 0;
+        for (DeltaOp op : ops) {
+            size += OP_OVERHEAD + (op.getInsert() != null ? op.getInsert().length() : 0);
+        }
+        return size;
+    }
+
+    private static int checkedEnd(String source, int pos, int count) {
+        int end = pos + count;
+        if (count < 0 || end > source.length()) {
+            throw new IllegalArgumentException("Delta does not match its base text");
+        }
+        return end;
+    }
+}
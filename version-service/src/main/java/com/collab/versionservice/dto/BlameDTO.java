@@ -0,0 +1,34 @@
+package com.collab.versionservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Line-level authorship of a document's current content")
+public class BlameDTO {
+
+    @Schema(description = "Document ID")
+    private String documentId;
+
+    @Schema(description = "Version the blame describes (the document's newest version)")
+    private String versionId;
+
+    @Schema(description = "Runs of consecutive lines attributed to the same user")
+    private List<LineRangeDTO> lines;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class LineRangeDTO {
+        private int startLine;
+        private int lineCount;
+        private String userId;
+        private String username;
+    }
+}
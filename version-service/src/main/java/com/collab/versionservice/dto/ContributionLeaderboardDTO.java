@@ -0,0 +1,52 @@
+package com.collab.versionservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Contributors to a document within a time window, most changes first")
+public class ContributionLeaderboardDTO {
+
+    @Schema(description = "Document ID")
+    private String documentId;
+
+    @Schema(description = "Start of the window (inclusive), rounded down to the hour")
+    private LocalDateTime from;
+
+    @Schema(description = "End of the window (exclusive), rounded down to the hour")
+    private LocalDateTime to;
+
+    @Schema(description = "Contributors, ordered by characters changed")
+    private List<EntryDTO> entries;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class EntryDTO {
+
+        @Schema(description = "User ID")
+        private String userId;
+
+        @Schema(description = "Username, null if the user could not be resolved")
+        private String username;
+
+        @Schema(description = "Versions created in the window")
+        private long versions;
+
+        @Schema(description = "Characters added in the window")
+        private long charsAdded;
+
+        @Schema(description = "Characters deleted in the window")
+        private long charsDeleted;
+
+        @Schema(description = "Characters added plus deleted")
+        private long totalChanges;
+    }
+}
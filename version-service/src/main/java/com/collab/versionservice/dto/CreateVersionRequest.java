@@ -22,4 +22,10 @@ public class CreateVersionRequest {
 
     @Schema(description = "Optional description", example = "Before major refactoring")
     private String description;
+
+    @Schema(description = "Keep this version through retention thinning; defaults to true when a description is given")
+    private Boolean pinned;
+
+    @Schema(description = "Whether the snapshot coalesces edits by several users; its changes are then credited to no one in blame and contributions")
+    private Boolean coalesced;
 }
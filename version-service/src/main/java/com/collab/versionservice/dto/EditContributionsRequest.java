@@ -0,0 +1,50 @@
+package com.collab.versionservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Live edit counts accumulated by document-service since its last report")
+public class EditContributionsRequest {
+
+    @NotNull(message = "Contributions are required")
+    @Valid
+    @Schema(description = "Counts per document and user")
+    private List<EditCount> contributions;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class EditCount {
+
+        @NotBlank(message = "Document ID is required")
+        @Schema(description = "Document ID")
+        private String documentId;
+
+        @NotBlank(message = "User ID is required")
+        @Schema(description = "User ID who made the edits")
+        private String userId;
+
+        @PositiveOrZero
+        @Schema(description = "Number of edits")
+        private int edits;
+
+        @PositiveOrZero
+        @Schema(description = "Characters added")
+        private int charsAdded;
+
+        @PositiveOrZero
+        @Schema(description = "Characters deleted")
+        private int charsDeleted;
+    }
+}
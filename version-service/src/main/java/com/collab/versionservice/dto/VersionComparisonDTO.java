@@ -0,0 +1,37 @@
+package com.collab.versionservice.dto;
+
+import com.collab.versionservice.diff.DiffHunk;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Line diff between two versions of a document")
+public class VersionComparisonDTO {
+
+    @Schema(description = "Document ID")
+    private String documentId;
+
+    @Schema(description = "Version compared from")
+    private String fromVersionId;
+
+    @Schema(description = "Version compared to")
+    private String toVersionId;
+
+    @Schema(description = "Characters added going from one version to the other")
+    private int charsAdded;
+
+    @Schema(description = "Characters deleted going from one version to the other")
+    private int charsDeleted;
+
+    @Schema(description = "Whether the diff hit its cost budget and reports some regions as whole replacements")
+    private boolean approximate;
+
+    @Schema(description = "Changed regions with surrounding context lines")
+    private List<DiffHunk> hunks;
+}
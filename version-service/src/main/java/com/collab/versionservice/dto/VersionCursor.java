@@ -0,0 +1,57 @@
+package com.collab.versionservice.dto;
+
+import com.collab.common.exception.BadRequestException;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.bson.types.ObjectId;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Keyset pagination cursor for version history
+ * 
+ * Position of the last version returned on a page, ordered by
+ * (timestamp desc, _id desc). Serialized as an opaque URL-safe token so
+ * clients never build cursors themselves.
+ * 
+ * @author Arhum Khan
+ * @version 1.0.0
+ */
+@Data
+@AllArgsConstructor
+public class VersionCursor {
+
+    private LocalDateTime timestamp;
+    private ObjectId id;
+
+    public String encode() {
+        String raw = timestamp + "|" + id.toHexString();
+        return Base64.getUrlEncoder().withoutPadding()
+            .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a cursor token
+     * 
+     * @param token The token from a previous page, may be null or blank
+     * @return The decoded cursor, or null when starting from the newest version
+     * @throws BadRequestException if the token is malformed
+     */
+    public static VersionCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            return new VersionCursor(
+                LocalDateTime.parse(raw.substring(0, separator)),
+                new ObjectId(raw.substring(separator + 1))
+            );
+        } catch (RuntimeException e) {
+            throw new BadRequestException("Invalid page cursor");
+        }
+    }
+}
@@ -32,10 +32,23 @@ public class VersionDTO {
     @Schema(description = "Version description")
     private String description;
 
+    @Schema(description = "Whether retention thinning keeps this version")
+    private boolean pinned;
+
+    @Schema(description = "ID of the version a revert restored, null for other versions")
+    private String revertedFrom;
+
     @Schema(description = "Change statistics")
     private ChangeStatsDTO changeStats;
 
+    @Schema(description = "STORED, or PENDING while queued for storage, or FAILED if it could not be stored")
+    private Status status;
+
     public static VersionDTO fromVersion(Version version) {
+        return fromVersion(version, Status.STORED);
+    }
+
+    public static VersionDTO fromVersion(Version version, Status status) {
         ChangeStatsDTO statsDTO = new ChangeStatsDTO(
             version.getChangeStats().getCharsAdded(),
             version.getChangeStats().getCharsDeleted(),
@@ -49,10 +62,17 @@ public class VersionDTO {
             version.getUserId().toString(),
             version.getTimestamp(),
             version.getDescription(),
-            statsDTO
+            version.isPinned(),
+            version.getRevertedFrom() != null ? version.getRevertedFrom().toString() : null,
+            statsDTO,
+            status
         );
     }
 
+    public enum Status {
+        PENDING, STORED, FAILED
+    }
+
     @Data
     @NoArgsConstructor
     @AllArgsConstructor
@@ -0,0 +1,21 @@
+package com.collab.versionservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "One page of version history, newest first")
+public class VersionHistoryPage {
+
+    @Schema(description = "Versions on this page")
+    private List<VersionSummaryDTO> items;
+
+    @Schema(description = "Opaque cursor for the next page, null when there are no older versions")
+    private String nextCursor;
+}
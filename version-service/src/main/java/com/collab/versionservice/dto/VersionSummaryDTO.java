@@ -0,0 +1,58 @@
+package com.collab.versionservice.dto;
+
+import com.collab.versionservice.model.Version;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Version history entry (no content)")
+public class VersionSummaryDTO {
+
+    @Schema(description = "Version ID")
+    private String id;
+
+    @Schema(description = "Document ID")
+    private String documentId;
+
+    @Schema(description = "User ID who created this version")
+    private String userId;
+
+    @Schema(description = "Creation timestamp")
+    private LocalDateTime timestamp;
+
+    @Schema(description = "Version description")
+    private String description;
+
+    @Schema(description = "Content length in characters, null for versions saved before it was recorded")
+    private Integer contentLength;
+
+    @Schema(description = "Whether retention thinning keeps this version")
+    private boolean pinned;
+
+    @Schema(description = "ID of the version a revert restored, null for other versions")
+    private String revertedFrom;
+
+    @Schema(description = "Change statistics")
+    private VersionDTO.ChangeStatsDTO changeStats;
+
+    public static VersionSummaryDTO fromVersion(Version version) {
+        Version.ChangeStats stats = version.getChangeStats() != null ? version.getChangeStats() : new Version.ChangeStats();
+        return new VersionSummaryDTO(
+            version.getId().toString(),
+            version.getDocumentId().toString(),
+            version.getUserId().toString(),
+            version.getTimestamp(),
+            version.getDescription(),
+            version.getContentLength(),
+            version.isPinned(),
+            version.getRevertedFrom() != null ? version.getRevertedFrom().toString() : null,
+            new VersionDTO.ChangeStatsDTO(stats.getCharsAdded(), stats.getCharsDeleted(), stats.getTotalChanges())
+        );
+    }
+}
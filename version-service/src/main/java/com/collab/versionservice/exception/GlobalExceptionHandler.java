@@ -1,8 +1,11 @@
 package com.collab.versionservice.exception;
 
 import com.collab.common.dto.ErrorResponse;
+import com.collab.common.exception.BadRequestException;
 import com.collab.common.exception.ResourceNotFoundException;
+import com.collab.common.exception.UnauthorizedException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -40,6 +43,44 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(error, HttpStatus.NOT_FOUND);
     }
 
+    @ExceptionHandler(UnauthorizedException.class)
+    public ResponseEntity<ErrorResponse> handleUnauthorizedException(
+            UnauthorizedException ex, WebRequest request) {
+        log.error("Unauthorized: {}", ex.getMessage());
+        ErrorResponse error = new ErrorResponse(
+            ex.getMessage(),
+            "UNAUTHORIZED",
+            request.getDescription(false).replace("uri=", "")
+        );
+        return new ResponseEntity<>(error, HttpStatus.UNAUTHORIZED);
+    }
+
+    @ExceptionHandler(BadRequestException.class)
+    public ResponseEntity<ErrorResponse> handleBadRequestException(
+            BadRequestException ex, WebRequest request) {
+        log.error("Bad request: {}", ex.getMessage());
+        ErrorResponse error = new ErrorResponse(
+            ex.getMessage(),
+            "BAD_REQUEST",
+            request.getDescription(false).replace("uri=", "")
+        );
+        return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(VersionQueueFullException.class)
+    public ResponseEntity<ErrorResponse> handleVersionQueueFullException(
+            VersionQueueFullException ex, WebRequest request) {
+        log.warn("Rejected version: {}", ex.getMessage());
+        ErrorResponse error = new ErrorResponse(
+            ex.getMessage(),
+            "SERVICE_UNAVAILABLE",
+            request.getDescription(false).replace("uri=", "")
+        );
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, "1")
+            .body(error);
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ErrorResponse> handleValidationExceptions(
             MethodArgumentNotValidException ex, WebRequest request) {
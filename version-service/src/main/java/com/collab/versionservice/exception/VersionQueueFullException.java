@@ -0,0 +1,17 @@
+package com.collab.versionservice.exception;
+
+/**
+ * Thrown when the version write pipeline has no room for another version
+ * 
+ * Mapped to 503 Service Unavailable with a Retry-After header, so callers
+ * back off instead of piling more versions onto a saturated service.
+ * 
+ * @author Arhum Khan
+ * @version 1.0.0
+ */
+public class VersionQueueFullException extends RuntimeException {
+
+    public VersionQueueFullException(String documentId) {
+        super("Version queue is full, retry later (document " + documentId + ")");
+    }
+}
@@ -0,0 +1,28 @@
+package com.collab.versionservice.exception;
+
+import com.collab.versionservice.model.Version;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Thrown when some versions of a batch could not be stored
+ * 
+ * Carries the versions that were stored, whose bookkeeping is complete, and
+ * the ones that were not, so the caller can retry only those.
+ * 
+ * @author Arhum Khan
+ * @version 1.0.0
+ */
+@Getter
+public class VersionsNotStoredException extends RuntimeException {
+
+    private final List<Version> stored;
+    private final List<Version> failed;
+
+    public VersionsNotStoredException(List<Version> stored, List<Version> failed) {
+        super(failed.size() + " of " + (stored.size() + failed.size()) + " versions could not be stored");
+        this.stored = stored;
+        this.failed = failed;
+    }
+}
@@ -0,0 +1,29 @@
+package com.collab.versionservice.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+/**
+ * Blame Span
+ * 
+ * A run of {@code length} consecutive characters written by one user.
+ * Field names are abbreviated because a document's blame holds one span
+ * per authorship change.
+ * 
+ * @author Arhum Khan
+ * @version 1.0.0
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BlameSpan {
+
+    @Field("u")
+    private ObjectId userId;
+
+    @Field("n")
+    private int length;
+}
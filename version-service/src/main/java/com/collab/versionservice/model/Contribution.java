@@ -14,7 +14,7 @@ import org.springframework.data.mongodb.core.mapping.Document;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "contributions")
-@CompoundIndex(name = "doc_user_idx", def = "{'documentId': 1, 'userId': 1}")
+@CompoundIndex(name = "doc_user_idx", def = "{'documentId': 1, 'userId': 1}", unique = true)
 public class Contribution {
 
     @Id
@@ -0,0 +1,55 @@
+package com.collab.versionservice.model;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.bson.types.ObjectId;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * One user's contribution to one document during one hour, day or week
+ * 
+ * Hour and day buckets are deleted once older than their retention (see
+ * ContributionLeaderboardService); week buckets are kept.
+ * 
+ * @author Arhum Khan
+ * @version 1.0.0
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "contribution_rollups")
+@CompoundIndexes({
+    @CompoundIndex(name = "doc_bucket_user_idx",
+        def = "{'documentId': 1, 'granularity': 1, 'bucketStart': 1, 'userId': 1}", unique = true),
+    @CompoundIndex(name = "granularity_bucket_idx", def = "{'granularity': 1, 'bucketStart': 1}")
+})
+public class ContributionRollup {
+
+    @Id
+    @JsonSerialize(using = ToStringSerializer.class)
+    private ObjectId id;
+
+    @JsonSerialize(using = ToStringSerializer.class)
+    private ObjectId documentId;
+
+    @JsonSerialize(using = ToStringSerializer.class)
+    private ObjectId userId;
+
+    private RollupGranularity granularity;
+
+    private LocalDateTime bucketStart;
+
+    private int versions;
+
+    private int charsAdded;
+
+    private int charsDeleted;
+}
@@ -0,0 +1,44 @@
+package com.collab.versionservice.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+/**
+ * Delta Operation
+ * 
+ * One step of a delta-encoded version: keep the next {@code retain} characters
+ * of the previous version, skip the next {@code delete} characters, or insert
+ * {@code insert}. Exactly one field is set. Field names are abbreviated
+ * because deltas are stored once per version.
+ * 
+ * @author Arhum Khan
+ * @version 1.0.0
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeltaOp {
+
+    @Field("r")
+    private Integer retain;
+
+    @Field("d")
+    private Integer delete;
+
+    @Field("i")
+    private String insert;
+
+    public static DeltaOp retain(int count) {
+        return new DeltaOp(count, null, null);
+    }
+
+    public static DeltaOp delete(int count) {
+        return new DeltaOp(null, count, null);
+    }
+
+    public static DeltaOp insert(String text) {
+        return new DeltaOp(null, null, text);
+    }
+}
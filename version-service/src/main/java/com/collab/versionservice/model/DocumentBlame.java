@@ -0,0 +1,40 @@
+package com.collab.versionservice.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.bson.types.ObjectId;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Document Blame
+ * 
+ * Who wrote each character of a document's content as of one version,
+ * keyed by document id and stored as run-length {@link BlameSpan}s that
+ * together cover the whole content. It is carried forward from each new
+ * version's diff instead of being recomputed from history.
+ * 
+ * @author Arhum Khan
+ * @version 1.0.0
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "version_blames")
+public class DocumentBlame {
+
+    @Id
+    private ObjectId documentId;
+
+    private ObjectId versionId;
+
+    private long sequence;
+
+    private List<BlameSpan> spans;
+
+    private LocalDateTime updatedAt;
+}
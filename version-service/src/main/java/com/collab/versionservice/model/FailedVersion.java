@@ -0,0 +1,44 @@
+package com.collab.versionservice.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.bson.types.ObjectId;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Failed Version
+ * 
+ * Dead letter of a version the write pipeline accepted but could not store,
+ * keyed by the version's preassigned id. Keeps the version as submitted,
+ * content included, and the last error, so the client can see the failure
+ * on GET /api/versions/version/{versionId} and the content can be recovered.
+ * Dead letters expire after 30 days.
+ * 
+ * @author Arhum Khan
+ * @version 1.0.0
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "version_dead_letters")
+public class FailedVersion {
+
+    @Id
+    private ObjectId id;
+
+    private Version version;
+
+    private String error;
+
+    @Indexed(name = "failed_at_ttl_idx", expireAfter = "30d")
+    private LocalDateTime failedAt;
+
+    public static FailedVersion of(Version version, Throwable error) {
+        return new FailedVersion(version.getId(), version, String.valueOf(error.getMessage()), LocalDateTime.now());
+    }
+}
@@ -0,0 +1,87 @@
+package com.collab.versionservice.model;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Rollup Granularity
+ * 
+ * Bucket sizes of contribution rollups, coarsest last. Weeks start on
+ * Monday; all buckets are in server time like version timestamps.
+ * 
+ * @author Arhum Khan
+ * @version 1.0.0
+ */
+public enum RollupGranularity {
+    HOUR,
+    DAY,
+    WEEK;
+
+    /**
+     * Start of the bucket containing an instant
+     */
+    public LocalDateTime floor(LocalDateTime time) {
+        return switch (this) {
+            case HOUR -> time.truncatedTo(ChronoUnit.HOURS);
+            case DAY -> time.truncatedTo(ChronoUnit.DAYS);
+            case WEEK -> time.truncatedTo(ChronoUnit.DAYS).with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        };
+    }
+
+    /**
+     * Start of the first bucket that does not begin before an instant
+     */
+    public LocalDateTime ceil(LocalDateTime time) {
+        LocalDateTime floor = floor(time);
+        if (floor.equals(time)) {
+            return floor;
+        }
+        return switch (this) {
+            case HOUR -> floor.plusHours(1);
+            case DAY -> floor.plusDays(1);
+            case WEEK -> floor.plusWeeks(1);
+        };
+    }
+
+    /**
+     * Cover the hours of [from, to) with as few buckets as possible: whole
+     * weeks in the middle, whole days around them and hours at the edges
+     * 
+     * @return Bucket ranges, each [from, to) in whole buckets of its granularity
+     */
+    public static List<Range> cover(LocalDateTime from, LocalDateTime to) {
+        List<Range> ranges = new ArrayList<>();
+        cover(HOUR.floor(from), HOUR.floor(to), WEEK, ranges);
+        return ranges;
+    }
+
+    private static void cover(LocalDateTime from, LocalDateTime to, RollupGranularity granularity, List<Range> ranges) {
+        if (!from.isBefore(to)) {
+            return;
+        }
+        if (granularity == HOUR) {
+            ranges.add(new Range(HOUR, from, to));
+            return;
+        }
+        RollupGranularity finer = values()[granularity.ordinal() - 1];
+        LocalDateTime start = granularity.ceil(from);
+        LocalDateTime end = granularity.floor(to);
+        if (!start.isBefore(end)) {
+            cover(from, to, finer, ranges);
+            return;
+        }
+        cover(from, start, finer, ranges);
+        ranges.add(new Range(granularity, start, end));
+        cover(end, to, finer, ranges);
+    }
+
+    /**
+     * Buckets of one granularity starting in [from, to)
+     */
+    public record Range(RollupGranularity granularity, LocalDateTime from, LocalDateTime to) {
+    }
+}
@@ -7,18 +7,45 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.bson.types.ObjectId;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * Version Entity
  * 
  * Represents a snapshot of a document at a specific point in time.
- * Stores complete document content, user information, and change statistics.
+ * Stores document content, user information, and change statistics.
  * Used for version history, reversion, and contribution tracking.
  * 
+ * Versions are numbered per document by {@code sequence}. A FULL version
+ * (a keyframe) stores its complete content; a DELTA version stores only the
+ * operations that turn the previous version's content into its own, and
+ * {@code keyframeSequence} names the keyframe its chain starts from. Versions
+ * written before delta storage have no sequence and always hold full content.
+ * 
+ * Retention thinning removes versions from the middle of chains. A delta
+ * whose predecessor was removed is re-encoded against the nearest surviving
+ * one, named by {@code baseSequence}, or promoted to a keyframe when its
+ * keyframe was removed. Pinned versions are never thinned.
+ * 
+ * A revert records the version it restored in {@code revertedFrom} and, when
+ * that version's content is in a blob, stores a keyframe referencing the
+ * same blob instead of a copy of the content. A revert requested with an
+ * idempotency key keeps it in {@code revertKey}, unique per document, so a
+ * retried request finds the version it already recorded.
+ * 
+ * Keyframe content is stored once per distinct content in a
+ * {@link VersionBlob} named by {@code blobId}; older keyframes hold it inline.
+ * 
+ * An auto-snapshot covering edits by several users is {@code coalesced}:
+ * it is created in the last editor's name, but its changes have no single
+ * author, so blame and contributions credit them to no one.
+ * 
  * @author Arhum Khan
  * @version 1.0.0
  */
@@ -26,17 +53,40 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "versions")
+@CompoundIndexes({
+    @CompoundIndex(name = "document_sequence_idx", def = "{'documentId': 1, 'sequence': 1}",
+        unique = true, partialFilter = "{'sequence': {'$exists': true}}"),
+    @CompoundIndex(name = "document_timestamp_idx", def = "{'documentId': 1, 'timestamp': -1, '_id': -1}"),
+    @CompoundIndex(name = "document_revert_key_idx", def = "{'documentId': 1, 'revertKey': 1}",
+        unique = true, partialFilter = "{'revertKey': {'$exists': true}}")
+})
 public class Version {
 
+    public static final String STORAGE_FULL = "FULL";
+    public static final String STORAGE_DELTA = "DELTA";
+
     @Id
     @JsonSerialize(using = ToStringSerializer.class)
     private ObjectId id;
 
-    @Indexed
     @JsonSerialize(using = ToStringSerializer.class)
     private ObjectId documentId;
 
-    private String content;
+    private String content; // null for DELTA versions and for FULL versions stored in a blob
+
+    private String blobId; // version_blobs hash holding a FULL version's content
+
+    private Long sequence;
+
+    private String storage; // FULL or DELTA; null for versions written before delta storage
+
+    private Long keyframeSequence;
+
+    private List<DeltaOp> delta;
+
+    private Long baseSequence; // sequence a DELTA applies to; null means the one before it
+
+    private Integer contentLength;
 
     @JsonSerialize(using = ToStringSerializer.class)
     private ObjectId userId;
@@ -46,6 +96,15 @@ public class Version {
 
     private String description;
 
+    private boolean pinned;
+
+    private boolean coalesced; // changes made by several users
+
+    @JsonSerialize(using = ToStringSerializer.class)
+    private ObjectId revertedFrom; // version whose content a revert restored
+
+    private String revertKey; // idempotency key of the revert request that recorded this version
+
     private ChangeStats changeStats;
 
     public Version(ObjectId documentId, String content, ObjectId userId, String description) {
@@ -57,6 +116,27 @@ public class Version {
         this.changeStats = new ChangeStats();
     }
 
+    /**
+     * Whether this version stores its complete content
+     */
+    public boolean isKeyframe() {
+        return !STORAGE_DELTA.equals(storage);
+    }
+
+    /**
+     * Author of this version's changes, or null when it coalesces several users' edits
+     */
+    public ObjectId author() {
+        return coalesced ? null : userId;
+    }
+
+    /**
+     * Sequence of the version this version's delta applies to
+     */
+    public long deltaBase() {
+        return baseSequence != null ? baseSequence : sequence - 1;
+    }
+
     @Data
     @NoArgsConstructor
     @AllArgsConstructor
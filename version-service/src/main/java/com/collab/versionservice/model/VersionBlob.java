@@ -0,0 +1,64 @@
+package com.collab.versionservice.model;
+
+import com.collab.common.util.ContentCodec;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Version Blob
+ * 
+ * One distinct piece of keyframe content, keyed by the SHA-256 hex of the
+ * content. Keyframe versions with identical content all point at the same
+ * blob; {@code refCount} counts those versions, so a blob can be deleted
+ * once nothing references it. Blobs of at least
+ * {@code version.storage.compression.min-length} characters are stored
+ * deflate-compressed and tagged with their codec.
+ * 
+ * @author Arhum Khan
+ * @version 1.0.0
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "version_blobs")
+@CompoundIndex(name = "unreferenced_idx", def = "{'refCount': 1}", partialFilter = "{'refCount': {'$lte': 0}}")
+public class VersionBlob {
+
+    @Id
+    private String hash;
+
+    private String content; // null when stored compressed
+
+    private String codec; // codec of data; null for plain content
+
+    private byte[] data;
+
+    private int length;
+
+    private long refCount;
+
+    private LocalDateTime createdAt;
+
+    /**
+     * Create a new blob with one reference, compressing the content if it is long enough
+     */
+    public static VersionBlob of(String hash, String content, int compressionMinLength) {
+        byte[] compressed = ContentCodec.compress(content, compressionMinLength);
+        return compressed != null
+            ? new VersionBlob(hash, null, ContentCodec.DEFLATE, compressed, content.length(), 1, LocalDateTime.now())
+            : new VersionBlob(hash, content, null, null, content.length(), 1, LocalDateTime.now());
+    }
+
+    /**
+     * The blob's content, decompressed if necessary
+     */
+    public String text() {
+        return codec == null ? content : ContentCodec.decompress(codec, data);
+    }
+}
@@ -0,0 +1,52 @@
+package com.collab.versionservice.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.bson.types.ObjectId;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Version Head
+ * 
+ * Pointer to the newest version of a document, keyed by document id, with
+ * enough of that version's shape (sequence, keyframe, content hash and
+ * length) to start the next version without loading any history.
+ * 
+ * A head with sequence 0 points at the newest version written before delta
+ * storage; the next version starts the sequence at 1.
+ * 
+ * @author Arhum Khan
+ * @version 1.0.0
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "version_heads")
+public class VersionHead {
+
+    @Id
+    private ObjectId documentId;
+
+    private ObjectId versionId;
+
+    private long sequence;
+
+    private long keyframeSequence;
+
+    private String contentHash;
+
+    private int contentLength;
+
+    private LocalDateTime updatedAt;
+
+    /**
+     * Whether the head version belongs to a delta chain that the next version can extend
+     */
+    public boolean isSequenced() {
+        return sequence > 0;
+    }
+}
@@ -9,7 +9,7 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface ContributionRepository extends MongoRepository<Contribution, ObjectId> {
+public interface ContributionRepository extends MongoRepository<Contribution, ObjectId>, ContributionRepositoryCustom {
     
     List<Contribution> findByDocumentId(ObjectId documentId);
     
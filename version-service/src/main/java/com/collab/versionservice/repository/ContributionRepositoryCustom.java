@@ -0,0 +1,34 @@
+package com.collab.versionservice.repository;
+
+import org.bson.types.ObjectId;
+
+import java.util.List;
+
+/**
+ * Atomic contribution counter updates
+ * 
+ * @author Arhum Khan
+ * @version 1.0.0
+ */
+public interface ContributionRepositoryCustom {
+
+    /**
+     * Add each increment to its (documentId, userId) contribution, creating
+     * the contribution if it does not exist yet, in one bulk write
+     * 
+     * @throws org.springframework.data.mongodb.BulkOperationException if some
+     *         increments failed; its errors carry the indexes of the failed increments
+     */
+    void incrementAll(List<Increment> increments);
+
+    /**
+     * Counts to add to one user's contribution to one document
+     */
+    record Increment(ObjectId documentId, ObjectId userId, int versions, int edits, int charsAdded, int charsDeleted) {
+
+        public Increment plus(Increment other) {
+            return new Increment(documentId, userId, versions + other.versions, edits + other.edits,
+                charsAdded + other.charsAdded, charsDeleted + other.charsDeleted);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.collab.versionservice.repository;
+
+import com.collab.versionservice.model.Contribution;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.List;
+
+/**
+ * Implementation of {@link ContributionRepositoryCustom}
+ * 
+ * Each increment is an upsert with $inc on the unique doc_user_idx key, so
+ * the server applies it atomically with no read beforehand and concurrent
+ * writers never lose counts. A first contribution is created by the upsert
+ * itself; if two writers race to create it, the server retries the losing
+ * upsert as an update because the filter is an equality match on the unique
+ * index.
+ * 
+ * @author Arhum Khan
+ * @version 1.0.0
+ */
+@RequiredArgsConstructor
+public class ContributionRepositoryImpl implements ContributionRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public void incrementAll(List<Increment> increments) {
+        if (increments.isEmpty()) {
+            return;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Contribution.class);
+        for (Increment increment : increments) {
+            Query query = new Query(Criteria.where("documentId").is(increment.documentId())
+                .and("userId").is(increment.userId()));
+            Update update = new Update()
+                .inc("stats.editsCount", increment.edits())
+                .inc("stats.versionsCreated", increment.versions())
+                .inc("stats.charsAdded", increment.charsAdded())
+                .inc("stats.charsDeleted", increment.charsDeleted())
+                .setOnInsert("username", "Unknown");
+            bulk.upsert(query, update);
+        }
+        bulk.execute();
+    }
+}
@@ -0,0 +1,19 @@
+package com.collab.versionservice.repository;
+
+import com.collab.versionservice.model.ContributionRollup;
+import com.collab.versionservice.model.RollupGranularity;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface ContributionRollupRepository extends MongoRepository<ContributionRollup, ObjectId>,
+        ContributionRollupRepositoryCustom {
+
+    /**
+     * Remove the buckets of one granularity that start before the cutoff (retention sweep)
+     */
+    long deleteByGranularityAndBucketStartBefore(RollupGranularity granularity, LocalDateTime cutoff);
+}
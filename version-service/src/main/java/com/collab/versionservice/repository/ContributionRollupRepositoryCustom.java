@@ -0,0 +1,50 @@
+package com.collab.versionservice.repository;
+
+import com.collab.versionservice.model.RollupGranularity;
+import org.bson.types.ObjectId;
+import org.springframework.data.annotation.Id;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Atomic rollup updates and windowed totals
+ * 
+ * @author Arhum Khan
+ * @version 1.0.0
+ */
+public interface ContributionRollupRepositoryCustom {
+
+    /**
+     * Add each increment to its bucket, creating the bucket if it does not
+     * exist yet, in one bulk write
+     * 
+     * @throws org.springframework.data.mongodb.BulkOperationException if some
+     *         increments failed; its errors carry the indexes of the failed increments
+     */
+    void incrementAll(List<RollupIncrement> increments);
+
+    /**
+     * Per-user totals of a document over the given bucket ranges, largest
+     * total change first
+     */
+    List<UserTotal> totals(ObjectId documentId, List<RollupGranularity.Range> ranges, int limit);
+
+    /**
+     * Counts to add to one user's bucket of one document
+     */
+    record RollupIncrement(ObjectId documentId, ObjectId userId, RollupGranularity granularity,
+                           LocalDateTime bucketStart, int versions, int charsAdded, int charsDeleted) {
+
+        public RollupIncrement plus(RollupIncrement other) {
+            return new RollupIncrement(documentId, userId, granularity, bucketStart, versions + other.versions,
+                charsAdded + other.charsAdded, charsDeleted + other.charsDeleted);
+        }
+    }
+
+    /**
+     * One user's summed buckets
+     */
+    record UserTotal(@Id ObjectId userId, long versions, long charsAdded, long charsDeleted) {
+    }
+}
@@ -0,0 +1,76 @@
+package com.collab.versionservice.repository;
+
+import com.collab.versionservice.model.ContributionRollup;
+import com.collab.versionservice.model.RollupGranularity;
+import lombok.RequiredArgsConstructor;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.List;
+
+/**
+ * Implementation of {@link ContributionRollupRepositoryCustom}
+ * 
+ * Increments are $inc upserts on the unique doc_bucket_user_idx key, like
+ * contribution counters. Totals match each bucket range as one range scan
+ * of that index and sum the matched buckets per user, so a query reads at
+ * most one bucket per user per hour, day or week of the range cover.
+ * 
+ * @author Arhum Khan
+ * @version 1.0.0
+ */
+@RequiredArgsConstructor
+public class ContributionRollupRepositoryImpl implements ContributionRollupRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public void incrementAll(List<RollupIncrement> increments) {
+        if (increments.isEmpty()) {
+            return;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ContributionRollup.class);
+        for (RollupIncrement increment : increments) {
+            Query query = new Query(Criteria.where("documentId").is(increment.documentId())
+                .and("granularity").is(increment.granularity())
+                .and("bucketStart").is(increment.bucketStart())
+                .and("userId").is(increment.userId()));
+            Update update = new Update()
+                .inc("versions", increment.versions())
+                .inc("charsAdded", increment.charsAdded())
+                .inc("charsDeleted", increment.charsDeleted());
+            bulk.upsert(query, update);
+        }
+        bulk.execute();
+    }
+
+    @Override
+    public List<UserTotal> totals(ObjectId documentId, List<RollupGranularity.Range> ranges, int limit) {
+        if (ranges.isEmpty()) {
+            return List.of();
+        }
+        Criteria[] buckets = ranges.stream()
+            .map(range -> Criteria.where("granularity").is(range.granularity())
+                .and("bucketStart").gte(range.from()).lt(range.to()))
+            .toArray(Criteria[]::new);
+        Aggregation aggregation = Aggregation.newAggregation(
+            Aggregation.match(Criteria.where("documentId").is(documentId).orOperator(buckets)),
+            Aggregation.group("userId")
+                .sum("versions").as("versions")
+                .sum("charsAdded").as("charsAdded")
+                .sum("charsDeleted").as("charsDeleted"),
+            Aggregation.addFields()
+                .addFieldWithValue("totalChanges", ArithmeticOperators.Add.valueOf("charsAdded").add("charsDeleted"))
+                .build(),
+            Aggregation.sort(Sort.by(Sort.Direction.DESC, "totalChanges", "versions")),
+            Aggregation.limit(limit));
+        return mongoTemplate.aggregate(aggregation, ContributionRollup.class, UserTotal.class).getMappedResults();
+    }
+}
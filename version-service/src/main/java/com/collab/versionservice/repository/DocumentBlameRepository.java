@@ -0,0 +1,16 @@
+package com.collab.versionservice.repository;
+
+import com.collab.versionservice.model.DocumentBlame;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository for per-document blame indexes
+ * 
+ * @author Arhum Khan
+ * @version 1.0.0
+ */
+@Repository
+public interface DocumentBlameRepository extends MongoRepository<DocumentBlame, ObjectId>, DocumentBlameRepositoryCustom {
+}
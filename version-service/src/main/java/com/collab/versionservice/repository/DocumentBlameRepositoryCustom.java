@@ -0,0 +1,20 @@
+package com.collab.versionservice.repository;
+
+import com.collab.versionservice.model.DocumentBlame;
+
+/**
+ * Conditional blame updates
+ * 
+ * @author Arhum Khan
+ * @version 1.0.0
+ */
+public interface DocumentBlameRepositoryCustom {
+
+    /**
+     * Replace a document's blame with one for a later version, unless the
+     * stored blame is already for the same or a later sequence
+     * 
+     * @return Whether the stored blame changed
+     */
+    boolean advance(DocumentBlame blame);
+}
@@ -0,0 +1,42 @@
+package com.collab.versionservice.repository;
+
+import com.collab.versionservice.model.DocumentBlame;
+import com.mongodb.client.result.UpdateResult;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+/**
+ * Implementation of {@link DocumentBlameRepositoryCustom}
+ * 
+ * The same single-upsert pattern as version heads: the filter only matches
+ * an older blame, so a stale writer's insert collides on _id and changes nothing.
+ * 
+ * @author Arhum Khan
+ * @version 1.0.0
+ */
+@RequiredArgsConstructor
+public class DocumentBlameRepositoryImpl implements DocumentBlameRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public boolean advance(DocumentBlame blame) {
+        Query query = new Query(Criteria.where("_id").is(blame.getDocumentId())
+            .and("sequence").lt(blame.getSequence()));
+        Update update = new Update()
+            .set("versionId", blame.getVersionId())
+            .set("sequence", blame.getSequence())
+            .set("spans", blame.getSpans())
+            .set("updatedAt", blame.getUpdatedAt());
+        try {
+            UpdateResult result = mongoTemplate.upsert(query, update, DocumentBlame.class);
+            return result.getMatchedCount() > 0 || result.getUpsertedId() != null;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.collab.versionservice.repository;
+
+import com.collab.versionservice.model.FailedVersion;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository for versions the write pipeline could not store
+ * 
+ * @author Arhum Khan
+ * @version 1.0.0
+ */
+@Repository
+public interface FailedVersionRepository extends MongoRepository<FailedVersion, ObjectId> {
+}
@@ -0,0 +1,34 @@
+package com.collab.versionservice.repository;
+
+import com.collab.versionservice.model.VersionBlob;
+import org.springframework.data.mongodb.repository.DeleteQuery;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+/**
+ * Repository for content-addressed keyframe blobs
+ * 
+ * @author Arhum Khan
+ * @version 1.0.0
+ */
+@Repository
+public interface VersionBlobRepository extends MongoRepository<VersionBlob, String>, VersionBlobRepositoryCustom {
+
+    /**
+     * Find a blob's content without its bookkeeping fields
+     */
+    @Query(value = "{'_id': ?0}", fields = "{'content': 1, 'codec': 1, 'data': 1}")
+    Optional<VersionBlob> findContentByHash(String hash);
+
+    /**
+     * Delete blobs no version references any more
+     * 
+     * Safe against a concurrent acquire: the acquire's $inc either lands
+     * first, so the blob no longer matches, or misses and inserts it anew.
+     */
+    @DeleteQuery("{'refCount': {'$lte': 0}}")
+    long deleteUnreferenced();
+}
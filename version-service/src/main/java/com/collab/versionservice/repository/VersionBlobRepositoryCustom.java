@@ -0,0 +1,32 @@
+package com.collab.versionservice.repository;
+
+import com.collab.versionservice.model.VersionBlob;
+
+/**
+ * Reference-counted blob writes
+ * 
+ * @author Arhum Khan
+ * @version 1.0.0
+ */
+public interface VersionBlobRepositoryCustom {
+
+    /**
+     * Add a reference to the blob with this blob's hash, storing the blob
+     * only if no such blob exists yet
+     * 
+     * @return Whether a new blob was stored
+     */
+    boolean acquire(VersionBlob blob);
+
+    /**
+     * Add a reference to an existing blob without sending its content
+     * 
+     * @return Whether the blob exists
+     */
+    boolean reference(String hash);
+
+    /**
+     * Drop a reference to the blob with this hash
+     */
+    void release(String hash);
+}
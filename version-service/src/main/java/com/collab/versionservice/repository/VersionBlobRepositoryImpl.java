@@ -0,0 +1,56 @@
+package com.collab.versionservice.repository;
+
+import com.collab.versionservice.model.VersionBlob;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+/**
+ * Implementation of {@link VersionBlobRepositoryCustom}
+ * 
+ * Acquiring first tries a bare $inc on the hash, which sends no content
+ * when the blob already exists. Only when that misses is the content
+ * inserted; if another writer inserted the same blob in between, the
+ * insert collides on _id and the $inc is repeated.
+ * 
+ * @author Arhum Khan
+ * @version 1.0.0
+ */
+@RequiredArgsConstructor
+public class VersionBlobRepositoryImpl implements VersionBlobRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public boolean acquire(VersionBlob blob) {
+        if (addReferences(blob.getHash(), 1)) {
+            return false;
+        }
+        try {
+            mongoTemplate.insert(blob);
+            return true;
+        } catch (DuplicateKeyException e) {
+            addReferences(blob.getHash(), 1);
+            return false;
+        }
+    }
+
+    @Override
+    public boolean reference(String hash) {
+        return addReferences(hash, 1);
+    }
+
+    @Override
+    public void release(String hash) {
+        addReferences(hash, -1);
+    }
+
+    private boolean addReferences(String hash, int delta) {
+        Query query = new Query(Criteria.where("_id").is(hash));
+        return mongoTemplate.updateFirst(query, new Update().inc("refCount", delta), VersionBlob.class)
+            .getMatchedCount() > 0;
+    }
+}
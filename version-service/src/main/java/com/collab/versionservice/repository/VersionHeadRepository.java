@@ -0,0 +1,26 @@
+package com.collab.versionservice.repository;
+
+import com.collab.versionservice.model.VersionHead;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repository for per-document version head pointers
+ * 
+ * @author Arhum Khan
+ * @version 1.0.0
+ */
+@Repository
+public interface VersionHeadRepository extends MongoRepository<VersionHead, ObjectId>, VersionHeadRepositoryCustom {
+
+    /**
+     * Page of heads after a document id, in document id order, without the head fields
+     */
+    @Query(value = "{'_id': {'$gt': ?0}}", fields = "{'_id': 1}", sort = "{'_id': 1}")
+    List<VersionHead> findDocumentIdsAfter(ObjectId documentId, Pageable pageable);
+}
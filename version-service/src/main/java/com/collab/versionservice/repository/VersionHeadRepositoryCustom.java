@@ -0,0 +1,20 @@
+package com.collab.versionservice.repository;
+
+import com.collab.versionservice.model.VersionHead;
+
+/**
+ * Conditional head pointer updates
+ * 
+ * @author Arhum Khan
+ * @version 1.0.0
+ */
+public interface VersionHeadRepositoryCustom {
+
+    /**
+     * Move a document's head forward to the given head, unless it already
+     * points at the same or a later sequence
+     * 
+     * @return Whether the stored head changed
+     */
+    boolean advance(VersionHead head);
+}
@@ -0,0 +1,46 @@
+package com.collab.versionservice.repository;
+
+import com.collab.versionservice.model.VersionHead;
+import com.mongodb.client.result.UpdateResult;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+/**
+ * Implementation of {@link VersionHeadRepositoryCustom}
+ * 
+ * A single upsert filtered on a lower sequence, so out-of-order writers can
+ * never move a head backwards. When the stored head is already newer the
+ * filter misses and the upsert's insert collides on _id, which is the
+ * expected "nothing to do" outcome.
+ * 
+ * @author Arhum Khan
+ * @version 1.0.0
+ */
+@RequiredArgsConstructor
+public class VersionHeadRepositoryImpl implements VersionHeadRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public boolean advance(VersionHead head) {
+        Query query = new Query(Criteria.where("_id").is(head.getDocumentId())
+            .and("sequence").lt(head.getSequence()));
+        Update update = new Update()
+            .set("versionId", head.getVersionId())
+            .set("sequence", head.getSequence())
+            .set("keyframeSequence", head.getKeyframeSequence())
+            .set("contentHash", head.getContentHash())
+            .set("contentLength", head.getContentLength())
+            .set("updatedAt", head.getUpdatedAt());
+        try {
+            UpdateResult result = mongoTemplate.upsert(query, update, VersionHead.class);
+            return result.getMatchedCount() > 0 || result.getUpsertedId() != null;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+}
@@ -2,18 +2,84 @@ package com.collab.versionservice.repository;
 
 import com.collab.versionservice.model.Version;
 import org.bson.types.ObjectId;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.Update;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface VersionRepository extends MongoRepository<Version, ObjectId> {
+public interface VersionRepository extends MongoRepository<Version, ObjectId>, VersionRepositoryCustom {
+
+    String HISTORY_FIELDS = "{'documentId': 1, 'userId': 1, 'timestamp': 1, 'description': 1, "
+        + "'contentLength': 1, 'pinned': 1, 'revertedFrom': 1, 'changeStats': 1}";
+
+    String RETENTION_FIELDS = "{'documentId': 1, 'sequence': 1, 'storage': 1, 'keyframeSequence': 1, "
+        + "'baseSequence': 1, 'blobId': 1, 'timestamp': 1, 'pinned': 1}";
     
     List<Version> findByDocumentId(ObjectId documentId, Sort sort);
+
+    /**
+     * Newest page of a document's history without content or deltas
+     * (sort and limit come from the pageable; served by document_timestamp_idx)
+     */
+    @Query(value = "{'documentId': ?0}", fields = HISTORY_FIELDS)
+    List<Version> findHistoryPage(ObjectId documentId, Pageable pageable);
+
+    /**
+     * Page of a document's history strictly after the (timestamp, _id) cursor, without content or deltas
+     */
+    @Query(value = "{'documentId': ?0, 'timestamp': {'$lte': ?1}, '$or': [{'timestamp': {'$lt': ?1}}, {'_id': {'$lt': ?2}}]}",
+        fields = HISTORY_FIELDS)
+    List<Version> findHistoryPageAfter(ObjectId documentId, LocalDateTime timestamp, ObjectId id, Pageable pageable);
     
     List<Version> findByDocumentIdAndUserId(ObjectId documentId, ObjectId userId);
     
     long countByDocumentId(ObjectId documentId);
+
+    /**
+     * Find the highest-numbered version of a document (top-1 on document_sequence_idx)
+     */
+    Optional<Version> findFirstByDocumentIdOrderBySequenceDesc(ObjectId documentId);
+
+    /**
+     * Find the revert recorded for a document under an idempotency key
+     */
+    Optional<Version> findByDocumentIdAndRevertKey(ObjectId documentId, String revertKey);
+
+    /**
+     * Find the most recent version of a document by timestamp
+     */
+    Optional<Version> findFirstByDocumentIdOrderByTimestampDesc(ObjectId documentId);
+
+    /**
+     * Find the version of a document that was current at an instant (top-1 on document_timestamp_idx)
+     */
+    Optional<Version> findFirstByDocumentIdAndTimestampLessThanEqualOrderByTimestampDescIdDesc(
+        ObjectId documentId, LocalDateTime timestamp);
+
+    /**
+     * Find the versions from a keyframe up to a target sequence, in order
+     */
+    @Query(value = "{'documentId': ?0, 'sequence': {'$gte': ?1, '$lte': ?2}}", sort = "{'sequence': 1}")
+    List<Version> findChain(ObjectId documentId, long fromSequence, long toSequence);
+
+    /**
+     * Page of a document's sequenced versions after a sequence, in order, with
+     * only the fields retention needs (size comes from the pageable; served by document_sequence_idx)
+     */
+    @Query(value = "{'documentId': ?0, 'sequence': {'$gt': ?1}}", fields = RETENTION_FIELDS, sort = "{'sequence': 1}")
+    List<Version> findRetentionPage(ObjectId documentId, long afterSequence, Pageable pageable);
+
+    /**
+     * Point the versions after a promoted keyframe that still name its old keyframe at it
+     */
+    @Query("{'documentId': ?0, 'keyframeSequence': ?1, 'sequence': {'$gt': ?2}}")
+    @Update("{'$set': {'keyframeSequence': ?2}}")
+    long reassignKeyframe(ObjectId documentId, long oldKeyframeSequence, long newKeyframeSequence);
 }
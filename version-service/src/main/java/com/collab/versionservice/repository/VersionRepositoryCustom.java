@@ -0,0 +1,23 @@
+package com.collab.versionservice.repository;
+
+import com.collab.versionservice.model.Version;
+
+import java.util.List;
+
+/**
+ * Batched version writes
+ * 
+ * @author Arhum Khan
+ * @version 1.0.0
+ */
+public interface VersionRepositoryCustom {
+
+    /**
+     * Insert versions in list order in one ordered bulk write, which stops at
+     * the first version that fails
+     * 
+     * @throws org.springframework.data.mongodb.BulkOperationException if a version
+     *         failed; the index of its error is the number of versions inserted
+     */
+    void insertInOrder(List<Version> versions);
+}
@@ -0,0 +1,33 @@
+package com.collab.versionservice.repository;
+
+import com.collab.versionservice.model.Version;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.List;
+
+/**
+ * Implementation of {@link VersionRepositoryCustom}
+ * 
+ * Versions must carry their ids before they are inserted, so a caller can
+ * tell which versions of a partially failed batch were stored.
+ * 
+ * @author Arhum Khan
+ * @version 1.0.0
+ */
+@RequiredArgsConstructor
+public class VersionRepositoryImpl implements VersionRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public void insertInOrder(List<Version> versions) {
+        if (versions.isEmpty()) {
+            return;
+        }
+        mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, Version.class)
+            .insert(versions)
+            .execute();
+    }
+}
@@ -0,0 +1,183 @@
+package com.collab.versionservice.service;
+
+import com.collab.common.client.UserDirectoryClient;
+import com.collab.common.client.UserSummary;
+import com.collab.common.exception.ResourceNotFoundException;
+import com.collab.versionservice.diff.Attribution;
+import com.collab.versionservice.diff.DiffResult;
+import com.collab.versionservice.dto.BlameDTO;
+import com.collab.versionservice.model.BlameSpan;
+import com.collab.versionservice.model.DocumentBlame;
+import com.collab.versionservice.model.Version;
+import com.collab.versionservice.model.VersionHead;
+import com.collab.versionservice.repository.DocumentBlameRepository;
+import com.collab.versionservice.repository.VersionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Blame Service
+ * 
+ * Maintains a {@link DocumentBlame} per document: character authorship of
+ * the newest version as run-length spans. Each new version carries the
+ * previous blame forward through the diff that was already computed for
+ * its change stats, so keeping the index current costs one point read and
+ * one conditional write per version and never replays history.
+ * 
+ * Updates that cannot be applied in order (concurrent saves, a failed
+ * write, documents older than the index) are skipped and the blame is
+ * caught up when it is next read, by diffing the versions after it. At most
+ * {@code max-replay} versions are replayed; past that, or when the blamed
+ * version has been thinned away, the replay starts from a version whose
+ * content is attributed to its author.
+ * 
+ * Text inserted by a coalesced version (an auto-snapshot of several users'
+ * edits) has no known author and is reported without a user.
+ * 
+ * @author Arhum Khan
+ * @version 1.0.0
+ */
+@Service
+@Slf4j
+public class BlameService {
+
+    private final DocumentBlameRepository blameRepository;
+    private final VersionRepository versionRepository;
+    private final VersionStorageService versionStorageService;
+    private final DiffService diffService;
+    private final UserDirectoryClient userDirectoryClient;
+    private final int maxReplay;
+
+    public BlameService(
+            DocumentBlameRepository blameRepository,
+            VersionRepository versionRepository,
+            VersionStorageService versionStorageService,
+            DiffService diffService,
+            UserDirectoryClient userDirectoryClient,
+            @Value("${version.blame.max-replay:200}") int maxReplay) {
+        this.blameRepository = blameRepository;
+        this.versionRepository = versionRepository;
+        this.versionStorageService = versionStorageService;
+        this.diffService = diffService;
+        this.userDirectoryClient = userDirectoryClient;
+        this.maxReplay = maxReplay;
+    }
+
+    /**
+     * Carry a document's blame forward to a newly stored version
+     * 
+     * Never throws: a blame that cannot be advanced is caught up on read.
+     * 
+     * @param version The stored version, with its content
+     * @param previous The head the version was stored after, or null for a first version
+     * @param diff Diff from the previous head's content to the version's, or null for a first version
+     */
+    public void record(Version version, VersionHead previous, DiffResult diff) {
+        try {
+            List<BlameSpan> spans;
+            if (previous == null) {
+                spans = Attribution.of(version.author(), contentLength(version));
+            } else {
+                DocumentBlame blame = blameRepository.findById(version.getDocumentId()).orElse(null);
+                if (blame == null || blame.getSequence() != previous.getSequence() || diff == null) {
+                    log.debug("Blame of document {} is behind, leaving it to catch up on read", version.getDocumentId());
+                    return;
+                }
+                spans = Attribution.apply(blame.getSpans(), diff.edits(), version.author());
+            }
+            blameRepository.advance(new DocumentBlame(version.getDocumentId(), version.getId(),
+                version.getSequence(), spans, LocalDateTime.now()));
+        } catch (RuntimeException e) {
+            log.warn("Failed to update blame of document {}: {}", version.getDocumentId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Get line-level authorship of a document's newest version
+     */
+    public BlameDTO getBlame(String documentId) {
+        log.info("Fetching blame for document: {}", documentId);
+
+        ObjectId documentObjectId = new ObjectId(documentId);
+        VersionHead head = versionStorageService.head(documentObjectId)
+            .orElseThrow(() -> new ResourceNotFoundException("Version", "documentId", documentId));
+        String content = versionStorageService.headContent(head);
+
+        DocumentBlame blame = blameRepository.findById(documentObjectId)
+            .filter(b -> b.getSequence() == head.getSequence() && b.getVersionId().equals(head.getVersionId()))
+            .filter(b -> Attribution.length(b.getSpans()) == content.length())
+            .orElseGet(() -> catchUp(documentObjectId, head));
+
+        List<Attribution.LineRun> runs = Attribution.lines(content, blame.getSpans());
+        Map<String, UserSummary> users = userDirectoryClient.findByIds(runs.stream()
+            .filter(run -> run.userId() != null)
+            .map(run -> run.userId().toHexString())
+            .collect(Collectors.toSet()));
+        List<BlameDTO.LineRangeDTO> lines = runs.stream()
+            .map(run -> {
+                String userId = run.userId() != null ? run.userId().toHexString() : null;
+                UserSummary user = userId != null ? users.get(userId) : null;
+                return new BlameDTO.LineRangeDTO(run.startLine(), run.lineCount(), userId,
+                    user != null ? user.getUsername() : null);
+            })
+            .collect(Collectors.toList());
+
+        return new BlameDTO(documentId, head.getVersionId().toHexString(), lines);
+    }
+
+    /**
+     * Rebuild a document's blame up to its head by diffing the versions after the stored blame
+     */
+    private DocumentBlame catchUp(ObjectId documentId, VersionHead head) {
+        if (!head.isSequenced()) {
+            // Only versions from before delta storage: attribute the content to the head's author
+            Version version = versionRepository.findById(head.getVersionId())
+                .orElseThrow(() -> new IllegalStateException("Head version missing: " + head.getVersionId()));
+            return save(new DocumentBlame(documentId, version.getId(), 0,
+                Attribution.of(version.author(), versionStorageService.materialize(version).length()),
+                LocalDateTime.now()));
+        }
+
+        DocumentBlame blame = blameRepository.findById(documentId).orElse(null);
+        long from = Math.max(1, head.getSequence() - maxReplay);
+        boolean resume = blame != null && blame.getSequence() >= from && blame.getSequence() < head.getSequence();
+        if (resume) {
+            from = blame.getSequence();
+        }
+        List<Version> versions = versionRepository.findChain(documentId, from, head.getSequence());
+        versionStorageService.materializeAll(versions);
+        if (versions.isEmpty()) {
+            throw new IllegalStateException("No versions to blame for document " + documentId);
+        }
+
+        Version previous = versions.get(0);
+        boolean resumable = resume && previous.getId().equals(blame.getVersionId())
+            && Attribution.length(blame.getSpans()) == contentLength(previous);
+        List<BlameSpan> spans = resumable
+            ? blame.getSpans()
+            : Attribution.of(previous.author(), contentLength(previous));
+        for (Version version : versions.subList(1, versions.size())) {
+            DiffResult diff = diffService.diff(previous.getContent(), version.getContent());
+            spans = Attribution.apply(spans, diff.edits(), version.author());
+            previous = version;
+        }
+        log.debug("Caught up blame of document {} over {} versions", documentId, versions.size());
+        return save(new DocumentBlame(documentId, previous.getId(), previous.getSequence(), spans, LocalDateTime.now()));
+    }
+
+    private DocumentBlame save(DocumentBlame blame) {
+        blameRepository.advance(blame);
+        return blame;
+    }
+
+    private static int contentLength(Version version) {
+        return version.getContent() != null ? version.getContent().length() : 0;
+    }
+}
@@ -0,0 +1,29 @@
+package com.collab.versionservice.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * SHA-256 fingerprint of version content, used to recognise identical content
+ * without comparing the text itself
+ * 
+ * @author Arhum Khan
+ * @version 1.0.0
+ */
+final class ContentHash {
+
+    private ContentHash() {
+    }
+
+    static String of(String content) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest((content != null ? content : "").getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
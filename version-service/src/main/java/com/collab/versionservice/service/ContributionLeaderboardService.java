@@ -0,0 +1,132 @@
+package com.collab.versionservice.service;
+
+import com.collab.common.client.UserDirectoryClient;
+import com.collab.common.client.UserSummary;
+import com.collab.common.exception.BadRequestException;
+import com.collab.versionservice.dto.ContributionLeaderboardDTO;
+import com.collab.versionservice.model.RollupGranularity;
+import com.collab.versionservice.repository.ContributionRollupRepository;
+import com.collab.versionservice.repository.ContributionRollupRepositoryCustom.UserTotal;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Contribution Leaderboard Service
+ * 
+ * Answers "who contributed most between two instants" from the hour, day
+ * and week rollups kept by {@link ContributionRecorder} instead of scanning
+ * versions. The window is rounded down to whole hours and covered with the
+ * coarsest buckets that fit (see {@link RollupGranularity#cover}), so a
+ * query reads at most a few dozen buckets per user plus one per week,
+ * however many versions the window contains.
+ * 
+ * Like contribution totals, rollups lag new versions by up to the
+ * contribution flush interval.
+ * 
+ * Hour buckets are kept for {@code hour-retention} and day buckets for
+ * {@code day-retention}; a periodic sweep deletes older ones. Window bounds
+ * older than the hour retention are rounded down to whole days, and older
+ * than the day retention to whole weeks, so a cover never needs a bucket
+ * that has been swept. The response reports the rounded window.
+ * 
+ * @author Arhum Khan
+ * @version 1.0.0
+ */
+@Service
+@Slf4j
+public class ContributionLeaderboardService {
+
+    private static final int MAX_ENTRIES = 100;
+
+    private final ContributionRollupRepository contributionRollupRepository;
+    private final UserDirectoryClient userDirectoryClient;
+    private final Duration hourRetention;
+    private final Duration dayRetention;
+
+    public ContributionLeaderboardService(
+            ContributionRollupRepository contributionRollupRepository,
+            UserDirectoryClient userDirectoryClient,
+            @Value("${version.contributions.rollups.hour-retention:8d}") Duration hourRetention,
+            @Value("${version.contributions.rollups.day-retention:90d}") Duration dayRetention) {
+        this.contributionRollupRepository = contributionRollupRepository;
+        this.userDirectoryClient = userDirectoryClient;
+        this.hourRetention = hourRetention;
+        this.dayRetention = dayRetention;
+    }
+
+    /**
+     * Get the top contributors to a document in [from, to)
+     * 
+     * @param limit Number of contributors, clamped to 1..{@value #MAX_ENTRIES}
+     */
+    public ContributionLeaderboardDTO getLeaderboard(String documentId, LocalDateTime from, LocalDateTime to, int limit) {
+        log.info("Fetching contribution leaderboard for document: {} from {} to {}", documentId, from, to);
+
+        if (!from.isBefore(to)) {
+            throw new BadRequestException("from must be before to");
+        }
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime start = retained(from, now).floor(from);
+        LocalDateTime end = retained(to, now).floor(to);
+        List<RollupGranularity.Range> ranges = RollupGranularity.cover(start, end);
+        List<UserTotal> totals = contributionRollupRepository.totals(new ObjectId(documentId), ranges,
+            Math.max(1, Math.min(limit, MAX_ENTRIES)));
+
+        Map<String, UserSummary> users = totals.isEmpty()
+            ? Map.of()
+            : userDirectoryClient.findByIds(totals.stream()
+                .map(total -> total.userId().toHexString())
+                .collect(Collectors.toSet()));
+
+        List<ContributionLeaderboardDTO.EntryDTO> entries = totals.stream()
+            .map(total -> {
+                UserSummary user = users.get(total.userId().toHexString());
+                return new ContributionLeaderboardDTO.EntryDTO(total.userId().toHexString(),
+                    user != null ? user.getUsername() : null, total.versions(), total.charsAdded(),
+                    total.charsDeleted(), total.charsAdded() + total.charsDeleted());
+            })
+            .collect(Collectors.toList());
+
+        return new ContributionLeaderboardDTO(documentId, start, end, entries);
+    }
+
+    /**
+     * Delete hour and day buckets past their retention
+     * 
+     * @return Number of buckets deleted
+     */
+    @Scheduled(fixedDelayString = "${version.contributions.rollups.retention-interval:PT1H}")
+    public long purgeExpiredBuckets() {
+        LocalDateTime now = LocalDateTime.now();
+        long purged = contributionRollupRepository.deleteByGranularityAndBucketStartBefore(
+            RollupGranularity.HOUR, RollupGranularity.HOUR.floor(now.minus(hourRetention)));
+        purged += contributionRollupRepository.deleteByGranularityAndBucketStartBefore(
+            RollupGranularity.DAY, RollupGranularity.DAY.floor(now.minus(dayRetention)));
+        if (purged > 0) {
+            log.info("Purged {} expired contribution rollup buckets", purged);
+        }
+        return purged;
+    }
+
+    /**
+     * Finest granularity whose buckets are still kept at an instant
+     */
+    private RollupGranularity retained(LocalDateTime time, LocalDateTime now) {
+        if (!time.isBefore(now.minus(hourRetention))) {
+            return RollupGranularity.HOUR;
+        }
+        if (!time.isBefore(now.minus(dayRetention))) {
+            return RollupGranularity.DAY;
+        }
+        return RollupGranularity.WEEK;
+    }
+}
@@ -0,0 +1,191 @@
+package com.collab.versionservice.service;
+
+import com.collab.versionservice.model.RollupGranularity;
+import com.collab.versionservice.repository.ContributionRepository;
+import com.collab.versionservice.repository.ContributionRepositoryCustom.Increment;
+import com.collab.versionservice.repository.ContributionRollupRepository;
+import com.collab.versionservice.repository.ContributionRollupRepositoryCustom.RollupIncrement;
+import com.mongodb.bulk.BulkWriteError;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
+
+/**
+ * Contribution Recorder
+ * 
+ * Buffers contribution counts in memory and writes them in the background.
+ * Every version created for the same (document, user) pair between two
+ * flushes is merged into a single increment, and each flush sends all
+ * pending increments as unordered bulk upserts of at most
+ * {@code batch-size} operations, so a burst of saves costs one round-trip
+ * instead of a read and a write per version.
+ * 
+ * Versions count towards versionsCreated. With {@code live-edits} on (the
+ * default), characters added and deleted and editsCount come from live
+ * edits, which document-service measures from its edit stream and reports
+ * in periodic batches, so characters are credited to whoever typed them
+ * rather than to whoever created the version. With it off, each version
+ * credits its diff stats and one edit to its creator, as before live edit
+ * accounting, and edit reports are ignored so nothing is counted twice.
+ * It must match document-service's document.live-contributions.enabled.
+ * 
+ * Versions and edits also count towards the hour, day and week buckets of
+ * their timestamp in contribution_rollups; bucket increments are merged and
+ * written the same way.
+ * 
+ * Contribution totals lag behind version creation by up to
+ * {@code flush-interval}. Increments that fail to write are merged back
+ * and retried on the next flush; pending increments are flushed on shutdown.
+ * 
+ * @author Arhum Khan
+ * @version 1.0.0
+ */
+@Service
+@Slf4j
+public class ContributionRecorder {
+
+    private final ContributionRepository contributionRepository;
+    private final ContributionRollupRepository contributionRollupRepository;
+    private final boolean liveEdits;
+    private final int batchSize;
+    private final ConcurrentMap<ContributionKey, Increment> pending = new ConcurrentHashMap<>();
+    private final ConcurrentMap<RollupKey, RollupIncrement> pendingRollups = new ConcurrentHashMap<>();
+
+    public ContributionRecorder(
+            ContributionRepository contributionRepository,
+            ContributionRollupRepository contributionRollupRepository,
+            @Value("${version.contributions.live-edits:true}") boolean liveEdits,
+            @Value("${version.contributions.batch-size:1000}") int batchSize) {
+        this.contributionRepository = contributionRepository;
+        this.contributionRollupRepository = contributionRollupRepository;
+        this.liveEdits = liveEdits;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Count one new version towards a user's contribution to a document
+     * 
+     * @param charsAdded Characters the version added, credited only without live edits
+     * @param charsDeleted Characters the version deleted, credited only without live edits
+     * @param timestamp When the version was created; picks its rollup buckets
+     */
+    public void recordVersion(ObjectId documentId, ObjectId userId, int charsAdded, int charsDeleted,
+                              LocalDateTime timestamp) {
+        if (liveEdits) {
+            merge(new Increment(documentId, userId, 1, 0, 0, 0));
+            mergeRollups(documentId, userId, 1, 0, 0, timestamp);
+        } else {
+            merge(new Increment(documentId, userId, 1, 1, charsAdded, charsDeleted));
+            mergeRollups(documentId, userId, 1, charsAdded, charsDeleted, timestamp);
+        }
+    }
+
+    /**
+     * Count live edits towards a user's contribution to a document
+     * 
+     * @param timestamp When the edits were made; picks their rollup buckets
+     */
+    public void recordEdits(ObjectId documentId, ObjectId userId, int edits, int charsAdded, int charsDeleted,
+                            LocalDateTime timestamp) {
+        if (!liveEdits) {
+            log.debug("Ignoring live edits of user {} to document {}: live edit accounting is off", userId, documentId);
+            return;
+        }
+        merge(new Increment(documentId, userId, 0, edits, charsAdded, charsDeleted));
+        mergeRollups(documentId, userId, 0, charsAdded, charsDeleted, timestamp);
+    }
+
+    /**
+     * Write all pending increments
+     * 
+     * @return Number of contribution increments written; rollup increments are written alongside
+     */
+    @Scheduled(fixedDelayString = "${version.contributions.flush-interval:PT1S}")
+    public int flush() {
+        int written = writeAll(drain(pending), contributionRepository::incrementAll, this::merge, "contribution");
+        int rollups = writeAll(drain(pendingRollups), contributionRollupRepository::incrementAll, this::mergeRollup,
+            "rollup");
+        if (written > 0 || rollups > 0) {
+            log.debug("Flushed {} contribution and {} rollup increments", written, rollups);
+        }
+        return written;
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        flush();
+    }
+
+    private static <K, T> List<T> drain(ConcurrentMap<K, T> increments) {
+        List<T> drained = new ArrayList<>();
+        for (K key : increments.keySet()) {
+            T increment = increments.remove(key);
+            if (increment != null) {
+                drained.add(increment);
+            }
+        }
+        return drained;
+    }
+
+    private <T> int writeAll(List<T> drained, Consumer<List<T>> writer, Consumer<T> retry, String kind) {
+        int written = 0;
+        for (int from = 0; from < drained.size(); from += batchSize) {
+            List<T> batch = drained.subList(from, Math.min(from + batchSize, drained.size()));
+            written += write(batch, writer, retry, kind);
+        }
+        return written;
+    }
+
+    private <T> int write(List<T> batch, Consumer<List<T>> writer, Consumer<T> retry, String kind) {
+        try {
+            writer.accept(batch);
+            return batch.size();
+        } catch (BulkOperationException e) {
+            log.warn("{} of {} {} increments failed, retrying on next flush",
+                e.getErrors().size(), batch.size(), kind);
+            for (BulkWriteError error : e.getErrors()) {
+                retry.accept(batch.get(error.getIndex()));
+            }
+            return batch.size() - e.getErrors().size();
+        } catch (RuntimeException e) {
+            log.warn("Failed to write {} increments, retrying on next flush: {}", kind, e.getMessage());
+            batch.forEach(retry);
+            return 0;
+        }
+    }
+
+    private void merge(Increment increment) {
+        pending.merge(new ContributionKey(increment.documentId(), increment.userId()), increment, Increment::plus);
+    }
+
+    private void mergeRollups(ObjectId documentId, ObjectId userId, int versions, int charsAdded, int charsDeleted,
+                              LocalDateTime timestamp) {
+        for (RollupGranularity granularity : RollupGranularity.values()) {
+            mergeRollup(new RollupIncrement(documentId, userId, granularity, granularity.floor(timestamp),
+                versions, charsAdded, charsDeleted));
+        }
+    }
+
+    private void mergeRollup(RollupIncrement increment) {
+        pendingRollups.merge(new RollupKey(increment.documentId(), increment.userId(), increment.granularity(),
+            increment.bucketStart()), increment, RollupIncrement::plus);
+    }
+
+    private record ContributionKey(ObjectId documentId, ObjectId userId) {
+    }
+
+    private record RollupKey(ObjectId documentId, ObjectId userId, RollupGranularity granularity,
+                             LocalDateTime bucketStart) {
+    }
+}
@@ -0,0 +1,54 @@
+package com.collab.versionservice.service;
+
+import com.collab.versionservice.diff.DiffResult;
+import com.collab.versionservice.diff.Granularity;
+import com.collab.versionservice.diff.MyersDiff;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Diff Service
+ * 
+ * Computes what changed between two versions of a document. For change
+ * statistics, text is split at the configured granularity (WORD by default);
+ * version comparisons are always line based. Either way it is diffed with
+ * {@link MyersDiff}; the cost budget caps the work spent on any single
+ * diff, falling back to reporting the unresolved region as replaced.
+ * 
+ * @author Arhum Khan
+ * @version 1.0.0
+ */
+@Service
+@Slf4j
+public class DiffService {
+
+    private final MyersDiff myersDiff;
+    private final MyersDiff lineDiff;
+
+    public DiffService(
+            @Value("${version.diff.granularity:WORD}") Granularity granularity,
+            @Value("${version.diff.budget:2000000}") long budget) {
+        this.myersDiff = new MyersDiff(granularity, budget);
+        this.lineDiff = new MyersDiff(Granularity.LINE, budget);
+    }
+
+    /**
+     * Diff two texts
+     */
+    public DiffResult diff(String oldText, String newText) {
+        DiffResult result = myersDiff.diff(oldText, newText);
+        if (result.budgetExhausted()) {
+            log.debug("Diff budget exhausted ({} -> {} chars), reporting approximate changes",
+                oldText != null ? oldText.length() : 0, newText != null ? newText.length() : 0);
+        }
+        return result;
+    }
+
+    /**
+     * Diff two texts line by line, regardless of the configured granularity
+     */
+    public DiffResult diffLines(String oldText, String newText) {
+        return lineDiff.diff(oldText, newText);
+    }
+}
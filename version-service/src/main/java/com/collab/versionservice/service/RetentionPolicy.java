@@ -0,0 +1,30 @@
+package com.collab.versionservice.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Retention Policy
+ * 
+ * Tiers of version history by age: every version younger than
+ * {@code keepAll} is kept, then one version per hour until
+ * {@code hourlyFor}, then one version per day. A version's bucket is its
+ * hour or day; thinning keeps the newest version of each bucket.
+ * 
+ * @author Arhum Khan
+ * @version 1.0.0
+ */
+public record RetentionPolicy(Duration keepAll, Duration hourlyFor) {
+
+    /**
+     * The retention bucket of a version, or null if the version is young enough to always keep
+     */
+    public LocalDateTime bucketOf(LocalDateTime timestamp, LocalDateTime now) {
+        if (timestamp.isAfter(now.minus(keepAll))) {
+            return null;
+        }
+        ChronoUnit unit = timestamp.isAfter(now.minus(hourlyFor)) ? ChronoUnit.HOURS : ChronoUnit.DAYS;
+        return timestamp.truncatedTo(unit);
+    }
+}
@@ -0,0 +1,132 @@
+package com.collab.versionservice.service;
+
+import com.collab.common.exception.ResourceNotFoundException;
+import com.collab.versionservice.diff.DiffEdit;
+import com.collab.versionservice.diff.DiffHunk;
+import com.collab.versionservice.diff.DiffResult;
+import com.collab.versionservice.dto.VersionComparisonDTO;
+import com.collab.versionservice.model.Version;
+import com.collab.versionservice.repository.VersionRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Version Comparison Service
+ * 
+ * Compares two versions of a document on the server and returns only the
+ * changed lines plus {@code context-lines} of context around each change, so
+ * the response grows with the size of the change rather than the document.
+ * 
+ * Versions never change once written, so a comparison is cached under its
+ * (from, to) version pair without any invalidation. The cache is bounded by
+ * the total characters of cached hunks and published as cache.* meters
+ * tagged cache=version.compare.
+ * 
+ * @author Arhum Khan
+ * @version 1.0.0
+ */
+@Service
+@Slf4j
+public class VersionComparisonService implements MeterBinder {
+
+    /** Approximate fixed cost of a cached comparison besides its hunk text */
+    private static final int ENTRY_OVERHEAD = 128;
+
+    private final VersionRepository versionRepository;
+    private final VersionStorageService versionStorageService;
+    private final DiffService diffService;
+    private final int contextLines;
+    private final Cache<ComparisonKey, VersionComparisonDTO> comparisonCache;
+
+    public VersionComparisonService(
+            VersionRepository versionRepository,
+            VersionStorageService versionStorageService,
+            DiffService diffService,
+            @Value("${version.compare.context-lines:3}") int contextLines,
+            @Value("${version.compare.cache.maximum-chars:20000000}") long maximumCachedChars) {
+        this.versionRepository = versionRepository;
+        this.versionStorageService = versionStorageService;
+        this.diffService = diffService;
+        this.contextLines = contextLines;
+        this.comparisonCache = Caffeine.newBuilder()
+            .maximumWeight(maximumCachedChars)
+            .weigher(VersionComparisonService::weigh)
+            .recordStats()
+            .build();
+    }
+
+    /**
+     * Compare two versions of a document
+     * 
+     * @throws ResourceNotFoundException if either version does not exist or belongs to another document
+     */
+    public VersionComparisonDTO compare(String documentId, String fromVersionId, String toVersionId) {
+        log.info("Comparing versions {} -> {} of document: {}", fromVersionId, toVersionId, documentId);
+
+        ComparisonKey key = new ComparisonKey(parseId(fromVersionId), parseId(toVersionId));
+        VersionComparisonDTO comparison = comparisonCache.get(key, k -> computeComparison(k));
+        if (!comparison.getDocumentId().equals(documentId)) {
+            throw new ResourceNotFoundException("Version", "id", fromVersionId);
+        }
+        return comparison;
+    }
+
+    private VersionComparisonDTO computeComparison(ComparisonKey key) {
+        Version from = load(key.from());
+        Version to = load(key.to());
+        if (!from.getDocumentId().equals(to.getDocumentId())) {
+            throw new ResourceNotFoundException("Version", "id", key.to().toHexString());
+        }
+
+        DiffResult diff = diffService.diffLines(
+            versionStorageService.materialize(from), versionStorageService.materialize(to));
+        return new VersionComparisonDTO(
+            from.getDocumentId().toHexString(),
+            key.from().toHexString(),
+            key.to().toHexString(),
+            diff.charsAdded(),
+            diff.charsDeleted(),
+            diff.budgetExhausted(),
+            DiffHunk.of(diff, contextLines)
+        );
+    }
+
+    private Version load(ObjectId versionId) {
+        return versionRepository.findById(versionId)
+            .orElseThrow(() -> new ResourceNotFoundException("Version", "id", versionId.toHexString()));
+    }
+
+    private static ObjectId parseId(String versionId) {
+        if (!ObjectId.isValid(versionId)) {
+            throw new ResourceNotFoundException("Version", "id", versionId);
+        }
+        return new ObjectId(versionId);
+    }
+
+    private static int weigh(ComparisonKey key, VersionComparisonDTO comparison) {
+        int weight = ENTRY_OVERHEAD;
+        for (DiffHunk hunk : comparison.getHunks()) {
+            for (DiffEdit edit : hunk.edits()) {
+                weight += edit.text().length();
+            }
+        }
+        return weight;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, comparisonCache, "version.compare");
+    }
+
+    private record ComparisonKey(ObjectId from, ObjectId to) {
+    }
+}
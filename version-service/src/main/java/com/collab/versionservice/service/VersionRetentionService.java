@@ -0,0 +1,163 @@
+package com.collab.versionservice.service;
+
+import com.collab.versionservice.model.Version;
+import com.collab.versionservice.model.VersionHead;
+import com.collab.versionservice.repository.VersionBlobRepository;
+import com.collab.versionservice.repository.VersionHeadRepository;
+import com.collab.versionservice.repository.VersionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Version Retention Service
+ * 
+ * Thins version history in the background according to a
+ * {@link RetentionPolicy}: every version of the last {@code keep-all}, then
+ * the newest version of each hour until {@code hourly-for}, then the newest
+ * version of each day. Pinned versions and each document's head are always
+ * kept, so collection and index size follow the policy rather than the
+ * number of edits.
+ * 
+ * Each sweep walks documents in id order and each document's versions in
+ * sequence order, in pages of {@code batch-size} read through indexed range
+ * scans that project away content and deltas. At most {@code batch-size}
+ * versions of a document are removed per sweep; the rest wait for the next
+ * sweep. Runs of removed versions go through
+ * {@link VersionStorageService#removeRun}, which keeps the surviving delta
+ * chains valid. Blobs no keyframe references any more are deleted at the
+ * end of each sweep.
+ * 
+ * Versions written before delta storage have no sequence and are left alone.
+ * 
+ * @author Arhum Khan
+ * @version 1.0.0
+ */
+@Service
+@Slf4j
+public class VersionRetentionService {
+
+    private static final ObjectId FIRST_ID = new ObjectId("000000000000000000000000");
+
+    private final VersionRepository versionRepository;
+    private final VersionHeadRepository versionHeadRepository;
+    private final VersionBlobRepository versionBlobRepository;
+    private final VersionStorageService versionStorageService;
+    private final boolean enabled;
+    private final RetentionPolicy policy;
+    private final int batchSize;
+
+    public VersionRetentionService(
+            VersionRepository versionRepository,
+            VersionHeadRepository versionHeadRepository,
+            VersionBlobRepository versionBlobRepository,
+            VersionStorageService versionStorageService,
+            @Value("${version.retention.enabled:true}") boolean enabled,
+            @Value("${version.retention.keep-all:24h}") Duration keepAll,
+            @Value("${version.retention.hourly-for:30d}") Duration hourlyFor,
+            @Value("${version.retention.batch-size:1000}") int batchSize) {
+        this.versionRepository = versionRepository;
+        this.versionHeadRepository = versionHeadRepository;
+        this.versionBlobRepository = versionBlobRepository;
+        this.versionStorageService = versionStorageService;
+        this.enabled = enabled;
+        this.policy = new RetentionPolicy(keepAll, hourlyFor);
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Thin the history of every document
+     *
+     * @return Number of versions removed
+     */
+    @Scheduled(fixedDelayString = "${version.retention.sweep-interval:PT1H}")
+    public long sweep() {
+        if (!enabled) {
+            return 0;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        long removed = 0;
+        ObjectId after = FIRST_ID;
+        List<VersionHead> heads;
+        do {
+            heads = versionHeadRepository.findDocumentIdsAfter(after, PageRequest.of(0, batchSize));
+            for (VersionHead head : heads) {
+                try {
+                    removed += thin(head.getDocumentId(), now);
+                } catch (RuntimeException e) {
+                    log.warn("Failed to thin history of document {}: {}", head.getDocumentId(), e.getMessage());
+                }
+                after = head.getDocumentId();
+            }
+        } while (heads.size() == batchSize);
+
+        long blobs = versionBlobRepository.deleteUnreferenced();
+        if (removed > 0 || blobs > 0) {
+            log.info("Retention removed {} versions and {} unreferenced blobs", removed, blobs);
+        }
+        return removed;
+    }
+
+    /**
+     * Thin one document's history
+     *
+     * Versions are decided one step behind the scan: a version is removed
+     * when the next version falls into the same bucket, and kept when the
+     * next version starts a new bucket, is too young to thin, or does not exist.
+     *
+     * @return Number of versions removed
+     */
+    long thin(ObjectId documentId, LocalDateTime now) {
+        long removed = 0;
+        Version kept = null;
+        List<Version> run = new ArrayList<>();
+        Version candidate = null;
+        LocalDateTime candidateBucket = null;
+        long after = 0;
+        List<Version> page;
+        do {
+            page = versionRepository.findRetentionPage(documentId, after, PageRequest.of(0, batchSize));
+            for (Version version : page) {
+                after = version.getSequence();
+                LocalDateTime bucket = policy.bucketOf(version.getTimestamp(), now);
+                if (candidate != null) {
+                    if (bucket != null && bucket.equals(candidateBucket) && !candidate.isPinned()
+                            && removed + run.size() < batchSize) {
+                        run.add(candidate);
+                    } else {
+                        removed += flush(run, kept, candidate);
+                        kept = candidate;
+                        if (removed >= batchSize) {
+                            return removed;
+                        }
+                    }
+                }
+                if (bucket == null) {
+                    return removed + flush(run, kept, version);
+                }
+                candidate = version;
+                candidateBucket = bucket;
+            }
+        } while (page.size() == batchSize);
+
+        return candidate != null ? removed + flush(run, kept, candidate) : removed;
+    }
+
+    private int flush(List<Version> run, Version previous, Version next) {
+        if (run.isEmpty()) {
+            return 0;
+        }
+        versionStorageService.removeRun(List.copyOf(run), previous, next);
+        int removed = run.size();
+        run.clear();
+        return removed;
+    }
+}
@@ -1,20 +1,39 @@
 package com.collab.versionservice.service;
 
+import com.collab.common.client.UserDirectoryClient;
+import com.collab.common.client.UserSummary;
 import com.collab.common.exception.ResourceNotFoundException;
+import com.collab.versionservice.diff.DiffResult;
 import com.collab.versionservice.dto.ContributionDTO;
 import com.collab.versionservice.dto.CreateVersionRequest;
+import com.collab.versionservice.dto.EditContributionsRequest;
+import com.collab.versionservice.dto.VersionCursor;
 import com.collab.versionservice.dto.VersionDTO;
+import com.collab.versionservice.dto.VersionHistoryPage;
+import com.collab.versionservice.dto.VersionSummaryDTO;
+import com.collab.versionservice.exception.VersionsNotStoredException;
 import com.collab.versionservice.model.Contribution;
 import com.collab.versionservice.model.Version;
+import com.collab.versionservice.model.VersionHead;
 import com.collab.versionservice.repository.ContributionRepository;
 import com.collab.versionservice.repository.VersionRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.bson.types.ObjectId;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -32,46 +51,144 @@ import java.util.stream.Collectors;
 @Slf4j
 public class VersionService {
 
+    private static final int MAX_HISTORY_PAGE_SIZE = 100;
+
     private final VersionRepository versionRepository;
     private final ContributionRepository contributionRepository;
+    private final UserDirectoryClient userDirectoryClient;
+    private final VersionStorageService versionStorageService;
+    private final DiffService diffService;
+    private final ContributionRecorder contributionRecorder;
+    private final BlameService blameService;
 
     /**
-     * Create a new version snapshot
+     * Build a version from a create request, with its id assigned up front
+     * so it can be handed out before the version is stored
      */
-    public VersionDTO createVersion(String documentId, CreateVersionRequest request) {
-        log.info("Creating version for document: {}", documentId);
-
+    public Version newVersion(String documentId, CreateVersionRequest request) {
         Version version = new Version(
             new ObjectId(documentId),
             request.getContent(),
             new ObjectId(request.getUserId()),
             request.getDescription()
         );
+        version.setId(new ObjectId());
+        version.setPinned(request.getPinned() != null
+            ? request.getPinned()
+            : StringUtils.hasText(request.getDescription()));
+        version.setCoalesced(Boolean.TRUE.equals(request.getCoalesced()));
+        return version;
+    }
 
-        // Calculate change stats if there's a previous version
-        calculateChangeStats(version);
+    /**
+     * Create a batch of versions built by {@link #newVersion}
+     * 
+     * Versions of the same document are applied in list order: each one's
+     * change stats are taken against the version before it, and a version
+     * whose content equals the one before it is skipped. All versions are
+     * stored with one bulk insert through {@link VersionStorageService#appendAll}.
+     * 
+     * @return The versions stored
+     * @throws VersionsNotStoredException if some versions could not be stored; the others are fully recorded
+     */
+    public List<Version> createVersions(List<Version> versions) {
+        Map<ObjectId, VersionHead> heads = new HashMap<>();
+        Map<ObjectId, String> previousContent = new HashMap<>();
+        List<Version> pending = new ArrayList<>(versions.size());
+        Map<ObjectId, DiffResult> diffs = new HashMap<>();
+        for (Version version : versions) {
+            ObjectId documentId = version.getDocumentId();
+            if (!heads.containsKey(documentId)) {
+                VersionHead head = versionStorageService.head(documentId).orElse(null);
+                heads.put(documentId, head);
+                previousContent.put(documentId, head != null ? versionStorageService.headContent(head) : null);
+            }
+            String previous = previousContent.get(documentId);
+            String content = version.getContent() != null ? version.getContent() : "";
+            if (content.equals(previous)) {
+                log.debug("Content of version {} unchanged, nothing to save", version.getId());
+                continue;
+            }
+            if (previous != null) {
+                diffs.put(version.getId(), calculateChangeStats(version, previous));
+            }
+            previousContent.put(documentId, content);
+            pending.add(version);
+        }
+        if (pending.isEmpty()) {
+            return List.of();
+        }
 
-        Version savedVersion = versionRepository.save(version);
-        
-        // Update user contributions
-        updateContributions(new ObjectId(documentId), new ObjectId(request.getUserId()), version);
+        List<Version> saved = versionStorageService.appendAll(pending, heads);
+        Map<ObjectId, VersionHead> previousHeads = new HashMap<>(heads);
+        for (Version version : saved) {
+            blameService.record(version, previousHeads.get(version.getDocumentId()), diffs.get(version.getId()));
+            if (version.author() != null) {
+                updateContributions(version.getDocumentId(), version.author(), version);
+            }
+            previousHeads.put(version.getDocumentId(), new VersionHead(version.getDocumentId(), version.getId(),
+                version.getSequence(), version.getKeyframeSequence(), null, version.getContentLength(),
+                LocalDateTime.now()));
+        }
+        if (saved.size() < pending.size()) {
+            Set<ObjectId> savedIds = saved.stream().map(Version::getId).collect(Collectors.toSet());
+            throw new VersionsNotStoredException(saved,
+                pending.stream().filter(version -> !savedIds.contains(version.getId())).toList());
+        }
+        log.info("Created {} of {} versions", saved.size(), versions.size());
+        return saved;
+    }
 
-        log.info("Version created successfully: {}", savedVersion.getId());
-        return VersionDTO.fromVersion(savedVersion);
+    /**
+     * Whether a version with this id has been stored
+     */
+    public boolean isStored(ObjectId versionId) {
+        return versionRepository.existsById(versionId);
+    }
+
+    /**
+     * Get the newest version of a document
+     */
+    public VersionDTO getLatestVersion(String documentId) {
+        VersionHead head = versionStorageService.head(new ObjectId(documentId))
+            .orElseThrow(() -> new ResourceNotFoundException("Version", "documentId", documentId));
+        return getVersion(head.getVersionId().toHexString());
     }
 
     /**
-     * Get version history for a document
+     * Get one page of a document's version history, newest first
+     * 
+     * Versions are listed without content; clients fetch a version's content
+     * with {@link #getVersion} when they need it.
+     * 
+     * @param cursor Token from the previous page's nextCursor, or null for the newest versions
+     * @param limit Page size, clamped to 1..{@value #MAX_HISTORY_PAGE_SIZE}
      */
-    public List<VersionDTO> getVersionHistory(String documentId) {
+    public VersionHistoryPage getVersionHistory(String documentId, String cursor, int limit) {
         log.info("Fetching version history for document: {}", documentId);
 
-        Sort sort = Sort.by(Sort.Direction.DESC, "timestamp");
-        List<Version> versions = versionRepository.findByDocumentId(new ObjectId(documentId), sort);
+        ObjectId documentObjectId = new ObjectId(documentId);
+        int pageSize = Math.max(1, Math.min(limit, MAX_HISTORY_PAGE_SIZE));
+        VersionCursor after = VersionCursor.decode(cursor);
+
+        // Fetch one extra row to learn whether another page exists
+        Pageable page = PageRequest.of(0, pageSize + 1, Sort.by(Sort.Direction.DESC, "timestamp", "_id"));
+        List<Version> versions = after == null
+            ? versionRepository.findHistoryPage(documentObjectId, page)
+            : versionRepository.findHistoryPageAfter(documentObjectId, after.getTimestamp(), after.getId(), page);
+
+        String nextCursor = null;
+        if (versions.size() > pageSize) {
+            versions = versions.subList(0, pageSize);
+            Version last = versions.get(pageSize - 1);
+            nextCursor = new VersionCursor(last.getTimestamp(), last.getId()).encode();
+        }
 
-        return versions.stream()
-            .map(VersionDTO::fromVersion)
+        List<VersionSummaryDTO> items = versions.stream()
+            .map(VersionSummaryDTO::fromVersion)
             .collect(Collectors.toList());
+
+        return new VersionHistoryPage(items, nextCursor);
     }
 
     /**
@@ -82,31 +199,94 @@ public class VersionService {
 
         Version version = versionRepository.findById(new ObjectId(versionId))
             .orElseThrow(() -> new ResourceNotFoundException("Version", "id", versionId));
+        versionStorageService.materialize(version);
+
+        return VersionDTO.fromVersion(version);
+    }
+
+    /**
+     * Get a document's content as of an instant
+     * 
+     * Resolves the version current at that instant with one indexed lookup
+     * and reconstructs it like any other version, from the nearest keyframe
+     * or cached state.
+     * 
+     * @return The version in effect at {@code timestamp}, with its content
+     */
+    public VersionDTO getVersionAt(String documentId, LocalDateTime timestamp) {
+        log.info("Fetching document: {} as of {}", documentId, timestamp);
+
+        Version version = versionRepository
+            .findFirstByDocumentIdAndTimestampLessThanEqualOrderByTimestampDescIdDesc(new ObjectId(documentId), timestamp)
+            .orElseThrow(() -> new ResourceNotFoundException("Version", "timestamp", timestamp));
+        versionStorageService.materialize(version);
 
         return VersionDTO.fromVersion(version);
     }
 
     /**
      * Revert document to a previous version
+     * 
+     * Records a new version restoring the earlier version's content, stored
+     * by reference to that version's content where possible. Reverting to
+     * the content the document already has records nothing and returns the head.
+     * 
+     * A revert key makes the request idempotent: repeating it returns the
+     * version the first request recorded instead of recording another.
+     * 
+     * @param revertKey Idempotency key of the request, or null
      */
-    public VersionDTO revertToVersion(String documentId, String versionId, String userId) {
+    public VersionDTO revertToVersion(String documentId, String versionId, String userId, String revertKey) {
         log.info("Reverting document: {} to version: {}", documentId, versionId);
 
+        ObjectId documentObjectId = new ObjectId(documentId);
+        if (revertKey != null) {
+            Optional<Version> recorded = versionRepository.findByDocumentIdAndRevertKey(documentObjectId, revertKey);
+            if (recorded.isPresent()) {
+                log.info("Revert {} of document {} already recorded", revertKey, documentId);
+                versionStorageService.materialize(recorded.get());
+                return VersionDTO.fromVersion(recorded.get());
+            }
+        }
         Version oldVersion = versionRepository.findById(new ObjectId(versionId))
+            .filter(v -> documentObjectId.equals(v.getDocumentId()))
             .orElseThrow(() -> new ResourceNotFoundException("Version", "id", versionId));
+        String content = versionStorageService.materialize(oldVersion);
+
+        VersionHead head = versionStorageService.head(documentObjectId).orElse(null);
+        if (head != null && ContentHash.of(content).equals(head.getContentHash())) {
+            log.info("Document {} already has the content of version {}", documentId, versionId);
+            return getVersion(head.getVersionId().toHexString());
+        }
 
         // Create new version with reverted content
         Version newVersion = new Version(
-            new ObjectId(documentId),
-            oldVersion.getContent(),
+            documentObjectId,
+            content,
             new ObjectId(userId),
             "Reverted to version from " + oldVersion.getTimestamp()
         );
+        newVersion.setRevertedFrom(oldVersion.getId());
+        newVersion.setRevertKey(revertKey);
+        DiffResult diff = calculateChangeStats(newVersion, head);
 
-        Version savedVersion = versionRepository.save(newVersion);
+        Version savedVersion;
+        try {
+            savedVersion = versionStorageService.appendRevert(newVersion, oldVersion, head);
+        } catch (DuplicateKeyException e) {
+            // A concurrent retry of the same request recorded it first
+            Version recorded = revertKey == null ? null
+                : versionRepository.findByDocumentIdAndRevertKey(documentObjectId, revertKey).orElse(null);
+            if (recorded == null) {
+                throw e;
+            }
+            versionStorageService.materialize(recorded);
+            return VersionDTO.fromVersion(recorded);
+        }
+        blameService.record(savedVersion, head, diff);
         
         // Update contributions
-        updateContributions(new ObjectId(documentId), new ObjectId(userId), newVersion);
+        updateContributions(documentObjectId, new ObjectId(userId), newVersion);
 
         log.info("Document reverted successfully, new version: {}", savedVersion.getId());
         return VersionDTO.fromVersion(savedVersion);
@@ -114,54 +294,72 @@ public class VersionService {
 
     /**
      * Get user contributions for a document
+     * 
+     * Contributor usernames are resolved with one batch lookup for the whole
+     * table, falling back to the stored name when a user cannot be resolved.
      */
     public List<ContributionDTO> getContributions(String documentId) {
         log.info("Fetching contributions for document: {}", documentId);
 
         List<Contribution> contributions = contributionRepository.findByDocumentId(new ObjectId(documentId));
+        if (contributions.isEmpty()) {
+            return List.of();
+        }
+
+        Map<String, UserSummary> users = userDirectoryClient.findByIds(contributions.stream()
+            .map(c -> c.getUserId().toHexString())
+            .collect(Collectors.toSet()));
 
-        return contributions.stream()
+        List<ContributionDTO> dtos = contributions.stream()
             .map(ContributionDTO::fromContribution)
             .collect(Collectors.toList());
+        dtos.forEach(dto -> {
+            UserSummary user = users.get(dto.getUserId());
+            if (user != null && user.getUsername() != null) {
+                dto.setUsername(user.getUsername());
+            }
+        });
+        return dtos;
     }
 
     /**
-     * Calculate change statistics
+     * Count live edits reported by document-service towards contributions
      */
-    private void calculateChangeStats(Version version) {
-        Sort sort = Sort.by(Sort.Direction.DESC, "timestamp");
-        List<Version> previousVersions = versionRepository.findByDocumentId(version.getDocumentId(), sort);
-
-        if (!previousVersions.isEmpty()) {
-            Version lastVersion = previousVersions.get(0);
-            int oldLength = lastVersion.getContent() != null ? lastVersion.getContent().length() : 0;
-            int newLength = version.getContent() != null ? version.getContent().length() : 0;
-
-            Version.ChangeStats stats = version.getChangeStats();
-            if (newLength > oldLength) {
-                stats.setCharsAdded(newLength - oldLength);
-            } else if (newLength < oldLength) {
-                stats.setCharsDeleted(oldLength - newLength);
-            }
-            stats.setTotalChanges(Math.abs(newLength - oldLength));
+    public void recordEdits(EditContributionsRequest request) {
+        LocalDateTime now = LocalDateTime.now();
+        for (EditContributionsRequest.EditCount count : request.getContributions()) {
+            contributionRecorder.recordEdits(new ObjectId(count.getDocumentId()), new ObjectId(count.getUserId()),
+                count.getEdits(), count.getCharsAdded(), count.getCharsDeleted(), now);
         }
+        log.debug("Recorded {} live edit contributions", request.getContributions().size());
     }
 
     /**
-     * Update user contribution statistics
+     * Calculate change statistics against the document's current head
+     * 
+     * @return The diff from the head's content, or null for a first version
      */
+    private DiffResult calculateChangeStats(Version version, VersionHead head) {
+        if (head == null) {
+            return null;
+        }
+        return calculateChangeStats(version, versionStorageService.headContent(head));
+    }
+
+    private DiffResult calculateChangeStats(Version version, String previousContent) {
+        String content = version.getContent() != null ? version.getContent() : "";
+        DiffResult diff = diffService.diff(previousContent, content);
+        Version.ChangeStats stats = version.getChangeStats();
+        stats.setCharsAdded(diff.charsAdded());
+        stats.setCharsDeleted(diff.charsDeleted());
+        stats.setTotalChanges(diff.charsAdded() + diff.charsDeleted());
+        return diff;
+    }
+
     private void updateContributions(ObjectId documentId, ObjectId userId, Version version) {
-        Contribution contribution = contributionRepository
-            .findByDocumentIdAndUserId(documentId, userId)
-            .orElse(new Contribution(documentId, userId, "Unknown"));
-
-        Contribution.ContributionStats stats = contribution.getStats();
-        stats.setEditsCount(stats.getEditsCount() + 1);
-        stats.setVersionsCreated(stats.getVersionsCreated() + 1);
-        stats.setCharsAdded(stats.getCharsAdded() + version.getChangeStats().getCharsAdded());
-        stats.setCharsDeleted(stats.getCharsDeleted() + version.getChangeStats().getCharsDeleted());
-
-        contributionRepository.save(contribution);
-        log.debug("Updated contributions for user: {}", userId);
+        Version.ChangeStats stats = version.getChangeStats();
+        contributionRecorder.recordVersion(documentId, userId, stats.getCharsAdded(), stats.getCharsDeleted(),
+            version.getTimestamp());
+        log.debug("Recorded contribution for user: {}", userId);
     }
 }
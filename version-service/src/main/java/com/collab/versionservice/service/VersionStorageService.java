@@ -0,0 +1,557 @@
+package com.collab.versionservice.service;
+
+import com.collab.versionservice.diff.TextDelta;
+import com.collab.versionservice.model.DeltaOp;
+import com.collab.versionservice.model.Version;
+import com.collab.versionservice.model.VersionBlob;
+import com.collab.versionservice.model.VersionHead;
+import com.collab.versionservice.repository.VersionBlobRepository;
+import com.collab.versionservice.repository.VersionHeadRepository;
+import com.collab.versionservice.repository.VersionRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Version Storage Service
+ * 
+ * Writes versions as deltas against their predecessor and reconstructs their
+ * content on read. A version is written as a full keyframe when it is the
+ * first sequenced version of a document, when {@code keyframe-interval}
+ * versions have passed since the last keyframe, or when its delta would be
+ * larger than {@code max-delta-ratio} of its content. Reconstruction
+ * therefore replays at most keyframe-interval deltas.
+ * 
+ * Each document's newest version is tracked by a {@link VersionHead} record,
+ * advanced after every insert and cached in process, so starting a new
+ * version is a point read (usually a cache hit) however long the history is.
+ * The versions collection stays the source of truth: a missing or lagging
+ * head is rebuilt from a top-1 query on document_sequence_idx.
+ * 
+ * Keyframe content is content-addressed: it is stored once per distinct
+ * SHA-256 in version_blobs and keyframes only reference it, so repeated
+ * snapshots and reverts to earlier content add no new content. A blob
+ * write sends the content only when the blob does not exist yet, and blobs
+ * past {@code compression.min-length} are stored deflate-compressed and
+ * only decompressed when a keyframe is actually read.
+ * 
+ * Retention thinning deletes versions through {@link #removeRun}, which
+ * first re-encodes the next surviving version against the nearest surviving
+ * predecessor (or promotes it to a keyframe) so no delta is left pointing
+ * at a deleted version, even if the deletes themselves never happen.
+ * 
+ * Materialized content is kept in a cache bounded by total characters, so
+ * the head version and recently viewed versions are served from memory, and
+ * reconstruction replays deltas only from the nearest cached state or
+ * keyframe, never more than keyframe-interval of them.
+ * Cache metrics are published as cache.* meters tagged cache=version.content
+ * and cache=version.head.
+ * 
+ * @author Arhum Khan
+ * @version 1.0.0
+ */
+@Service
+@Slf4j
+public class VersionStorageService implements MeterBinder {
+
+    private static final int MAX_APPEND_ATTEMPTS = 3;
+
+    private final VersionRepository versionRepository;
+    private final VersionHeadRepository versionHeadRepository;
+    private final VersionBlobRepository versionBlobRepository;
+    private final int keyframeInterval;
+    private final double maxDeltaRatio;
+    private final int compressionMinLength;
+    private final Cache<ObjectId, String> contentCache;
+    private final Cache<ObjectId, VersionHead> headCache;
+
+    public VersionStorageService(
+            VersionRepository versionRepository,
+            VersionHeadRepository versionHeadRepository,
+            VersionBlobRepository versionBlobRepository,
+            @Value("${version.storage.keyframe-interval:50}") int keyframeInterval,
+            @Value("${version.storage.max-delta-ratio:0.5}") double maxDeltaRatio,
+            @Value("${version.storage.compression.min-length:1024}") int compressionMinLength,
+            @Value("${version.storage.content-cache.maximum-chars:50000000}") long maximumCachedChars,
+            @Value("${version.storage.head-cache.maximum-size:10000}") long maximumCachedHeads) {
+        this.versionRepository = versionRepository;
+        this.versionHeadRepository = versionHeadRepository;
+        this.versionBlobRepository = versionBlobRepository;
+        this.keyframeInterval = keyframeInterval;
+        this.maxDeltaRatio = maxDeltaRatio;
+        this.compressionMinLength = compressionMinLength;
+        this.contentCache = Caffeine.newBuilder()
+            .maximumWeight(maximumCachedChars)
+            .weigher((ObjectId id, String content) -> content.length())
+            .recordStats()
+            .build();
+        this.headCache = Caffeine.newBuilder()
+            .maximumSize(maximumCachedHeads)
+            .recordStats()
+            .build();
+    }
+
+    /**
+     * The current head of a document, if the document has any versions
+     */
+    public Optional<VersionHead> head(ObjectId documentId) {
+        VersionHead head = headCache.get(documentId, id -> versionHeadRepository.findById(id)
+            .orElseGet(() -> reloadHead(id)));
+        return Optional.ofNullable(head);
+    }
+
+    /**
+     * The content of a document's head version
+     */
+    public String headContent(VersionHead head) {
+        String cached = contentCache.getIfPresent(head.getVersionId());
+        if (cached != null) {
+            return cached;
+        }
+        return versionRepository.findById(head.getVersionId())
+            .map(this::materialize)
+            .orElseThrow(() -> new IllegalStateException("Head version missing: " + head.getVersionId()));
+    }
+
+    /**
+     * Store a new version after the document's current head
+     * 
+     * @param version New version with documentId, content, userId, description and change stats set
+     * @param head The document's current head from {@link #head}, or null for the first version
+     * @return The saved version, with its content populated
+     */
+    public Version append(Version version, VersionHead head) {
+        return append(version, head, null);
+    }
+
+    /**
+     * Store a revert to an earlier version after the document's current head
+     * 
+     * When the earlier version is a keyframe, the revert is stored as a keyframe
+     * referencing the same blob: only a reference count changes, and the
+     * content is neither diffed, compressed nor sent again.
+     * 
+     * @param version New version with the restored content set
+     * @param source The version being restored
+     * @param head The document's current head from {@link #head}, or null
+     * @return The saved version, with its content populated
+     */
+    public Version appendRevert(Version version, Version source, VersionHead head) {
+        return append(version, head, source.isKeyframe() ? source.getBlobId() : null);
+    }
+
+    /**
+     * Store a batch of new versions with one ordered bulk insert
+     * 
+     * Versions are encoded in list order, each against the previous version
+     * of its document in the batch or, for the first, against the document's
+     * head, and all heads move once after the insert. Versions after the
+     * first failure of the bulk write (usually a sequence taken by a
+     * concurrent writer) are stored one at a time like {@link #append}; a
+     * version that still fails is logged and left out of the result. If the
+     * insert fails outright the exception is rethrown; either way every
+     * version is handed back with its content, as it came.
+     * 
+     * @param versions New versions with ids assigned, in the order they were created
+     * @param heads Current head of each document in the batch from {@link #head}, null for new documents
+     * @return The saved versions, with their content populated
+     */
+    public List<Version> appendAll(List<Version> versions, Map<ObjectId, VersionHead> heads) {
+        List<String> contents = versions.stream()
+            .map(version -> version.getContent() != null ? version.getContent() : "")
+            .toList();
+        Map<ObjectId, VersionHead> tips = new HashMap<>(heads);
+        Map<ObjectId, String> tipContents = new HashMap<>();
+        List<VersionHead> encoded = new ArrayList<>(versions.size());
+        List<Version> acquired = new ArrayList<>();
+        int inserted = versions.size();
+        try {
+            for (int i = 0; i < versions.size(); i++) {
+                Version version = versions.get(i);
+                String content = contents.get(i);
+                String contentHash = ContentHash.of(content);
+                encode(version, content, contentHash, tips.get(version.getDocumentId()),
+                    tipContents.get(version.getDocumentId()), false);
+                if (version.getBlobId() != null) {
+                    versionBlobRepository.acquire(VersionBlob.of(contentHash, content, compressionMinLength));
+                    acquired.add(version);
+                }
+                VersionHead tip = new VersionHead(version.getDocumentId(), version.getId(), version.getSequence(),
+                    version.getKeyframeSequence(), contentHash, content.length(), LocalDateTime.now());
+                tips.put(version.getDocumentId(), tip);
+                tipContents.put(version.getDocumentId(), content);
+                encoded.add(tip);
+            }
+            versionRepository.insertInOrder(versions);
+        } catch (BulkOperationException e) {
+            inserted = e.getErrors().get(0).getIndex();
+            log.debug("Bulk insert stopped after {} of {} versions: {}", inserted, versions.size(),
+                e.getErrors().get(0).getMessage());
+        } catch (RuntimeException e) {
+            releaseUnstored(acquired);
+            throw e;
+        } finally {
+            // encode() clears the content; every version goes back to the caller with it
+            for (int i = 0; i < versions.size(); i++) {
+                versions.get(i).setContent(contents.get(i));
+            }
+        }
+
+        List<Version> saved = new ArrayList<>(versions.size());
+        Map<ObjectId, VersionHead> moved = new LinkedHashMap<>();
+        for (int i = 0; i < inserted; i++) {
+            Version version = versions.get(i);
+            contentCache.put(version.getId(), contents.get(i));
+            saved.add(version);
+            moved.put(version.getDocumentId(), encoded.get(i));
+        }
+        moved.values().forEach(this::moveHead);
+
+        for (int i = inserted; i < versions.size(); i++) {
+            Version version = versions.get(i);
+            try {
+                if (version.getBlobId() != null) {
+                    versionBlobRepository.release(version.getBlobId());
+                }
+                saved.add(append(version, head(version.getDocumentId()).orElse(null), null));
+            } catch (RuntimeException e) {
+                log.warn("Failed to store version {} of document {}: {}", version.getId(),
+                    version.getDocumentId(), e.getMessage());
+            }
+        }
+        return saved;
+    }
+
+    /**
+     * Give back the blob references of versions a failed insert did not store
+     * 
+     * A write that failed without a bulk write result (a timeout, a lost
+     * connection) may still have inserted a prefix of the batch, so only
+     * versions known not to be stored release their reference; if that
+     * cannot be checked the references are kept, leaving at worst an orphaned blob.
+     */
+    private void releaseUnstored(List<Version> acquired) {
+        try {
+            for (Version version : acquired) {
+                if (!versionRepository.existsById(version.getId())) {
+                    versionBlobRepository.release(version.getBlobId());
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not release blobs of a failed batch: {}", e.getMessage());
+        }
+    }
+
+    private Version append(Version version, VersionHead head, String existingBlobId) {
+        String content = version.getContent() != null ? version.getContent() : "";
+        try {
+            return append(version, content, head, existingBlobId);
+        } finally {
+            // encode() clears the content; a failed version goes back to the caller as it came
+            version.setContent(content);
+        }
+    }
+
+    private Version append(Version version, String content, VersionHead head, String existingBlobId) {
+        String contentHash = ContentHash.of(content);
+        boolean reuseBlob = contentHash.equals(existingBlobId);
+        ObjectId id = version.getId();
+        for (int attempt = 1; ; attempt++) {
+            encode(version, content, contentHash, head, null, reuseBlob);
+            if (version.getBlobId() != null
+                    && !(reuseBlob && versionBlobRepository.reference(contentHash))) {
+                versionBlobRepository.acquire(VersionBlob.of(contentHash, content, compressionMinLength));
+            }
+            Version saved;
+            try {
+                saved = versionRepository.save(version);
+            } catch (RuntimeException e) {
+                if (version.getBlobId() != null) {
+                    versionBlobRepository.release(contentHash);
+                }
+                // A DuplicateKeyException means another version took this sequence
+                // number; rebase onto the real head and try again
+                if (!(e instanceof DuplicateKeyException) || attempt == MAX_APPEND_ATTEMPTS) {
+                    throw e;
+                }
+                log.debug("Sequence conflict for document {}, retrying", version.getDocumentId());
+                version.setId(id);
+                head = reloadHead(version.getDocumentId());
+                headCache.invalidate(version.getDocumentId());
+                continue;
+            }
+            if (saved.getContent() == null) {
+                saved.setContent(content);
+            }
+            if (saved.getId() != null) {
+                contentCache.put(saved.getId(), content);
+                moveHead(new VersionHead(version.getDocumentId(), saved.getId(), version.getSequence(),
+                    version.getKeyframeSequence(), contentHash, content.length(), LocalDateTime.now()));
+            }
+            return saved;
+        }
+    }
+
+    /**
+     * Populate a version's content, reconstructing it from its keyframe if it is a delta
+     * 
+     * @return The version's content
+     */
+    public String materialize(Version version) {
+        if (version.isKeyframe()) {
+            return keyframeContent(version);
+        }
+        if (version.getContent() == null) {
+            // Not get(id, loader): reconstructing loads the keyframe through the same
+            // cache, and a nested compute on one Caffeine cache is not allowed
+            String content = contentCache.getIfPresent(version.getId());
+            if (content == null) {
+                content = reconstruct(version);
+                contentCache.put(version.getId(), content);
+            }
+            version.setContent(content);
+        }
+        return version.getContent();
+    }
+
+    /**
+     * Populate the content of a complete version history in one pass, applying
+     * each delta to its already-materialized predecessor
+     */
+    public void materializeAll(List<Version> versions) {
+        List<Version> ordered = versions.stream()
+            .filter(v -> v.getSequence() != null)
+            .sorted(Comparator.comparing(Version::getSequence))
+            .toList();
+        Version previous = null;
+        for (Version version : ordered) {
+            if (version.isKeyframe()) {
+                keyframeContent(version);
+            } else if (version.getContent() == null) {
+                boolean chained = previous != null && previous.getSequence() == version.deltaBase();
+                if (chained) {
+                    version.setContent(TextDelta.apply(previous.getContent(), version.getDelta()));
+                } else {
+                    materialize(version);
+                }
+            }
+            previous = version;
+        }
+    }
+
+    /**
+     * Delete a run of consecutive versions thinned out of a document's history
+     * 
+     * The version after the run is repaired before anything is deleted: a
+     * delta is re-encoded against {@code previous}, or stored as a keyframe
+     * when the run contains its keyframe, there is no previous version, or
+     * the new delta would not be worth storing.
+     * 
+     * @param run Stored versions to delete, in sequence order, with no surviving version between them
+     * @param previous The surviving version before the run, or null
+     * @param next The surviving version after the run
+     */
+    public void removeRun(List<Version> run, Version previous, Version next) {
+        if (run.isEmpty()) {
+            return;
+        }
+        if (!next.isKeyframe()) {
+            Version survivor = versionRepository.findById(next.getId())
+                .orElseThrow(() -> new IllegalStateException("Surviving version missing: " + next.getId()));
+            boolean keyframeRemoved = previous == null || run.stream().anyMatch(Version::isKeyframe);
+            if (keyframeRemoved || !rebase(survivor, previous)) {
+                promote(survivor);
+            }
+        }
+
+        versionRepository.deleteAllById(run.stream().map(Version::getId).toList());
+        for (Version removed : run) {
+            contentCache.invalidate(removed.getId());
+            if (removed.getBlobId() != null) {
+                versionBlobRepository.release(removed.getBlobId());
+            }
+        }
+        log.debug("Removed {} versions of document {} before sequence {}",
+            run.size(), next.getDocumentId(), next.getSequence());
+    }
+
+    /**
+     * Re-encode a delta version against an earlier surviving version
+     * 
+     * @return Whether the delta was small enough to store
+     */
+    private boolean rebase(Version survivor, Version previous) {
+        String content = materialize(survivor);
+        String base = materialize(versionRepository.findById(previous.getId())
+            .orElseThrow(() -> new IllegalStateException("Surviving version missing: " + previous.getId())));
+        List<DeltaOp> delta = TextDelta.diff(base, content);
+        if (TextDelta.encodedSize(delta) > maxDeltaRatio * content.length()) {
+            return false;
+        }
+        survivor.setDelta(delta);
+        survivor.setBaseSequence(previous.getSequence());
+        survivor.setContent(null);
+        versionRepository.save(survivor);
+        return true;
+    }
+
+    /**
+     * Store a delta version as a keyframe and start its chain's later versions from it
+     */
+    private void promote(Version survivor) {
+        String content = materialize(survivor);
+        String contentHash = ContentHash.of(content);
+        long oldKeyframe = survivor.getKeyframeSequence();
+        versionBlobRepository.acquire(VersionBlob.of(contentHash, content, compressionMinLength));
+        survivor.setStorage(Version.STORAGE_FULL);
+        survivor.setKeyframeSequence(survivor.getSequence());
+        survivor.setBaseSequence(null);
+        survivor.setDelta(null);
+        survivor.setBlobId(contentHash);
+        survivor.setContent(null);
+        try {
+            versionRepository.save(survivor);
+        } catch (RuntimeException e) {
+            versionBlobRepository.release(contentHash);
+            throw e;
+        }
+        versionRepository.reassignKeyframe(survivor.getDocumentId(), oldKeyframe, survivor.getSequence());
+    }
+
+    /**
+     * @param baseContent The head's content if the caller already has it, else null to read it
+     */
+    private void encode(Version version, String content, String contentHash, VersionHead head,
+                        String baseContent, boolean keyframe) {
+        version.setContentLength(content.length());
+        boolean sequenced = head != null && head.isSequenced();
+        long sequence = sequenced ? head.getSequence() + 1 : 1;
+        version.setSequence(sequence);
+
+        if (!keyframe && sequenced && sequence - head.getKeyframeSequence() < keyframeInterval) {
+            List<DeltaOp> delta = contentHash.equals(head.getContentHash())
+                ? List.of()
+                : TextDelta.diff(baseContent != null ? baseContent : headContent(head), content);
+            if (TextDelta.encodedSize(delta) <= maxDeltaRatio * content.length()) {
+                version.setStorage(Version.STORAGE_DELTA);
+                version.setKeyframeSequence(head.getKeyframeSequence());
+                version.setDelta(delta);
+                version.setBlobId(null);
+                version.setContent(null);
+                return;
+            }
+        }
+        version.setStorage(Version.STORAGE_FULL);
+        version.setKeyframeSequence(sequence);
+        version.setDelta(null);
+        version.setBlobId(contentHash);
+        version.setContent(null);
+    }
+
+    private void moveHead(VersionHead head) {
+        versionHeadRepository.advance(head);
+        headCache.asMap().merge(head.getDocumentId(), head,
+            (current, next) -> next.getSequence() > current.getSequence() ? next : current);
+    }
+
+    /**
+     * Rebuild a document's head from the versions collection and store it
+     * 
+     * @return The head, or null if the document has no versions
+     */
+    private VersionHead reloadHead(ObjectId documentId) {
+        Optional<Version> newest = versionRepository.findFirstByDocumentIdOrderBySequenceDesc(documentId);
+        if (newest.isEmpty()) {
+            return null;
+        }
+        Version version = newest.get();
+        if (version.getSequence() == null) {
+            // Only pre-delta versions exist; their order is by timestamp
+            version = versionRepository.findFirstByDocumentIdOrderByTimestampDesc(documentId).orElse(version);
+        }
+        String content = materialize(version);
+        if (content != null && version.getId() != null) {
+            contentCache.put(version.getId(), content);
+        }
+        VersionHead head = new VersionHead(documentId, version.getId(),
+            version.getSequence() != null ? version.getSequence() : 0,
+            version.getKeyframeSequence() != null ? version.getKeyframeSequence() : 0,
+            ContentHash.of(content), content != null ? content.length() : 0, LocalDateTime.now());
+        versionHeadRepository.advance(head);
+        return head;
+    }
+
+    /**
+     * Walk back from a version through the versions its deltas apply to until
+     * a keyframe or a version whose content is cached, then replay the deltas
+     * forward from it
+     */
+    private String reconstruct(Version version) {
+        List<Version> chain = versionRepository.findChain(
+            version.getDocumentId(), version.getKeyframeSequence(), version.getSequence());
+        Map<Long, Version> bySequence = new HashMap<>();
+        for (Version link : chain) {
+            bySequence.put(link.getSequence(), link);
+        }
+        Deque<Version> deltas = new ArrayDeque<>();
+        Version link = bySequence.get(version.getSequence());
+        String content = null;
+        while (link != null) {
+            if (link.isKeyframe()) {
+                content = keyframeContent(link);
+                break;
+            }
+            if (!deltas.isEmpty() && (content = contentCache.getIfPresent(link.getId())) != null) {
+                break;
+            }
+            deltas.push(link);
+            link = bySequence.get(link.deltaBase());
+        }
+        if (content == null) {
+            throw new IllegalStateException("Broken delta chain for version " + version.getId());
+        }
+        while (!deltas.isEmpty()) {
+            content = TextDelta.apply(content, deltas.pop().getDelta());
+        }
+        return content;
+    }
+
+    /**
+     * Populate a keyframe's content, from its blob if it does not hold the content inline
+     */
+    private String keyframeContent(Version version) {
+        if (version.getContent() == null && version.getBlobId() != null) {
+            version.setContent(contentCache.get(version.getId(), id -> versionBlobRepository
+                .findContentByHash(version.getBlobId())
+                .map(VersionBlob::text)
+                .orElseThrow(() -> new IllegalStateException("Missing blob " + version.getBlobId()
+                    + " for version " + version.getId()))));
+        }
+        return version.getContent();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, contentCache, "version.content");
+        CaffeineCacheMetrics.monitor(registry, headCache, "version.head");
+    }
+}
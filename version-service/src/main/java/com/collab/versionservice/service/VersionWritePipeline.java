@@ -0,0 +1,386 @@
+package com.collab.versionservice.service;
+
+import com.collab.common.exception.ResourceNotFoundException;
+import com.collab.versionservice.dto.CreateVersionRequest;
+import com.collab.versionservice.dto.VersionDTO;
+import com.collab.versionservice.dto.VersionSummaryDTO;
+import com.collab.versionservice.exception.VersionQueueFullException;
+import com.collab.versionservice.exception.VersionsNotStoredException;
+import com.collab.versionservice.model.FailedVersion;
+import com.collab.versionservice.model.Version;
+import com.collab.versionservice.repository.FailedVersionRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Version Write Pipeline
+ * 
+ * Accepts new versions into bounded in-process queues and stores them on
+ * worker threads, so a create request costs only validation and an enqueue
+ * and its latency no longer depends on diffing and storage. Each worker
+ * drains up to {@code batch-size} queued versions at a time and stores them
+ * through {@link VersionService#createVersions}: one bulk insert for the
+ * versions, and contribution counts merged into the bulk upserts of
+ * {@link ContributionRecorder}.
+ * 
+ * Each document is assigned to one worker's queue, so a document's versions
+ * are stored in the order they were accepted, including versions submitted
+ * with {@link #submitAndWait}. Queues hold at most {@code capacity} versions
+ * in total; when a document's queue is full the version is rejected with
+ * {@link VersionQueueFullException} rather than blocking the request thread.
+ * On shutdown the pipeline stops accepting versions under a lock, so no
+ * version is accepted after the workers have been told to stop, and workers
+ * store everything still queued, waiting up to {@code shutdown-timeout}.
+ * 
+ * An accepted version is not dropped on a failed write. The versions of a
+ * failed batch that were not stored are retried up to
+ * {@code retry-attempts} times with doubling {@code retry-backoff}, then
+ * stored one at a time so one bad version cannot hold back the others. A
+ * version that still fails is kept as a {@link FailedVersion} dead letter.
+ * Until a version is stored {@link #getVersion} reports it as PENDING, and a
+ * dead-lettered version as FAILED.
+ * 
+ * Versions are counted in the version.pipeline.versions meter tagged
+ * outcome=accepted, rejected, stored, discarded (unchanged content) or
+ * failed (dead-lettered); version.pipeline.queued gauges the queued versions.
+ * 
+ * @author Arhum Khan
+ * @version 1.0.0
+ */
+@Service
+@Slf4j
+public class VersionWritePipeline implements MeterBinder {
+
+    private static final long POLL_MILLIS = 200;
+
+    private final VersionService versionService;
+    private final FailedVersionRepository failedVersionRepository;
+    private final int batchSize;
+    private final int retryAttempts;
+    private final Duration retryBackoff;
+    private final Duration waitTimeout;
+    private final Duration shutdownTimeout;
+    private final List<BlockingQueue<Pending>> queues;
+    private final Map<ObjectId, Pending> inFlight = new ConcurrentHashMap<>();
+    private final ReadWriteLock accepting = new ReentrantReadWriteLock();
+    private final ExecutorService workers;
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder stored = new LongAdder();
+    private final LongAdder discarded = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private volatile boolean running = true;
+
+    public VersionWritePipeline(
+            VersionService versionService,
+            FailedVersionRepository failedVersionRepository,
+            @Value("${version.pipeline.capacity:10000}") int capacity,
+            @Value("${version.pipeline.workers:2}") int workerCount,
+            @Value("${version.pipeline.batch-size:100}") int batchSize,
+            @Value("${version.pipeline.retry-attempts:3}") int retryAttempts,
+            @Value("${version.pipeline.retry-backoff:200ms}") Duration retryBackoff,
+            @Value("${version.pipeline.wait-timeout:10s}") Duration waitTimeout,
+            @Value("${version.pipeline.shutdown-timeout:30s}") Duration shutdownTimeout) {
+        this.versionService = versionService;
+        this.failedVersionRepository = failedVersionRepository;
+        this.batchSize = batchSize;
+        this.retryAttempts = Math.max(1, retryAttempts);
+        this.retryBackoff = retryBackoff;
+        this.waitTimeout = waitTimeout;
+        this.shutdownTimeout = shutdownTimeout;
+        this.queues = new ArrayList<>(workerCount);
+        for (int i = 0; i < workerCount; i++) {
+            queues.add(new ArrayBlockingQueue<>(Math.max(1, capacity / workerCount)));
+        }
+        AtomicInteger threads = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(workerCount, runnable -> {
+            Thread thread = new Thread(runnable, "version-writer-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        queues.forEach(queue -> workers.execute(() -> work(queue)));
+    }
+
+    /**
+     * Queue a new version for storage
+     * 
+     * @return The version as it will be stored, with its id; change stats are filled in once it is stored
+     * @throws VersionQueueFullException if the document's queue is full or the pipeline is shutting down
+     */
+    public VersionSummaryDTO submit(String documentId, CreateVersionRequest request) {
+        Version version = versionService.newVersion(documentId, request);
+        // Taken before the version is queued: from then on a worker owns it
+        VersionSummaryDTO summary = VersionSummaryDTO.fromVersion(version);
+        enqueue(version);
+        return summary;
+    }
+
+    /**
+     * Queue a new version and wait until it is stored
+     * 
+     * The version goes through its document's queue like any other, so it is
+     * stored after the document's versions accepted before it.
+     * 
+     * @return The stored version; the document's newest version if the content was unchanged;
+     *         or the version with status PENDING if it was not stored within {@code wait-timeout}
+     * @throws VersionQueueFullException if the document's queue is full or the pipeline is shutting down
+     */
+    public VersionDTO submitAndWait(String documentId, CreateVersionRequest request) {
+        Pending pending = enqueue(versionService.newVersion(documentId, request));
+        VersionDTO saved;
+        try {
+            saved = pending.stored().get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            return pending.accepted();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return pending.accepted();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : new IllegalStateException(e.getCause());
+        }
+        return saved != null ? saved : versionService.getLatestVersion(documentId);
+    }
+
+    /**
+     * Get a version by id, including versions still queued or dead-lettered
+     */
+    public VersionDTO getVersion(String versionId) {
+        Pending pending = inFlight.get(new ObjectId(versionId));
+        if (pending != null) {
+            return pending.accepted();
+        }
+        try {
+            return versionService.getVersion(versionId);
+        } catch (ResourceNotFoundException e) {
+            return failedVersionRepository.findById(new ObjectId(versionId))
+                .map(dead -> VersionDTO.fromVersion(dead.getVersion(), VersionDTO.Status.FAILED))
+                .orElseThrow(() -> e);
+        }
+    }
+
+    /**
+     * Number of versions waiting to be stored
+     */
+    public int queued() {
+        return queues.stream().mapToInt(BlockingQueue::size).sum();
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        accepting.writeLock().lock();
+        try {
+            running = false;
+        } finally {
+            accepting.writeLock().unlock();
+        }
+        workers.shutdown();
+        if (!workers.awaitTermination(shutdownTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+            log.warn("Shutdown timed out with {} versions not stored", queued());
+        }
+    }
+
+    private Pending enqueue(Version version) {
+        Pending pending = new Pending(version, VersionDTO.fromVersion(version, VersionDTO.Status.PENDING),
+            new CompletableFuture<>());
+        accepting.readLock().lock();
+        try {
+            inFlight.put(version.getId(), pending);
+            if (!running || !queueOf(version).offer(pending)) {
+                inFlight.remove(version.getId());
+                rejected.increment();
+                throw new VersionQueueFullException(version.getDocumentId().toHexString());
+            }
+        } finally {
+            accepting.readLock().unlock();
+        }
+        accepted.increment();
+        log.debug("Queued version {} of document {}", version.getId(), version.getDocumentId());
+        return pending;
+    }
+
+    private BlockingQueue<Pending> queueOf(Version version) {
+        return queues.get(Math.floorMod(version.getDocumentId().hashCode(), queues.size()));
+    }
+
+    /**
+     * Store batches from one queue until the pipeline stops and the queue is empty
+     */
+    private void work(BlockingQueue<Pending> queue) {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            queue.drainTo(batch, batchSize - 1);
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    /**
+     * Store a batch, retrying what was not stored, then falling back to one version at a time
+     */
+    private void write(List<Pending> batch) {
+        List<Pending> remaining = new ArrayList<>(batch);
+        long backoff = retryBackoff.toMillis();
+        for (int attempt = 1; attempt <= retryAttempts && !remaining.isEmpty(); attempt++) {
+            try {
+                complete(remaining, versionService.createVersions(versionsOf(remaining)));
+                return;
+            } catch (VersionsNotStoredException e) {
+                remaining = split(remaining, e);
+                log.warn("Attempt {} stored {} versions, {} not stored: {}", attempt, e.getStored().size(),
+                    remaining.size(), e.getMessage());
+            } catch (RuntimeException e) {
+                log.warn("Attempt {} to store a batch of {} versions failed: {}", attempt, remaining.size(),
+                    e.getMessage());
+                remaining = unstored(remaining);
+            }
+            if (attempt < retryAttempts && !remaining.isEmpty() && !sleep(backoff)) {
+                break;
+            }
+            backoff *= 2;
+        }
+        remaining.forEach(this::writeAlone);
+    }
+
+    private void writeAlone(Pending pending) {
+        try {
+            complete(List.of(pending), versionService.createVersions(List.of(pending.version())));
+        } catch (RuntimeException e) {
+            deadLetter(pending, e);
+        }
+    }
+
+    /**
+     * Settle the versions of a successful write; versions not returned had unchanged content
+     */
+    private void complete(List<Pending> written, List<Version> saved) {
+        Map<ObjectId, Version> savedById = saved.stream()
+            .collect(Collectors.toMap(Version::getId, Function.identity()));
+        for (Pending pending : written) {
+            Version version = savedById.get(pending.version().getId());
+            (version != null ? stored : discarded).increment();
+            inFlight.remove(pending.version().getId());
+            pending.stored().complete(version != null ? VersionDTO.fromVersion(version) : null);
+        }
+    }
+
+    /**
+     * Settle the versions of a partly stored batch and return the ones to retry
+     */
+    private List<Pending> split(List<Pending> written, VersionsNotStoredException e) {
+        Set<ObjectId> failedIds = e.getFailed().stream().map(Version::getId).collect(Collectors.toSet());
+        Map<Boolean, List<Pending>> byFailure = written.stream()
+            .collect(Collectors.partitioningBy(pending -> failedIds.contains(pending.version().getId())));
+        complete(byFailure.get(false), e.getStored());
+        return byFailure.get(true);
+    }
+
+    /**
+     * Drop versions an attempt stored before failing, so a retry does not store them twice
+     */
+    private List<Pending> unstored(List<Pending> written) {
+        try {
+            Map<Boolean, List<Pending>> byStored = written.stream()
+                .collect(Collectors.partitioningBy(pending -> versionService.isStored(pending.version().getId())));
+            complete(byStored.get(true), versionsOf(byStored.get(true)));
+            return byStored.get(false);
+        } catch (RuntimeException e) {
+            return written;
+        }
+    }
+
+    private void deadLetter(Pending pending, RuntimeException error) {
+        Version version = pending.version();
+        // Keep what the client submitted, whatever state the failed writes left the version in
+        version.setContent(pending.accepted().getContent());
+        failed.increment();
+        try {
+            failedVersionRepository.save(FailedVersion.of(version, error));
+            log.error("Version {} of document {} could not be stored and was dead-lettered", version.getId(),
+                version.getDocumentId(), error);
+        } catch (RuntimeException e) {
+            log.error("Version {} of document {} could not be stored or dead-lettered and is lost",
+                version.getId(), version.getDocumentId(), e);
+        }
+        inFlight.remove(version.getId());
+        pending.stored().completeExceptionally(error);
+    }
+
+    private static List<Version> versionsOf(List<Pending> pendings) {
+        return pendings.stream().map(Pending::version).toList();
+    }
+
+    private static boolean sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("version.pipeline.queued", this, VersionWritePipeline::queued)
+            .description("Versions waiting to be stored")
+            .register(registry);
+        counter(registry, "accepted", accepted);
+        counter(registry, "rejected", rejected);
+        counter(registry, "stored", stored);
+        counter(registry, "discarded", discarded);
+        counter(registry, "failed", failed);
+    }
+
+    private static void counter(MeterRegistry registry, String outcome, LongAdder count) {
+        FunctionCounter.builder("version.pipeline.versions", count, LongAdder::sum)
+            .tag("outcome", outcome)
+            .register(registry);
+    }
+
+    /**
+     * An accepted version and the result of storing it: the stored version, or null if its content was unchanged
+     * 
+     * The version itself belongs to the worker that stores it; request threads
+     * only read the accepted and stored copies.
+     */
+    private record Pending(Version version, VersionDTO accepted, CompletableFuture<VersionDTO> stored) {
+    }
+}
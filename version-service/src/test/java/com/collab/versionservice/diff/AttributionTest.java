@@ -0,0 +1,85 @@
+package com.collab.versionservice.diff;
+
+import com.collab.versionservice.model.BlameSpan;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AttributionTest {
+
+    private final ObjectId alice = new ObjectId();
+    private final ObjectId bob = new ObjectId();
+    private final MyersDiff diff = new MyersDiff(Granularity.WORD, Long.MAX_VALUE);
+
+    @Test
+    void apply_Insert_AttributesOnlyNewTextToEditor() {
+        // Arrange
+        String before = "one two three";
+        String after = "one two and a half three";
+
+        // Act
+        List<BlameSpan> spans = Attribution.apply(Attribution.of(alice, before.length()),
+            diff.diff(before, after).edits(), bob);
+
+        // Assert
+        assertEquals(after.length(), Attribution.length(spans));
+        assertEquals(List.of(new BlameSpan(alice, 8), new BlameSpan(bob, 11), new BlameSpan(alice, 5)), spans);
+    }
+
+    @Test
+    void apply_DeleteAcrossSpans_KeepsRemainingAuthorsAndMerges() {
+        // Arrange
+        List<BlameSpan> spans = List.of(new BlameSpan(alice, 4), new BlameSpan(bob, 4), new BlameSpan(alice, 5));
+        String before = "one two three";
+
+        // Act
+        List<BlameSpan> result = Attribution.apply(spans, diff.diff(before, "one three").edits(), bob);
+
+        // Assert
+        assertEquals(List.of(new BlameSpan(alice, 9)), result);
+    }
+
+    @Test
+    void apply_DiffLongerThanSpans_Throws() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+            () -> Attribution.apply(Attribution.of(alice, 3), diff.diff("one two", "one").edits(), bob));
+    }
+
+    @Test
+    void lines_GroupsConsecutiveLinesByMajorityAuthor() {
+        // Arrange
+        String content = "first line\nsecond\nthird line here\nlast";
+        List<BlameSpan> spans = List.of(
+            new BlameSpan(alice, 11),  // "first line\n"
+            new BlameSpan(bob, 7),     // "second\n"
+            new BlameSpan(bob, 3),     // "thi" of a mostly-alice line
+            new BlameSpan(alice, 13),  // "rd line here\n"
+            new BlameSpan(alice, 4));  // "last"
+
+        // Act
+        List<Attribution.LineRun> runs = Attribution.lines(content, spans);
+
+        // Assert
+        assertEquals(List.of(
+            new Attribution.LineRun(1, 1, alice),
+            new Attribution.LineRun(2, 1, bob),
+            new Attribution.LineRun(3, 2, alice)), runs);
+    }
+
+    @Test
+    void lines_TenThousandLines_ReturnsRuns() {
+        // Arrange
+        String content = "line of text\n".repeat(10_000);
+        List<BlameSpan> spans = List.of(new BlameSpan(alice, content.length() / 2), new BlameSpan(bob, content.length() / 2));
+
+        // Act
+        List<Attribution.LineRun> runs = Attribution.lines(content, spans);
+
+        // Assert
+        assertEquals(List.of(new Attribution.LineRun(1, 5_000, alice), new Attribution.LineRun(5_001, 5_000, bob)), runs);
+    }
+}
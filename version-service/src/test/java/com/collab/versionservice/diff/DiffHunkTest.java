@@ -0,0 +1,69 @@
+package com.collab.versionservice.diff;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DiffHunkTest {
+
+    private final MyersDiff lineDiff = new MyersDiff(Granularity.LINE, Long.MAX_VALUE);
+
+    @Test
+    void of_SingleChange_KeepsContextOnly() {
+        // Arrange
+        String oldText = lines(1, 20);
+        String newText = oldText.replace("line 10\n", "line ten\n");
+
+        // Act
+        List<DiffHunk> hunks = DiffHunk.of(lineDiff.diff(oldText, newText), 3);
+
+        // Assert
+        assertEquals(1, hunks.size());
+        DiffHunk hunk = hunks.get(0);
+        assertEquals(7, hunk.oldStart());
+        assertEquals(7, hunk.oldLines());
+        assertEquals(7, hunk.newStart());
+        assertEquals(7, hunk.newLines());
+        assertEquals(List.of(
+            new DiffEdit(DiffEdit.Operation.EQUAL, "line 7\nline 8\nline 9\n"),
+            new DiffEdit(DiffEdit.Operation.DELETE, "line 10\n"),
+            new DiffEdit(DiffEdit.Operation.INSERT, "line ten\n"),
+            new DiffEdit(DiffEdit.Operation.EQUAL, "line 11\nline 12\nline 13\n")), hunk.edits());
+    }
+
+    @Test
+    void of_NearbyChangesShareHunk_DistantChangesSplit() {
+        // Arrange
+        String oldText = lines(1, 40);
+        String newText = oldText
+            .replace("line 5\n", "")
+            .replace("line 10\n", "line 10\nextra\n")
+            .replace("line 35\n", "changed\n");
+
+        // Act
+        List<DiffHunk> hunks = DiffHunk.of(lineDiff.diff(oldText, newText), 3);
+
+        // Assert
+        assertEquals(2, hunks.size());
+        assertEquals(2, hunks.get(0).oldStart());
+        assertEquals(12, hunks.get(0).oldLines());
+        assertEquals(12, hunks.get(0).newLines());
+        assertEquals(32, hunks.get(1).oldStart());
+        assertEquals(32, hunks.get(1).newStart());
+    }
+
+    @Test
+    void of_IdenticalText_NoHunks() {
+        assertTrue(DiffHunk.of(lineDiff.diff("same\n", "same\n"), 3).isEmpty());
+    }
+
+    private static String lines(int from, int to) {
+        return IntStream.rangeClosed(from, to)
+            .mapToObj(i -> "line " + i + "\n")
+            .collect(Collectors.joining());
+    }
+}
@@ -0,0 +1,125 @@
+package com.collab.versionservice.diff;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MyersDiffTest {
+
+    @Test
+    void diff_CharacterGranularity_MinimalEdit() {
+        // Act
+        DiffResult result = new MyersDiff(Granularity.CHARACTER, Long.MAX_VALUE).diff("abcabba", "cbabac");
+
+        // Assert: the classic example has an edit distance of 5
+        assertEquals(5, result.charsAdded() + result.charsDeleted());
+        assertReconstructs("abcabba", "cbabac", result);
+        assertFalse(result.budgetExhausted());
+    }
+
+    @Test
+    void diff_WordGranularity_ReportsWholeWords() {
+        // Act
+        DiffResult result = new MyersDiff(Granularity.WORD, Long.MAX_VALUE)
+            .diff("the quick brown fox", "the slow brown fox");
+
+        // Assert
+        assertEquals(List.of(
+            new DiffEdit(DiffEdit.Operation.EQUAL, "the "),
+            new DiffEdit(DiffEdit.Operation.DELETE, "quick"),
+            new DiffEdit(DiffEdit.Operation.INSERT, "slow"),
+            new DiffEdit(DiffEdit.Operation.EQUAL, " brown fox")), result.edits());
+    }
+
+    @Test
+    void diff_MovedLine_CountsOnlyThatLine() {
+        // Act
+        DiffResult result = new MyersDiff(Granularity.LINE, Long.MAX_VALUE)
+            .diff("one\ntwo\nthree\n", "two\nthree\none\n");
+
+        // Assert: a length comparison would report no change at all
+        assertEquals(4, result.charsAdded());
+        assertEquals(4, result.charsDeleted());
+        assertReconstructs("one\ntwo\nthree\n", "two\nthree\none\n", result);
+    }
+
+    @Test
+    void diff_MatchesLcsOnRandomInputs() {
+        Random random = new Random(42);
+        MyersDiff diff = new MyersDiff(Granularity.CHARACTER, Long.MAX_VALUE);
+        for (int i = 0; i < 500; i++) {
+            String a = randomText(random, random.nextInt(40));
+            String b = randomText(random, random.nextInt(40));
+
+            DiffResult result = diff.diff(a, b);
+
+            int lcs = lcs(a, b);
+            assertEquals(a.length() - lcs, result.charsDeleted(), a + " -> " + b);
+            assertEquals(b.length() - lcs, result.charsAdded(), a + " -> " + b);
+            assertReconstructs(a, b, result);
+        }
+    }
+
+    @Test
+    void diff_BudgetExhausted_FallsBackToReplace() {
+        // Arrange
+        Random random = new Random(7);
+        String a = "header " + randomText(random, 400) + " footer";
+        String b = "header " + randomText(random, 400) + " footer";
+
+        // Act
+        DiffResult result = new MyersDiff(Granularity.CHARACTER, 10).diff(a, b);
+
+        // Assert: the common prefix and suffix survive, the middle is replaced
+        assertTrue(result.budgetExhausted());
+        assertEquals(new DiffEdit(DiffEdit.Operation.EQUAL, "header "), result.edits().get(0));
+        assertTrue(result.charsDeleted() >= a.length() - lcs(a, b));
+        assertReconstructs(a, b, result);
+    }
+
+    @Test
+    void diff_NullAndEmpty() {
+        MyersDiff diff = new MyersDiff(Granularity.WORD, Long.MAX_VALUE);
+        assertTrue(diff.diff(null, "").edits().isEmpty());
+        assertEquals(5, diff.diff(null, "hello").charsAdded());
+        assertEquals(5, diff.diff("hello", "").charsDeleted());
+    }
+
+    private static void assertReconstructs(String a, String b, DiffResult result) {
+        StringBuilder oldText = new StringBuilder();
+        StringBuilder newText = new StringBuilder();
+        for (DiffEdit edit : result.edits()) {
+            if (edit.operation() != DiffEdit.Operation.INSERT) {
+                oldText.append(edit.text());
+            }
+            if (edit.operation() != DiffEdit.Operation.DELETE) {
+                newText.append(edit.text());
+            }
+        }
+        assertEquals(a, oldText.toString());
+        assertEquals(b, newText.toString());
+    }
+
+    private static String randomText(Random random, int length) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            text.append((char) ('a' + random.nextInt(3)));
+        }
+        return text.toString();
+    }
+
+    private static int lcs(String a, String b) {
+        int[][] table = new int[a.length() + 1][b.length() + 1];
+        for (int i = 1; i <= a.length(); i++) {
+            for (int j = 1; j <= b.length(); j++) {
+                table[i][j] = a.charAt(i - 1) == b.charAt(j - 1)
+                    ? table[i - 1][j - 1] + 1
+                    : Math.max(table[i - 1][j], table[i][j - 1]);
+            }
+        }
+        return table[a.length()][b.length()];
+    }
+}
@@ -0,0 +1,53 @@
+package com.collab.versionservice.diff;
+
+import com.collab.versionservice.model.DeltaOp;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TextDeltaTest {
+
+    @Test
+    void diff_SingleRegionEdit_RetainDeleteInsert() {
+        // Act
+        List<DeltaOp> ops = TextDelta.diff("Hello brave world", "Hello new world");
+
+        // Assert
+        assertEquals(List.of(DeltaOp.retain(6), DeltaOp.delete(5), DeltaOp.insert("new")), ops);
+        assertEquals("Hello new world", TextDelta.apply("Hello brave world", ops));
+    }
+
+    @Test
+    void diff_IdenticalText_NoOps() {
+        assertTrue(TextDelta.diff("same", "same").isEmpty());
+    }
+
+    @Test
+    void diff_RoundTripsEdgeCases() {
+        String[][] cases = {
+            {"", "new"}, {"old", ""}, {null, "x"}, {"abc", "abcdef"}, {"defabc", "abc"},
+            {"aaaa", "aaa"}, {"a😀b", "a😁b"}
+        };
+        for (String[] c : cases) {
+            List<DeltaOp> ops = TextDelta.diff(c[0], c[1]);
+            assertEquals(c[1], TextDelta.apply(c[0], ops));
+        }
+    }
+
+    @Test
+    void diff_NeverSplitsSurrogatePairs() {
+        // Both emoji share the high surrogate; the insert must still carry a whole code point
+        List<DeltaOp> ops = TextDelta.diff("😀", "😁");
+
+        ops.stream().filter(op -> op.getInsert() != null)
+            .forEach(op -> assertFalse(Character.isLowSurrogate(op.getInsert().charAt(0))));
+    }
+
+    @Test
+    void apply_MismatchedBase_Throws() {
+        assertThrows(IllegalArgumentException.class,
+            () -> TextDelta.apply("abc", List.of(DeltaOp.retain(10))));
+    }
+}
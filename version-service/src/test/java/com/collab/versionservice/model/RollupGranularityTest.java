@@ -0,0 +1,58 @@
+package com.collab.versionservice.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RollupGranularityTest {
+
+    // Wednesday
+    private static final LocalDateTime WEDNESDAY = LocalDateTime.of(2026, 10, 21, 14, 35);
+
+    @Test
+    void floor_WeekStartsOnMonday() {
+        // Act & Assert
+        assertEquals(LocalDateTime.of(2026, 10, 21, 14, 0), RollupGranularity.HOUR.floor(WEDNESDAY));
+        assertEquals(LocalDateTime.of(2026, 10, 21, 0, 0), RollupGranularity.DAY.floor(WEDNESDAY));
+        assertEquals(LocalDateTime.of(2026, 10, 19, 0, 0), RollupGranularity.WEEK.floor(WEDNESDAY));
+        assertEquals(LocalDateTime.of(2026, 10, 26, 0, 0), RollupGranularity.WEEK.ceil(WEDNESDAY));
+    }
+
+    @Test
+    void cover_LongWindow_WeeksInMiddleDaysAndHoursAtEdges() {
+        // Arrange
+        LocalDateTime from = WEDNESDAY;                              // Wed 14:35 -> rounded to 14:00
+        LocalDateTime to = LocalDateTime.of(2026, 11, 10, 9, 10);    // Tue 09:10 -> rounded to 09:00
+
+        // Act
+        List<RollupGranularity.Range> ranges = RollupGranularity.cover(from, to);
+
+        // Assert
+        assertEquals(List.of(
+            new RollupGranularity.Range(RollupGranularity.HOUR, LocalDateTime.of(2026, 10, 21, 14, 0), LocalDateTime.of(2026, 10, 22, 0, 0)),
+            new RollupGranularity.Range(RollupGranularity.DAY, LocalDateTime.of(2026, 10, 22, 0, 0), LocalDateTime.of(2026, 10, 26, 0, 0)),
+            new RollupGranularity.Range(RollupGranularity.WEEK, LocalDateTime.of(2026, 10, 26, 0, 0), LocalDateTime.of(2026, 11, 9, 0, 0)),
+            new RollupGranularity.Range(RollupGranularity.DAY, LocalDateTime.of(2026, 11, 9, 0, 0), LocalDateTime.of(2026, 11, 10, 0, 0)),
+            new RollupGranularity.Range(RollupGranularity.HOUR, LocalDateTime.of(2026, 11, 10, 0, 0), LocalDateTime.of(2026, 11, 10, 9, 0))),
+            ranges);
+    }
+
+    @Test
+    void cover_WithinOneDay_HoursOnly() {
+        // Act
+        List<RollupGranularity.Range> ranges = RollupGranularity.cover(WEDNESDAY, WEDNESDAY.plusHours(3));
+
+        // Assert
+        assertEquals(List.of(new RollupGranularity.Range(RollupGranularity.HOUR,
+            LocalDateTime.of(2026, 10, 21, 14, 0), LocalDateTime.of(2026, 10, 21, 17, 0))), ranges);
+    }
+
+    @Test
+    void cover_WithinOneHour_Empty() {
+        // Act & Assert
+        assertTrue(RollupGranularity.cover(WEDNESDAY, WEDNESDAY.plusMinutes(10)).isEmpty());
+    }
+}
@@ -0,0 +1,198 @@
+package com.collab.versionservice.service;
+
+import com.collab.common.client.UserDirectoryClient;
+import com.collab.common.client.UserSummary;
+import com.collab.common.exception.ResourceNotFoundException;
+import com.collab.versionservice.diff.Granularity;
+import com.collab.versionservice.dto.BlameDTO;
+import com.collab.versionservice.model.BlameSpan;
+import com.collab.versionservice.model.DocumentBlame;
+import com.collab.versionservice.model.Version;
+import com.collab.versionservice.model.VersionHead;
+import com.collab.versionservice.repository.DocumentBlameRepository;
+import com.collab.versionservice.repository.VersionRepository;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BlameServiceTest {
+
+    @Mock
+    private DocumentBlameRepository blameRepository;
+
+    @Mock
+    private VersionRepository versionRepository;
+
+    @Mock
+    private VersionStorageService versionStorageService;
+
+    @Mock
+    private UserDirectoryClient userDirectoryClient;
+
+    private final DiffService diffService = new DiffService(Granularity.WORD, 1_000_000);
+
+    private BlameService blameService;
+
+    private ObjectId documentId;
+    private ObjectId alice;
+    private ObjectId bob;
+
+    @BeforeEach
+    void setUp() {
+        blameService = new BlameService(blameRepository, versionRepository, versionStorageService,
+            diffService, userDirectoryClient, 200);
+        documentId = new ObjectId();
+        alice = new ObjectId();
+        bob = new ObjectId();
+    }
+
+    @Test
+    void record_FirstVersion_AttributesEverythingToAuthor() {
+        // Arrange
+        Version first = version(1, alice, "hello world");
+
+        // Act
+        blameService.record(first, null, null);
+
+        // Assert
+        DocumentBlame blame = advanced();
+        assertEquals(1L, blame.getSequence());
+        assertEquals(List.of(new BlameSpan(alice, 11)), blame.getSpans());
+    }
+
+    @Test
+    void record_NextVersion_AppliesDiffToStoredBlame() {
+        // Arrange
+        Version first = version(1, alice, "hello world");
+        Version second = version(2, bob, "hello brave world");
+        when(blameRepository.findById(documentId)).thenReturn(Optional.of(
+            new DocumentBlame(documentId, first.getId(), 1, List.of(new BlameSpan(alice, 11)), LocalDateTime.now())));
+
+        // Act
+        blameService.record(second, head(first), diffService.diff(first.getContent(), second.getContent()));
+
+        // Assert
+        DocumentBlame blame = advanced();
+        assertEquals(2L, blame.getSequence());
+        assertEquals(List.of(new BlameSpan(alice, 6), new BlameSpan(bob, 6), new BlameSpan(alice, 5)), blame.getSpans());
+    }
+
+    @Test
+    void record_CoalescedVersion_LeavesInsertedTextWithoutAuthor() {
+        // Arrange
+        Version first = version(1, alice, "hello world");
+        Version second = version(2, bob, "hello brave world");
+        second.setCoalesced(true);
+        when(blameRepository.findById(documentId)).thenReturn(Optional.of(
+            new DocumentBlame(documentId, first.getId(), 1, List.of(new BlameSpan(alice, 11)), LocalDateTime.now())));
+
+        // Act
+        blameService.record(second, head(first), diffService.diff(first.getContent(), second.getContent()));
+
+        // Assert
+        assertEquals(List.of(new BlameSpan(alice, 6), new BlameSpan(null, 6), new BlameSpan(alice, 5)),
+            advanced().getSpans());
+    }
+
+    @Test
+    void record_BlameBehind_SkipsWithoutThrowing() {
+        // Arrange
+        Version second = version(2, bob, "hello brave world");
+        Version third = version(3, bob, "hello brave new world");
+        when(blameRepository.findById(documentId)).thenReturn(Optional.empty());
+
+        // Act
+        blameService.record(third, head(second), diffService.diff(second.getContent(), third.getContent()));
+
+        // Assert
+        verify(blameRepository, never()).advance(any());
+    }
+
+    @Test
+    void getBlame_CurrentBlame_ServedWithoutReplay() {
+        // Arrange
+        Version head = version(2, bob, "first\nsecond\n");
+        VersionHead versionHead = head(head);
+        when(versionStorageService.head(documentId)).thenReturn(Optional.of(versionHead));
+        when(versionStorageService.headContent(versionHead)).thenReturn(head.getContent());
+        when(blameRepository.findById(documentId)).thenReturn(Optional.of(new DocumentBlame(documentId, head.getId(), 2,
+            List.of(new BlameSpan(alice, 6), new BlameSpan(bob, 7)), LocalDateTime.now())));
+        when(userDirectoryClient.findByIds(anyCollection()))
+            .thenReturn(Map.of(alice.toHexString(), new UserSummary(alice.toHexString(), "alice", null)));
+
+        // Act
+        BlameDTO blame = blameService.getBlame(documentId.toHexString());
+
+        // Assert
+        assertEquals(List.of(
+            new BlameDTO.LineRangeDTO(1, 1, alice.toHexString(), "alice"),
+            new BlameDTO.LineRangeDTO(2, 1, bob.toHexString(), null)), blame.getLines());
+        verify(versionRepository, never()).findChain(any(), anyLong(), anyLong());
+    }
+
+    @Test
+    void getBlame_StaleBlame_CatchesUpFromStoredBlame() {
+        // Arrange
+        Version first = version(1, alice, "one\n");
+        Version second = version(2, bob, "one\ntwo\n");
+        VersionHead versionHead = head(second);
+        when(versionStorageService.head(documentId)).thenReturn(Optional.of(versionHead));
+        when(versionStorageService.headContent(versionHead)).thenReturn(second.getContent());
+        when(blameRepository.findById(documentId)).thenReturn(Optional.of(
+            new DocumentBlame(documentId, first.getId(), 1, List.of(new BlameSpan(alice, 4)), LocalDateTime.now())));
+        when(versionRepository.findChain(documentId, 1L, 2L)).thenReturn(List.of(first, second));
+
+        // Act
+        BlameDTO blame = blameService.getBlame(documentId.toHexString());
+
+        // Assert
+        assertEquals(List.of(
+            new BlameDTO.LineRangeDTO(1, 1, alice.toHexString(), null),
+            new BlameDTO.LineRangeDTO(2, 1, bob.toHexString(), null)), blame.getLines());
+        assertEquals(2L, advanced().getSequence());
+    }
+
+    @Test
+    void getBlame_NoVersions_ThrowsException() {
+        // Arrange
+        when(versionStorageService.head(documentId)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class, () -> blameService.getBlame(documentId.toHexString()));
+    }
+
+    private DocumentBlame advanced() {
+        ArgumentCaptor<DocumentBlame> captor = ArgumentCaptor.forClass(DocumentBlame.class);
+        verify(blameRepository).advance(captor.capture());
+        return captor.getValue();
+    }
+
+    private Version version(long sequence, ObjectId userId, String content) {
+        Version version = new Version(documentId, content, userId, null);
+        version.setId(new ObjectId());
+        version.setSequence(sequence);
+        return version;
+    }
+
+    private VersionHead head(Version version) {
+        return new VersionHead(documentId, version.getId(), version.getSequence(), 1,
+            ContentHash.of(version.getContent()), version.getContent().length(), LocalDateTime.now());
+    }
+}
@@ -0,0 +1,139 @@
+package com.collab.versionservice.service;
+
+import com.collab.common.client.UserDirectoryClient;
+import com.collab.common.client.UserSummary;
+import com.collab.common.exception.BadRequestException;
+import com.collab.versionservice.dto.ContributionLeaderboardDTO;
+import com.collab.versionservice.model.RollupGranularity;
+import com.collab.versionservice.repository.ContributionRollupRepository;
+import com.collab.versionservice.repository.ContributionRollupRepositoryCustom.UserTotal;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ContributionLeaderboardServiceTest {
+
+    @Mock
+    private ContributionRollupRepository contributionRollupRepository;
+
+    @Mock
+    private UserDirectoryClient userDirectoryClient;
+
+    private ContributionLeaderboardService contributionLeaderboardService;
+
+    private ObjectId documentId;
+    private LocalDateTime from;
+
+    @BeforeEach
+    void setUp() {
+        contributionLeaderboardService = new ContributionLeaderboardService(contributionRollupRepository,
+            userDirectoryClient, Duration.ofDays(8), Duration.ofDays(90));
+        documentId = new ObjectId();
+        from = RollupGranularity.HOUR.floor(LocalDateTime.now()).minusDays(2);
+    }
+
+    @Test
+    void getLeaderboard_QueriesRollupCoverAndResolvesUsernames() {
+        // Arrange
+        ObjectId alice = new ObjectId();
+        ObjectId bob = new ObjectId();
+        LocalDateTime to = from.plusDays(2);
+        when(contributionRollupRepository.totals(documentId, RollupGranularity.cover(from, to), 10))
+            .thenReturn(List.of(new UserTotal(alice, 4, 120, 30), new UserTotal(bob, 1, 5, 0)));
+        when(userDirectoryClient.findByIds(anyCollection()))
+            .thenReturn(Map.of(alice.toHexString(), new UserSummary(alice.toHexString(), "alice", null)));
+
+        // Act
+        ContributionLeaderboardDTO leaderboard = contributionLeaderboardService.getLeaderboard(
+            documentId.toHexString(), from, to, 10);
+
+        // Assert
+        assertEquals(List.of(
+            new ContributionLeaderboardDTO.EntryDTO(alice.toHexString(), "alice", 4, 120, 30, 150),
+            new ContributionLeaderboardDTO.EntryDTO(bob.toHexString(), null, 1, 5, 0, 5)), leaderboard.getEntries());
+        assertEquals(from, leaderboard.getFrom());
+    }
+
+    @Test
+    void getLeaderboard_NoRollups_SkipsUserLookup() {
+        // Arrange
+        when(contributionRollupRepository.totals(eq(documentId), any(), anyInt())).thenReturn(List.of());
+
+        // Act
+        ContributionLeaderboardDTO leaderboard = contributionLeaderboardService.getLeaderboard(
+            documentId.toHexString(), from, from.plusHours(5), 1000);
+
+        // Assert
+        assertTrue(leaderboard.getEntries().isEmpty());
+        verify(contributionRollupRepository).totals(eq(documentId), any(), eq(100));
+        verifyNoInteractions(userDirectoryClient);
+    }
+
+    @Test
+    void getLeaderboard_BoundsPastRetention_RoundedToKeptBuckets() {
+        // Arrange
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime beyondDays = now.minusDays(200);
+        LocalDateTime beyondHours = now.minusDays(30);
+        when(contributionRollupRepository.totals(eq(documentId), any(), anyInt())).thenReturn(List.of());
+
+        // Act
+        ContributionLeaderboardDTO leaderboard = contributionLeaderboardService.getLeaderboard(
+            documentId.toHexString(), beyondDays, beyondHours, 10);
+
+        // Assert
+        LocalDateTime start = RollupGranularity.WEEK.floor(beyondDays);
+        LocalDateTime end = RollupGranularity.DAY.floor(beyondHours);
+        assertEquals(start, leaderboard.getFrom());
+        assertEquals(end, leaderboard.getTo());
+        verify(contributionRollupRepository).totals(documentId, RollupGranularity.cover(start, end), 10);
+        assertTrue(RollupGranularity.cover(start, end).stream()
+            .noneMatch(range -> range.granularity() == RollupGranularity.HOUR));
+    }
+
+    @Test
+    void purgeExpiredBuckets_DeletesHourAndDayBucketsPastRetention() {
+        // Arrange
+        when(contributionRollupRepository.deleteByGranularityAndBucketStartBefore(
+            eq(RollupGranularity.HOUR), any(LocalDateTime.class))).thenReturn(5L);
+        when(contributionRollupRepository.deleteByGranularityAndBucketStartBefore(
+            eq(RollupGranularity.DAY), any(LocalDateTime.class))).thenReturn(2L);
+
+        // Act
+        long purged = contributionLeaderboardService.purgeExpiredBuckets();
+
+        // Assert
+        assertEquals(7, purged);
+        verify(contributionRollupRepository).deleteByGranularityAndBucketStartBefore(eq(RollupGranularity.HOUR),
+            argThat(cutoff -> cutoff.isBefore(LocalDateTime.now().minusDays(7))));
+        verify(contributionRollupRepository).deleteByGranularityAndBucketStartBefore(eq(RollupGranularity.DAY),
+            argThat(cutoff -> cutoff.isBefore(LocalDateTime.now().minusDays(89))));
+        verify(contributionRollupRepository, never())
+            .deleteByGranularityAndBucketStartBefore(eq(RollupGranularity.WEEK), any());
+    }
+
+    @Test
+    void getLeaderboard_EmptyWindow_ThrowsException() {
+        // Act & Assert
+        assertThrows(BadRequestException.class,
+            () -> contributionLeaderboardService.getLeaderboard(documentId.toHexString(), from, from, 10));
+        verifyNoInteractions(contributionRollupRepository);
+    }
+}
@@ -0,0 +1,197 @@
+package com.collab.versionservice.service;
+
+import com.collab.versionservice.repository.ContributionRepository;
+import com.collab.versionservice.model.RollupGranularity;
+import com.collab.versionservice.repository.ContributionRepositoryCustom.Increment;
+import com.collab.versionservice.repository.ContributionRollupRepository;
+import com.collab.versionservice.repository.ContributionRollupRepositoryCustom.RollupIncrement;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import org.bson.BsonDocument;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.BulkOperationException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ContributionRecorderTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 10, 21, 14, 35);
+
+    @Mock
+    private ContributionRepository contributionRepository;
+
+    @Captor
+    private ArgumentCaptor<List<Increment>> incrementCaptor;
+
+    @Captor
+    private ArgumentCaptor<List<RollupIncrement>> rollupCaptor;
+
+    @Mock
+    private ContributionRollupRepository contributionRollupRepository;
+
+    private ContributionRecorder contributionRecorder;
+
+    private ObjectId documentId;
+    private ObjectId alice;
+    private ObjectId bob;
+
+    @BeforeEach
+    void setUp() {
+        contributionRecorder = new ContributionRecorder(contributionRepository, contributionRollupRepository, true, 1000);
+        documentId = new ObjectId();
+        alice = new ObjectId();
+        bob = new ObjectId();
+    }
+
+    @Test
+    void flush_MergesBurstPerDocumentAndUser() {
+        // Arrange
+        contributionRecorder.recordEdits(documentId, alice, 1, 10, 2, NOW);
+        contributionRecorder.recordEdits(documentId, alice, 1, 5, 0, NOW);
+        contributionRecorder.recordEdits(documentId, bob, 1, 1, 1, NOW);
+
+        // Act
+        int written = contributionRecorder.flush();
+
+        // Assert
+        assertEquals(2, written);
+        List<Increment> increments = captureIncrementAll(1).get(0);
+        assertEquals(Set.of(
+            new Increment(documentId, alice, 0, 2, 15, 2),
+            new Increment(documentId, bob, 0, 1, 1, 1)), Set.copyOf(increments));
+    }
+
+    @Test
+    void flush_NothingPending_NoWrite() {
+        // Act
+        int written = contributionRecorder.flush();
+
+        // Assert
+        assertEquals(0, written);
+        verifyNoInteractions(contributionRepository);
+    }
+
+    @Test
+    void flush_SplitsIntoBatches() {
+        // Arrange
+        contributionRecorder = new ContributionRecorder(contributionRepository, contributionRollupRepository, true, 2);
+        for (int i = 0; i < 5; i++) {
+            contributionRecorder.recordEdits(documentId, new ObjectId(), 1, 1, 0, NOW);
+        }
+
+        // Act
+        int written = contributionRecorder.flush();
+
+        // Assert
+        assertEquals(5, written);
+        verify(contributionRepository, times(3)).incrementAll(anyList());
+    }
+
+    @Test
+    void flush_WriteFails_RetriesOnNextFlush() {
+        // Arrange
+        contributionRecorder.recordEdits(documentId, alice, 1, 10, 0, NOW);
+        doThrow(new DataAccessResourceFailureException("down"))
+            .doNothing()
+            .when(contributionRepository).incrementAll(anyList());
+
+        // Act
+        int firstAttempt = contributionRecorder.flush();
+        contributionRecorder.recordEdits(documentId, alice, 1, 5, 0, NOW);
+        int secondAttempt = contributionRecorder.flush();
+
+        // Assert
+        assertEquals(0, firstAttempt);
+        assertEquals(1, secondAttempt);
+        assertEquals(List.of(new Increment(documentId, alice, 0, 2, 15, 0)), captureIncrementAll(2).get(1));
+    }
+
+    @Test
+    void flush_PartialBulkFailure_RetriesOnlyFailedIncrements() {
+        // Arrange
+        contributionRecorder.recordEdits(documentId, alice, 1, 10, 0, NOW);
+        contributionRecorder.recordEdits(documentId, bob, 1, 3, 0, NOW);
+        List<List<Increment>> attempts = new ArrayList<>();
+        doAnswer(invocation -> {
+            List<Increment> batch = List.copyOf(invocation.getArgument(0));
+            attempts.add(batch);
+            if (attempts.size() == 1) {
+                throw new BulkOperationException("partial", new MongoBulkWriteException(
+                    BulkWriteResult.unacknowledged(),
+                    List.of(new BulkWriteError(11000, "duplicate", new BsonDocument(), 1)),
+                    null, new ServerAddress(), Set.of()));
+            }
+            return null;
+        }).when(contributionRepository).incrementAll(anyList());
+
+        // Act
+        int first = contributionRecorder.flush();
+        int second = contributionRecorder.flush();
+
+        // Assert
+        assertEquals(1, first);
+        assertEquals(1, second);
+        assertEquals(List.of(attempts.get(0).get(1)), attempts.get(1));
+    }
+
+    @Test
+    void flush_VersionsAndEditsMergedPerBucket() {
+        // Arrange
+        contributionRecorder.recordVersion(documentId, alice, 500, 50, NOW);
+        contributionRecorder.recordEdits(documentId, alice, 3, 10, 2, NOW.plusMinutes(20));
+        contributionRecorder.recordEdits(documentId, alice, 1, 1, 1, NOW.plusDays(1));
+
+        // Act
+        contributionRecorder.flush();
+
+        // Assert
+        assertEquals(List.of(new Increment(documentId, alice, 1, 4, 11, 3)), captureIncrementAll(1).get(0));
+        verify(contributionRollupRepository).incrementAll(rollupCaptor.capture());
+        LocalDateTime hour = LocalDateTime.of(2026, 10, 21, 14, 0);
+        LocalDateTime day = LocalDateTime.of(2026, 10, 21, 0, 0);
+        LocalDateTime monday = LocalDateTime.of(2026, 10, 19, 0, 0);
+        assertEquals(Set.of(
+            new RollupIncrement(documentId, alice, RollupGranularity.HOUR, hour, 1, 10, 2),
+            new RollupIncrement(documentId, alice, RollupGranularity.HOUR, hour.plusDays(1), 0, 1, 1),
+            new RollupIncrement(documentId, alice, RollupGranularity.DAY, day, 1, 10, 2),
+            new RollupIncrement(documentId, alice, RollupGranularity.DAY, day.plusDays(1), 0, 1, 1),
+            new RollupIncrement(documentId, alice, RollupGranularity.WEEK, monday, 1, 11, 3)), Set.copyOf(rollupCaptor.getValue()));
+    }
+
+    @Test
+    void recordVersion_LiveEditsOff_CreditsVersionDiffAndIgnoresEditReports() {
+        // Arrange
+        contributionRecorder = new ContributionRecorder(contributionRepository, contributionRollupRepository, false, 1000);
+        contributionRecorder.recordVersion(documentId, alice, 500, 50, NOW);
+        contributionRecorder.recordEdits(documentId, alice, 3, 10, 2, NOW);
+
+        // Act
+        contributionRecorder.flush();
+
+        // Assert
+        assertEquals(List.of(new Increment(documentId, alice, 1, 1, 500, 50)), captureIncrementAll(1).get(0));
+    }
+
+    private List<List<Increment>> captureIncrementAll(int times) {
+        verify(contributionRepository, times(times)).incrementAll(incrementCaptor.capture());
+        return incrementCaptor.getAllValues().stream().map(List::copyOf).toList();
+    }
+}
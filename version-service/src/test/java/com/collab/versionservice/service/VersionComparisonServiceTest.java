@@ -0,0 +1,119 @@
+package com.collab.versionservice.service;
+
+import com.collab.common.exception.ResourceNotFoundException;
+import com.collab.versionservice.diff.DiffEdit;
+import com.collab.versionservice.diff.Granularity;
+import com.collab.versionservice.dto.VersionComparisonDTO;
+import com.collab.versionservice.model.Version;
+import com.collab.versionservice.repository.VersionBlobRepository;
+import com.collab.versionservice.repository.VersionHeadRepository;
+import com.collab.versionservice.repository.VersionRepository;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class VersionComparisonServiceTest {
+
+    @Mock
+    private VersionRepository versionRepository;
+
+    @Mock
+    private VersionHeadRepository versionHeadRepository;
+
+    @Mock
+    private VersionBlobRepository versionBlobRepository;
+
+    private VersionComparisonService versionComparisonService;
+
+    private ObjectId documentId;
+    private Version from;
+    private Version to;
+
+    @BeforeEach
+    void setUp() {
+        VersionStorageService versionStorageService = new VersionStorageService(versionRepository, versionHeadRepository, versionBlobRepository,
+            50, 0.5, 1024, 1_000_000, 1000);
+        versionComparisonService = new VersionComparisonService(versionRepository, versionStorageService,
+            new DiffService(Granularity.WORD, 1_000_000), 1, 1_000_000);
+
+        documentId = new ObjectId();
+        ObjectId userId = new ObjectId();
+        from = new Version(documentId, "title\nfirst\nsecond\nthird\n", userId, "v1");
+        from.setId(new ObjectId());
+        to = new Version(documentId, "title\nfirst\n2nd\nthird\n", userId, "v2");
+        to.setId(new ObjectId());
+    }
+
+    @Test
+    void compare_ReturnsHunksForChangedLines() {
+        // Arrange
+        when(versionRepository.findById(from.getId())).thenReturn(Optional.of(from));
+        when(versionRepository.findById(to.getId())).thenReturn(Optional.of(to));
+
+        // Act
+        VersionComparisonDTO result = versionComparisonService.compare(
+            documentId.toHexString(), from.getId().toHexString(), to.getId().toHexString());
+
+        // Assert
+        assertEquals(4, result.getCharsAdded());
+        assertEquals(7, result.getCharsDeleted());
+        assertFalse(result.isApproximate());
+        assertEquals(1, result.getHunks().size());
+        assertEquals(List.of(
+            new DiffEdit(DiffEdit.Operation.EQUAL, "first\n"),
+            new DiffEdit(DiffEdit.Operation.DELETE, "second\n"),
+            new DiffEdit(DiffEdit.Operation.INSERT, "2nd\n"),
+            new DiffEdit(DiffEdit.Operation.EQUAL, "third\n")), result.getHunks().get(0).edits());
+    }
+
+    @Test
+    void compare_RepeatedPair_ServedFromCache() {
+        // Arrange
+        when(versionRepository.findById(from.getId())).thenReturn(Optional.of(from));
+        when(versionRepository.findById(to.getId())).thenReturn(Optional.of(to));
+
+        // Act
+        VersionComparisonDTO first = versionComparisonService.compare(
+            documentId.toHexString(), from.getId().toHexString(), to.getId().toHexString());
+        VersionComparisonDTO second = versionComparisonService.compare(
+            documentId.toHexString(), from.getId().toHexString(), to.getId().toHexString());
+
+        // Assert
+        assertSame(first, second);
+        verify(versionRepository, times(1)).findById(from.getId());
+        verify(versionRepository, times(1)).findById(to.getId());
+    }
+
+    @Test
+    void compare_VersionOfAnotherDocument_ThrowsNotFound() {
+        // Arrange
+        when(versionRepository.findById(from.getId())).thenReturn(Optional.of(from));
+        when(versionRepository.findById(to.getId())).thenReturn(Optional.of(to));
+
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class, () -> versionComparisonService.compare(
+            new ObjectId().toHexString(), from.getId().toHexString(), to.getId().toHexString()));
+    }
+
+    @Test
+    void compare_MissingVersion_ThrowsNotFound() {
+        // Arrange
+        when(versionRepository.findById(from.getId())).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class, () -> versionComparisonService.compare(
+            documentId.toHexString(), from.getId().toHexString(), to.getId().toHexString()));
+        assertThrows(ResourceNotFoundException.class, () -> versionComparisonService.compare(
+            documentId.toHexString(), "not-an-id", to.getId().toHexString()));
+    }
+}
@@ -0,0 +1,192 @@
+package com.collab.versionservice.service;
+
+import com.collab.versionservice.model.Version;
+import com.collab.versionservice.model.VersionHead;
+import com.collab.versionservice.repository.VersionBlobRepository;
+import com.collab.versionservice.repository.VersionHeadRepository;
+import com.collab.versionservice.repository.VersionRepository;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class VersionRetentionServiceTest {
+
+    @Mock
+    private VersionRepository versionRepository;
+
+    @Mock
+    private VersionHeadRepository versionHeadRepository;
+
+    @Mock
+    private VersionBlobRepository versionBlobRepository;
+
+    @Mock
+    private VersionStorageService versionStorageService;
+
+    private final List<Version> history = new ArrayList<>();
+
+    private ObjectId documentId;
+    private LocalDateTime now;
+
+    @BeforeEach
+    void setUp() {
+        documentId = new ObjectId();
+        now = LocalDateTime.of(2026, 10, 19, 12, 0);
+        lenient().when(versionRepository.findRetentionPage(eq(documentId), anyLong(), any(Pageable.class)))
+            .thenAnswer(invocation -> {
+                long after = invocation.getArgument(1);
+                Pageable page = invocation.getArgument(2);
+                return history.stream()
+                    .filter(v -> v.getSequence() > after)
+                    .limit(page.getPageSize())
+                    .toList();
+            });
+    }
+
+    @Test
+    void thin_SameHour_KeepsNewestOfBucket() {
+        // Arrange
+        LocalDateTime hour = now.minusDays(2).truncatedTo(ChronoUnit.HOURS);
+        Version v1 = version(hour.plusMinutes(5));
+        Version v2 = version(hour.plusMinutes(20));
+        Version v3 = version(hour.plusMinutes(40));
+        version(hour.plusMinutes(70));
+        version(now.minusMinutes(5));
+
+        // Act
+        long removed = service(true, 1000).thin(documentId, now);
+
+        // Assert
+        assertEquals(2, removed);
+        verify(versionStorageService).removeRun(List.of(v1, v2), null, v3);
+        verifyNoMoreInteractions(versionStorageService);
+    }
+
+    @Test
+    void thin_PinnedVersion_IsKeptAndBecomesPrevious() {
+        // Arrange
+        LocalDateTime hour = now.minusDays(2).truncatedTo(ChronoUnit.HOURS);
+        Version pinned = version(hour.plusMinutes(5));
+        pinned.setPinned(true);
+        Version v2 = version(hour.plusMinutes(20));
+        Version v3 = version(hour.plusMinutes(40));
+
+        // Act
+        long removed = service(true, 1000).thin(documentId, now);
+
+        // Assert
+        assertEquals(1, removed);
+        verify(versionStorageService).removeRun(List.of(v2), pinned, v3);
+    }
+
+    @Test
+    void thin_OlderThanHourlyTier_KeepsOnePerDay() {
+        // Arrange
+        LocalDateTime day = now.minusDays(40).truncatedTo(ChronoUnit.DAYS);
+        Version morning = version(day.plusHours(8));
+        Version noon = version(day.plusHours(12));
+        Version evening = version(day.plusHours(20));
+        Version nextDay = version(day.plusDays(1).plusHours(9));
+
+        // Act
+        long removed = service(true, 1000).thin(documentId, now);
+
+        // Assert
+        assertEquals(2, removed);
+        verify(versionStorageService).removeRun(List.of(morning, noon), null, evening);
+        verify(versionStorageService, never()).removeRun(any(), eq(evening), eq(nextDay));
+    }
+
+    @Test
+    void thin_YoungHistory_RemovesNothing() {
+        // Arrange
+        version(now.minusHours(3));
+        version(now.minusHours(2));
+        version(now.minusHours(1));
+
+        // Act
+        long removed = service(true, 1000).thin(documentId, now);
+
+        // Assert
+        assertEquals(0, removed);
+        verifyNoInteractions(versionStorageService);
+    }
+
+    @Test
+    void thin_BatchSizeReached_StopsAfterKeepingNextVersion() {
+        // Arrange
+        LocalDateTime hour = now.minusDays(2).truncatedTo(ChronoUnit.HOURS);
+        Version v1 = version(hour.plusMinutes(1));
+        Version v2 = version(hour.plusMinutes(2));
+        Version v3 = version(hour.plusMinutes(3));
+        version(hour.plusMinutes(4));
+        version(hour.plusMinutes(5));
+
+        // Act
+        long removed = service(true, 2).thin(documentId, now);
+
+        // Assert
+        assertEquals(2, removed);
+        verify(versionStorageService).removeRun(List.of(v1, v2), null, v3);
+        verifyNoMoreInteractions(versionStorageService);
+    }
+
+    @Test
+    void sweep_WalksAllHeadsAndPurgesUnreferencedBlobs() {
+        // Arrange
+        VersionHead head = new VersionHead();
+        head.setDocumentId(documentId);
+        when(versionHeadRepository.findDocumentIdsAfter(any(ObjectId.class), any(Pageable.class)))
+            .thenReturn(List.of(head));
+        version(LocalDateTime.now().minusMinutes(1));
+
+        // Act
+        long removed = service(true, 1000).sweep();
+
+        // Assert
+        assertEquals(0, removed);
+        verify(versionRepository).findRetentionPage(eq(documentId), eq(0L), any(Pageable.class));
+        verify(versionBlobRepository).deleteUnreferenced();
+    }
+
+    @Test
+    void sweep_Disabled_DoesNothing() {
+        // Act
+        long removed = service(false, 1000).sweep();
+
+        // Assert
+        assertEquals(0, removed);
+        verifyNoInteractions(versionHeadRepository, versionRepository, versionBlobRepository);
+    }
+
+    private VersionRetentionService service(boolean enabled, int batchSize) {
+        return new VersionRetentionService(versionRepository, versionHeadRepository, versionBlobRepository,
+            versionStorageService, enabled, Duration.ofHours(24), Duration.ofDays(30), batchSize);
+    }
+
+    private Version version(LocalDateTime timestamp) {
+        Version version = new Version(documentId, null, new ObjectId(), null);
+        version.setId(new ObjectId());
+        version.setSequence((long) history.size() + 1);
+        version.setTimestamp(timestamp);
+        history.add(version);
+        return version;
+    }
+}
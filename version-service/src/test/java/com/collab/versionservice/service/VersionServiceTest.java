@@ -1,29 +1,43 @@
 package com.collab.versionservice.service;
 
+import com.collab.common.client.UserDirectoryClient;
+import com.collab.common.client.UserSummary;
+import com.collab.common.exception.BadRequestException;
 import com.collab.common.exception.ResourceNotFoundException;
+import com.collab.versionservice.diff.Granularity;
 import com.collab.versionservice.dto.ContributionDTO;
 import com.collab.versionservice.dto.CreateVersionRequest;
+import com.collab.versionservice.dto.EditContributionsRequest;
 import com.collab.versionservice.dto.VersionDTO;
+import com.collab.versionservice.dto.VersionHistoryPage;
 import com.collab.versionservice.model.Contribution;
 import com.collab.versionservice.model.Version;
+import com.collab.versionservice.model.VersionBlob;
+import com.collab.versionservice.model.VersionHead;
 import com.collab.versionservice.repository.ContributionRepository;
+import com.collab.versionservice.repository.VersionBlobRepository;
+import com.collab.versionservice.repository.VersionHeadRepository;
 import com.collab.versionservice.repository.VersionRepository;
 import org.bson.types.ObjectId;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Pageable;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -36,7 +50,21 @@ class VersionServiceTest {
     @Mock
     private ContributionRepository contributionRepository;
 
-    @InjectMocks
+    @Mock
+    private UserDirectoryClient userDirectoryClient;
+
+    @Mock
+    private VersionHeadRepository versionHeadRepository;
+
+    @Mock
+    private VersionBlobRepository versionBlobRepository;
+
+    @Mock
+    private ContributionRecorder contributionRecorder;
+
+    @Mock
+    private BlameService blameService;
+
     private VersionService versionService;
 
     private ObjectId documentId;
@@ -46,6 +74,11 @@ class VersionServiceTest {
 
     @BeforeEach
     void setUp() {
+        VersionStorageService versionStorageService = new VersionStorageService(versionRepository, versionHeadRepository, versionBlobRepository,
+            50, 0.5, 1024, 1_000_000, 1000);
+        versionService = new VersionService(versionRepository, contributionRepository,
+            userDirectoryClient, versionStorageService, new DiffService(Granularity.WORD, 1_000_000), contributionRecorder, blameService);
+
         documentId = new ObjectId();
         userId = new ObjectId();
         versionId = new ObjectId();
@@ -60,99 +93,160 @@ class VersionServiceTest {
     }
 
     @Test
-    void createVersion_Success() {
+    void createVersions_NewDocument_StoresVersion() {
         // Arrange
-        CreateVersionRequest request = new CreateVersionRequest(
-            "New version content",
-            userId.toString(),
-            "Initial version"
-        );
-        
-        when(versionRepository.findByDocumentId(eq(documentId), any(Sort.class)))
-            .thenReturn(new ArrayList<>());
-        when(versionRepository.save(any(Version.class))).thenReturn(testVersion);
-        when(contributionRepository.findByDocumentIdAndUserId(documentId, userId))
+        Version version = versionService.newVersion(documentId.toHexString(),
+            new CreateVersionRequest("New version content", userId.toString(), "Initial version", null, null));
+        when(versionRepository.findFirstByDocumentIdOrderBySequenceDesc(documentId))
             .thenReturn(Optional.empty());
-        when(contributionRepository.save(any(Contribution.class)))
-            .thenReturn(new Contribution(documentId, userId, "testuser"));
 
         // Act
-        VersionDTO result = versionService.createVersion(documentId.toString(), request);
+        List<Version> saved = versionService.createVersions(List.of(version));
 
         // Assert
-        assertNotNull(result);
-        assertEquals("Test content", result.getContent());
-        verify(versionRepository, times(1)).save(any(Version.class));
-        verify(contributionRepository, times(1)).save(any(Contribution.class));
+        assertEquals(List.of(version), saved);
+        assertEquals("New version content", saved.get(0).getContent());
+        verify(versionRepository, times(1)).insertInOrder(List.of(version));
+        verify(contributionRecorder, times(1)).recordVersion(eq(documentId), eq(userId), anyInt(), anyInt(), any(LocalDateTime.class));
     }
 
     @Test
-    void createVersion_WithPreviousVersion_CalculatesChangeStats() {
+    void createVersions_WithPreviousVersion_CalculatesChangeStats() {
         // Arrange
-        CreateVersionRequest request = new CreateVersionRequest(
-            "Updated content with more text",
-            userId.toString(),
-            "Updated version"
-        );
-        
+        Version version = versionService.newVersion(documentId.toHexString(),
+            new CreateVersionRequest("Updated content with more text", userId.toString(), "Updated version", null, null));
         Version previousVersion = new Version(
             documentId,
             "Old content",
             userId,
             "Previous version"
         );
+        previousVersion.setId(new ObjectId());
         
-        when(versionRepository.findByDocumentId(eq(documentId), any(Sort.class)))
-            .thenReturn(Arrays.asList(previousVersion));
-        when(versionRepository.save(any(Version.class))).thenReturn(testVersion);
-        when(contributionRepository.findByDocumentIdAndUserId(documentId, userId))
+        when(versionRepository.findFirstByDocumentIdOrderBySequenceDesc(documentId))
+            .thenReturn(Optional.of(previousVersion));
+        when(versionRepository.findFirstByDocumentIdOrderByTimestampDesc(documentId))
+            .thenReturn(Optional.of(previousVersion));
+
+        // Act
+        List<Version> saved = versionService.createVersions(List.of(version));
+
+        // Assert
+        assertEquals(1, saved.size());
+        Version.ChangeStats stats = saved.get(0).getChangeStats();
+        assertEquals(22, stats.getCharsAdded());   // "Updated" + " with more text"
+        assertEquals(3, stats.getCharsDeleted());  // "Old"
+        assertEquals(25, stats.getTotalChanges());
+        assertTrue(saved.get(0).isPinned());
+    }
+
+    @Test
+    void createVersions_ExplicitlyUnpinned_NotPinned() {
+        // Arrange
+        Version version = versionService.newVersion(documentId.toHexString(),
+            new CreateVersionRequest("Content", userId.toString(), "Auto-saved", false, null));
+        when(versionRepository.findFirstByDocumentIdOrderBySequenceDesc(documentId))
             .thenReturn(Optional.empty());
-        when(contributionRepository.save(any(Contribution.class)))
-            .thenReturn(new Contribution(documentId, userId, "testuser"));
 
         // Act
-        VersionDTO result = versionService.createVersion(documentId.toString(), request);
+        List<Version> saved = versionService.createVersions(List.of(version));
 
         // Assert
-        assertNotNull(result);
-        verify(versionRepository, times(1)).save(any(Version.class));
+        assertFalse(saved.get(0).isPinned());
+    }
+
+    @Test
+    void createVersions_UnchangedContent_StoresNothing() {
+        // Arrange
+        Version version = versionService.newVersion(documentId.toHexString(),
+            new CreateVersionRequest("Same content", userId.toString(), "No-op save", null, null));
+        Version previousVersion = new Version(documentId, "Same content", userId, "Previous version");
+        previousVersion.setId(new ObjectId());
+
+        when(versionRepository.findFirstByDocumentIdOrderBySequenceDesc(documentId))
+            .thenReturn(Optional.of(previousVersion));
+        when(versionRepository.findFirstByDocumentIdOrderByTimestampDesc(documentId))
+            .thenReturn(Optional.of(previousVersion));
+
+        // Act
+        List<Version> saved = versionService.createVersions(List.of(version));
+
+        // Assert
+        assertTrue(saved.isEmpty());
+        verify(versionRepository, never()).insertInOrder(anyList());
+        verifyNoInteractions(contributionRecorder, versionBlobRepository);
     }
 
     @Test
     void getVersionHistory_Success() {
         // Arrange
-        Version version1 = new Version(documentId, "Content 1", userId, "Version 1");
+        Version version1 = new Version(documentId, null, userId, "Version 1");
         version1.setId(new ObjectId());
         
-        Version version2 = new Version(documentId, "Content 2", userId, "Version 2");
+        Version version2 = new Version(documentId, null, userId, "Version 2");
         version2.setId(new ObjectId());
         
         List<Version> versions = Arrays.asList(version1, version2);
         
-        when(versionRepository.findByDocumentId(eq(documentId), any(Sort.class)))
+        when(versionRepository.findHistoryPage(eq(documentId), any(Pageable.class)))
             .thenReturn(versions);
 
         // Act
-        List<VersionDTO> result = versionService.getVersionHistory(documentId.toString());
+        VersionHistoryPage result = versionService.getVersionHistory(documentId.toString(), null, 20);
 
         // Assert
         assertNotNull(result);
-        assertEquals(2, result.size());
-        verify(versionRepository, times(1)).findByDocumentId(eq(documentId), any(Sort.class));
+        assertEquals(2, result.getItems().size());
+        assertNull(result.getNextCursor());
+        verify(versionRepository, times(1)).findHistoryPage(eq(documentId), any(Pageable.class));
+        verify(versionRepository, never()).findById(any());
+    }
+
+    @Test
+    void getVersionHistory_MorePages_ReturnsCursorForNextPage() {
+        // Arrange
+        List<Version> versions = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Version version = new Version(documentId, null, userId, "Version " + i);
+            version.setId(new ObjectId());
+            versions.add(version);
+        }
+        ArgumentCaptor<Pageable> page = ArgumentCaptor.forClass(Pageable.class);
+        when(versionRepository.findHistoryPage(eq(documentId), page.capture())).thenReturn(versions);
+        when(versionRepository.findHistoryPageAfter(eq(documentId), any(), any(), any(Pageable.class)))
+            .thenReturn(List.of());
+
+        // Act
+        VersionHistoryPage first = versionService.getVersionHistory(documentId.toString(), null, 2);
+        versionService.getVersionHistory(documentId.toString(), first.getNextCursor(), 2);
+
+        // Assert
+        assertEquals(3, page.getValue().getPageSize());
+        assertEquals(2, first.getItems().size());
+        Version last = versions.get(1);
+        verify(versionRepository).findHistoryPageAfter(eq(documentId), eq(last.getTimestamp()), eq(last.getId()),
+            any(Pageable.class));
+    }
+
+    @Test
+    void getVersionHistory_InvalidCursor_ThrowsBadRequest() {
+        // Act & Assert
+        assertThrows(BadRequestException.class,
+            () -> versionService.getVersionHistory(documentId.toString(), "not-a-cursor", 20));
     }
 
     @Test
     void getVersionHistory_EmptyList() {
         // Arrange
-        when(versionRepository.findByDocumentId(eq(documentId), any(Sort.class)))
+        when(versionRepository.findHistoryPage(eq(documentId), any(Pageable.class)))
             .thenReturn(new ArrayList<>());
 
         // Act
-        List<VersionDTO> result = versionService.getVersionHistory(documentId.toString());
+        VersionHistoryPage result = versionService.getVersionHistory(documentId.toString(), null, 20);
 
         // Assert
         assertNotNull(result);
-        assertTrue(result.isEmpty());
+        assertTrue(result.getItems().isEmpty());
     }
 
     @Test
@@ -179,6 +273,33 @@ class VersionServiceTest {
             () -> versionService.getVersion(versionId.toString()));
     }
 
+    @Test
+    void getVersionAt_ReturnsVersionCurrentAtInstant() {
+        // Arrange
+        LocalDateTime at = LocalDateTime.of(2024, 5, 1, 12, 0);
+        when(versionRepository.findFirstByDocumentIdAndTimestampLessThanEqualOrderByTimestampDescIdDesc(documentId, at))
+            .thenReturn(Optional.of(testVersion));
+
+        // Act
+        VersionDTO result = versionService.getVersionAt(documentId.toString(), at);
+
+        // Assert
+        assertEquals(versionId.toString(), result.getId());
+        assertEquals("Test content", result.getContent());
+    }
+
+    @Test
+    void getVersionAt_BeforeFirstVersion_ThrowsException() {
+        // Arrange
+        LocalDateTime at = LocalDateTime.of(2000, 1, 1, 0, 0);
+        when(versionRepository.findFirstByDocumentIdAndTimestampLessThanEqualOrderByTimestampDescIdDesc(documentId, at))
+            .thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class,
+            () -> versionService.getVersionAt(documentId.toString(), at));
+    }
+
     @Test
     void revertToVersion_Success() {
         // Arrange
@@ -199,23 +320,22 @@ class VersionServiceTest {
         newVersion.setId(new ObjectId());
         
         when(versionRepository.findById(oldVersion.getId())).thenReturn(Optional.of(oldVersion));
-        when(versionRepository.save(any(Version.class))).thenReturn(newVersion);
-        when(contributionRepository.findByDocumentIdAndUserId(documentId, userId))
+        when(versionRepository.findFirstByDocumentIdOrderBySequenceDesc(documentId))
             .thenReturn(Optional.empty());
-        when(contributionRepository.save(any(Contribution.class)))
-            .thenReturn(new Contribution(documentId, userId, "testuser"));
+        when(versionRepository.save(any(Version.class))).thenReturn(newVersion);
 
         // Act
         VersionDTO result = versionService.revertToVersion(
             documentId.toString(), 
             oldVersion.getId().toString(), 
-            userId.toString()
+            userId.toString(),
+            null
         );
 
         // Assert
         assertNotNull(result);
         verify(versionRepository, times(1)).save(any(Version.class));
-        verify(contributionRepository, times(1)).save(any(Contribution.class));
+        verify(contributionRecorder, times(1)).recordVersion(eq(documentId), eq(userId), anyInt(), anyInt(), any(LocalDateTime.class));
     }
 
     @Test
@@ -229,10 +349,84 @@ class VersionServiceTest {
             () -> versionService.revertToVersion(
                 documentId.toString(), 
                 nonExistentVersionId.toString(), 
-                userId.toString()
+                userId.toString(),
+                null
             ));
     }
 
+    @Test
+    void revertToVersion_KeyframeVersion_ReferencesItsBlob() {
+        // Arrange
+        String content = "Old content to revert to";
+        String hash = ContentHash.of(content);
+        Version oldVersion = new Version(documentId, null, userId, "Old version");
+        oldVersion.setId(new ObjectId());
+        oldVersion.setSequence(1L);
+        oldVersion.setKeyframeSequence(1L);
+        oldVersion.setStorage(Version.STORAGE_FULL);
+        oldVersion.setBlobId(hash);
+        VersionHead head = new VersionHead(documentId, new ObjectId(), 4, 1, ContentHash.of("Newer content"), 13,
+            LocalDateTime.now());
+
+        when(versionRepository.findById(oldVersion.getId())).thenReturn(Optional.of(oldVersion));
+        when(versionBlobRepository.findContentByHash(hash)).thenReturn(Optional.of(VersionBlob.of(hash, content, 1024)));
+        when(versionHeadRepository.findById(documentId)).thenReturn(Optional.of(head));
+        when(versionRepository.findById(head.getVersionId()))
+            .thenReturn(Optional.of(new Version(documentId, "Newer content", userId, null)));
+        when(versionBlobRepository.reference(hash)).thenReturn(true);
+        when(versionRepository.save(any(Version.class))).thenAnswer(invocation -> {
+            Version version = invocation.getArgument(0);
+            version.setId(new ObjectId());
+            return version;
+        });
+
+        // Act
+        VersionDTO result = versionService.revertToVersion(
+            documentId.toString(), oldVersion.getId().toString(), userId.toString(), null);
+
+        // Assert
+        assertEquals(content, result.getContent());
+        assertEquals(oldVersion.getId().toString(), result.getRevertedFrom());
+        ArgumentCaptor<Version> saved = ArgumentCaptor.forClass(Version.class);
+        verify(versionRepository).save(saved.capture());
+        assertEquals(Version.STORAGE_FULL, saved.getValue().getStorage());
+        assertEquals(hash, saved.getValue().getBlobId());
+        assertEquals(5L, saved.getValue().getSequence());
+        verify(versionBlobRepository, never()).acquire(any());
+    }
+
+    @Test
+    void revertToVersion_VersionOfOtherDocument_ThrowsException() {
+        // Arrange
+        Version foreign = new Version(new ObjectId(), "Other document", userId, null);
+        foreign.setId(new ObjectId());
+        when(versionRepository.findById(foreign.getId())).thenReturn(Optional.of(foreign));
+
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class,
+            () -> versionService.revertToVersion(documentId.toString(), foreign.getId().toString(), userId.toString(),
+                null));
+        verify(versionRepository, never()).save(any());
+    }
+
+    @Test
+    void revertToVersion_RepeatedKey_ReturnsRecordedVersion() {
+        // Arrange
+        Version recorded = new Version(documentId, "Old content to revert to", userId, "Reverted");
+        recorded.setId(new ObjectId());
+        recorded.setRevertKey("revert-1");
+        when(versionRepository.findByDocumentIdAndRevertKey(documentId, "revert-1")).thenReturn(Optional.of(recorded));
+
+        // Act
+        VersionDTO result = versionService.revertToVersion(
+            documentId.toString(), new ObjectId().toString(), userId.toString(), "revert-1");
+
+        // Assert
+        assertEquals(recorded.getId().toString(), result.getId());
+        verify(versionRepository, never()).save(any());
+        verifyNoInteractions(contributionRecorder);
+    }
+
     @Test
     void getContributions_Success() {
         // Arrange
@@ -243,6 +437,8 @@ class VersionServiceTest {
         
         when(contributionRepository.findByDocumentId(documentId))
             .thenReturn(contributions);
+        when(userDirectoryClient.findByIds(anyCollection()))
+            .thenReturn(Map.of(userId.toHexString(), new UserSummary(userId.toHexString(), "renamed", "user1@example.com")));
 
         // Act
         List<ContributionDTO> result = versionService.getContributions(documentId.toString());
@@ -250,7 +446,10 @@ class VersionServiceTest {
         // Assert
         assertNotNull(result);
         assertEquals(2, result.size());
+        assertEquals("renamed", result.get(0).getUsername());
+        assertEquals("user2", result.get(1).getUsername());
         verify(contributionRepository, times(1)).findByDocumentId(documentId);
+        verify(userDirectoryClient, times(1)).findByIds(anyCollection());
     }
 
     @Test
@@ -268,52 +467,76 @@ class VersionServiceTest {
     }
 
     @Test
-    void updateContributions_NewContributor() {
+    void createVersions_RecordsContribution() {
         // Arrange
-        CreateVersionRequest request = new CreateVersionRequest(
-            "Content",
-            userId.toString(),
-            "Description"
-        );
-        
-        when(versionRepository.findByDocumentId(eq(documentId), any(Sort.class)))
-            .thenReturn(new ArrayList<>());
-        when(versionRepository.save(any(Version.class))).thenReturn(testVersion);
-        when(contributionRepository.findByDocumentIdAndUserId(documentId, userId))
+        Version version = versionService.newVersion(documentId.toHexString(),
+            new CreateVersionRequest("Content", userId.toString(), "Description", null, null));
+        when(versionRepository.findFirstByDocumentIdOrderBySequenceDesc(documentId))
             .thenReturn(Optional.empty());
-        when(contributionRepository.save(any(Contribution.class)))
-            .thenReturn(new Contribution(documentId, userId, "testuser"));
 
         // Act
-        versionService.createVersion(documentId.toString(), request);
+        versionService.createVersions(List.of(version));
 
         // Assert
-        verify(contributionRepository, times(1)).save(any(Contribution.class));
+        verify(contributionRecorder, times(1)).recordVersion(eq(documentId), eq(userId), anyInt(), anyInt(), any(LocalDateTime.class));
+        verifyNoInteractions(contributionRepository);
     }
 
     @Test
-    void updateContributions_ExistingContributor() {
+    void createVersions_Coalesced_RecordsNoContribution() {
         // Arrange
-        CreateVersionRequest request = new CreateVersionRequest(
-            "Content",
-            userId.toString(),
-            "Description"
-        );
-        
-        Contribution existingContribution = new Contribution(documentId, userId, "testuser");
-        
-        when(versionRepository.findByDocumentId(eq(documentId), any(Sort.class)))
-            .thenReturn(new ArrayList<>());
-        when(versionRepository.save(any(Version.class))).thenReturn(testVersion);
-        when(contributionRepository.findByDocumentIdAndUserId(documentId, userId))
-            .thenReturn(Optional.of(existingContribution));
-        when(contributionRepository.save(any(Contribution.class)))
-            .thenReturn(existingContribution);
+        Version version = versionService.newVersion(documentId.toHexString(),
+            new CreateVersionRequest("Content", userId.toString(), "Auto-saved", false, true));
+        when(versionRepository.findFirstByDocumentIdOrderBySequenceDesc(documentId))
+            .thenReturn(Optional.empty());
+
+        // Act
+        List<Version> saved = versionService.createVersions(List.of(version));
+
+        // Assert
+        assertTrue(saved.get(0).isCoalesced());
+        verify(blameService).record(eq(version), isNull(), isNull());
+        verifyNoInteractions(contributionRecorder);
+    }
+
+    @Test
+    void createVersions_SameDocument_DiffsAgainstPreviousInBatchAndSkipsUnchanged() {
+        // Arrange
+        when(versionRepository.findFirstByDocumentIdOrderBySequenceDesc(documentId))
+            .thenReturn(Optional.empty());
+        Version first = versionService.newVersion(documentId.toHexString(),
+            new CreateVersionRequest("one two", userId.toHexString(), null, false, null));
+        Version second = versionService.newVersion(documentId.toHexString(),
+            new CreateVersionRequest("one two three", userId.toHexString(), null, false, null));
+        Version repeated = versionService.newVersion(documentId.toHexString(),
+            new CreateVersionRequest("one two three", userId.toHexString(), null, false, null));
+
+        // Act
+        List<Version> saved = versionService.createVersions(List.of(first, second, repeated));
+
+        // Assert
+        assertEquals(List.of(first, second), saved);
+        verify(versionRepository).insertInOrder(List.of(first, second));
+        assertEquals(6, second.getChangeStats().getCharsAdded());   // " three"
+        assertEquals(0, second.getChangeStats().getCharsDeleted());
+        verify(blameService).record(eq(first), isNull(), isNull());
+        verify(blameService).record(eq(second), argThat(head -> head.getSequence() == 1), any());
+        verify(contributionRecorder, times(2)).recordVersion(eq(documentId), eq(userId), anyInt(), anyInt(), any(LocalDateTime.class));
+    }
+
+    @Test
+    void recordEdits_CountsEachEntry() {
+        // Arrange
+        ObjectId otherUser = new ObjectId();
+        EditContributionsRequest request = new EditContributionsRequest(List.of(
+            new EditContributionsRequest.EditCount(documentId.toHexString(), userId.toHexString(), 12, 40, 3),
+            new EditContributionsRequest.EditCount(documentId.toHexString(), otherUser.toHexString(), 1, 0, 9)));
 
         // Act
-        versionService.createVersion(documentId.toString(), request);
+        versionService.recordEdits(request);
 
         // Assert
-        verify(contributionRepository, times(1)).save(eq(existingContribution));
+        verify(contributionRecorder).recordEdits(eq(documentId), eq(userId), eq(12), eq(40), eq(3), any(LocalDateTime.class));
+        verify(contributionRecorder).recordEdits(eq(documentId), eq(otherUser), eq(1), eq(0), eq(9), any(LocalDateTime.class));
     }
 }
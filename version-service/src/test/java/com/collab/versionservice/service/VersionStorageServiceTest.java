@@ -0,0 +1,470 @@
+package com.collab.versionservice.service;
+
+import com.collab.common.util.ContentCodec;
+import com.collab.versionservice.model.Version;
+import com.collab.versionservice.model.VersionBlob;
+import com.collab.versionservice.model.VersionHead;
+import com.collab.versionservice.repository.VersionBlobRepository;
+import com.collab.versionservice.repository.VersionHeadRepository;
+import com.collab.versionservice.repository.VersionRepository;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import org.bson.BsonDocument;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.BulkOperationException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class VersionStorageServiceTest {
+
+    private static final String BASE = "The quick brown fox jumps over the lazy dog. ".repeat(10);
+
+    @Mock
+    private VersionRepository versionRepository;
+
+    @Mock
+    private VersionHeadRepository versionHeadRepository;
+
+    @Mock
+    private VersionBlobRepository versionBlobRepository;
+
+    private final Map<String, VersionBlob> blobs = new HashMap<>();
+
+    private VersionStorageService versionStorageService;
+
+    private ObjectId documentId;
+    private ObjectId userId;
+
+    @BeforeEach
+    void setUp() {
+        versionStorageService = newService();
+        documentId = new ObjectId();
+        userId = new ObjectId();
+        lenient().when(versionRepository.save(any(Version.class))).thenAnswer(invocation -> {
+            Version version = invocation.getArgument(0);
+            if (version.getId() == null) {
+                version.setId(new ObjectId());
+            }
+            return version;
+        });
+        lenient().when(versionBlobRepository.acquire(any(VersionBlob.class))).thenAnswer(invocation -> {
+            VersionBlob blob = invocation.getArgument(0);
+            return blobs.putIfAbsent(blob.getHash(), blob) == null;
+        });
+        lenient().when(versionBlobRepository.findContentByHash(anyString()))
+            .thenAnswer(invocation -> Optional.ofNullable(blobs.get(invocation.<String>getArgument(0))));
+    }
+
+    @Test
+    void append_FirstVersion_IsKeyframe() {
+        // Act
+        Version saved = append(BASE);
+
+        // Assert
+        assertEquals(1L, saved.getSequence());
+        assertEquals(Version.STORAGE_FULL, saved.getStorage());
+        assertEquals(1L, saved.getKeyframeSequence());
+        assertEquals(BASE, saved.getContent());
+    }
+
+    @Test
+    void append_SmallEdit_StoresDeltaOnly() {
+        // Arrange
+        append(BASE);
+        String edited = BASE.replaceFirst("lazy", "sleepy");
+
+        // Act
+        Version saved = append(edited);
+
+        // Assert
+        assertEquals(2L, saved.getSequence());
+        assertEquals(Version.STORAGE_DELTA, saved.getStorage());
+        assertEquals(1L, saved.getKeyframeSequence());
+        assertNotNull(saved.getDelta());
+        assertEquals(edited, saved.getContent());
+    }
+
+    @Test
+    void append_KeyframeIntervalReached_StoresFullContent() {
+        // Arrange
+        append(BASE);
+        append(BASE + "a");
+        append(BASE + "ab");
+
+        // Act
+        Version saved = append(BASE + "abc");
+
+        // Assert
+        assertEquals(4L, saved.getSequence());
+        assertEquals(Version.STORAGE_FULL, saved.getStorage());
+        assertEquals(4L, saved.getKeyframeSequence());
+    }
+
+    @Test
+    void append_Rewrite_StoresFullContent() {
+        // Arrange
+        append(BASE);
+
+        // Act
+        Version saved = append("Completely different text");
+
+        // Assert
+        assertEquals(Version.STORAGE_FULL, saved.getStorage());
+    }
+
+    @Test
+    void append_SequenceConflict_RebasesOnNewHead() {
+        // Arrange
+        append(BASE);
+        VersionHead staleHead = versionStorageService.head(documentId).orElseThrow();
+        Version concurrent = append(BASE + " concurrent");
+        reset(versionRepository);
+        when(versionRepository.save(any(Version.class)))
+            .thenThrow(new DuplicateKeyException("sequence taken"))
+            .thenAnswer(invocation -> invocation.getArgument(0));
+        when(versionRepository.findFirstByDocumentIdOrderBySequenceDesc(documentId))
+            .thenReturn(Optional.of(concurrent));
+
+        // Act
+        Version saved = versionStorageService.append(version(BASE + " mine"), staleHead);
+
+        // Assert
+        assertEquals(3L, saved.getSequence());
+        assertEquals(BASE + " mine", saved.getContent());
+    }
+
+    @Test
+    void head_AfterAppend_ServedFromCacheWithoutQueries() {
+        // Arrange
+        Version saved = append(BASE);
+        clearInvocations(versionRepository);
+        clearInvocations(versionHeadRepository);
+
+        // Act
+        VersionHead head = versionStorageService.head(documentId).orElseThrow();
+
+        // Assert
+        assertEquals(saved.getId(), head.getVersionId());
+        assertEquals(1L, head.getSequence());
+        assertEquals(BASE.length(), head.getContentLength());
+        verifyNoInteractions(versionRepository, versionHeadRepository);
+    }
+
+    @Test
+    void append_AdvancesStoredHead() {
+        // Act
+        Version saved = append(BASE);
+
+        // Assert
+        verify(versionHeadRepository).advance(argThat(head ->
+            head.getVersionId().equals(saved.getId()) && head.getSequence() == 1L));
+    }
+
+    @Test
+    void head_MissingHeadRecord_RebuiltFromNewestVersion() {
+        // Arrange
+        Version newest = new Version(documentId, BASE, userId, null);
+        newest.setId(new ObjectId());
+        newest.setSequence(7L);
+        newest.setKeyframeSequence(7L);
+        newest.setStorage(Version.STORAGE_FULL);
+        when(versionRepository.findFirstByDocumentIdOrderBySequenceDesc(documentId)).thenReturn(Optional.of(newest));
+
+        // Act
+        VersionHead head = versionStorageService.head(documentId).orElseThrow();
+
+        // Assert
+        assertEquals(7L, head.getSequence());
+        verify(versionHeadRepository).advance(head);
+    }
+
+    @Test
+    void append_SameContentAsHead_EmptyDeltaWithoutDiffing() {
+        // Arrange
+        append(BASE);
+
+        // Act
+        Version saved = append(BASE);
+
+        // Assert
+        assertEquals(Version.STORAGE_DELTA, saved.getStorage());
+        assertTrue(saved.getDelta().isEmpty());
+    }
+
+    @Test
+    void materialize_Delta_ReplaysChainFromKeyframe() {
+        // Arrange
+        List<Version> chain = new ArrayList<>();
+        Version head = null;
+        for (String content : List.of(BASE, BASE + "1", BASE + "12")) {
+            head = append(content);
+            chain.add(copyAsStored(head));
+        }
+        when(versionRepository.findChain(eq(documentId), eq(1L), anyLong())).thenReturn(chain);
+        Version stored = copyAsStored(head);
+        VersionStorageService coldCache = newService();
+
+        // Act
+        String content = coldCache.materialize(stored);
+
+        // Assert
+        assertEquals(BASE + "12", content);
+        verify(versionRepository, times(1)).findChain(documentId, 1L, 3L);
+    }
+
+    @Test
+    void materialize_PredecessorCached_ReplaysFromCachedState() {
+        // Arrange
+        Version first = copyAsStored(append(BASE));
+        Version second = copyAsStored(append(BASE + "1"));
+        Version third = copyAsStored(append(BASE + "12"));
+        VersionStorageService coldCache = newService();
+        when(versionRepository.findChain(documentId, 1L, 2L)).thenReturn(List.of(first, second));
+        coldCache.materialize(copyAsStored(second));
+        // Without the cached second version this chain would be broken
+        when(versionRepository.findChain(documentId, 1L, 3L)).thenReturn(List.of(second, third));
+
+        // Act
+        String content = coldCache.materialize(copyAsStored(third));
+
+        // Assert
+        assertEquals(BASE + "12", content);
+    }
+
+    @Test
+    void append_Keyframe_StoresContentInBlob() {
+        // Act
+        Version saved = append(BASE);
+
+        // Assert
+        assertEquals(ContentHash.of(BASE), saved.getBlobId());
+        VersionBlob blob = blobs.get(ContentHash.of(BASE));
+        assertEquals(ContentCodec.DEFLATE, blob.getCodec());
+        assertNull(blob.getContent());
+        assertTrue(blob.getData().length < BASE.length());
+        assertEquals(BASE, newService().materialize(copyAsStored(saved)));
+    }
+
+    @Test
+    void append_RepeatedKeyframeContent_SharesBlob() {
+        // Arrange
+        Version first = append(BASE);
+        append("Completely different text");
+
+        // Act
+        Version again = append(BASE);
+
+        // Assert
+        assertEquals(Version.STORAGE_FULL, again.getStorage());
+        assertEquals(first.getBlobId(), again.getBlobId());
+        assertEquals(2, blobs.size());
+        verify(versionBlobRepository, times(2)).acquire(argThat(blob -> blob.getHash().equals(ContentHash.of(BASE))));
+    }
+
+    @Test
+    void append_ShortKeyframe_StoredUncompressed() {
+        // Act
+        Version saved = append("short");
+
+        // Assert
+        VersionBlob blob = blobs.get(saved.getBlobId());
+        assertNull(blob.getCodec());
+        assertEquals("short", blob.getContent());
+        assertEquals("short", newService().materialize(copyAsStored(saved)));
+    }
+
+    @Test
+    void append_SaveFails_ReleasesBlobReference() {
+        // Arrange
+        when(versionRepository.save(any(Version.class))).thenThrow(new DataAccessResourceFailureException("down"));
+
+        // Act & Assert
+        assertThrows(DataAccessResourceFailureException.class, () -> append(BASE));
+        verify(versionBlobRepository).release(ContentHash.of(BASE));
+        verify(versionHeadRepository, never()).advance(any());
+    }
+
+    @Test
+    void materializeAll_RollsForwardWithoutQueries() {
+        // Arrange
+        List<Version> history = new ArrayList<>();
+        for (String content : List.of(BASE, BASE + "1", BASE + "12")) {
+            history.add(0, copyAsStored(append(content)));
+        }
+
+        // Act
+        versionStorageService.materializeAll(history);
+
+        // Assert
+        assertEquals(BASE + "12", history.get(0).getContent());
+        assertEquals(BASE + "1", history.get(1).getContent());
+        verify(versionRepository, never()).findChain(any(), anyLong(), anyLong());
+    }
+
+    @Test
+    void removeRun_MiddleOfChain_RebasesNextVersionOntoPrevious() {
+        // Arrange
+        Version first = copyAsStored(append(BASE));
+        Version second = copyAsStored(append(BASE + "1"));
+        Version third = copyAsStored(append(BASE + "12"));
+        List<Version> stored = new ArrayList<>(List.of(first, third));
+        stubStored(first, second, third);
+        when(versionRepository.findChain(eq(documentId), anyLong(), anyLong())).thenAnswer(invocation ->
+            stored.stream().filter(v -> v.getSequence() <= invocation.<Long>getArgument(2)).toList());
+
+        // Act
+        versionStorageService.removeRun(List.of(second), first, third);
+
+        // Assert
+        assertEquals(1L, third.getBaseSequence());
+        assertEquals(Version.STORAGE_DELTA, third.getStorage());
+        verify(versionRepository).deleteAllById(List.of(second.getId()));
+        verify(versionRepository, never()).reassignKeyframe(any(), anyLong(), anyLong());
+        assertEquals(BASE + "12", newService().materialize(copyAsStored(third)));
+    }
+
+    @Test
+    void removeRun_RunContainsKeyframe_PromotesNextVersion() {
+        // Arrange
+        Version first = copyAsStored(append(BASE));
+        Version second = copyAsStored(append(BASE + "1"));
+        Version third = copyAsStored(append(BASE + "12"));
+        stubStored(first, second, third);
+
+        // Act
+        versionStorageService.removeRun(List.of(first, second), null, third);
+
+        // Assert
+        assertEquals(Version.STORAGE_FULL, third.getStorage());
+        assertEquals(3L, third.getKeyframeSequence());
+        assertEquals(ContentHash.of(BASE + "12"), third.getBlobId());
+        assertNull(third.getDelta());
+        verify(versionRepository).reassignKeyframe(documentId, 1L, 3L);
+        verify(versionRepository).deleteAllById(List.of(first.getId(), second.getId()));
+        verify(versionBlobRepository).release(ContentHash.of(BASE));
+        assertEquals(BASE + "12", newService().materialize(copyAsStored(third)));
+    }
+
+    @Test
+    void removeRun_NextIsKeyframe_OnlyDeletes() {
+        // Arrange
+        Version first = copyAsStored(append(BASE));
+        Version second = copyAsStored(append("Completely different text"));
+
+        // Act
+        versionStorageService.removeRun(List.of(first), null, second);
+
+        // Assert
+        verify(versionRepository, never()).findById(any());
+        verify(versionRepository).deleteAllById(List.of(first.getId()));
+        verify(versionBlobRepository).release(ContentHash.of(BASE));
+    }
+
+    @Test
+    void appendAll_SameDocument_ChainsDeltasInOneInsertAndMovesHeadOnce() {
+        // Arrange
+        String first = BASE.replaceFirst("lazy", "sleepy");
+        String second = first.replaceFirst("quick", "slow");
+        List<Version> batch = List.of(identified(BASE), identified(first), identified(second));
+        Map<ObjectId, VersionHead> heads = new HashMap<>();
+        heads.put(documentId, null);
+
+        // Act
+        List<Version> saved = versionStorageService.appendAll(batch, heads);
+
+        // Assert
+        assertEquals(batch, saved);
+        assertEquals(List.of(1L, 2L, 3L), saved.stream().map(Version::getSequence).toList());
+        assertEquals(Version.STORAGE_DELTA, saved.get(2).getStorage());
+        assertEquals(second, saved.get(2).getContent());
+        verify(versionRepository).insertInOrder(batch);
+        verify(versionRepository, never()).save(any(Version.class));
+        verify(versionHeadRepository).advance(argThat(head -> head.getSequence() == 3));
+        assertEquals(3L, versionStorageService.head(documentId).orElseThrow().getSequence());
+    }
+
+    @Test
+    void appendAll_BulkInsertStops_StoresRemainingVersionsOneByOne() {
+        // Arrange
+        Version head = append(BASE);
+        stubStored(copyAsStored(head));
+        Version inserted = identified(BASE + "one");
+        Version conflicted = identified(BASE + "one two");
+        ObjectId conflictedId = conflicted.getId();
+        doThrow(new BulkOperationException("conflict", new MongoBulkWriteException(
+            BulkWriteResult.unacknowledged(),
+            List.of(new BulkWriteError(11000, "duplicate sequence", new BsonDocument(), 1)),
+            null, new ServerAddress(), Set.of())))
+            .when(versionRepository).insertInOrder(anyList());
+
+        // Act
+        List<Version> saved = versionStorageService.appendAll(List.of(inserted, conflicted),
+            Map.of(documentId, versionStorageService.head(documentId).orElseThrow()));
+
+        // Assert
+        assertEquals(List.of(inserted, conflicted), saved);
+        assertEquals(conflictedId, saved.get(1).getId());
+        assertEquals(3L, saved.get(1).getSequence());
+        verify(versionRepository).save(conflicted);
+    }
+
+    private void stubStored(Version... versions) {
+        for (Version version : versions) {
+            lenient().when(versionRepository.findById(version.getId())).thenReturn(Optional.of(version));
+        }
+    }
+
+    private VersionStorageService newService() {
+        return new VersionStorageService(versionRepository, versionHeadRepository, versionBlobRepository, 3, 0.5, 64, 1_000_000, 1000);
+    }
+
+    private Version append(String content) {
+        return versionStorageService.append(version(content), versionStorageService.head(documentId).orElse(null));
+    }
+
+    private Version identified(String content) {
+        Version version = version(content);
+        version.setId(new ObjectId());
+        return version;
+    }
+
+    private Version version(String content) {
+        return new Version(documentId, content, userId, null);
+    }
+
+    private Version copyAsStored(Version version) {
+        Version copy = new Version(documentId, null, userId, null);
+        copy.setId(version.getId());
+        copy.setBlobId(version.getBlobId());
+        copy.setSequence(version.getSequence());
+        copy.setStorage(version.getStorage());
+        copy.setKeyframeSequence(version.getKeyframeSequence());
+        copy.setDelta(version.getDelta());
+        copy.setBaseSequence(version.getBaseSequence());
+        return copy;
+    }
+}
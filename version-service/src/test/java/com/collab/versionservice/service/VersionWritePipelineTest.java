@@ -0,0 +1,365 @@
+package com.collab.versionservice.service;
+
+import com.collab.common.client.UserDirectoryClient;
+import com.collab.common.exception.ResourceNotFoundException;
+import com.collab.versionservice.dto.CreateVersionRequest;
+import com.collab.versionservice.dto.VersionDTO;
+import com.collab.versionservice.dto.VersionSummaryDTO;
+import com.collab.versionservice.exception.VersionQueueFullException;
+import com.collab.versionservice.exception.VersionsNotStoredException;
+import com.collab.versionservice.model.FailedVersion;
+import com.collab.versionservice.model.Version;
+import com.collab.versionservice.model.VersionBlob;
+import com.collab.versionservice.repository.ContributionRepository;
+import com.collab.versionservice.repository.FailedVersionRepository;
+import com.collab.versionservice.repository.VersionBlobRepository;
+import com.collab.versionservice.repository.VersionHeadRepository;
+import com.collab.versionservice.repository.VersionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class VersionWritePipelineTest {
+
+    @Mock
+    private VersionService versionService;
+
+    @Mock
+    private FailedVersionRepository failedVersionRepository;
+
+    private VersionWritePipeline pipeline;
+
+    private ObjectId documentId;
+
+    @BeforeEach
+    void setUp() {
+        documentId = new ObjectId();
+        lenient().when(versionService.newVersion(anyString(), any(CreateVersionRequest.class))).thenAnswer(invocation -> {
+            CreateVersionRequest request = invocation.getArgument(1);
+            Version version = new Version(new ObjectId(invocation.<String>getArgument(0)), request.getContent(),
+                new ObjectId(request.getUserId()), request.getDescription());
+            version.setId(new ObjectId());
+            return version;
+        });
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (pipeline != null) {
+            pipeline.shutdown();
+        }
+    }
+
+    @Test
+    void submit_ReturnsIdAndStoresVersionInBackground() {
+        // Arrange
+        pipeline = pipeline(100);
+        when(versionService.createVersions(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        VersionSummaryDTO accepted = pipeline.submit(documentId.toHexString(), request("content"));
+
+        // Assert
+        assertNotNull(accepted.getId());
+        verify(versionService, timeout(1000)).createVersions(argThat(batch ->
+            batch.size() == 1 && batch.get(0).getId().toHexString().equals(accepted.getId())));
+    }
+
+    @Test
+    void submit_WorkerBusy_QueuedVersionsStoredAsOneBatchInOrder() throws InterruptedException {
+        // Arrange
+        pipeline = pipeline(100);
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(versionService.createVersions(anyList())).thenAnswer(invocation -> {
+            entered.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return invocation.getArgument(0);
+        });
+        pipeline.submit(documentId.toHexString(), request("first"));
+        assertTrue(entered.await(1, TimeUnit.SECONDS));
+
+        // Act
+        pipeline.submit(documentId.toHexString(), request("second"));
+        pipeline.submit(documentId.toHexString(), request("third"));
+        release.countDown();
+
+        // Assert
+        verify(versionService, timeout(1000)).createVersions(argThat(batch -> batch.size() == 2
+            && batch.get(0).getContent().equals("second") && batch.get(1).getContent().equals("third")));
+    }
+
+    @Test
+    void submit_QueueFull_RejectsWithoutBlocking() throws InterruptedException {
+        // Arrange
+        pipeline = pipeline(1);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        pipeline.bindTo(registry);
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(versionService.createVersions(anyList())).thenAnswer(invocation -> {
+            entered.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return invocation.getArgument(0);
+        });
+        pipeline.submit(documentId.toHexString(), request("in flight"));
+        assertTrue(entered.await(1, TimeUnit.SECONDS));
+        pipeline.submit(documentId.toHexString(), request("queued"));
+
+        // Act & Assert
+        assertThrows(VersionQueueFullException.class,
+            () -> pipeline.submit(documentId.toHexString(), request("rejected")));
+        assertEquals(1.0, registry.get("version.pipeline.versions").tag("outcome", "rejected").functionCounter().count());
+        assertEquals(1.0, registry.get("version.pipeline.queued").gauge().value());
+        release.countDown();
+    }
+
+    @Test
+    void shutdown_StoresQueuedVersionsThenRejectsNewOnes() throws InterruptedException {
+        // Arrange
+        pipeline = pipeline(100);
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(versionService.createVersions(anyList())).thenAnswer(invocation -> {
+            entered.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return invocation.getArgument(0);
+        });
+        pipeline.submit(documentId.toHexString(), request("first"));
+        assertTrue(entered.await(1, TimeUnit.SECONDS));
+        pipeline.submit(documentId.toHexString(), request("second"));
+        release.countDown();
+
+        // Act
+        pipeline.shutdown();
+
+        // Assert
+        verify(versionService, times(2)).createVersions(anyList());
+        assertEquals(0, pipeline.queued());
+        assertThrows(VersionQueueFullException.class,
+            () -> pipeline.submit(documentId.toHexString(), request("late")));
+    }
+
+    @Test
+    void write_BatchFails_RetriedAndStored() {
+        // Arrange
+        pipeline = pipeline(100);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        pipeline.bindTo(registry);
+        when(versionService.createVersions(anyList()))
+            .thenThrow(new RuntimeException("database unavailable"))
+            .thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        VersionSummaryDTO accepted = pipeline.submit(documentId.toHexString(), request("retried"));
+
+        // Assert
+        verify(versionService, timeout(1000).times(2)).createVersions(argThat(batch ->
+            batch.size() == 1 && batch.get(0).getId().toHexString().equals(accepted.getId())));
+        verify(versionService, timeout(1000)).isStored(new ObjectId(accepted.getId()));
+        assertEquals(1.0, awaitCount(registry, "stored"));
+        assertEquals(0.0, registry.get("version.pipeline.versions").tag("outcome", "discarded").functionCounter().count());
+        verifyNoInteractions(failedVersionRepository);
+    }
+
+    @Test
+    void write_SomeVersionsNotStored_RetriesOnlyThose() throws InterruptedException {
+        // Arrange
+        pipeline = pipeline(100);
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Version[] bad = new Version[1];
+        when(versionService.createVersions(anyList()))
+            .thenAnswer(invocation -> {
+                entered.countDown();
+                release.await(5, TimeUnit.SECONDS);
+                return invocation.getArgument(0);
+            })
+            .thenAnswer(invocation -> {
+                List<Version> batch = invocation.getArgument(0);
+                bad[0] = batch.get(0);
+                throw new VersionsNotStoredException(batch.subList(1, 2), batch.subList(0, 1));
+            })
+            .thenAnswer(invocation -> invocation.getArgument(0));
+        pipeline.submit(documentId.toHexString(), request("in flight"));
+        assertTrue(entered.await(1, TimeUnit.SECONDS));
+        pipeline.submit(documentId.toHexString(), request("bad"));
+        pipeline.submit(documentId.toHexString(), request("good"));
+
+        // Act
+        release.countDown();
+
+        // Assert
+        verify(versionService, timeout(1000).times(3)).createVersions(anyList());
+        verify(versionService).createVersions(List.of(bad[0]));
+        verify(versionService, never()).isStored(any());
+    }
+
+    @Test
+    void write_RetriesExhausted_DeadLettersVersionAndReportsFailed() {
+        // Arrange
+        pipeline = pipeline(100);
+        when(versionService.createVersions(anyList())).thenThrow(new RuntimeException("bad version"));
+        when(versionService.getVersion(anyString())).thenThrow(new ResourceNotFoundException("Version", "id", "x"));
+
+        // Act
+        VersionSummaryDTO accepted = pipeline.submit(documentId.toHexString(), request("doomed"));
+
+        // Assert
+        ArgumentCaptor<FailedVersion> deadLetter = ArgumentCaptor.forClass(FailedVersion.class);
+        verify(failedVersionRepository, timeout(1000)).save(deadLetter.capture());
+        assertEquals(accepted.getId(), deadLetter.getValue().getId().toHexString());
+        assertEquals("bad version", deadLetter.getValue().getError());
+        verify(versionService, times(3)).createVersions(anyList());   // 2 attempts, then on its own
+        when(failedVersionRepository.findById(deadLetter.getValue().getId()))
+            .thenReturn(Optional.of(deadLetter.getValue()));
+        assertEquals(VersionDTO.Status.FAILED, pipeline.getVersion(accepted.getId()).getStatus());
+    }
+
+    @Test
+    void getVersion_Queued_ReportsPending() throws InterruptedException {
+        // Arrange
+        pipeline = pipeline(100);
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(versionService.createVersions(anyList())).thenAnswer(invocation -> {
+            entered.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return invocation.getArgument(0);
+        });
+        VersionSummaryDTO accepted = pipeline.submit(documentId.toHexString(), request("pending"));
+        assertTrue(entered.await(1, TimeUnit.SECONDS));
+
+        // Act
+        VersionDTO version = pipeline.getVersion(accepted.getId());
+        release.countDown();
+
+        // Assert
+        assertEquals(VersionDTO.Status.PENDING, version.getStatus());
+        assertEquals("pending", version.getContent());
+        verify(versionService, never()).getVersion(anyString());
+    }
+
+    @Test
+    void submitAndWait_ReturnsStoredVersion() {
+        // Arrange
+        pipeline = pipeline(100);
+        when(versionService.createVersions(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        VersionDTO version = pipeline.submitAndWait(documentId.toHexString(), request("stored"));
+
+        // Assert
+        assertEquals(VersionDTO.Status.STORED, version.getStatus());
+        assertEquals("stored", version.getContent());
+    }
+
+    @Test
+    void submitAndWait_UnchangedContent_ReturnsLatestVersion() {
+        // Arrange
+        pipeline = pipeline(100);
+        VersionDTO latest = new VersionDTO();
+        when(versionService.createVersions(anyList())).thenReturn(List.of());
+        when(versionService.getLatestVersion(documentId.toHexString())).thenReturn(latest);
+
+        // Act
+        VersionDTO version = pipeline.submitAndWait(documentId.toHexString(), request("same"));
+
+        // Assert
+        assertSame(latest, version);
+    }
+
+    @Test
+    void submitAndWait_InsertFailsOnce_RetriedWithSubmittedContent() {
+        // Arrange
+        VersionRepository versionRepository = mock(VersionRepository.class);
+        VersionBlobRepository versionBlobRepository = mock(VersionBlobRepository.class);
+        doThrow(new DataAccessResourceFailureException("timeout")).doNothing()
+            .when(versionRepository).insertInOrder(anyList());
+        pipeline = storingPipeline(versionRepository, versionBlobRepository);
+
+        // Act
+        VersionDTO version = pipeline.submitAndWait(documentId.toHexString(), request("retried content"));
+
+        // Assert
+        assertEquals(VersionDTO.Status.STORED, version.getStatus());
+        assertEquals("retried content", version.getContent());
+        verify(versionRepository, times(2)).insertInOrder(anyList());
+        verify(versionBlobRepository, times(2)).acquire(argThat(blob -> blob.getLength() == 15));
+        verify(versionBlobRepository).release(anyString());
+    }
+
+    @Test
+    void write_InsertKeepsFailing_DeadLettersSubmittedContentAndReleasesBlobs() {
+        // Arrange
+        VersionRepository versionRepository = mock(VersionRepository.class);
+        VersionBlobRepository versionBlobRepository = mock(VersionBlobRepository.class);
+        doThrow(new DataAccessResourceFailureException("timeout")).when(versionRepository).insertInOrder(anyList());
+        pipeline = storingPipeline(versionRepository, versionBlobRepository);
+
+        // Act
+        VersionSummaryDTO accepted = pipeline.submit(documentId.toHexString(), request("doomed content"));
+
+        // Assert
+        ArgumentCaptor<FailedVersion> deadLetter = ArgumentCaptor.forClass(FailedVersion.class);
+        verify(failedVersionRepository, timeout(1000)).save(deadLetter.capture());
+        assertEquals(accepted.getId(), deadLetter.getValue().getId().toHexString());
+        assertEquals("doomed content", deadLetter.getValue().getVersion().getContent());
+        verify(versionRepository, times(3)).insertInOrder(anyList());
+        verify(versionBlobRepository, times(3)).acquire(any(VersionBlob.class));
+        verify(versionBlobRepository, times(3)).release(anyString());
+    }
+
+    private double awaitCount(SimpleMeterRegistry registry, String outcome) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        double count = 0;
+        while (count == 0 && System.nanoTime() < deadline) {
+            count = registry.get("version.pipeline.versions").tag("outcome", outcome).functionCounter().count();
+            Thread.onSpinWait();
+        }
+        return count;
+    }
+
+    private VersionWritePipeline pipeline(int capacity) {
+        return new VersionWritePipeline(versionService, failedVersionRepository, capacity, 1, 100, 2,
+            Duration.ofMillis(10), Duration.ofSeconds(5), Duration.ofSeconds(5));
+    }
+
+    /**
+     * A pipeline writing through the real version and storage services to the given repositories
+     */
+    private VersionWritePipeline storingPipeline(VersionRepository versionRepository,
+                                                 VersionBlobRepository versionBlobRepository) {
+        VersionStorageService versionStorageService = new VersionStorageService(versionRepository,
+            mock(VersionHeadRepository.class), versionBlobRepository, 3, 0.5, 64, 1_000_000, 1000);
+        VersionService realVersionService = new VersionService(versionRepository, mock(ContributionRepository.class),
+            mock(UserDirectoryClient.class), versionStorageService, mock(DiffService.class),
+            mock(ContributionRecorder.class), mock(BlameService.class));
+        return new VersionWritePipeline(realVersionService, failedVersionRepository, 100, 1, 100, 2,
+            Duration.ofMillis(10), Duration.ofSeconds(5), Duration.ofSeconds(5));
+    }
+
+    private CreateVersionRequest request(String content) {
+        return new CreateVersionRequest(content, new ObjectId().toHexString(), null, false, null);
+    }
+}